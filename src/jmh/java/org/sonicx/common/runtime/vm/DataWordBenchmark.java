@@ -0,0 +1,131 @@
+package org.sonicx.common.runtime.vm;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.spongycastle.util.encoders.Hex;
+import org.sonicx.common.utils.ByteUtil;
+
+/**
+ * Compares the {@link DataWord} arithmetic on {@link UInt256} limbs with the {@link BigInteger}
+ * expressions it replaced, on full width operands. The chain benchmarks run a sequence of
+ * operations on one word, as the stack keeps it between opcodes, and read its bytes at the end.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DataWordBenchmark {
+
+  private static final int CHAIN_LENGTH = 16;
+
+  private byte[] a;
+  private byte[] b;
+  private byte[] small;
+
+  @Setup
+  public void setup() {
+    a = Hex.decode("c1f3a9d7e05b2246918ab3ce4f70d215e2b8947a6c3d10f5a8e7b9c4d2f60187");
+    b = Hex.decode("00000000000000003d2a9b8c7e6f5041a3b2c1d0e9f8a7b6c5d4e3f201928374");
+    small = Hex.decode("00000000000000000000000000000000000000000000000000000000000000ff");
+  }
+
+  @Benchmark
+  public DataWord mul() {
+    DataWord word = new DataWord(a.clone());
+    word.mul(new DataWord(b));
+    return word;
+  }
+
+  @Benchmark
+  public byte[] mulBigInteger() {
+    return ByteUtil.copyToArray(new BigInteger(1, a).multiply(new BigInteger(1, b))
+        .and(DataWord.MAX_VALUE));
+  }
+
+  @Benchmark
+  public DataWord div() {
+    DataWord word = new DataWord(a.clone());
+    word.div(new DataWord(b));
+    return word;
+  }
+
+  @Benchmark
+  public byte[] divBigInteger() {
+    return ByteUtil.copyToArray(new BigInteger(1, a).divide(new BigInteger(1, b))
+        .and(DataWord.MAX_VALUE));
+  }
+
+  @Benchmark
+  public DataWord sub() {
+    DataWord word = new DataWord(a.clone());
+    word.sub(new DataWord(b));
+    return word;
+  }
+
+  @Benchmark
+  public byte[] subBigInteger() {
+    return ByteUtil.copyToArray(new BigInteger(1, a).subtract(new BigInteger(1, b))
+        .and(DataWord.MAX_VALUE));
+  }
+
+  @Benchmark
+  public DataWord exp() {
+    DataWord word = new DataWord(a.clone());
+    word.exp(new DataWord(small));
+    return word;
+  }
+
+  @Benchmark
+  public byte[] expBigInteger() {
+    return ByteUtil.copyToArray(new BigInteger(1, a).modPow(new BigInteger(1, small),
+        DataWord._2_256));
+  }
+
+  @Benchmark
+  public DataWord shiftRight() {
+    return new DataWord(a).shiftRight(new DataWord(small));
+  }
+
+  @Benchmark
+  public byte[] shiftRightBigInteger() {
+    return ByteUtil.copyToArray(new BigInteger(1, a).shiftRight(255).and(DataWord.MAX_VALUE));
+  }
+
+  @Benchmark
+  public byte[] chain() {
+    DataWord word = new DataWord(a.clone());
+    DataWord factor = new DataWord(b);
+    DataWord addend = new DataWord(a);
+    DataWord divisor = new DataWord(small);
+    for (int i = 0; i < CHAIN_LENGTH; i++) {
+      word.mul(factor);
+      word.add(addend);
+      word.div(divisor);
+      word.sub(factor);
+    }
+    return word.getData();
+  }
+
+  // the BigInteger path converted from and to bytes on every operation
+  @Benchmark
+  public byte[] chainBigInteger() {
+    byte[] data = a.clone();
+    for (int i = 0; i < CHAIN_LENGTH; i++) {
+      data = ByteUtil.copyToArray(new BigInteger(1, data).multiply(new BigInteger(1, b))
+          .and(DataWord.MAX_VALUE));
+      data = ByteUtil.copyToArray(new BigInteger(1, data).add(new BigInteger(1, a))
+          .and(DataWord.MAX_VALUE));
+      data = ByteUtil.copyToArray(new BigInteger(1, data).divide(new BigInteger(1, small))
+          .and(DataWord.MAX_VALUE));
+      data = ByteUtil.copyToArray(new BigInteger(1, data).subtract(new BigInteger(1, b))
+          .and(DataWord.MAX_VALUE));
+    }
+    return data;
+  }
+}
@@ -0,0 +1,76 @@
+package org.sonicx.common.runtime.vm;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.spongycastle.util.encoders.Hex;
+import org.sonicx.common.runtime.vm.program.InternalTransaction;
+import org.sonicx.common.runtime.vm.program.InternalTransaction.TrxType;
+import org.sonicx.common.runtime.vm.program.Program;
+import org.sonicx.common.runtime.vm.program.invoke.ProgramInvokeMockImpl;
+import org.sonicx.core.config.args.Args;
+import org.sonicx.core.exception.ContractValidateException;
+import org.sonicx.protos.Protocol.Transaction;
+
+/**
+ * Runs {@link VM#step(Program)} over small contracts which loop 1000 times, each exercising one
+ * part of the interpreter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VMBenchmark {
+
+  // PUSH2 1000, JUMPDEST, PUSH1 1, SWAP1, SUB, DUP1, PUSH1 3, JUMPI, STOP
+  private static final String ARITHMETIC = "6103e85b600190038060035700";
+  // PUSH2 1000, JUMPDEST, DUP1, PUSH1 0, MSTORE, PUSH1 32, PUSH1 0, SHA3, POP,
+  // PUSH1 1, SWAP1, SUB, DUP1, PUSH1 3, JUMPI, STOP
+  private static final String MEMORY_SHA3 = "6103e85b80600052602060002050600190038060035700";
+  // PUSH2 1000, JUMPDEST, DUP1, DUP1, MUL, DUP2, SWAP1, DIV, PUSH1 7, EXP, PUSH1 13, SWAP1, MOD,
+  // POP, PUSH1 1, SWAP1, SUB, DUP1, PUSH1 3, JUMPI, STOP
+  private static final String MUL_DIV_EXP =
+      "6103e85b80800281900460070a600d900650600190038060035700";
+
+  @Param({"arithmetic", "memorySha3", "mulDivExp"})
+  private String contract;
+
+  private byte[] code;
+  private VM vm;
+  private InternalTransaction internalTransaction;
+
+  @Setup
+  public void setup() throws ContractValidateException {
+    // no cpu time limit
+    Args.getInstance().setDebug(true);
+    switch (contract) {
+      case "arithmetic":
+        code = Hex.decode(ARITHMETIC);
+        break;
+      case "memorySha3":
+        code = Hex.decode(MEMORY_SHA3);
+        break;
+      default:
+        code = Hex.decode(MUL_DIV_EXP);
+    }
+    vm = new VM();
+    internalTransaction = new InternalTransaction(Transaction.getDefaultInstance(),
+        TrxType.TRX_UNKNOWN_TYPE);
+  }
+
+  @Benchmark
+  public Program run() {
+    ProgramInvokeMockImpl invoke = new ProgramInvokeMockImpl();
+    invoke.setEnergyLimit(10_000_000);
+    Program program = new Program(code, invoke, internalTransaction);
+    while (!program.isStopped()) {
+      vm.step(program);
+    }
+    return program;
+  }
+}
@@ -0,0 +1,80 @@
+package org.sonicx.common.storage.leveldb;
+
+import com.google.common.primitives.Longs;
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.sonicx.common.storage.DbSourceInter;
+import org.sonicx.common.utils.FileUtil;
+import org.sonicx.common.utils.Sha256Hash;
+import org.sonicx.core.Constant;
+import org.sonicx.core.config.args.Args;
+
+/**
+ * Measures the batch writes the snapshot flush issues to every database, for both engines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BatchWriteBenchmark {
+
+  private static final String DB_PATH = "output_batchWriteBenchmark";
+  private static final int VALUE_SIZE = 128;
+
+  @Param({"LEVELDB", "ROCKSDB"})
+  private String engine;
+
+  @Param({"100", "10000"})
+  private int batchSize;
+
+  private DbSourceInter<byte[]> db;
+  private Map<byte[], byte[]>[] batches;
+  private int next;
+
+  @Setup
+  @SuppressWarnings("unchecked")
+  public void setup() {
+    Args.setParam(new String[]{"--output-directory", DB_PATH}, Constant.TESTNET_CONF);
+    String parent = Args.getInstance().getOutputDirectory();
+    if ("ROCKSDB".equals(engine)) {
+      db = new RocksDbDataSourceImpl(parent, "batchWrite" + batchSize);
+    } else {
+      db = new LevelDbDataSourceImpl(parent, "batchWrite" + batchSize);
+    }
+    db.initDB();
+
+    // a few distinct batches, so the same keys are not rewritten back to back
+    batches = new Map[8];
+    for (int b = 0; b < batches.length; b++) {
+      batches[b] = new HashMap<>();
+      for (int i = 0; i < batchSize; i++) {
+        byte[] key = Sha256Hash.of(Longs.toByteArray((long) b * batchSize + i)).getBytes();
+        byte[] value = new byte[VALUE_SIZE];
+        System.arraycopy(key, 0, value, 0, key.length);
+        batches[b].put(key, value);
+      }
+    }
+  }
+
+  @TearDown
+  public void destroy() {
+    db.closeDB();
+    Args.clearParam();
+    FileUtil.deleteDir(new File(DB_PATH));
+  }
+
+  @Benchmark
+  public void updateByBatch() {
+    db.updateByBatch(batches[next++ % batches.length]);
+  }
+}
@@ -0,0 +1,101 @@
+package org.sonicx.common.storage.leveldb;
+
+import com.google.common.primitives.Longs;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.sonicx.common.storage.DbSourceInter;
+import org.sonicx.common.utils.FileUtil;
+import org.sonicx.common.utils.Sha256Hash;
+import org.sonicx.core.Constant;
+import org.sonicx.core.config.args.Args;
+
+/**
+ * Reads a set of random keys, a quarter of them missing, one by one with {@code getData} and
+ * together with {@code getBatch}, for both engines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MultiGetBenchmark {
+
+  private static final String DB_PATH = "output_multiGetBenchmark";
+  private static final int KEY_COUNT = 100_000;
+  private static final int VALUE_SIZE = 128;
+
+  @Param({"LEVELDB", "ROCKSDB"})
+  private String engine;
+
+  @Param({"10", "1000"})
+  private int batchSize;
+
+  private DbSourceInter<byte[]> db;
+  private List<byte[]>[] batches;
+  private int next;
+
+  @Setup
+  @SuppressWarnings("unchecked")
+  public void setup() {
+    Args.setParam(new String[]{"--output-directory", DB_PATH}, Constant.TESTNET_CONF);
+    String parent = Args.getInstance().getOutputDirectory();
+    if ("ROCKSDB".equals(engine)) {
+      db = new RocksDbDataSourceImpl(parent, "multiGet");
+    } else {
+      db = new LevelDbDataSourceImpl(parent, "multiGet");
+    }
+    db.initDB();
+
+    Random random = new Random(1);
+    for (int i = 0; i < KEY_COUNT; i++) {
+      byte[] value = new byte[VALUE_SIZE];
+      random.nextBytes(value);
+      db.putData(key(i), value);
+    }
+
+    batches = new List[16];
+    for (int b = 0; b < batches.length; b++) {
+      batches[b] = new ArrayList<>(batchSize);
+      for (int i = 0; i < batchSize; i++) {
+        batches[b].add(key(random.nextInt(KEY_COUNT + KEY_COUNT / 3)));
+      }
+    }
+  }
+
+  @TearDown
+  public void destroy() {
+    db.closeDB();
+    Args.clearParam();
+    FileUtil.deleteDir(new File(DB_PATH));
+  }
+
+  @Benchmark
+  public int getData() {
+    int found = 0;
+    for (byte[] key : batches[next++ % batches.length]) {
+      if (db.getData(key) != null) {
+        found++;
+      }
+    }
+    return found;
+  }
+
+  @Benchmark
+  public int getBatch() {
+    return db.getBatch(batches[next++ % batches.length]).size();
+  }
+
+  private static byte[] key(int index) {
+    return Sha256Hash.of(Longs.toByteArray(index)).getBytes();
+  }
+}
@@ -0,0 +1,177 @@
+package org.sonicx.common.storage.leveldb;
+
+import com.google.common.primitives.Longs;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.sonicx.common.storage.DbSourceInter;
+import org.sonicx.common.utils.ByteArray;
+import org.sonicx.common.utils.FileUtil;
+import org.sonicx.common.utils.Sha256Hash;
+import org.sonicx.core.Constant;
+import org.sonicx.core.config.args.Args;
+
+/**
+ * Replays a read/write trace against a store of each profile, for both engines: "account" uses
+ * the point-lookup profile, "block" the append profile and "properties" the default one.
+ *
+ * <p>Without a trace the reads and writes are generated: skewed lookups of existing accounts,
+ * one in ten for a missing one, and one write in ten operations, or blocks appended by number
+ * and read back shortly after. A recorded trace is given with {@code -Dstorage.trace=<file>},
+ * one operation per line: {@code G <key hex>}, {@code P <key hex> <value length>} or
+ * {@code D <key hex>}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StorageTraceBenchmark {
+
+  private static final String DB_PATH = "output_storageTraceBenchmark";
+  private static final int KEY_COUNT = 100_000;
+  private static final int TRACE_SIZE = 100_000;
+  private static final int ACCOUNT_SIZE = 128;
+  private static final int BLOCK_SIZE = 16 * 1024;
+  private static final int RECENT_BLOCKS = 100;
+
+  @Param({"LEVELDB", "ROCKSDB"})
+  private String engine;
+
+  @Param({"account", "block", "properties"})
+  private String dbName;
+
+  private DbSourceInter<byte[]> db;
+  private List<Op> trace;
+  private int next;
+
+  private static class Op {
+
+    private final char type;
+    private final byte[] key;
+    private final byte[] value;
+
+    private Op(char type, byte[] key, byte[] value) {
+      this.type = type;
+      this.key = key;
+      this.value = value;
+    }
+  }
+
+  @Setup
+  public void setup() throws IOException {
+    Args.setParam(new String[]{"--output-directory", DB_PATH}, Constant.TESTNET_CONF);
+    String parent = Args.getInstance().getOutputDirectory();
+    if ("ROCKSDB".equals(engine)) {
+      db = new RocksDbDataSourceImpl(parent, dbName);
+    } else {
+      db = new LevelDbDataSourceImpl(parent, dbName);
+    }
+    db.initDB();
+
+    String file = System.getProperty("storage.trace");
+    if (file != null) {
+      trace = readTrace(file);
+    } else if ("block".equals(dbName)) {
+      trace = appendTrace();
+    } else {
+      trace = lookupTrace();
+    }
+  }
+
+  @TearDown
+  public void destroy() {
+    db.closeDB();
+    Args.clearParam();
+    FileUtil.deleteDir(new File(DB_PATH));
+  }
+
+  @Benchmark
+  public Object replay() {
+    Op op = trace.get(next++ % trace.size());
+    switch (op.type) {
+      case 'P':
+        db.putData(op.key, op.value);
+        return op.key;
+      case 'D':
+        db.deleteData(op.key);
+        return op.key;
+      default:
+        return db.getData(op.key);
+    }
+  }
+
+  private List<Op> lookupTrace() {
+    Random random = new Random(1);
+    for (int i = 0; i < KEY_COUNT; i++) {
+      db.putData(accountKey(i), value(random, ACCOUNT_SIZE));
+    }
+    List<Op> ops = new ArrayList<>(TRACE_SIZE);
+    for (int i = 0; i < TRACE_SIZE; i++) {
+      // a few hot accounts take most of the lookups
+      double r = random.nextDouble();
+      int index = (int) (KEY_COUNT * r * r * r);
+      int kind = random.nextInt(10);
+      if (kind == 0) {
+        ops.add(new Op('P', accountKey(index), value(random, ACCOUNT_SIZE)));
+      } else if (kind == 1) {
+        ops.add(new Op('G', accountKey(KEY_COUNT + random.nextInt(KEY_COUNT)), null));
+      } else {
+        ops.add(new Op('G', accountKey(index), null));
+      }
+    }
+    return ops;
+  }
+
+  private List<Op> appendTrace() {
+    Random random = new Random(1);
+    for (int i = 0; i < RECENT_BLOCKS; i++) {
+      db.putData(Longs.toByteArray(i), value(random, BLOCK_SIZE));
+    }
+    List<Op> ops = new ArrayList<>(TRACE_SIZE);
+    for (long num = RECENT_BLOCKS; ops.size() < TRACE_SIZE; num++) {
+      ops.add(new Op('P', Longs.toByteArray(num), value(random, BLOCK_SIZE)));
+      for (int i = 0; i < 4; i++) {
+        ops.add(new Op('G', Longs.toByteArray(num - random.nextInt(RECENT_BLOCKS)), null));
+      }
+    }
+    return ops;
+  }
+
+  private static List<Op> readTrace(String file) throws IOException {
+    Random random = new Random(1);
+    List<Op> ops = new ArrayList<>();
+    for (String line : Files.readAllLines(Paths.get(file))) {
+      String[] fields = line.trim().split("\\s+");
+      if (fields.length < 2) {
+        continue;
+      }
+      char type = fields[0].charAt(0);
+      byte[] value = type == 'P' ? value(random, Integer.parseInt(fields[2])) : null;
+      ops.add(new Op(type, ByteArray.fromHexString(fields[1]), value));
+    }
+    return ops;
+  }
+
+  private static byte[] accountKey(int index) {
+    return Sha256Hash.of(Longs.toByteArray(index)).getBytes();
+  }
+
+  private static byte[] value(Random random, int size) {
+    byte[] value = new byte[size];
+    random.nextBytes(value);
+    return value;
+  }
+}
@@ -0,0 +1,71 @@
+package org.sonicx.core.capsule;
+
+import com.google.common.primitives.Longs;
+import com.google.protobuf.ByteString;
+import java.util.ArrayList;
+import java.util.List;
+import org.sonicx.common.crypto.ECKey;
+import org.sonicx.common.utils.Sha256Hash;
+import org.sonicx.protos.Contract.TransferContract;
+import org.sonicx.protos.Protocol.Transaction.Contract.ContractType;
+
+/**
+ * A small chain generated from fixed keys, the same bytes on every run so the benchmarks run
+ * offline and stay comparable between versions.
+ */
+public class ChainFixtures {
+
+  public static final long GENESIS_TIME = 1_546_300_800_000L;
+
+  private ChainFixtures() {
+  }
+
+  /**
+   * Returns the key of account {@code i}, derived from the index only.
+   */
+  public static ECKey key(int i) {
+    return ECKey.fromPrivate(Sha256Hash.of(Longs.toByteArray(i)).getBytes());
+  }
+
+  public static ByteString address(int i) {
+    return ByteString.copyFrom(key(i).getAddress());
+  }
+
+  /**
+   * Returns a transfer from account {@code from} to account {@code to}, signed by the owner.
+   */
+  public static TransactionCapsule transfer(int from, int to, long amount, long blockNum) {
+    TransactionCapsule trx = new TransactionCapsule(TransferContract.newBuilder()
+        .setOwnerAddress(address(from))
+        .setToAddress(address(to))
+        .setAmount(amount)
+        .build(), ContractType.TransferContract);
+    trx.setReference(blockNum, Sha256Hash.of(Longs.toByteArray(blockNum)).getBytes());
+    trx.setExpiration(GENESIS_TIME + blockNum * 3_000 + 60_000);
+    trx.sign(key(from).getPrivKeyBytes());
+    return trx;
+  }
+
+  /**
+   * Returns block {@code num} with {@code size} transfers between {@code accounts} accounts,
+   * produced by account 0.
+   */
+  public static BlockCapsule block(long num, int size, int accounts) {
+    BlockCapsule block = new BlockCapsule(num, Sha256Hash.of(Longs.toByteArray(num - 1)),
+        GENESIS_TIME + num * 3_000, address(0));
+    for (int i = 0; i < size; i++) {
+      block.addTransaction(transfer(i % accounts, (i + 1) % accounts, i + 1, num - 1));
+    }
+    block.setMerkleRoot();
+    block.sign(key(0).getPrivKeyBytes());
+    return block;
+  }
+
+  public static List<TransactionCapsule> transfers(int size, int accounts) {
+    List<TransactionCapsule> trxs = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      trxs.add(transfer(i % accounts, (i + 1) % accounts, i + 1, 1));
+    }
+    return trxs;
+  }
+}
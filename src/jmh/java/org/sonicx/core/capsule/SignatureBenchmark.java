@@ -0,0 +1,60 @@
+package org.sonicx.core.capsule;
+
+import java.security.SignatureException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.sonicx.common.crypto.ECKey;
+import org.sonicx.core.db.SignatureCache;
+import org.sonicx.core.exception.PermissionException;
+import org.sonicx.core.exception.SignatureFormatException;
+import org.sonicx.protos.Protocol.Permission;
+
+/**
+ * Measures the signature check of {@link TransactionCapsule#validateSignature}, which after the
+ * owner lookup is {@link TransactionCapsule#checkWeight} against the owner permission, with a
+ * cold and a warm signature cache, and the plain secp256k1 recovery below it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SignatureBenchmark {
+
+  private TransactionCapsule trx;
+  private byte[] hash;
+  private String base64;
+  private Permission permission;
+
+  @Setup
+  public void setup() {
+    trx = ChainFixtures.transfer(1, 2, 1, 1);
+    hash = trx.getRawHash().getBytes();
+    base64 = TransactionCapsule.getBase64FromByteString(trx.getInstance().getSignature(0));
+    permission = AccountCapsule.getDefaultPermission(ChainFixtures.address(1));
+  }
+
+  @Benchmark
+  public long checkWeightCold()
+      throws SignatureException, PermissionException, SignatureFormatException {
+    SignatureCache.instance().clear();
+    return TransactionCapsule.checkWeight(permission, trx.getInstance().getSignatureList(), hash,
+        null);
+  }
+
+  @Benchmark
+  public long checkWeightWarm()
+      throws SignatureException, PermissionException, SignatureFormatException {
+    return TransactionCapsule.checkWeight(permission, trx.getInstance().getSignatureList(), hash,
+        null);
+  }
+
+  @Benchmark
+  public ECKey signatureToKey() throws SignatureException {
+    return ECKey.signatureToKey(hash, base64);
+  }
+}
@@ -0,0 +1,50 @@
+package org.sonicx.core.capsule.utils;
+
+import com.google.common.primitives.Longs;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.sonicx.common.utils.Sha256Hash;
+
+/**
+ * Encodes and decodes trie branch nodes, 16 child hashes and a value, the shape the account
+ * state trie writes most.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RLPBenchmark {
+
+  private static final int BRANCH_SIZE = 17;
+
+  private byte[][] children;
+  private byte[] encoded;
+
+  @Setup
+  public void setup() {
+    children = new byte[BRANCH_SIZE][];
+    for (int i = 0; i < BRANCH_SIZE; i++) {
+      children[i] = Sha256Hash.of(Longs.toByteArray(i)).getBytes();
+    }
+    encoded = encode();
+  }
+
+  @Benchmark
+  public byte[] encode() {
+    byte[][] elements = new byte[BRANCH_SIZE][];
+    for (int i = 0; i < BRANCH_SIZE; i++) {
+      elements[i] = RLP.encodeElement(children[i]);
+    }
+    return RLP.encodeList(elements);
+  }
+
+  @Benchmark
+  public RLPList decode() {
+    return RLP.decode2(encoded);
+  }
+}
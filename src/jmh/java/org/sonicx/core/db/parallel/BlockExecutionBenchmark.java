@@ -0,0 +1,137 @@
+package org.sonicx.core.db.parallel;
+
+import com.google.protobuf.ByteString;
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.sonicx.common.application.SonicxApplicationContext;
+import org.sonicx.common.utils.FileUtil;
+import org.sonicx.core.Constant;
+import org.sonicx.core.capsule.AccountCapsule;
+import org.sonicx.core.capsule.BlockCapsule;
+import org.sonicx.core.capsule.ChainFixtures;
+import org.sonicx.core.capsule.TransactionCapsule;
+import org.sonicx.core.config.DefaultConfig;
+import org.sonicx.core.config.args.Args;
+import org.sonicx.core.db.Manager;
+import org.sonicx.core.db2.core.ISession;
+import org.sonicx.protos.Contract.TransferContract;
+import org.sonicx.protos.Protocol.AccountType;
+import org.sonicx.protos.Protocol.Transaction.Contract.ContractType;
+import org.sonicx.protos.Protocol.TransactionInfo;
+
+/**
+ * Executes a block of transfers on top of the head block, serially as in
+ * {@link Manager#processTransaction} and with {@link ParallelBlockExecutor}. Every invocation
+ * runs in a session which is revoked afterwards, so each one executes the same block on the
+ * same state.
+ *
+ * <p>Transfer {@code i} goes from account {@code 2i} to {@code 2i + 1}, modulo
+ * {@code accounts}: with as many accounts as transfers every transfer is a group of its own,
+ * with fewer the transfers form {@code accounts / 2} groups. The accounts have frozen bandwidth,
+ * so a transfer writes its two accounts only.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BlockExecutionBenchmark {
+
+  private static final String DB_PATH = "output_blockExecutionBenchmark";
+  private static final int BLOCK_SIZE = 1000;
+  private static final long FROZEN_BALANCE = 1_000_000_000L;
+
+  @Param({"serial", "parallel"})
+  private String mode;
+
+  @Param({"2000", "16"})
+  private int accounts;
+
+  private SonicxApplicationContext context;
+  private Manager manager;
+  private BlockCapsule block;
+  private ISession session;
+
+  @Setup
+  public void setup() throws Exception {
+    Args.setParam(new String[]{"--output-directory", DB_PATH}, Constant.TESTNET_CONF);
+    Args.getInstance().setParallelBlockExecution(true);
+    Args.getInstance().setParallelBlockExecutionThreadNum(
+        Runtime.getRuntime().availableProcessors());
+    context = new SonicxApplicationContext(DefaultConfig.class);
+    manager = context.getBean(Manager.class);
+
+    long now = manager.getHeadBlockTimeStamp();
+    for (int i = 0; i < accounts; i++) {
+      AccountCapsule account = new AccountCapsule(ByteString.EMPTY, ChainFixtures.address(i),
+          AccountType.Normal, 1_000_000_000_000L);
+      account.setFrozenForBandwidth(FROZEN_BALANCE, now + 86_400_000L);
+      manager.getAccountStore().put(account.createDbKey(), account);
+    }
+    manager.getDynamicPropertiesStore()
+        .saveTotalNetWeight(accounts * FROZEN_BALANCE / 1_000_000L);
+
+    BlockCapsule head = manager.getHead();
+    manager.updateRecentBlock(head);
+    block = new BlockCapsule(head.getNum() + 1, head.getBlockId(), now + 3_000,
+        ChainFixtures.address(0));
+    for (int i = 0; i < BLOCK_SIZE; i++) {
+      int from = (2 * i) % accounts;
+      TransactionCapsule trx = new TransactionCapsule(TransferContract.newBuilder()
+          .setOwnerAddress(ChainFixtures.address(from))
+          .setToAddress(ChainFixtures.address((2 * i + 1) % accounts))
+          .setAmount(i + 1)
+          .build(), ContractType.TransferContract);
+      trx.setReference(head.getNum(), head.getBlockId().getBytes());
+      trx.setExpiration(now + 60_000);
+      trx.sign(ChainFixtures.key(from).getPrivKeyBytes());
+      block.addTransaction(trx);
+    }
+    // the signatures are checked up front in processBlock, outside of what is measured here
+    block.getTransactions().forEach(trx -> {
+      trx.setBlockNum(block.getNum());
+      trx.setVerified(true);
+    });
+  }
+
+  @TearDown
+  public void destroy() {
+    context.destroy();
+    Args.clearParam();
+    FileUtil.deleteDir(new File(DB_PATH));
+  }
+
+  @Setup(Level.Invocation)
+  public void begin() {
+    session = manager.getRevokingStore().buildSession();
+  }
+
+  @TearDown(Level.Invocation)
+  public void revoke() {
+    session.close();
+  }
+
+  @Benchmark
+  public int execute() throws Exception {
+    if ("parallel".equals(mode)) {
+      List<TransactionInfo> results = manager.getBlockExecutor().execute(block);
+      return results.size();
+    }
+
+    int count = 0;
+    for (TransactionCapsule trx : block.getTransactions()) {
+      manager.processTransaction(trx, block);
+      count++;
+    }
+    return count;
+  }
+}
@@ -0,0 +1,100 @@
+package org.sonicx.core.db2.core;
+
+import com.google.common.primitives.Longs;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.sonicx.common.utils.Sha256Hash;
+import org.sonicx.core.db2.common.Key;
+import org.sonicx.core.db2.common.TxCacheDB;
+import org.sonicx.core.db2.common.Value;
+
+/**
+ * Compares the indexed lookup of {@link SnapshotImpl} with the layer by layer walk it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SnapshotLookupBenchmark {
+
+  private static final int KEYS_PER_LAYER = 64;
+
+  @Param({"1", "32", "256"})
+  private int depth;
+
+  private Snapshot head;
+  private byte[] bottomKey;
+  private byte[] topKey;
+  private byte[] missingKey;
+
+  @Setup
+  public void setup() {
+    Snapshot snapshot = new SnapshotRoot("", "snapshotLookupBenchmark", TxCacheDB.class);
+    for (int layer = 0; layer < depth; layer++) {
+      snapshot = snapshot.advance();
+      for (int i = 0; i < KEYS_PER_LAYER; i++) {
+        snapshot.put(key(layer, i), Longs.toByteArray(layer));
+      }
+    }
+
+    head = snapshot;
+    bottomKey = key(0, KEYS_PER_LAYER / 2);
+    topKey = key(depth - 1, KEYS_PER_LAYER / 2);
+    missingKey = key(depth, 0);
+  }
+
+  @Benchmark
+  public byte[] hitBottom() {
+    return head.get(bottomKey);
+  }
+
+  @Benchmark
+  public byte[] hitTop() {
+    return head.get(topKey);
+  }
+
+  @Benchmark
+  public byte[] miss() {
+    return head.get(missingKey);
+  }
+
+  @Benchmark
+  public byte[] walkHitBottom() {
+    return walk(head, bottomKey);
+  }
+
+  @Benchmark
+  public byte[] walkHitTop() {
+    return walk(head, topKey);
+  }
+
+  @Benchmark
+  public byte[] walkMiss() {
+    return walk(head, missingKey);
+  }
+
+  // the lookup SnapshotImpl used before the index
+  private static byte[] walk(Snapshot head, byte[] key) {
+    Snapshot snapshot = head;
+    Value value;
+    while (Snapshot.isImpl(snapshot)) {
+      if ((value = ((SnapshotImpl) snapshot).db.get(Key.of(key))) != null) {
+        return value.getBytes();
+      }
+
+      snapshot = snapshot.getPrevious();
+    }
+
+    return snapshot == null ? null : snapshot.get(key);
+  }
+
+  private static byte[] key(int layer, int i) {
+    return Sha256Hash.of(Longs.toByteArray(((long) layer << 32) | i)).getBytes();
+  }
+}
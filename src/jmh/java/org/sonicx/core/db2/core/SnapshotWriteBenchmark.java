@@ -0,0 +1,59 @@
+package org.sonicx.core.db2.core;
+
+import com.google.common.primitives.Longs;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.sonicx.common.utils.Sha256Hash;
+import org.sonicx.core.db2.common.TxCacheDB;
+
+/**
+ * Measures writes into a {@link SnapshotImpl} and the merge of a layer into the one below, which
+ * is what every committed session of a block does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SnapshotWriteBenchmark {
+
+  @Param({"16", "256"})
+  private int keysPerLayer;
+
+  private byte[][] keys;
+  private byte[] value = Longs.toByteArray(1);
+  private Snapshot bottom;
+  private Snapshot layer;
+  private int next;
+
+  @Setup
+  public void setup() {
+    keys = new byte[keysPerLayer][];
+    for (int i = 0; i < keysPerLayer; i++) {
+      keys[i] = Sha256Hash.of(Longs.toByteArray(i)).getBytes();
+    }
+
+    bottom = new SnapshotRoot("", "snapshotWriteBenchmark", TxCacheDB.class).advance();
+    layer = bottom.advance();
+  }
+
+  @Benchmark
+  public void put() {
+    layer.put(keys[next++ % keysPerLayer], value);
+  }
+
+  @Benchmark
+  public Snapshot putAndMerge() {
+    Snapshot top = bottom.advance();
+    for (byte[] key : keys) {
+      top.put(key, value);
+    }
+    bottom.merge(top);
+    return top.retreat();
+  }
+}
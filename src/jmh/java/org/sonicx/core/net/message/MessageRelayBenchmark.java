@@ -0,0 +1,77 @@
+package org.sonicx.core.net.message;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.ArrayUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.sonicx.core.capsule.ChainFixtures;
+
+/**
+ * Receives a block frame from a pooled direct buffer and encodes it for sending again, as a
+ * relaying node does. {@code relayLegacy} repeats the copies of the previous decoder and the
+ * re-encoding of the block, run both with {@code -prof gc} to compare the allocation per relay.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MessageRelayBenchmark {
+
+  @Param({"1000", "5000"})
+  private int trxCount;
+
+  private ByteBuf frame;
+
+  private SonicxMessageFactory factory = new SonicxMessageFactory();
+
+  @Setup
+  public void setup() {
+    byte[] block = ChainFixtures.block(2, trxCount, 100).getData();
+    frame = PooledByteBufAllocator.DEFAULT.directBuffer(block.length + 1);
+    frame.writeByte(MessageTypes.BLOCK.asByte());
+    frame.writeBytes(block);
+  }
+
+  @TearDown
+  public void tearDown() {
+    frame.release();
+  }
+
+  @Benchmark
+  public int relay() throws Exception {
+    ByteBuf in = frame.duplicate();
+    byte type = in.readByte();
+    byte[] rawData = new byte[in.readableBytes()];
+    in.readBytes(rawData);
+    BlockMessage msg = (BlockMessage) factory.create(type, rawData);
+
+    ByteBuf out = msg.getSendData();
+    int size = out.readableBytes();
+    out.release();
+    return size;
+  }
+
+  @Benchmark
+  public int relayLegacy() throws Exception {
+    ByteBuf in = frame.duplicate();
+    byte[] encoded = new byte[in.readableBytes()];
+    in.readBytes(encoded);
+    BlockMessage msg = new BlockMessage(ArrayUtils.subarray(encoded, 1, encoded.length));
+
+    BlockMessage relayed = new BlockMessage(msg.getBlockCapsule());
+    ByteBuf out = Unpooled.wrappedBuffer(ArrayUtils.add(relayed.getData(), 0,
+        MessageTypes.BLOCK.asByte()));
+    int size = out.readableBytes();
+    out.release();
+    return size;
+  }
+}
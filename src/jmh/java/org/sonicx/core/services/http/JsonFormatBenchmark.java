@@ -0,0 +1,43 @@
+package org.sonicx.core.services.http;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.sonicx.core.capsule.ChainFixtures;
+import org.sonicx.protos.Protocol.Block;
+
+/**
+ * Measures printing a block with {@link JsonFormat} alone and as the http api does for
+ * getblockbynum and friends.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonFormatBenchmark {
+
+  @Param({"0", "100", "1000"})
+  private int transactions;
+
+  private Block block;
+
+  @Setup
+  public void setup() {
+    block = ChainFixtures.block(2, transactions, 64).getInstance();
+  }
+
+  @Benchmark
+  public String printBlock() {
+    return JsonFormat.printToString(block, true);
+  }
+
+  @Benchmark
+  public String printBlockForHttp() {
+    return Util.printBlock(block, true);
+  }
+}
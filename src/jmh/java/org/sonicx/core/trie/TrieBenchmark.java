@@ -0,0 +1,60 @@
+package org.sonicx.core.trie;
+
+import com.google.common.primitives.Longs;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.sonicx.common.utils.Sha256Hash;
+
+/**
+ * Measures building the account state trie of a block and hashing its root.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TrieBenchmark {
+
+  @Param({"100", "1000"})
+  private int size;
+
+  private byte[][] keys;
+  private byte[][] values;
+  private TrieImpl filled;
+
+  @Setup
+  public void setup() {
+    keys = new byte[size][];
+    values = new byte[size][];
+    for (int i = 0; i < size; i++) {
+      keys[i] = Sha256Hash.of(Longs.toByteArray(i)).getBytes();
+      values[i] = Sha256Hash.of(keys[i]).getBytes();
+    }
+
+    filled = new TrieImpl();
+    for (int i = 0; i < size; i++) {
+      filled.put(keys[i], values[i]);
+    }
+  }
+
+  @Benchmark
+  public byte[] putAndGetRootHash() {
+    TrieImpl trie = new TrieImpl();
+    for (int i = 0; i < size; i++) {
+      trie.put(keys[i], values[i]);
+    }
+    return trie.getRootHash();
+  }
+
+  @Benchmark
+  public byte[] updateOneAndGetRootHash() {
+    filled.put(keys[0], keys[0]);
+    filled.put(keys[0], values[0]);
+    return filled.getRootHash();
+  }
+}
@@ -21,6 +21,8 @@ public class NodeInfo {
   private int passiveConnectCount;
   private long totalFlow;
   private List<PeerInfo> peerList = new ArrayList<>();
+  private long spreadInterval;
+  private int spreadQueueSize;
 
   /*node config information*/
   private ConfigNodeInfo configNodeInfo;
@@ -570,6 +572,24 @@ public class NodeInfo {
     return this;
   }
 
+  public long getSpreadInterval() {
+    return spreadInterval;
+  }
+
+  public NodeInfo setSpreadInterval(long spreadInterval) {
+    this.spreadInterval = spreadInterval;
+    return this;
+  }
+
+  public int getSpreadQueueSize() {
+    return spreadQueueSize;
+  }
+
+  public NodeInfo setSpreadQueueSize(int spreadQueueSize) {
+    this.spreadQueueSize = spreadQueueSize;
+    return this;
+  }
+
   public List<PeerInfo> getPeerList() {
     return new ArrayList<>(peerList);
   }
@@ -616,6 +636,8 @@ public class NodeInfo {
     builder.setActiveConnectCount(getActiveConnectCount());
     builder.setPassiveConnectCount(getPassiveConnectCount());
     builder.setTotalFlow(getTotalFlow());
+    builder.setSpreadInterval(getSpreadInterval());
+    builder.setSpreadQueueSize(getSpreadQueueSize());
     builder.putAllCheatWitnessInfoMap(getCheatWitnessInfoMap());
     for (PeerInfo peerInfo : getPeerList()) {
       Protocol.NodeInfo.PeerInfo.Builder peerInfoBuilder = Protocol.NodeInfo.PeerInfo.newBuilder();
@@ -644,6 +666,18 @@ public class NodeInfo {
       peerInfoBuilder.setDisconnectTimes(peerInfo.getDisconnectTimes());
       peerInfoBuilder.setLocalDisconnectReason(peerInfo.getLocalDisconnectReason());
       peerInfoBuilder.setRemoteDisconnectReason(peerInfo.getRemoteDisconnectReason());
+      peerInfoBuilder.setRtt(peerInfo.getRtt());
+      peerInfoBuilder.setFetchLatency(peerInfo.getFetchLatency());
+      peerInfoBuilder.setBlocksPerSecond(peerInfo.getBlocksPerSecond());
+      peerInfoBuilder.setFailureRate(peerInfo.getFailureRate());
+      peerInfoBuilder.setInvFreshness(peerInfo.getInvFreshness());
+      peerInfoBuilder.setPerformanceScore(peerInfo.getPerformanceScore());
+      peerInfoBuilder.setKnownInvSize(peerInfo.getKnownInvSize());
+      peerInfoBuilder.setKnownInvHeapSize(peerInfo.getKnownInvHeapSize());
+      peerInfoBuilder.setKnownInvFpp(peerInfo.getKnownInvFpp());
+      peerInfoBuilder.setKnownInvHits(peerInfo.getKnownInvHits());
+      peerInfoBuilder.setKnownInvLookups(peerInfo.getKnownInvLookups());
+      peerInfoBuilder.setKnownInvRotations(peerInfo.getKnownInvRotations());
       builder.addPeerInfoList(peerInfoBuilder.build());
     }
     ConfigNodeInfo configNodeInfo = getConfigNodeInfo();
@@ -28,6 +28,18 @@ public class PeerInfo {
   private int disconnectTimes;
   private String localDisconnectReason;
   private String remoteDisconnectReason;
+  private double rtt;
+  private double fetchLatency;
+  private double blocksPerSecond;
+  private double failureRate;
+  private double invFreshness;
+  private double performanceScore;
+  private long knownInvSize;
+  private long knownInvHeapSize;
+  private double knownInvFpp;
+  private long knownInvHits;
+  private long knownInvLookups;
+  private long knownInvRotations;
 
   public String getLastSyncBlock() {
     return lastSyncBlock;
@@ -253,4 +265,112 @@ public class PeerInfo {
     this.remoteDisconnectReason = remoteDisconnectReason;
     return this;
   }
+
+  public double getRtt() {
+    return rtt;
+  }
+
+  public PeerInfo setRtt(double rtt) {
+    this.rtt = rtt;
+    return this;
+  }
+
+  public double getFetchLatency() {
+    return fetchLatency;
+  }
+
+  public PeerInfo setFetchLatency(double fetchLatency) {
+    this.fetchLatency = fetchLatency;
+    return this;
+  }
+
+  public double getBlocksPerSecond() {
+    return blocksPerSecond;
+  }
+
+  public PeerInfo setBlocksPerSecond(double blocksPerSecond) {
+    this.blocksPerSecond = blocksPerSecond;
+    return this;
+  }
+
+  public double getFailureRate() {
+    return failureRate;
+  }
+
+  public PeerInfo setFailureRate(double failureRate) {
+    this.failureRate = failureRate;
+    return this;
+  }
+
+  public double getInvFreshness() {
+    return invFreshness;
+  }
+
+  public PeerInfo setInvFreshness(double invFreshness) {
+    this.invFreshness = invFreshness;
+    return this;
+  }
+
+  public double getPerformanceScore() {
+    return performanceScore;
+  }
+
+  public PeerInfo setPerformanceScore(double performanceScore) {
+    this.performanceScore = performanceScore;
+    return this;
+  }
+
+  public long getKnownInvSize() {
+    return knownInvSize;
+  }
+
+  public PeerInfo setKnownInvSize(long knownInvSize) {
+    this.knownInvSize = knownInvSize;
+    return this;
+  }
+
+  public long getKnownInvHeapSize() {
+    return knownInvHeapSize;
+  }
+
+  public PeerInfo setKnownInvHeapSize(long knownInvHeapSize) {
+    this.knownInvHeapSize = knownInvHeapSize;
+    return this;
+  }
+
+  public double getKnownInvFpp() {
+    return knownInvFpp;
+  }
+
+  public PeerInfo setKnownInvFpp(double knownInvFpp) {
+    this.knownInvFpp = knownInvFpp;
+    return this;
+  }
+
+  public long getKnownInvHits() {
+    return knownInvHits;
+  }
+
+  public PeerInfo setKnownInvHits(long knownInvHits) {
+    this.knownInvHits = knownInvHits;
+    return this;
+  }
+
+  public long getKnownInvLookups() {
+    return knownInvLookups;
+  }
+
+  public PeerInfo setKnownInvLookups(long knownInvLookups) {
+    this.knownInvLookups = knownInvLookups;
+    return this;
+  }
+
+  public long getKnownInvRotations() {
+    return knownInvRotations;
+  }
+
+  public PeerInfo setKnownInvRotations(long knownInvRotations) {
+    this.knownInvRotations = knownInvRotations;
+    return this;
+  }
 }
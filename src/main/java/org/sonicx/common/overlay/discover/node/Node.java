@@ -25,6 +25,7 @@ public class Node implements Serializable {
   @Getter
   private int bindPort;
 
+  @Getter
   @Setter
   private int p2pVersion;
 
@@ -143,6 +143,10 @@ public class NodeHandler {
       }
     }
     if (!node.isDiscoveryNode()) {
+      if (newState == State.Dead) {
+        // a node restored into the table which did not answer
+        nodeManager.getTable().dropNode(node);
+      }
       if (newState == State.Alive) {
         Node evictCandidate = nodeManager.getTable().addNode(this.node);
         if (evictCandidate == null) {
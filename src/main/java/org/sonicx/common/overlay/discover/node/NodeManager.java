@@ -4,6 +4,7 @@ import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -42,7 +43,8 @@ public class NodeManager implements EventHandler {
 
   private static final long DB_COMMIT_RATE = 1 * 60 * 1000L;
   private static final int MAX_NODES = 2000;
-  private static final int MAX_NODES_WRITE_TO_DB = 30;
+  private static final int MAX_NODES_WRITE_TO_DB = 1000;
+  private static final long TABLE_RESTORE_AGE = 24 * 60 * 60 * 1000L;
   private static final int NODES_TRIM_THRESHOLD = 3000;
 
   private Consumer<UdpEvent> messageSender;
@@ -52,6 +54,14 @@ public class NodeManager implements EventHandler {
   private Map<String, NodeHandler> nodeHandlerMap = new ConcurrentHashMap<>();
   private List<Node> bootNodes = new ArrayList<>();
 
+  // the records loaded at boot, the counters of this run are added to them
+  private Map<String, NodeRecord> bootRecords = new HashMap<>();
+
+  // the records as last written, only nodes whose record differs are written again
+  private Map<String, NodeRecord> persistedRecords = new HashMap<>();
+
+  private boolean legacyNeighbours;
+
   private volatile boolean discoveryEnabled;
 
   private volatile boolean inited = false;
@@ -110,31 +120,95 @@ public class NodeManager implements EventHandler {
         || nodeHandler.getState().equals(State.EvictCandidate);
   }
 
+  /**
+   * Restores the most reliable nodes of the last runs. They keep the id and p2p version they
+   * announced, so they can be connected to before they answer a ping, and the ones seen in the
+   * last day go straight into the node table.
+   */
   private void dbRead() {
-    Set<Node> nodes = this.dbManager.readNeighbours();
-    logger.info("Reading Node statistics from PeersStore: " + nodes.size() + " nodes.");
-    nodes.forEach(node -> getNodeHandler(node).getNodeStatistics()
-        .setPersistedReputation(node.getReputation()));
+    Map<String, NodeRecord> records = dbManager.readNodeRecords();
+    Set<Node> nodes = dbManager.readNeighbours();
+    if (records.isEmpty()) {
+      logger.info("Reading Node statistics from PeersStore: " + nodes.size() + " nodes.");
+      nodes.forEach(node -> getNodeHandler(node).getNodeStatistics()
+          .setPersistedReputation(node.getReputation()));
+    }
+    legacyNeighbours = !nodes.isEmpty();
+
+    long now = System.currentTimeMillis();
+    List<NodeRecord> ranked = new ArrayList<>(records.values());
+    ranked.sort(Comparator.comparingDouble(record -> -record.getReliability(now)));
+    int tableSize = 0;
+    for (NodeRecord record : CollectionUtils.truncate(ranked, MAX_NODES)) {
+      Node node = new Node(record.getNode().getId(), record.getNode().getHost(),
+          record.getNode().getPort(), record.getNode().getPort());
+      node.setP2pVersion(record.getP2pVersion());
+      getNodeHandler(node).getNodeStatistics()
+          .setPersistedReputation((int) (record.getReputation() * record.getReliability(now)));
+      if (now - record.getLastSeen() < TABLE_RESTORE_AGE && table.addNode(node) == null) {
+        tableSize++;
+      }
+    }
+    bootRecords.putAll(records);
+    persistedRecords.putAll(records);
+    logger.info("Restore {} of {} nodes from PeersStore, {} into the node table.",
+        Math.min(records.size(), MAX_NODES), records.size(), tableSize);
   }
 
+  /**
+   * Writes the records of the nodes which changed since the last write and deletes the least
+   * reliable ones beyond {@link #MAX_NODES_WRITE_TO_DB}.
+   */
   private void dbWrite() {
-    List<Node> batch = new ArrayList<>();
-    for (NodeHandler nodeHandler : nodeHandlerMap.values()) {
-      if (nodeHandler.getNode().isConnectible()) {
-        nodeHandler.getNode().setReputation(nodeHandler.getNodeStatistics().getReputation());
-        batch.add(nodeHandler.getNode());
+    long now = System.currentTimeMillis();
+    Map<String, NodeRecord> records = new HashMap<>(persistedRecords);
+    nodeHandlerMap.forEach((key, handler) -> {
+      if (handler.getNode().isConnectible()) {
+        records.put(key, toRecord(key, handler, now));
+      }
+    });
+
+    List<String> ranked = new ArrayList<>(records.keySet());
+    ranked.sort(Comparator.comparingDouble(key -> -records.get(key).getReliability(now)));
+    Map<String, NodeRecord> kept = new HashMap<>();
+    CollectionUtils.truncate(ranked, MAX_NODES_WRITE_TO_DB)
+        .forEach(key -> kept.put(key, records.get(key)));
+
+    Map<String, NodeRecord> changed = new HashMap<>();
+    kept.forEach((key, record) -> {
+      if (!record.equals(persistedRecords.get(key))) {
+        changed.put(key, record);
       }
+    });
+    Set<String> removed = new HashSet<>(persistedRecords.keySet());
+    removed.removeAll(kept.keySet());
+
+    dbManager.updateNodeRecords(changed, removed);
+    if (legacyNeighbours) {
+      dbManager.deleteNeighbours();
+      legacyNeighbours = false;
     }
-    int size = batch.size();
-    batch.sort(Comparator.comparingInt(value -> -value.getReputation()));
-    if (batch.size() > MAX_NODES_WRITE_TO_DB) {
-      batch = batch.subList(0, MAX_NODES_WRITE_TO_DB);
+    persistedRecords = kept;
+    logger.info("Write Node statistics to PeersStore after: m:{}/t:{}, changed {}, removed {}, "
+            + "total {}.", nodeHandlerMap.size(), getTable().getAllNodes().size(), changed.size(),
+        removed.size(), kept.size());
+  }
+
+  private NodeRecord toRecord(String key, NodeHandler handler, long now) {
+    NodeStatistics statistics = handler.getNodeStatistics();
+    NodeRecord boot = bootRecords.get(key);
+    NodeRecord last = persistedRecords.get(key);
+    long handshakes = statistics.p2pHandShake.getTotalCount()
+        + (boot == null ? 0 : boot.getHandshakes());
+    long disconnects = Math.max(statistics.getDisconnectTimes()
+        + (boot == null ? 0 : boot.getDisconnects()), last == null ? 0 : last.getDisconnects());
+    long lastSeen = Math.max(statistics.lastPongReplyTime.get(),
+        last == null ? 0 : last.getLastSeen());
+    if (handshakes > (last == null ? 0 : last.getHandshakes())) {
+      lastSeen = now;
     }
-    Set<Node> nodes = new HashSet<>();
-    nodes.addAll(batch);
-    logger.info("Write Node statistics to PeersStore after: m:{}/t:{}/{}/{} nodes.",
-        nodeHandlerMap.size(), getTable().getAllNodes().size(), size, nodes.size());
-    dbManager.clearAndWriteNeighbours(nodes);
+    return new NodeRecord(handler.getNode(), handler.getNode().getP2pVersion(),
+        statistics.getReputation(), lastSeen, handshakes, disconnects);
   }
 
   public void setMessageSender(Consumer<UdpEvent> messageSender) {
@@ -0,0 +1,93 @@
+package org.sonicx.common.overlay.discover.node;
+
+import java.util.Objects;
+import lombok.Getter;
+
+/**
+ * What is kept of a node between restarts: its address, the p2p version it announced, its
+ * reputation and how reliably the connections to it worked.
+ */
+public class NodeRecord {
+
+  private static final String SEPARATOR = "&";
+
+  private static final long DAY = 24 * 60 * 60 * 1000L;
+
+  @Getter
+  private final Node node;
+  @Getter
+  private final int p2pVersion;
+  @Getter
+  private final int reputation;
+  @Getter
+  private final long lastSeen;
+  @Getter
+  private final long handshakes;
+  @Getter
+  private final long disconnects;
+
+  public NodeRecord(Node node, int p2pVersion, int reputation, long lastSeen, long handshakes,
+      long disconnects) {
+    this.node = node;
+    this.p2pVersion = p2pVersion;
+    this.reputation = reputation;
+    this.lastSeen = lastSeen;
+    this.handshakes = handshakes;
+    this.disconnects = disconnects;
+  }
+
+  /**
+   * Returns the share of successful connections, with one success and one failure assumed for
+   * unknown nodes, scaled down by one half for every day since the node was last seen.
+   */
+  public double getReliability(long now) {
+    double success = (handshakes + 1.0) / (handshakes + disconnects + 2.0);
+    double days = Math.max(0, now - lastSeen) / (double) DAY;
+    return success * Math.pow(0.5, days);
+  }
+
+  public byte[] encode() {
+    return (node.getEnodeURL() + SEPARATOR + p2pVersion + SEPARATOR + reputation + SEPARATOR
+        + lastSeen + SEPARATOR + handshakes + SEPARATOR + disconnects).getBytes();
+  }
+
+  /**
+   * Returns the record encoded by {@link #encode()}, null if the bytes are malformed.
+   */
+  public static NodeRecord decode(byte[] data) {
+    try {
+      String[] fields = new String(data).split(SEPARATOR);
+      if (fields.length != 6) {
+        return null;
+      }
+      return new NodeRecord(new Node(fields[0]), Integer.parseInt(fields[1]),
+          Integer.parseInt(fields[2]), Long.parseLong(fields[3]), Long.parseLong(fields[4]),
+          Long.parseLong(fields[5]));
+    } catch (RuntimeException e) {
+      return null;
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    NodeRecord that = (NodeRecord) o;
+    return p2pVersion == that.p2pVersion
+        && reputation == that.reputation
+        && lastSeen == that.lastSeen
+        && handshakes == that.handshakes
+        && disconnects == that.disconnects
+        && node.getEnodeURL().equals(that.node.getEnodeURL());
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(node.getEnodeURL(), p2pVersion, reputation, lastSeen, handshakes,
+        disconnects);
+  }
+}
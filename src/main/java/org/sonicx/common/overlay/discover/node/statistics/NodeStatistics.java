@@ -50,6 +50,9 @@ public class NodeStatistics {
 
   public final SimpleStatter discoverMessageLatency;
   public final SimpleStatter pingMessageLatency;
+  public final SimpleStatter sendMessageLatency;
+  public final SimpleStatter sendQueueDepth;
+  public final PeerPerformance performance = new PeerPerformance();
 
   public final AtomicLong lastPongReplyTime = new AtomicLong(0L); // in milliseconds
 
@@ -58,6 +61,8 @@ public class NodeStatistics {
   public NodeStatistics() {
     discoverMessageLatency = new SimpleStatter();
     pingMessageLatency = new SimpleStatter();
+    sendMessageLatency = new SimpleStatter();
+    sendQueueDepth = new SimpleStatter();
     reputation = new Reputation(this);
   }
 
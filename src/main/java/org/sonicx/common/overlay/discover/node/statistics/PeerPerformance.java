@@ -0,0 +1,118 @@
+package org.sonicx.common.overlay.discover.node.statistics;
+
+import java.util.Collection;
+
+/**
+ * Recent request performance of a node, as exponentially weighted averages which follow the
+ * last few dozen samples.
+ *
+ * <p>{@link #getScore()} combines them into the expected cost of one request in ms, lower is
+ * better: the fetch latency, or the round trip time until a fetch was measured, raised by the
+ * share of requests which failed or timed out and lowered for nodes which are often the first
+ * to announce new inventory.
+ */
+public class PeerPerformance {
+
+  private static final double ALPHA = 0.1;
+
+  private static final double DEFAULT_LATENCY = 500;
+
+  private static final double FAILURE_PENALTY = 4;
+
+  private static final double FRESHNESS_BONUS = 0.5;
+
+  private static final int RATE_WINDOW = 10;
+
+  private double rtt;
+
+  private double fetchLatency;
+
+  private double failureRate;
+
+  private double invFreshness;
+
+  private final MessageCount blocksServed = new MessageCount();
+
+  /**
+   * Records the time between a request and its answer.
+   */
+  public synchronized void onRoundtrip(long latency) {
+    rtt = rtt == 0 ? latency : average(rtt, latency);
+  }
+
+  /**
+   * Records a requested block or transaction which arrived {@code latency} ms after the request.
+   */
+  public synchronized void onFetched(long latency, boolean block) {
+    fetchLatency = fetchLatency == 0 ? latency : average(fetchLatency, latency);
+    failureRate = average(failureRate, 0);
+    if (block) {
+      blocksServed.add();
+    }
+  }
+
+  /**
+   * Records a request which timed out or was refused.
+   */
+  public synchronized void onFailure() {
+    failureRate = average(failureRate, 1);
+  }
+
+  /**
+   * Records a failure for each request sent at one of {@code requestTimes} after
+   * {@code sentAfter} and until {@code sentUntil}. Checking consecutive windows of the requests
+   * which reached a timeout records every unanswered request once.
+   */
+  public synchronized void onTimeouts(Collection<Long> requestTimes, long sentAfter,
+      long sentUntil) {
+    for (long time : requestTimes) {
+      if (time > sentAfter && time <= sentUntil) {
+        failureRate = average(failureRate, 1);
+      }
+    }
+  }
+
+  /**
+   * Records an inventory item announced by the node, {@code first} if no other node announced
+   * it before.
+   */
+  public synchronized void onInventory(boolean first) {
+    invFreshness = average(invFreshness, first ? 1 : 0);
+  }
+
+  public synchronized double getScore() {
+    double latency = fetchLatency > 0 ? fetchLatency : rtt > 0 ? rtt : DEFAULT_LATENCY;
+    return latency * (1 + FAILURE_PENALTY * failureRate) * (1 - FRESHNESS_BONUS * invFreshness);
+  }
+
+  public synchronized double getRtt() {
+    return rtt;
+  }
+
+  public synchronized double getFetchLatency() {
+    return fetchLatency;
+  }
+
+  public synchronized double getFailureRate() {
+    return failureRate;
+  }
+
+  public synchronized double getInvFreshness() {
+    return invFreshness;
+  }
+
+  public synchronized double getBlocksPerSecond() {
+    return (double) blocksServed.getCount(RATE_WINDOW) / RATE_WINDOW;
+  }
+
+  private static double average(double average, double sample) {
+    return average + ALPHA * (sample - average);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("score %.0f, rtt %.0fms, fetch %.0fms, blocks/s %.1f, fail %.2f, "
+            + "fresh %.2f", getScore(), getRtt(), getFetchLatency(), getBlocksPerSecond(),
+        getFailureRate(), getInvFreshness());
+  }
+}
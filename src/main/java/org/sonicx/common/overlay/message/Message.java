@@ -8,7 +8,6 @@ import io.netty.buffer.Unpooled;
 import java.lang.reflect.Field;
 import java.util.Arrays;
 import lombok.Setter;
-import org.apache.commons.lang3.ArrayUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.ReflectionUtils;
@@ -38,8 +37,12 @@ public abstract class Message {
     this.data = packed;
   }
 
+  /**
+   * Returns the type byte followed by the payload. The payload array is wrapped, not copied, the
+   * returned buffer is released by the channel it is written to.
+   */
   public ByteBuf getSendData() {
-    return Unpooled.wrappedBuffer(ArrayUtils.add(this.getData(), 0, type));
+    return Unpooled.wrappedBuffer(new byte[]{type}, this.getData());
   }
 
   public Sha256Hash getMessageId() {
@@ -63,7 +66,7 @@ public abstract class Message {
 
   @Override
   public int hashCode() {
-    return Arrays.hashCode(data);
+    return Arrays.hashCode(getData());
   }
 
   @Override
@@ -75,7 +78,7 @@ public abstract class Message {
       return false;
     }
     Message message = (Message) o;
-    return Arrays.equals(data, message.data);
+    return Arrays.equals(getData(), message.getData());
   }
 
   public static void compareBytes(byte[] src, byte[] dest) throws P2pException {
@@ -100,7 +103,7 @@ public abstract class Message {
   }
 
   public static boolean isFilter() {
-    return manager.getDynamicPropertiesStore().getAllowProtoFilterNum() == 1;
+    return manager != null && manager.getDynamicPropertiesStore().getAllowProtoFilterNum() == 1;
   }
 
 }
\ No newline at end of file
@@ -19,14 +19,19 @@ public class MessageCodec extends ByteToMessageDecoder {
   private P2pMessageFactory p2pMessageFactory = new P2pMessageFactory();
   private SonicxMessageFactory sonicxMessageFactory = new SonicxMessageFactory();
 
+  /**
+   * Decodes one frame. The payload is copied out of the frame buffer once, straight into the
+   * array the message keeps and parses, the frame buffer itself is released by the decoder.
+   */
   @Override
   protected void decode(ChannelHandlerContext ctx, ByteBuf buffer, List<Object> out)
       throws Exception {
     int length = buffer.readableBytes();
-    byte[] encoded = new byte[length];
-    buffer.readBytes(encoded);
+    byte type = buffer.readByte();
+    byte[] rawData = new byte[length - 1];
+    buffer.readBytes(rawData);
     try {
-      Message msg = createMessage(encoded);
+      Message msg = createMessage(type, rawData);
       channel.getNodeStatistics().tcpFlow.add(length);
       out.add(msg);
     } catch (Exception e) {
@@ -38,15 +43,14 @@ public class MessageCodec extends ByteToMessageDecoder {
     this.channel = channel;
   }
 
-  private Message createMessage(byte[] encoded) throws Exception {
-    byte type = encoded[0];
+  private Message createMessage(byte type, byte[] rawData) throws Exception {
     if (MessageTypes.inP2pRange(type)) {
-      return p2pMessageFactory.create(encoded);
+      return p2pMessageFactory.create(type, rawData);
     }
     if (MessageTypes.inSonicxRange(type)) {
-      return sonicxMessageFactory.create(encoded);
+      return sonicxMessageFactory.create(type, rawData);
     }
-    throw new P2pException(P2pException.TypeEnum.NO_SUCH_MESSAGE, "type=" + encoded[0]);
+    throw new P2pException(P2pException.TypeEnum.NO_SUCH_MESSAGE, "type=" + type);
   }
 
 }
\ No newline at end of file
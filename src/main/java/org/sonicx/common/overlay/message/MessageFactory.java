@@ -19,4 +19,9 @@ public abstract class MessageFactory {
 
   protected abstract Message create(byte[] data) throws Exception;
 
+  /**
+   * Creates a message from its type and payload, without the copy of {@link #create(byte[])}.
+   */
+  protected abstract Message create(byte type, byte[] rawData) throws Exception;
+
 }
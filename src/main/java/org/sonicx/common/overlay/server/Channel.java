@@ -161,6 +161,14 @@ public class Channel {
     close();
   }
 
+  /**
+   * Called on the event loop when the send queue has room for
+   * {@link org.sonicx.core.config.Parameter.NetConstants#BLOCK_PREFETCH_SIZE} more blocks after
+   * blocks were written.
+   */
+  protected void onBlockQueueDrained() {
+  }
+
   public void close() {
     this.isDisconnect = true;
     p2pHandler.close();
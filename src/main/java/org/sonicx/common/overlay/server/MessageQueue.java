@@ -2,89 +2,78 @@ package org.sonicx.common.overlay.server;
 
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
 import java.util.Queue;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
+import org.sonicx.common.overlay.discover.node.statistics.NodeStatistics;
 import org.sonicx.common.overlay.message.Message;
 import org.sonicx.common.overlay.message.PingMessage;
 import org.sonicx.common.overlay.message.PongMessage;
+import org.sonicx.core.config.Parameter.NetConstants;
+import org.sonicx.core.net.message.BlockMessage;
 import org.sonicx.core.net.message.InventoryMessage;
 import org.sonicx.core.net.message.TransactionsMessage;
 import org.sonicx.protos.Protocol.Inventory.InventoryType;
 import org.sonicx.protos.Protocol.ReasonCode;
 
+/**
+ * Outbound messages of one peer, written on the event loop of its channel.
+ *
+ * <p>{@link #sendMessage(Message)} only enqueues and schedules a flush task if none is pending,
+ * the task writes up to {@link NetConstants#MAX_MESSAGES_PER_FLUSH} messages and flushes once.
+ * Writing stops while the channel is not writable and resumes on
+ * {@link #writabilityChanged()}. Requests which expect an answer are sent one at a time, the
+ * next one after the answer of the previous one, and a shared {@link HashedWheelTimer} closes
+ * the channel when an answer does not arrive in time.
+ */
 @Slf4j(topic = "net")
 @Component
 @Scope("prototype")
 public class MessageQueue {
 
+  private static final HashedWheelTimer requestTimer = new HashedWheelTimer(
+      r -> {
+        Thread thread = new Thread(r, "requestTimer");
+        thread.setDaemon(true);
+        return thread;
+      }, 100, TimeUnit.MILLISECONDS);
+
   private volatile boolean sendMsgFlag = false;
 
   private volatile long sendTime;
 
   private volatile long sendPing;
 
-  private Thread sendMsgThread;
-
   private Channel channel;
 
-  private ChannelHandlerContext ctx = null;
+  private volatile ChannelHandlerContext ctx = null;
 
   private Queue<MessageRoundtrip> requestQueue = new ConcurrentLinkedQueue<>();
 
-  private BlockingQueue<Message> msgQueue = new LinkedBlockingQueue<>();
+  private Queue<MessageRoundtrip> msgQueue = new ConcurrentLinkedQueue<>();
 
-  private static ScheduledExecutorService sendTimer = Executors.
-      newSingleThreadScheduledExecutor(r -> new Thread(r, "sendTimer"));
+  private final AtomicInteger msgQueueSize = new AtomicInteger();
 
-  private ScheduledFuture<?> sendTask;
+  private final AtomicInteger blockQueueSize = new AtomicInteger();
 
+  private final AtomicBoolean flushScheduled = new AtomicBoolean();
 
-  public void activate(ChannelHandlerContext ctx) {
+  // the head of requestQueue has been written, only touched on the event loop
+  private boolean requestInFlight;
 
-    this.ctx = ctx;
+  private Timeout requestTimeout;
 
+  public void activate(ChannelHandlerContext ctx) {
+    this.ctx = ctx;
     sendMsgFlag = true;
-
-    sendTask = sendTimer.scheduleAtFixedRate(() -> {
-      try {
-        if (sendMsgFlag) {
-          send();
-        }
-      } catch (Exception e) {
-        logger.error("Unhandled exception", e);
-      }
-    }, 10, 10, TimeUnit.MILLISECONDS);
-
-    sendMsgThread = new Thread(() -> {
-      while (sendMsgFlag) {
-        try {
-          if (msgQueue.isEmpty()) {
-            Thread.sleep(10);
-            continue;
-          }
-          Message msg = msgQueue.take();
-          ctx.writeAndFlush(msg.getSendData()).addListener((ChannelFutureListener) future -> {
-            if (!future.isSuccess() && !channel.isDisconnect()) {
-              logger.error("Fail send to {}, {}", ctx.channel().remoteAddress(), msg);
-            }
-          });
-        } catch (Exception e) {
-          logger.error("Fail send to {}, error info: {}", ctx.channel().remoteAddress(),
-              e.getMessage());
-        }
-      }
-    });
-    sendMsgThread.setName("sendMsgThread-" + ctx.channel().remoteAddress());
-    sendMsgThread.start();
+    scheduleFlush();
   }
 
   public void setChannel(Channel channel) {
@@ -107,8 +96,13 @@ public class MessageQueue {
     if (msg.getAnswerMessage() != null) {
       requestQueue.add(new MessageRoundtrip(msg));
     } else {
-      msgQueue.offer(msg);
+      msgQueue.add(new MessageRoundtrip(msg));
+      msgQueueSize.incrementAndGet();
+      if (msg instanceof BlockMessage) {
+        blockQueueSize.incrementAndGet();
+      }
     }
+    scheduleFlush();
     return true;
   }
 
@@ -120,29 +114,65 @@ public class MessageQueue {
     MessageRoundtrip rt = requestQueue.peek();
     if (rt != null && rt.getMsg().getAnswerMessage() == msg.getClass()) {
       requestQueue.remove();
+      channel.getNodeStatistics().performance.onRoundtrip(System.currentTimeMillis()
+          - rt.getTime());
       if (rt.getMsg() instanceof PingMessage) {
         channel.getNodeStatistics().pingMessageLatency
             .add(System.currentTimeMillis() - rt.getTime());
       }
+      ctx.executor().execute(() -> {
+        requestInFlight = false;
+        if (requestTimeout != null) {
+          requestTimeout.cancel();
+          requestTimeout = null;
+        }
+        flush();
+      });
+    }
+  }
+
+  /**
+   * Resumes writing once the outbound buffer of the channel has drained below its low water mark.
+   */
+  public void writabilityChanged() {
+    if (ctx != null && ctx.channel().isWritable()) {
+      scheduleFlush();
     }
   }
 
+  public int getQueueSize() {
+    return msgQueueSize.get() + requestQueue.size();
+  }
+
+  /**
+   * Returns the number of {@link BlockMessage} waiting to be written.
+   */
+  public int getBlockQueueSize() {
+    return blockQueueSize.get();
+  }
+
   public void close() {
     sendMsgFlag = false;
-    if (sendTask != null && !sendTask.isCancelled()) {
-      sendTask.cancel(false);
-      sendTask = null;
-    }
-    if (sendMsgThread != null) {
-      try {
-        sendMsgThread.join(20);
-        sendMsgThread = null;
-      } catch (Exception e) {
-        logger.warn("Join send thread failed, peer {}", ctx.channel().remoteAddress());
-      }
+    ChannelHandlerContext context = ctx;
+    if (context == null) {
+      clear();
+    } else {
+      // the event loop may be flushing, the queues are cleared after it
+      context.executor().execute(this::clear);
     }
   }
 
+  private void clear() {
+    if (requestTimeout != null) {
+      requestTimeout.cancel();
+      requestTimeout = null;
+    }
+    msgQueue.clear();
+    msgQueueSize.set(0);
+    blockQueueSize.set(0);
+    requestQueue.clear();
+  }
+
   private boolean needToLog(Message msg) {
     if (msg instanceof PingMessage ||
         msg instanceof PongMessage ||
@@ -158,32 +188,81 @@ public class MessageQueue {
     return true;
   }
 
-  private void send() {
-    MessageRoundtrip rt = requestQueue.peek();
-    if (!sendMsgFlag || rt == null) {
-      return;
+  private void scheduleFlush() {
+    ChannelHandlerContext context = ctx;
+    if (context != null && sendMsgFlag && flushScheduled.compareAndSet(false, true)) {
+      context.executor().execute(this::flush);
     }
-    if (rt.getRetryTimes() > 0 && !rt.hasToRetry()) {
+  }
+
+  private void flush() {
+    flushScheduled.set(false);
+    if (!sendMsgFlag) {
       return;
     }
-    if (rt.getRetryTimes() > 0) {
-      channel.getNodeStatistics().nodeDisconnectedLocal(ReasonCode.PING_TIMEOUT);
-      logger.warn("Wait {} timeout. close channel {}.",
-          rt.getMsg().getAnswerMessage(), ctx.channel().remoteAddress());
-      channel.close();
-      return;
+
+    NodeStatistics statistics = channel.getNodeStatistics();
+    statistics.sendQueueDepth.add(getQueueSize());
+
+    int written = 0;
+    int blocksWritten = 0;
+    MessageRoundtrip request = requestQueue.peek();
+    if (!requestInFlight && request != null) {
+      write(request);
+      requestInFlight = true;
+      request.saveTime();
+      requestTimeout = requestTimer.newTimeout(
+          timeout -> ctx.executor().execute(() -> checkRequest(request)),
+          NetConstants.REQUEST_TIME_OUT, TimeUnit.MILLISECONDS);
+      written++;
     }
 
-    Message msg = rt.getMsg();
+    MessageRoundtrip rt;
+    while (written < NetConstants.MAX_MESSAGES_PER_FLUSH && ctx.channel().isWritable()
+        && (rt = msgQueue.poll()) != null) {
+      msgQueueSize.decrementAndGet();
+      if (rt.getMsg() instanceof BlockMessage) {
+        blockQueueSize.decrementAndGet();
+        blocksWritten++;
+      }
+      write(rt);
+      written++;
+    }
 
-    ctx.writeAndFlush(msg.getSendData()).addListener((ChannelFutureListener) future -> {
-      if (!future.isSuccess()) {
+    if (written > 0) {
+      ctx.flush();
+    }
+    if (blocksWritten > 0 && NetConstants.MAX_BLOCKS_QUEUED_PER_PEER - blockQueueSize.get()
+        >= NetConstants.BLOCK_PREFETCH_SIZE) {
+      channel.onBlockQueueDrained();
+    }
+    if (!msgQueue.isEmpty() && ctx.channel().isWritable()) {
+      // yield to the other channels of this event loop before the next batch
+      scheduleFlush();
+    }
+  }
+
+  private void write(MessageRoundtrip rt) {
+    Message msg = rt.getMsg();
+    ctx.write(msg.getSendData()).addListener((ChannelFutureListener) future -> {
+      if (future.isSuccess()) {
+        channel.getNodeStatistics().sendMessageLatency.add(System.currentTimeMillis()
+            - rt.getTime());
+      } else if (!channel.isDisconnect()) {
         logger.error("Fail send to {}, {}", ctx.channel().remoteAddress(), msg);
       }
     });
+  }
 
-    rt.incRetryTimes();
-    rt.saveTime();
+  private void checkRequest(MessageRoundtrip rt) {
+    // the answer may have arrived while this task was queued
+    if (!sendMsgFlag || !requestInFlight || requestQueue.peek() != rt) {
+      return;
+    }
+    channel.getNodeStatistics().nodeDisconnectedLocal(ReasonCode.PING_TIMEOUT);
+    logger.warn("Wait {} timeout. close channel {}.",
+        rt.getMsg().getAnswerMessage(), ctx.channel().remoteAddress());
+    channel.close();
   }
 
 }
@@ -82,6 +82,12 @@ public class P2pHandler extends SimpleChannelInboundHandler<P2pMessage> {
     }
   }
 
+  @Override
+  public void channelWritabilityChanged(ChannelHandlerContext ctx) {
+    msgQueue.writabilityChanged();
+    ctx.fireChannelWritabilityChanged();
+  }
+
   @Override
   public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
     channel.processException(cause);
@@ -31,6 +31,9 @@ import org.sonicx.core.db.ByteArrayWrapper;
  * DataWord is the 32-byte array representation of a 256-bit number
  * Calculations can be done on this word with other DataWords
  *
+ * Arithmetic keeps its result in {@link UInt256} limbs, the bytes are written again only when
+ * they are read, so a word stays in limbs while it moves through the stack.
+ *
  * @author Roman Mandeleil
  * @since 01.06.2014
  */
@@ -51,9 +54,13 @@ public class DataWord implements Comparable<DataWord> {
     return new DataWord(new byte[32]);
   }
 
-  private byte[] data = new byte[32];
+  // null while only the limbs are current
+  private byte[] data;
+  private UInt256 limbs;
+  private boolean limbsCurrent;
 
   public DataWord() {
+    this.data = new byte[WORD_SIZE];
   }
 
   public DataWord(int num) {
@@ -93,21 +100,65 @@ public class DataWord implements Comparable<DataWord> {
     } else if (data.length == WORD_SIZE) {
       this.data = data;
     } else if (data.length < WORD_SIZE) {
+      this.data = new byte[WORD_SIZE];
       System.arraycopy(data, 0, this.data, WORD_SIZE - data.length, data.length);
     } else {
       throw new RuntimeException("Data word can't exceed 32 bytes: " + ByteUtil.toHexString(data));
     }
   }
 
+  private DataWord(UInt256 limbs) {
+    this.limbs = limbs;
+    this.limbsCurrent = true;
+  }
+
+  /**
+   * Returns the bytes of the word. Callers may write into them, so the limbs are read again from
+   * the bytes by the next arithmetic.
+   */
   public byte[] getData() {
+    byte[] bytes = bytes();
+    limbsCurrent = false;
+    return bytes;
+  }
+
+  // the bytes, written from the limbs if only those are current
+  private byte[] bytes() {
+    if (data == null) {
+      byte[] bytes = new byte[WORD_SIZE];
+      limbs.toBytes(bytes);
+      data = bytes;
+    }
     return data;
   }
 
+  // the limbs to compute a result in, the bytes are dropped as they no longer match
+  private UInt256 result() {
+    if (!limbsCurrent) {
+      limbs = limbs == null ? new UInt256(data) : limbs.set(data);
+      limbsCurrent = true;
+    }
+    data = null;
+    return limbs;
+  }
+
+  // the limbs of a word read as an operand, which is left as it is
+  private UInt256 operand() {
+    return limbsCurrent ? limbs : new UInt256(data);
+  }
+
+  // replaces the bytes, callers may still hold the old array
+  private void setData(byte[] bytes) {
+    this.data = bytes;
+    this.limbsCurrent = false;
+  }
+
   /**
    * be careful, this one will not throw Exception when data.length > WORD_SIZE
    * @return
    */
   public byte[] getClonedData() {
+    byte[] data = bytes();
     byte[] ret = ByteUtil.EMPTY_BYTE_ARRAY;
     if (data != null){
       ret = new byte[WORD_SIZE];
@@ -118,15 +169,16 @@ public class DataWord implements Comparable<DataWord> {
   }
 
   public byte[] getNoLeadZeroesData() {
-    return ByteUtil.stripLeadingZeroes(data);
+    return ByteUtil.stripLeadingZeroes(bytes());
   }
 
   public byte[] getLast20Bytes() {
+    byte[] data = bytes();
     return Arrays.copyOfRange(data, 12, data.length);
   }
 
   public BigInteger value() {
-    return new BigInteger(1, data);
+    return new BigInteger(1, bytes());
   }
 
   /**
@@ -138,6 +190,9 @@ public class DataWord implements Comparable<DataWord> {
    * @throws ArithmeticException - if this will not fit in an int.
    */
   public int intValue() {
+    if (limbsCurrent) {
+      return (int) limbs.lowLong();
+    }
     int intVal = 0;
 
     for (byte aData : data) {
@@ -167,6 +222,9 @@ public class DataWord implements Comparable<DataWord> {
    * @throws ArithmeticException - if this will not fit in a long.
    */
   public long longValue() {
+    if (limbsCurrent) {
+      return limbs.lowLong();
+    }
 
     long longVal = 0;
     for (byte aData : data) {
@@ -188,7 +246,7 @@ public class DataWord implements Comparable<DataWord> {
   }
 
   public BigInteger sValue() {
-    return new BigInteger(data);
+    return new BigInteger(bytes());
   }
 
   public static String  bigIntValue(byte[] data) {
@@ -196,7 +254,7 @@ public class DataWord implements Comparable<DataWord> {
   }
 
   public String  bigIntValue() {
-    return new BigInteger(data).toString();
+    return new BigInteger(bytes()).toString();
   }
 
   public static boolean isZero(byte[] data) {
@@ -209,6 +267,9 @@ public class DataWord implements Comparable<DataWord> {
   }
 
   public boolean isZero() {
+    if (limbsCurrent) {
+      return limbs.isZero();
+    }
     for (byte tmp : data) {
       if (tmp != 0) return false;
     }
@@ -219,30 +280,48 @@ public class DataWord implements Comparable<DataWord> {
   // when the number is explicit defined
   // as negative
   public boolean isNegative() {
+    if (limbsCurrent) {
+      return limbs.isNegative();
+    }
     int result = data[0] & 0x80;
     return result == 0x80;
   }
 
   public DataWord and(DataWord w2) {
+    if (limbsCurrent) {
+      result().and(w2.operand());
+      return this;
+    }
 
+    byte[] other = w2.bytes();
     for (int i = 0; i < this.data.length; ++i) {
-      this.data[i] &= w2.data[i];
+      this.data[i] &= other[i];
     }
     return this;
   }
 
   public DataWord or(DataWord w2) {
+    if (limbsCurrent) {
+      result().or(w2.operand());
+      return this;
+    }
 
+    byte[] other = w2.bytes();
     for (int i = 0; i < this.data.length; ++i) {
-      this.data[i] |= w2.data[i];
+      this.data[i] |= other[i];
     }
     return this;
   }
 
   public DataWord xor(DataWord w2) {
+    if (limbsCurrent) {
+      result().xor(w2.operand());
+      return this;
+    }
 
+    byte[] other = w2.bytes();
     for (int i = 0; i < this.data.length; ++i) {
-      this.data[i] ^= w2.data[i];
+      this.data[i] ^= other[i];
     }
     return this;
   }
@@ -250,130 +329,83 @@ public class DataWord implements Comparable<DataWord> {
   public void negate() {
     if (this.isZero()) return;
 
-    bnot();
-    add(DataWord.ONE());
+    result().negate();
   }
 
   public void bnot() {
-    if (this.isZero()) {
-      this.data = ByteUtil.copyToArray(MAX_VALUE);
-      return;
-    }
-    this.data = ByteUtil.copyToArray(MAX_VALUE.subtract(this.value()));
+    result().not();
   }
 
-  // By   : Holger
-  // From : http://stackoverflow.com/a/24023466/459349
   public void add(DataWord word) {
-    byte[] result = new byte[32];
-    for (int i = 31, overflow = 0; i >= 0; i--) {
-      int v = (this.data[i] & 0xff) + (word.data[i] & 0xff) + overflow;
-      result[i] = (byte) v;
-      overflow = v >>> 8;
-    }
-    this.data = result;
+    result().add(word.operand());
   }
 
   // old add-method with BigInteger quick hack
   public void add2(DataWord word) {
     BigInteger result = value().add(word.value());
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    setData(ByteUtil.copyToArray(result.and(MAX_VALUE)));
   }
 
-  // TODO: mul can be done in more efficient way
-  // TODO:     with shift left shift right trick
-  // TODO      without BigInteger quick hack
   public void mul(DataWord word) {
-    BigInteger result = value().multiply(word.value());
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    result().mul(word.operand());
   }
 
-  // TODO: improve with no BigInteger
   public void div(DataWord word) {
-
-    if (word.isZero()) {
-      this.and(ZERO);
-      return;
-    }
-
-    BigInteger result = value().divide(word.value());
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    result().div(word.operand());
   }
 
-  // TODO: improve with no BigInteger
   public void sDiv(DataWord word) {
-
-    if (word.isZero()) {
-      this.and(ZERO);
-      return;
-    }
-
-    BigInteger result = sValue().divide(word.sValue());
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    result().sdiv(word.operand());
   }
 
-  // TODO: improve with no BigInteger
   public void sub(DataWord word) {
-    BigInteger result = value().subtract(word.value());
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    result().sub(word.operand());
   }
 
-  // TODO: improve with no BigInteger
   public void exp(DataWord word) {
-    BigInteger result = value().modPow(word.value(), _2_256);
-    this.data = ByteUtil.copyToArray(result);
+    result().exp(word.operand());
   }
 
-  // TODO: improve with no BigInteger
   public void mod(DataWord word) {
-
-    if (word.isZero()) {
-      this.and(ZERO);
-      return;
-    }
-
-    BigInteger result = value().mod(word.value());
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    result().mod(word.operand());
   }
 
   public void sMod(DataWord word) {
-
-    if (word.isZero()) {
-      this.and(ZERO());
-      return;
-    }
-
-    BigInteger result = sValue().abs().mod(word.sValue().abs());
-    result = (sValue().signum() == -1) ? result.negate() : result;
-
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    result().smod(word.operand());
   }
 
   public void addmod(DataWord word1, DataWord word2) {
-    if (word2.isZero()) {
-      this.data = new byte[32];
-      return;
-    }
-
-    BigInteger result = value().add(word1.value()).mod(word2.value());
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    result().addmod(word1.operand(), word2.operand());
   }
 
+  // the product needs 512 bits before the reduction, which UInt256 does not keep
   public void mulmod(DataWord word1, DataWord word2) {
 
     if (this.isZero() || word1.isZero() || word2.isZero()) {
-      this.data = new byte[32];
+      result().setZero();
       return;
     }
 
     BigInteger result = value().multiply(word1.value()).mod(word2.value());
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    setData(ByteUtil.copyToArray(result.and(MAX_VALUE)));
+  }
+
+  /**
+   * Sets the word to one if the condition holds, to zero otherwise.
+   */
+  public void setBoolean(boolean condition) {
+    if (limbs == null) {
+      limbs = new UInt256();
+    }
+    limbs.set(condition ? 1 : 0);
+    limbsCurrent = true;
+    data = null;
   }
 
   @JsonValue
   @Override
   public String toString() {
-    return Hex.toHexString(data);
+    return Hex.toHexString(bytes());
   }
 
   public String toPrefixString() {
@@ -399,6 +431,9 @@ public class DataWord implements Comparable<DataWord> {
   }
 
   public DataWord clone() {
+    if (limbsCurrent) {
+      return new DataWord(new UInt256(limbs));
+    }
     return new DataWord(Arrays.clone(data));
   }
 
@@ -411,42 +446,64 @@ public class DataWord implements Comparable<DataWord> {
 
     DataWord dataWord = (DataWord) o;
 
-    return java.util.Arrays.equals(data, dataWord.data);
+    if (limbsCurrent && dataWord.limbsCurrent) {
+      return limbs.compareTo(dataWord.limbs) == 0;
+    }
+    return java.util.Arrays.equals(bytes(), dataWord.bytes());
 
   }
 
   @Override
   public int hashCode() {
-    return java.util.Arrays.hashCode(data);
+    return java.util.Arrays.hashCode(bytes());
   }
 
   @Override
   public int compareTo(DataWord o) {
-    if (o == null || o.getData() == null) return -1;
+    if (o == null) return -1;
+    if (limbsCurrent || o.limbsCurrent) {
+      return operand().compareTo(o.operand());
+    }
     int result = FastByteComparisons.compareTo(
         data, 0, data.length,
-        o.getData(), 0, o.getData().length);
+        o.data, 0, o.data.length);
     // Convert result into -1, 0 or 1 as is the convention
     return (int) Math.signum(result);
   }
 
+  /**
+   * Compares both words as signed numbers.
+   */
+  public int sCompareTo(DataWord o) {
+    boolean negative = isNegative();
+    if (negative != o.isNegative()) {
+      return negative ? -1 : 1;
+    }
+    return compareTo(o);
+  }
+
   public void signExtend(byte k) {
     if (0 > k || k > 31)
       throw new IndexOutOfBoundsException();
-    byte mask = this.sValue().testBit((k * 8) + 7) ? (byte) 0xff : 0;
+    byte[] data = bytes();
+    limbsCurrent = false;
+    byte mask = (data[31 - k] & 0x80) != 0 ? (byte) 0xff : 0;
     for (int i = 31; i > k; i--) {
       this.data[31 - i] = mask;
     }
   }
 
   public int bytesOccupied() {
+    if (limbsCurrent) {
+      return (limbs.bitLength() + 7) / 8;
+    }
     int firstNonZero = ByteUtil.firstNonZeroByte(data);
     if (firstNonZero == -1) return 0;
     return 31 - firstNonZero + 1;
   }
 
   public boolean isHex(String hex) {
-    return Hex.toHexString(data).equals(hex);
+    return Hex.toHexString(bytes()).equals(hex);
   }
 
   public String asString(){
@@ -454,7 +511,7 @@ public class DataWord implements Comparable<DataWord> {
   }
 
   public String toHexString() {
-    return Hex.toHexString(data);
+    return Hex.toHexString(bytes());
   }
 
   /**
@@ -463,12 +520,12 @@ public class DataWord implements Comparable<DataWord> {
    * @return this << arg
    */
   public DataWord shiftLeft(DataWord arg) {
-    if (arg.value().compareTo(BigInteger.valueOf(MAX_POW)) >= 0) {
+    UInt256 shift = arg.operand();
+    if (!shift.fitsInt() || shift.lowLong() >= MAX_POW) {
       return DataWord.ZERO();
     }
 
-    BigInteger result = value().shiftLeft(arg.intValueSafe());
-    return new DataWord(ByteUtil.copyToArray(result.and(MAX_VALUE)));
+    return new DataWord(new UInt256(operand()).shiftLeft((int) shift.lowLong()));
   }
 
   /**
@@ -477,12 +534,12 @@ public class DataWord implements Comparable<DataWord> {
    * @return this >> arg
    */
   public DataWord shiftRight(DataWord arg) {
-    if (arg.value().compareTo(BigInteger.valueOf(MAX_POW)) >= 0) {
+    UInt256 shift = arg.operand();
+    if (!shift.fitsInt() || shift.lowLong() >= MAX_POW) {
       return DataWord.ZERO();
     }
 
-    BigInteger result = value().shiftRight(arg.intValueSafe());
-    return new DataWord(ByteUtil.copyToArray(result.and(MAX_VALUE)));
+    return new DataWord(new UInt256(operand()).shiftRight((int) shift.lowLong()));
   }
 
   /**
@@ -491,18 +548,9 @@ public class DataWord implements Comparable<DataWord> {
    * @return this >> arg
    */
   public DataWord shiftRightSigned(DataWord arg) {
-    if (arg.value().compareTo(BigInteger.valueOf(MAX_POW)) >= 0) {
-      if (this.isNegative()) {
-        DataWord result = ONE();
-        result.negate();
-        return result;
-      } else {
-        return ZERO();
-      }
-    }
-
-    BigInteger result = sValue().shiftRight(arg.intValueSafe());
-    return new DataWord(ByteUtil.copyToArray(result.and(MAX_VALUE)));
+    UInt256 shift = arg.operand();
+    int n = !shift.fitsInt() || shift.lowLong() >= MAX_POW ? MAX_POW : (int) shift.lowLong();
+    return new DataWord(new UInt256(operand()).shiftRightSigned(n));
   }
 
   public static long sizeInWords(long bytesSize) {
@@ -0,0 +1,497 @@
+package org.sonicx.common.runtime.vm;
+
+/**
+ * A mutable unsigned 256-bit integer in four 64-bit limbs, the arithmetic behind
+ * {@link DataWord} without {@link java.math.BigInteger}.
+ *
+ * <p>All operations work in place on this instance and wrap modulo 2^256, divisions by zero give
+ * zero as the VM defines. Signed operations read the limbs as two's complement.
+ */
+public final class UInt256 {
+
+  private static final long MASK_32 = 0xFFFFFFFFL;
+
+  // u0 is the least significant limb
+  private long u0;
+  private long u1;
+  private long u2;
+  private long u3;
+
+  public UInt256() {
+  }
+
+  public UInt256(byte[] data) {
+    set(data);
+  }
+
+  public UInt256(UInt256 other) {
+    set(other);
+  }
+
+  /**
+   * Sets the value from big-endian bytes, arrays shorter than 32 bytes are right aligned.
+   */
+  public UInt256 set(byte[] data) {
+    u0 = u1 = u2 = u3 = 0;
+    int length = Math.min(data.length, DataWord.WORD_SIZE);
+    for (int i = 0; i < length; i++) {
+      setByte(i, data[data.length - 1 - i] & 0xFFL);
+    }
+    return this;
+  }
+
+  private void setByte(int index, long b) {
+    int shift = (index & 7) << 3;
+    switch (index >>> 3) {
+      case 0:
+        u0 |= b << shift;
+        break;
+      case 1:
+        u1 |= b << shift;
+        break;
+      case 2:
+        u2 |= b << shift;
+        break;
+      default:
+        u3 |= b << shift;
+    }
+  }
+
+  public UInt256 set(UInt256 other) {
+    u0 = other.u0;
+    u1 = other.u1;
+    u2 = other.u2;
+    u3 = other.u3;
+    return this;
+  }
+
+  private UInt256 set(long l3, long l2, long l1, long l0) {
+    u3 = l3;
+    u2 = l2;
+    u1 = l1;
+    u0 = l0;
+    return this;
+  }
+
+  public UInt256 setZero() {
+    return set(0, 0, 0, 0);
+  }
+
+  /**
+   * Sets the value to {@code value} read as an unsigned number.
+   */
+  public UInt256 set(long value) {
+    return set(0, 0, 0, value);
+  }
+
+  /**
+   * Writes the value as 32 big-endian bytes into {@code out}.
+   */
+  public void toBytes(byte[] out) {
+    putLong(out, 0, u3);
+    putLong(out, 8, u2);
+    putLong(out, 16, u1);
+    putLong(out, 24, u0);
+  }
+
+  public byte[] toBytes() {
+    byte[] out = new byte[DataWord.WORD_SIZE];
+    toBytes(out);
+    return out;
+  }
+
+  private static void putLong(byte[] out, int offset, long value) {
+    for (int i = 7; i >= 0; i--) {
+      out[offset + i] = (byte) value;
+      value >>>= 8;
+    }
+  }
+
+  public boolean isZero() {
+    return (u0 | u1 | u2 | u3) == 0;
+  }
+
+  public boolean isNegative() {
+    return u3 < 0;
+  }
+
+  /**
+   * Returns whether the value fits in a non-negative int.
+   */
+  public boolean fitsInt() {
+    return (u1 | u2 | u3) == 0 && u0 >= 0 && u0 <= Integer.MAX_VALUE;
+  }
+
+  public long lowLong() {
+    return u0;
+  }
+
+  /**
+   * Compares both values as unsigned numbers.
+   */
+  public int compareTo(UInt256 other) {
+    int result = Long.compareUnsigned(u3, other.u3);
+    if (result == 0) {
+      result = Long.compareUnsigned(u2, other.u2);
+    }
+    if (result == 0) {
+      result = Long.compareUnsigned(u1, other.u1);
+    }
+    if (result == 0) {
+      result = Long.compareUnsigned(u0, other.u0);
+    }
+    return Integer.signum(result);
+  }
+
+  public int bitLength() {
+    if (u3 != 0) {
+      return 256 - Long.numberOfLeadingZeros(u3);
+    }
+    if (u2 != 0) {
+      return 192 - Long.numberOfLeadingZeros(u2);
+    }
+    if (u1 != 0) {
+      return 128 - Long.numberOfLeadingZeros(u1);
+    }
+    return 64 - Long.numberOfLeadingZeros(u0);
+  }
+
+  private boolean testBit(int n) {
+    return (limb(n >>> 6) >>> (n & 63) & 1) != 0;
+  }
+
+  private long limb(int index) {
+    switch (index) {
+      case 0:
+        return u0;
+      case 1:
+        return u1;
+      case 2:
+        return u2;
+      default:
+        return u3;
+    }
+  }
+
+  public UInt256 add(UInt256 other) {
+    long r0 = u0 + other.u0;
+    long carry = Long.compareUnsigned(r0, u0) < 0 ? 1 : 0;
+    long r1 = u1 + other.u1 + carry;
+    carry = carry(u1, other.u1, r1, carry);
+    long r2 = u2 + other.u2 + carry;
+    carry = carry(u2, other.u2, r2, carry);
+    long r3 = u3 + other.u3 + carry;
+    return set(r3, r2, r1, r0);
+  }
+
+  // the carry out of a + b + carryIn = sum
+  private static long carry(long a, long b, long sum, long carryIn) {
+    return Long.compareUnsigned(sum, a) < 0 || (carryIn != 0 && sum == a) ? 1 : 0;
+  }
+
+  public UInt256 sub(UInt256 other) {
+    long r0 = u0 - other.u0;
+    long borrow = Long.compareUnsigned(u0, other.u0) < 0 ? 1 : 0;
+    long r1 = u1 - other.u1 - borrow;
+    borrow = borrow(u1, other.u1, borrow);
+    long r2 = u2 - other.u2 - borrow;
+    borrow = borrow(u2, other.u2, borrow);
+    long r3 = u3 - other.u3 - borrow;
+    return set(r3, r2, r1, r0);
+  }
+
+  // the borrow out of a - b - borrowIn
+  private static long borrow(long a, long b, long borrowIn) {
+    int cmp = Long.compareUnsigned(a, b);
+    return cmp < 0 || (cmp == 0 && borrowIn != 0) ? 1 : 0;
+  }
+
+  public UInt256 not() {
+    return set(~u3, ~u2, ~u1, ~u0);
+  }
+
+  public UInt256 negate() {
+    not();
+    long r0 = u0 + 1;
+    long r1 = u1;
+    long r2 = u2;
+    long r3 = u3;
+    if (r0 == 0) {
+      r1++;
+      if (r1 == 0) {
+        r2++;
+        if (r2 == 0) {
+          r3++;
+        }
+      }
+    }
+    return set(r3, r2, r1, r0);
+  }
+
+  private UInt256 abs() {
+    return isNegative() ? negate() : this;
+  }
+
+  public UInt256 mul(UInt256 other) {
+    long a0 = u0;
+    long a1 = u1;
+    long a2 = u2;
+    long a3 = u3;
+    long b0 = other.u0;
+    long b1 = other.u1;
+    long b2 = other.u2;
+    long b3 = other.u3;
+
+    // column by column, (c0, c1, c2) accumulates the products of one column and the carries
+    long c0 = a0 * b0;
+    long c1 = multiplyHigh(a0, b0);
+    long c2 = 0;
+    long r0 = c0;
+
+    c0 = c1;
+    c1 = 0;
+    long lo = a0 * b1;
+    long hi = multiplyHigh(a0, b1);
+    c0 += lo;
+    hi += Long.compareUnsigned(c0, lo) < 0 ? 1 : 0;
+    c1 += hi;
+    c2 += Long.compareUnsigned(c1, hi) < 0 ? 1 : 0;
+    lo = a1 * b0;
+    hi = multiplyHigh(a1, b0);
+    c0 += lo;
+    hi += Long.compareUnsigned(c0, lo) < 0 ? 1 : 0;
+    c1 += hi;
+    c2 += Long.compareUnsigned(c1, hi) < 0 ? 1 : 0;
+    long r1 = c0;
+
+    c0 = c1;
+    c1 = c2;
+    lo = a0 * b2;
+    hi = multiplyHigh(a0, b2);
+    c0 += lo;
+    hi += Long.compareUnsigned(c0, lo) < 0 ? 1 : 0;
+    c1 += hi;
+    lo = a1 * b1;
+    hi = multiplyHigh(a1, b1);
+    c0 += lo;
+    hi += Long.compareUnsigned(c0, lo) < 0 ? 1 : 0;
+    c1 += hi;
+    lo = a2 * b0;
+    hi = multiplyHigh(a2, b0);
+    c0 += lo;
+    hi += Long.compareUnsigned(c0, lo) < 0 ? 1 : 0;
+    c1 += hi;
+    long r2 = c0;
+
+    // only the low halves reach the last limb
+    long r3 = c1 + a0 * b3 + a1 * b2 + a2 * b1 + a3 * b0;
+    return set(r3, r2, r1, r0);
+  }
+
+  /**
+   * Returns the high 64 bits of the unsigned 128-bit product of {@code x} and {@code y}.
+   */
+  static long multiplyHigh(long x, long y) {
+    long x0 = x & MASK_32;
+    long x1 = x >>> 32;
+    long y0 = y & MASK_32;
+    long y1 = y >>> 32;
+    long w0 = x0 * y0;
+    long t = x1 * y0 + (w0 >>> 32);
+    long w1 = (t & MASK_32) + x0 * y1;
+    return x1 * y1 + (t >>> 32) + (w1 >>> 32);
+  }
+
+  public UInt256 div(UInt256 divisor) {
+    return divide(divisor, false);
+  }
+
+  public UInt256 mod(UInt256 divisor) {
+    return divide(divisor, true);
+  }
+
+  private UInt256 divide(UInt256 divisor, boolean remainder) {
+    if (divisor.isZero()) {
+      return setZero();
+    }
+
+    int cmp = compareTo(divisor);
+    if (cmp < 0) {
+      return remainder ? this : setZero();
+    }
+    if (cmp == 0) {
+      return remainder ? setZero() : set(0, 0, 0, 1);
+    }
+
+    if ((u1 | u2 | u3 | divisor.u1 | divisor.u2 | divisor.u3) == 0) {
+      return set(0, 0, 0, remainder ? Long.remainderUnsigned(u0, divisor.u0)
+          : Long.divideUnsigned(u0, divisor.u0));
+    }
+
+    if ((divisor.u1 | divisor.u2 | divisor.u3) == 0 && (divisor.u0 >>> 32) == 0) {
+      return divideByInt(divisor.u0, remainder);
+    }
+
+    // shift and subtract, the dividend has at most 256 - 33 more bits than the divisor
+    int shift = bitLength() - divisor.bitLength();
+    UInt256 rest = new UInt256(this);
+    UInt256 shifted = new UInt256(divisor).shiftLeft(shift);
+    long q0 = 0;
+    long q1 = 0;
+    long q2 = 0;
+    long q3 = 0;
+    for (int bit = shift; bit >= 0; bit--) {
+      if (rest.compareTo(shifted) >= 0) {
+        rest.sub(shifted);
+        long mask = 1L << (bit & 63);
+        switch (bit >>> 6) {
+          case 0:
+            q0 |= mask;
+            break;
+          case 1:
+            q1 |= mask;
+            break;
+          case 2:
+            q2 |= mask;
+            break;
+          default:
+            q3 |= mask;
+        }
+      }
+      shifted.shiftRight(1);
+    }
+    return remainder ? set(rest) : set(q3, q2, q1, q0);
+  }
+
+  // long division by 32-bit digits
+  private UInt256 divideByInt(long divisor, boolean remainder) {
+    long rest = 0;
+    long[] limbs = {u3, u2, u1, u0};
+    for (int i = 0; i < 4; i++) {
+      long high = (rest << 32) | (limbs[i] >>> 32);
+      long qHigh = Long.divideUnsigned(high, divisor);
+      rest = Long.remainderUnsigned(high, divisor);
+      long low = (rest << 32) | (limbs[i] & MASK_32);
+      long qLow = Long.divideUnsigned(low, divisor);
+      rest = Long.remainderUnsigned(low, divisor);
+      limbs[i] = (qHigh << 32) | qLow;
+    }
+    return remainder ? set(0, 0, 0, rest) : set(limbs[0], limbs[1], limbs[2], limbs[3]);
+  }
+
+  /**
+   * Divides as signed numbers, truncating toward zero.
+   */
+  public UInt256 sdiv(UInt256 divisor) {
+    if (divisor.isZero()) {
+      return setZero();
+    }
+    boolean negative = isNegative() != divisor.isNegative();
+    abs().div(new UInt256(divisor).abs());
+    return negative ? negate() : this;
+  }
+
+  /**
+   * Returns the signed remainder, which has the sign of the dividend.
+   */
+  public UInt256 smod(UInt256 divisor) {
+    if (divisor.isZero()) {
+      return setZero();
+    }
+    boolean negative = isNegative();
+    abs().mod(new UInt256(divisor).abs());
+    return negative ? negate() : this;
+  }
+
+  /**
+   * Sets this to {@code (this + other) % modulus} without wrapping the sum.
+   */
+  public UInt256 addmod(UInt256 other, UInt256 modulus) {
+    if (modulus.isZero()) {
+      return setZero();
+    }
+    mod(modulus);
+    UInt256 addend = new UInt256(other).mod(modulus);
+    UInt256 before = new UInt256(this);
+    add(addend);
+    // the sum of two remainders is below 2 * modulus, subtract once if it wrapped or exceeds
+    if (compareTo(before) < 0 || compareTo(modulus) >= 0) {
+      sub(modulus);
+    }
+    return this;
+  }
+
+  public UInt256 exp(UInt256 exponent) {
+    UInt256 base = new UInt256(this);
+    set(0, 0, 0, 1);
+    int bits = exponent.bitLength();
+    for (int i = bits - 1; i >= 0; i--) {
+      mul(this);
+      if (exponent.testBit(i)) {
+        mul(base);
+      }
+    }
+    return this;
+  }
+
+  public UInt256 and(UInt256 other) {
+    return set(u3 & other.u3, u2 & other.u2, u1 & other.u1, u0 & other.u0);
+  }
+
+  public UInt256 or(UInt256 other) {
+    return set(u3 | other.u3, u2 | other.u2, u1 | other.u1, u0 | other.u0);
+  }
+
+  public UInt256 xor(UInt256 other) {
+    return set(u3 ^ other.u3, u2 ^ other.u2, u1 ^ other.u1, u0 ^ other.u0);
+  }
+
+  public UInt256 shiftLeft(int n) {
+    if (n >= 256) {
+      return setZero();
+    }
+    while (n >= 64) {
+      set(u2, u1, u0, 0);
+      n -= 64;
+    }
+    if (n > 0) {
+      set(u3 << n | u2 >>> (64 - n), u2 << n | u1 >>> (64 - n), u1 << n | u0 >>> (64 - n),
+          u0 << n);
+    }
+    return this;
+  }
+
+  public UInt256 shiftRight(int n) {
+    if (n >= 256) {
+      return setZero();
+    }
+    while (n >= 64) {
+      set(0, u3, u2, u1);
+      n -= 64;
+    }
+    if (n > 0) {
+      set(u3 >>> n, u3 << (64 - n) | u2 >>> n, u2 << (64 - n) | u1 >>> n,
+          u1 << (64 - n) | u0 >>> n);
+    }
+    return this;
+  }
+
+  /**
+   * Shifts right filling with the sign bit.
+   */
+  public UInt256 shiftRightSigned(int n) {
+    long fill = u3 >> 63;
+    if (n >= 256) {
+      return set(fill, fill, fill, fill);
+    }
+    while (n >= 64) {
+      set(fill, u3, u2, u1);
+      n -= 64;
+    }
+    if (n > 0) {
+      set(u3 >> n, u3 << (64 - n) | u2 >>> n, u2 << (64 - n) | u1 >>> n,
+          u1 << (64 - n) | u0 >>> n);
+    }
+    return this;
+  }
+}
@@ -448,7 +448,6 @@ public class VM {
         }
         break;
         case LT: {
-          // TODO: can be improved by not using BigInteger
           DataWord word1 = program.stackPop();
           DataWord word2 = program.stackPop();
 
@@ -456,18 +455,12 @@ public class VM {
             hint = word1.value() + " < " + word2.value();
           }
 
-          if (word1.value().compareTo(word2.value()) < 0) {
-            word1.and(DataWord.ZERO);
-            word1.getData()[31] = 1;
-          } else {
-            word1.and(DataWord.ZERO);
-          }
+          word1.setBoolean(word1.compareTo(word2) < 0);
           program.stackPush(word1);
           program.step();
         }
         break;
         case SLT: {
-          // TODO: can be improved by not using BigInteger
           DataWord word1 = program.stackPop();
           DataWord word2 = program.stackPop();
 
@@ -475,18 +468,12 @@ public class VM {
             hint = word1.sValue() + " < " + word2.sValue();
           }
 
-          if (word1.sValue().compareTo(word2.sValue()) < 0) {
-            word1.and(DataWord.ZERO);
-            word1.getData()[31] = 1;
-          } else {
-            word1.and(DataWord.ZERO);
-          }
+          word1.setBoolean(word1.sCompareTo(word2) < 0);
           program.stackPush(word1);
           program.step();
         }
         break;
         case SGT: {
-          // TODO: can be improved by not using BigInteger
           DataWord word1 = program.stackPop();
           DataWord word2 = program.stackPop();
 
@@ -494,18 +481,12 @@ public class VM {
             hint = word1.sValue() + " > " + word2.sValue();
           }
 
-          if (word1.sValue().compareTo(word2.sValue()) > 0) {
-            word1.and(DataWord.ZERO);
-            word1.getData()[31] = 1;
-          } else {
-            word1.and(DataWord.ZERO);
-          }
+          word1.setBoolean(word1.sCompareTo(word2) > 0);
           program.stackPush(word1);
           program.step();
         }
         break;
         case GT: {
-          // TODO: can be improved by not using BigInteger
           DataWord word1 = program.stackPop();
           DataWord word2 = program.stackPop();
 
@@ -513,12 +494,7 @@ public class VM {
             hint = word1.value() + " > " + word2.value();
           }
 
-          if (word1.value().compareTo(word2.value()) > 0) {
-            word1.and(DataWord.ZERO);
-            word1.getData()[31] = 1;
-          } else {
-            word1.and(DataWord.ZERO);
-          }
+          word1.setBoolean(word1.compareTo(word2) > 0);
           program.stackPush(word1);
           program.step();
         }
@@ -531,23 +507,14 @@ public class VM {
             hint = word1.value() + " == " + word2.value();
           }
 
-          if (word1.xor(word2).isZero()) {
-            word1.and(DataWord.ZERO);
-            word1.getData()[31] = 1;
-          } else {
-            word1.and(DataWord.ZERO);
-          }
+          word1.setBoolean(word1.xor(word2).isZero());
           program.stackPush(word1);
           program.step();
         }
         break;
         case ISZERO: {
           DataWord word1 = program.stackPop();
-          if (word1.isZero()) {
-            word1.getData()[31] = 1;
-          } else {
-            word1.and(DataWord.ZERO);
-          }
+          word1.setBoolean(word1.isZero());
 
           if (logger.isDebugEnabled()) {
             hint = "" + word1.value();
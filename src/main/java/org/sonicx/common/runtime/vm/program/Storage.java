@@ -50,8 +50,9 @@ public class Storage {
     if (rowCache.containsKey(key)) {
       return rowCache.get(key).getValue();
     } else {
-      StorageRowCapsule row = store.get(compose(key.getData(), addrHash));
-      if (row == null || row.getInstance() == null) {
+      StorageRowCapsule row = StorageSlotCache.instance()
+          .get(compose(key.getData(), addrHash), store::get);
+      if (row == null) {
         return null;
       }
       rowCache.put(key, row);
@@ -78,23 +79,26 @@ public class Storage {
 
   // 32 bytes
   private static byte[] addrHash(byte[] address) {
-    return Hash.sha3(address);
+    return StorageSlotCache.instance().addrHash(address, Hash::sha3);
   }
 
   private static byte[] addrHash(byte[] address, byte[] trxHash) {
     if (ByteUtil.isNullOrZeroArray(trxHash)) {
-      return Hash.sha3(address);
+      return addrHash(address);
     }
-    return Hash.sha3(ByteUtil.merge(address, trxHash));
+    return StorageSlotCache.instance().addrHash(ByteUtil.merge(address, trxHash), Hash::sha3);
   }
 
   public void commit() {
+    StorageSlotCache slotCache = StorageSlotCache.instance();
     rowCache.forEach((DataWord rowKey, StorageRowCapsule row) -> {
       if (row.isDirty()) {
         if (row.getValue().isZero()) {
           this.store.delete(row.getRowKey());
+          slotCache.put(row.getRowKey(), null);
         } else {
           this.store.put(row.getRowKey(), row);
+          slotCache.put(row.getRowKey(), row.getRowValue());
         }
       }
     });
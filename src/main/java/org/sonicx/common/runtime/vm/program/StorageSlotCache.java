@@ -0,0 +1,146 @@
+package org.sonicx.common.runtime.vm.program;
+
+import com.google.protobuf.ByteString;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.sonicx.core.capsule.StorageRowCapsule;
+
+/**
+ * Storage rows read and written while one block is processed, shared by all {@link Storage}
+ * instances of the block.
+ *
+ * <p>The cache is only used by the thread processing the block, between {@link #begin()} and
+ * {@link #end()}. Committed rows are written through, and every revoked session clears the
+ * whole cache, so it always matches the head of the storage row store.
+ */
+@Slf4j(topic = "VM")
+public class StorageSlotCache {
+
+  private static final StorageSlotCache INSTANCE = new StorageSlotCache();
+
+  // the row does not exist in the store
+  private static final byte[] ABSENT = new byte[0];
+
+  private final Map<ByteString, byte[]> rows = new HashMap<>();
+  private final Map<ByteString, byte[]> addrHashes = new HashMap<>();
+  private volatile Thread owner;
+
+  @Getter
+  private final AtomicLong hitCount = new AtomicLong();
+  @Getter
+  private final AtomicLong missCount = new AtomicLong();
+
+  StorageSlotCache() {
+  }
+
+  public static StorageSlotCache instance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Starts caching for the calling thread, which processes a block.
+   */
+  public synchronized void begin() {
+    rows.clear();
+    addrHashes.clear();
+    owner = Thread.currentThread();
+  }
+
+  public synchronized void end() {
+    owner = null;
+    rows.clear();
+    addrHashes.clear();
+  }
+
+  /**
+   * Drops all cached rows, called whenever a session of the revoking store is revoked.
+   */
+  public synchronized void invalidate() {
+    rows.clear();
+  }
+
+  private boolean isActive() {
+    return owner == Thread.currentThread();
+  }
+
+  /**
+   * Returns the row with {@code rowKey}, from the cache or from {@code loader}. A row which is
+   * not in the store is returned as null.
+   */
+  StorageRowCapsule get(byte[] rowKey, Function<byte[], StorageRowCapsule> loader) {
+    if (!isActive()) {
+      return load(rowKey, loader);
+    }
+
+    synchronized (this) {
+      return getCached(rowKey, loader);
+    }
+  }
+
+  private StorageRowCapsule getCached(byte[] rowKey,
+      Function<byte[], StorageRowCapsule> loader) {
+    ByteString key = ByteString.copyFrom(rowKey);
+    byte[] value = rows.get(key);
+    if (value != null) {
+      hitCount.incrementAndGet();
+      if (value == ABSENT) {
+        return null;
+      }
+      StorageRowCapsule row = new StorageRowCapsule(value.clone());
+      row.setRowKey(rowKey);
+      return row;
+    }
+
+    missCount.incrementAndGet();
+    StorageRowCapsule row = load(rowKey, loader);
+    rows.put(key, row == null ? ABSENT : row.getRowValue().clone());
+    return row;
+  }
+
+  private static StorageRowCapsule load(byte[] rowKey,
+      Function<byte[], StorageRowCapsule> loader) {
+    StorageRowCapsule row = loader.apply(rowKey);
+    return row == null || row.getInstance() == null ? null : row;
+  }
+
+  /**
+   * Records a row committed to the store, a null value for a deleted row.
+   */
+  void put(byte[] rowKey, byte[] value) {
+    if (!isActive()) {
+      return;
+    }
+
+    synchronized (this) {
+      rows.put(ByteString.copyFrom(rowKey), value == null ? ABSENT : value.clone());
+    }
+  }
+
+  /**
+   * Returns the address hash for {@code preimage}, computed once per block.
+   */
+  byte[] addrHash(byte[] preimage, Function<byte[], byte[]> hash) {
+    if (!isActive()) {
+      return hash.apply(preimage);
+    }
+
+    synchronized (this) {
+      return addrHashes.computeIfAbsent(ByteString.copyFrom(preimage),
+          k -> hash.apply(preimage)).clone();
+    }
+  }
+
+  public synchronized int size() {
+    return rows.size();
+  }
+
+  public double getHitRate() {
+    long hit = hitCount.get();
+    long total = hit + missCount.get();
+    return total == 0 ? 1.0 : (double) hit / total;
+  }
+}
@@ -0,0 +1,11 @@
+package org.sonicx.common.storage;
+
+/**
+ * The rows of a write batch, passed to the database as they are produced.
+ */
+public interface BatchWriter {
+
+  void put(byte[] key, byte[] value);
+
+  void delete(byte[] key);
+}
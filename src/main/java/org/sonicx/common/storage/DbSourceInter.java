@@ -17,8 +17,11 @@
  */
 package org.sonicx.common.storage;
 
+import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
+import org.sonicx.core.db.common.WrappedByteArray;
 
 
 public interface DbSourceInter<V> extends BatchSourceInter<byte[], V>,
@@ -45,4 +48,16 @@ public interface DbSourceInter<V> extends BatchSourceInter<byte[], V>,
 
   long getTotal() throws RuntimeException;
 
+  /**
+   * Returns the values of the keys found in {@code keys}, read together from one consistent
+   * view of the database.
+   */
+  Map<WrappedByteArray, V> getBatch(Collection<byte[]> keys);
+
+  /**
+   * Writes the rows {@code rows} passes to the writer as one atomic batch. The rows go straight
+   * into the native batch instead of being collected in a map first.
+   */
+  void writeBatch(Consumer<BatchWriter> rows, WriteOptionsWrapper writeOptions);
+
 }
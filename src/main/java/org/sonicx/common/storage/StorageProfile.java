@@ -0,0 +1,147 @@
+package org.sonicx.common.storage;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import lombok.Getter;
+
+/**
+ * Table options of one kind of store, applied on top of the engine settings.
+ *
+ * <p>{@link #POINT_LOOKUP} suits stores read by key at random on every transaction, such as
+ * accounts and contract storage: small blocks, whole key bloom filters and no compression on the
+ * upper levels, where most reads hit. {@link #APPEND} suits stores written once with growing
+ * keys and read back in ranges, such as blocks and transaction results: large blocks compressed
+ * on every level but the first.
+ */
+public class StorageProfile {
+
+  public static final String DEFAULT = "default";
+  public static final String POINT_LOOKUP = "point-lookup";
+  public static final String APPEND = "append";
+
+  public static final String NO_COMPRESSION = "NO_COMPRESSION";
+
+  @Getter
+  private final String name;
+
+  /**
+   * Block size in bytes, 0 keeps the block size of the engine settings.
+   */
+  @Getter
+  private long blockSize;
+
+  /**
+   * Bits per key of the bloom filter, 0 disables the filter.
+   */
+  @Getter
+  private int bloomBitsPerKey;
+
+  @Getter
+  private boolean wholeKeyFiltering;
+
+  @Getter
+  private boolean pinL0FilterAndIndex;
+
+  /**
+   * Names of the RocksDB compression type of each level, the last one applies to all lower
+   * levels. Empty keeps the engine default.
+   */
+  @Getter
+  private List<String> compressionPerLevel;
+
+  /**
+   * Size of the block cache of a LevelDB store, RocksDB stores share one cache instead.
+   */
+  @Getter
+  private long cacheSize;
+
+  public StorageProfile(String name) {
+    this.name = name;
+    this.bloomBitsPerKey = 10;
+    this.wholeKeyFiltering = true;
+    this.pinL0FilterAndIndex = true;
+    this.compressionPerLevel = ImmutableList.of();
+    this.cacheSize = 10 * 1024 * 1024L;
+  }
+
+  public static StorageProfile defaultProfile() {
+    return new StorageProfile(DEFAULT);
+  }
+
+  public static StorageProfile pointLookup() {
+    return new StorageProfile(POINT_LOOKUP)
+        .withBlockSize(4 * 1024)
+        .withCompressionPerLevel(ImmutableList.of(NO_COMPRESSION, NO_COMPRESSION,
+            "LZ4_COMPRESSION"))
+        .withCacheSize(64 * 1024 * 1024L);
+  }
+
+  public static StorageProfile append() {
+    return new StorageProfile(APPEND)
+        .withBlockSize(64 * 1024)
+        .withCompressionPerLevel(ImmutableList.of(NO_COMPRESSION, "LZ4_COMPRESSION"))
+        .withCacheSize(8 * 1024 * 1024L);
+  }
+
+  /**
+   * Returns the built-in profile of that name, null if there is none.
+   */
+  public static StorageProfile of(String name) {
+    switch (name) {
+      case DEFAULT:
+        return defaultProfile();
+      case POINT_LOOKUP:
+        return pointLookup();
+      case APPEND:
+        return append();
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * LevelDB has one compression type for all levels: compress unless every level is left
+   * uncompressed.
+   */
+  public boolean isCompressed() {
+    return compressionPerLevel.isEmpty()
+        || compressionPerLevel.stream().anyMatch(type -> !NO_COMPRESSION.equals(type));
+  }
+
+  public StorageProfile withBlockSize(long blockSize) {
+    this.blockSize = blockSize;
+    return this;
+  }
+
+  public StorageProfile withBloomBitsPerKey(int bloomBitsPerKey) {
+    this.bloomBitsPerKey = bloomBitsPerKey;
+    return this;
+  }
+
+  public StorageProfile withWholeKeyFiltering(boolean wholeKeyFiltering) {
+    this.wholeKeyFiltering = wholeKeyFiltering;
+    return this;
+  }
+
+  public StorageProfile withPinL0FilterAndIndex(boolean pinL0FilterAndIndex) {
+    this.pinL0FilterAndIndex = pinL0FilterAndIndex;
+    return this;
+  }
+
+  public StorageProfile withCompressionPerLevel(List<String> compressionPerLevel) {
+    this.compressionPerLevel = ImmutableList.copyOf(compressionPerLevel);
+    return this;
+  }
+
+  public StorageProfile withCacheSize(long cacheSize) {
+    this.cacheSize = cacheSize;
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s: blockSize %d, bloomBitsPerKey %d, wholeKeyFiltering %b, "
+            + "pinL0FilterAndIndex %b, compressionPerLevel %s, cacheSize %d", name, blockSize,
+        bloomBitsPerKey, wholeKeyFiltering, pinL0FilterAndIndex, compressionPerLevel, cacheSize);
+  }
+}
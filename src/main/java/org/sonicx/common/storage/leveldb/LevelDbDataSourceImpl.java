@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -32,24 +33,28 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
-import org.iq80.leveldb.CompressionType;
 import org.iq80.leveldb.DB;
 import org.iq80.leveldb.DBException;
 import org.iq80.leveldb.DBIterator;
 import org.iq80.leveldb.Options;
+import org.iq80.leveldb.ReadOptions;
+import org.iq80.leveldb.Snapshot;
 import org.iq80.leveldb.WriteBatch;
 import org.iq80.leveldb.WriteOptions;
+import org.sonicx.common.storage.BatchWriter;
 import org.sonicx.common.storage.DbSourceInter;
 import org.sonicx.common.utils.ByteUtil;
 import org.sonicx.common.storage.WriteOptionsWrapper;
 import org.sonicx.common.utils.FileUtil;
 import org.sonicx.common.utils.PropUtil;
 import org.sonicx.core.config.args.Args;
+import org.sonicx.core.db.common.WrappedByteArray;
 import org.sonicx.core.db.common.iterator.StoreIterator;
 
 @Slf4j(topic = "DB")
@@ -144,20 +149,6 @@ public class LevelDbDataSourceImpl implements DbSourceInter<byte[]>,
     }
   }
 
-  @Deprecated
-  private Options createDbOptions() {
-    Options dbOptions = new Options();
-    dbOptions.createIfMissing(true);
-    dbOptions.compressionType(CompressionType.NONE);
-    dbOptions.blockSize(10 * 1024 * 1024);
-    dbOptions.writeBufferSize(10 * 1024 * 1024);
-    dbOptions.cacheSize(0);
-    dbOptions.paranoidChecks(true);
-    dbOptions.verifyChecksums(true);
-    dbOptions.maxOpenFiles(32);
-    return dbOptions;
-  }
-
   public Path getDbPath() {
     return Paths.get(parentName, dataBaseName);
   }
@@ -227,6 +218,27 @@ public class LevelDbDataSourceImpl implements DbSourceInter<byte[]>,
     return null;
   }
 
+  @Override
+  public Map<WrappedByteArray, byte[]> getBatch(Collection<byte[]> keys) {
+    Map<WrappedByteArray, byte[]> result = new HashMap<>(keys.size());
+    resetDbLock.readLock().lock();
+    // leveldb has no multi-get, read the keys one by one from a snapshot instead
+    try (Snapshot snapshot = database.getSnapshot()) {
+      ReadOptions readOptions = new ReadOptions().snapshot(snapshot);
+      for (byte[] key : keys) {
+        byte[] value = database.get(key, readOptions);
+        if (value != null) {
+          result.put(WrappedByteArray.of(key), value);
+        }
+      }
+    } catch (DBException | IOException e) {
+      logger.debug(e.getMessage(), e);
+    } finally {
+      resetDbLock.readLock().unlock();
+    }
+    return result;
+  }
+
   @Override
   public void putData(byte[] key, byte[] value) {
     resetDbLock.readLock().lock();
@@ -504,6 +516,29 @@ public class LevelDbDataSourceImpl implements DbSourceInter<byte[]>,
     }
   }
 
+  @Override
+  public void writeBatch(Consumer<BatchWriter> rows, WriteOptionsWrapper options) {
+    resetDbLock.readLock().lock();
+    try (WriteBatch batch = database.createWriteBatch()) {
+      rows.accept(new BatchWriter() {
+        @Override
+        public void put(byte[] key, byte[] value) {
+          batch.put(key, value);
+        }
+
+        @Override
+        public void delete(byte[] key) {
+          batch.delete(key);
+        }
+      });
+      database.write(batch, options.getLevel());
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      resetDbLock.readLock().unlock();
+    }
+  }
+
   @Override
   public boolean flush() {
     return false;
@@ -530,6 +565,14 @@ public class LevelDbDataSourceImpl implements DbSourceInter<byte[]>,
     return new StoreIterator(database.iterator());
   }
 
+  /**
+   * Iterates the entries from {@code key} on in key order, backwards if {@code reverse}, and
+   * from the first or the last entry if {@code key} is null. Close it when done.
+   */
+  public org.sonicx.core.db.common.iterator.DBIterator iterator(byte[] key, boolean reverse) {
+    return new StoreIterator(database.iterator(), key, reverse);
+  }
+
   public Stream<Entry<byte[], byte[]>> stream() {
     return StreamSupport.stream(spliterator(), false);
   }
@@ -7,6 +7,8 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -15,13 +17,18 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.iq80.leveldb.DBIterator;
 import org.apache.commons.lang3.StringUtils;
 import org.rocksdb.BlockBasedTableConfig;
 import org.rocksdb.BloomFilter;
+import org.rocksdb.Cache;
 import org.rocksdb.Checkpoint;
+import org.rocksdb.CompressionType;
+import org.rocksdb.LRUCache;
 import org.rocksdb.Options;
 import org.rocksdb.ReadOptions;
 import org.rocksdb.RocksDB;
@@ -30,12 +37,17 @@ import org.rocksdb.RocksIterator;
 import org.rocksdb.Statistics;
 import org.rocksdb.WriteBatch;
 import org.rocksdb.WriteOptions;
+import org.sonicx.common.storage.BatchWriter;
 import org.sonicx.common.storage.DbSourceInter;
 import org.sonicx.common.storage.RocksDbSettings;
+import org.sonicx.common.storage.StorageProfile;
 import org.sonicx.common.storage.WriteOptionsWrapper;
 import org.sonicx.common.utils.ByteUtil;
 import org.sonicx.common.utils.FileUtil;
 import org.sonicx.common.utils.PropUtil;
+import org.sonicx.core.config.args.Args;
+import org.sonicx.core.config.args.Storage;
+import org.sonicx.core.db.common.WrappedByteArray;
 import org.sonicx.core.db.common.iterator.RockStoreIterator;
 
 @Slf4j
@@ -43,6 +55,9 @@ import org.sonicx.core.db.common.iterator.RockStoreIterator;
 public class RocksDbDataSourceImpl implements DbSourceInter<byte[]>,
     Iterable<Map.Entry<byte[], byte[]>> {
   private static final String ENGINE = "ENGINE";
+  private static final long DEFAULT_BLOCK_CACHE_SIZE = 32 * 1024 * 1024L;
+
+  private static Cache blockCache;
 
   private String dataBaseName;
   private RocksDB database;
@@ -146,6 +161,17 @@ public class RocksDbDataSourceImpl implements DbSourceInter<byte[]>,
   public void setDBName(String name) {
   }
 
+  /**
+   * Returns the block cache shared by all stores, so a hot store can use the memory a cold one
+   * leaves unused. It lives as long as the process.
+   */
+  private static synchronized Cache getBlockCache(long capacity) {
+    if (blockCache == null) {
+      blockCache = new LRUCache(capacity);
+    }
+    return blockCache;
+  }
+
   public boolean checkOrInitEngine() {
     String dir = getDbPath().toString();
     String enginePath = dir + File.separator + "engine.properties";
@@ -207,14 +233,28 @@ public class RocksDbDataSourceImpl implements DbSourceInter<byte[]>,
         options.setTargetFileSizeMultiplier(settings.getTargetFileSizeMultiplier());
         options.setTargetFileSizeBase(settings.getTargetFileSizeBase());
 
-        // table options
+        // table options, tuned by the profile of the store
+        Storage storage = Args.getInstance().getStorage();
+        StorageProfile profile = storage == null ? StorageProfile.defaultProfile()
+            : storage.getProfileByDbName(dataBaseName);
         final BlockBasedTableConfig tableCfg;
         options.setTableFormatConfig(tableCfg = new BlockBasedTableConfig());
-        tableCfg.setBlockSize(settings.getBlockSize());
-        tableCfg.setBlockCacheSize(32 * 1024 * 1024);
+        tableCfg.setBlockSize(profile.getBlockSize() > 0
+            ? profile.getBlockSize() : settings.getBlockSize());
+        tableCfg.setBlockCache(getBlockCache(storage == null
+            ? DEFAULT_BLOCK_CACHE_SIZE : storage.getBlockCacheSize()));
         tableCfg.setCacheIndexAndFilterBlocks(true);
-        tableCfg.setPinL0FilterAndIndexBlocksInCache(true);
-        tableCfg.setFilter(new BloomFilter(10, false));
+        tableCfg.setPinL0FilterAndIndexBlocksInCache(profile.isPinL0FilterAndIndex());
+        tableCfg.setWholeKeyFiltering(profile.isWholeKeyFiltering());
+        if (profile.getBloomBitsPerKey() > 0) {
+          tableCfg.setFilter(new BloomFilter(profile.getBloomBitsPerKey(), false));
+        }
+        if (!profile.getCompressionPerLevel().isEmpty()) {
+          options.setCompressionPerLevel(profile.getCompressionPerLevel().stream()
+              .map(CompressionType::valueOf)
+              .collect(Collectors.toList()));
+        }
+        logger.debug("Profile of {}: {}", dataBaseName, profile);
 
         // read options
         readOpts = new ReadOptions();
@@ -295,6 +335,25 @@ public class RocksDbDataSourceImpl implements DbSourceInter<byte[]>,
     return null;
   }
 
+  @Override
+  public Map<WrappedByteArray, byte[]> getBatch(Collection<byte[]> keys) {
+    Map<WrappedByteArray, byte[]> result = new HashMap<>(keys.size());
+    if (quitIfNotAlive() || keys.isEmpty()) {
+      return result;
+    }
+    resetDbLock.readLock().lock();
+    try {
+      // multiGet returns the key instances it was given for the keys it found
+      database.multiGet(readOpts, new ArrayList<>(keys))
+          .forEach((key, value) -> result.put(WrappedByteArray.of(key), value));
+    } catch (RocksDBException e) {
+      logger.error(e.getMessage(), e);
+    } finally {
+      resetDbLock.readLock().unlock();
+    }
+    return result;
+  }
+
   @Override
   public void deleteData(byte[] key) {
     if (quitIfNotAlive()) {
@@ -335,6 +394,14 @@ public class RocksDbDataSourceImpl implements DbSourceInter<byte[]>,
     return new RockStoreIterator(database.newIterator());
   }
 
+  /**
+   * Iterates the entries from {@code key} on in key order, backwards if {@code reverse}, and
+   * from the first or the last entry if {@code key} is null. Close it when done.
+   */
+  public org.sonicx.core.db.common.iterator.DBIterator iterator(byte[] key, boolean reverse) {
+    return new RockStoreIterator(database.newIterator(), key, reverse);
+  }
+
   private void updateByBatchInner(Map<byte[], byte[]> rows) throws Exception {
     if (quitIfNotAlive()) {
       return;
@@ -368,6 +435,40 @@ public class RocksDbDataSourceImpl implements DbSourceInter<byte[]>,
     }
   }
 
+  @Override
+  public void writeBatch(Consumer<BatchWriter> rows, WriteOptionsWrapper options) {
+    if (quitIfNotAlive()) {
+      return;
+    }
+    resetDbLock.readLock().lock();
+    try (WriteBatch batch = new WriteBatch()) {
+      rows.accept(new BatchWriter() {
+        @Override
+        public void put(byte[] key, byte[] value) {
+          try {
+            batch.put(key, value);
+          } catch (RocksDBException e) {
+            throw new RuntimeException(e);
+          }
+        }
+
+        @Override
+        public void delete(byte[] key) {
+          try {
+            batch.delete(key);
+          } catch (RocksDBException e) {
+            throw new RuntimeException(e);
+          }
+        }
+      });
+      database.write(options.getRocks(), batch);
+    } catch (RocksDBException e) {
+      throw new RuntimeException(e);
+    } finally {
+      resetDbLock.readLock().unlock();
+    }
+  }
+
   @Override
   public void updateByBatch(Map<byte[], byte[]> rows) {
     if (quitIfNotAlive()) {
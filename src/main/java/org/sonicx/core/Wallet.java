@@ -35,6 +35,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.stream.Collectors;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ArrayUtils;
@@ -44,6 +45,7 @@ import org.sonicx.common.logsfilter.trigger.ContractEventTrigger;
 import org.sonicx.common.logsfilter.trigger.ContractTrigger;
 import org.sonicx.core.capsule.*;
 import org.sonicx.core.db.*;
+import org.sonicx.core.db.common.WrappedByteArray;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
@@ -480,7 +482,7 @@ public class Wallet {
         }
       }
 
-      if (dbManager.isTooManyPending()) {
+      if (dbManager.isTooManyPending(trx)) {
         logger.warn("Broadcast transaction {} failed, too many pending.", trx.getTransactionId());
         return builder.setResult(false).setCode(response_code.SERVER_BUSY).build();
       }
@@ -698,11 +700,10 @@ public class Wallet {
   }
 
   public Block getNowBlock() {
-    List<BlockCapsule> blockList = dbManager.getBlockStore().getBlockByLatestNum(1);
-    if (CollectionUtils.isEmpty(blockList)) {
+    try {
+      return dbManager.getHead().getInstance();
+    } catch (HeaderNotFound e) {
       return null;
-    } else {
-      return blockList.get(0).getInstance();
     }
   }
 
@@ -1430,14 +1431,7 @@ public class Wallet {
     }
     DepositImpl deposit = DepositImpl.createRoot(dbManager);
 
-    Block headBlock;
-    List<BlockCapsule> blockCapsuleList = dbManager.getBlockStore()
-        .getBlockByLatestNum(1);
-    if (CollectionUtils.isEmpty(blockCapsuleList)) {
-      throw new HeaderNotFound("latest block not found");
-    } else {
-      headBlock = blockCapsuleList.get(0).getInstance();
-    }
+    Block headBlock = dbManager.getHead().getInstance();
 
     Runtime runtime = new RuntimeImpl(trxCap.getInstance(),
         new BlockCapsule(headBlock), deposit,
@@ -1578,13 +1572,11 @@ public class Wallet {
     ImmutableList<Long> rangeList = ContiguousSet
         .create(Range.openClosed(offset, end), DiscreteDomain.longs())
         .asList();
-    rangeList.stream().map(ProposalCapsule::calculateDbKey).map(key -> {
-      try {
-        return dbManager.getProposalStore().get(key);
-      } catch (Exception ex) {
-        return null;
-      }
-    }).filter(Objects::nonNull)
+    List<byte[]> keys = rangeList.stream().map(ProposalCapsule::calculateDbKey)
+        .collect(Collectors.toList());
+    Map<WrappedByteArray, ProposalCapsule> proposals = dbManager.getProposalStore()
+        .getBatch(keys);
+    keys.stream().map(key -> proposals.get(WrappedByteArray.of(key))).filter(Objects::nonNull)
         .forEach(proposalCapsule -> builder
             .addProposals(proposalCapsule.getInstance()));
     return builder.build();
@@ -1609,13 +1601,11 @@ public class Wallet {
     ImmutableList<Long> rangeList = ContiguousSet
         .create(Range.openClosed(offset, end), DiscreteDomain.longs())
         .asList();
-    rangeList.stream().map(ExchangeCapsule::calculateDbKey).map(key -> {
-      try {
-        return dbManager.getExchangeStoreFinal().get(key);
-      } catch (Exception ex) {
-        return null;
-      }
-    }).filter(Objects::nonNull)
+    List<byte[]> keys = rangeList.stream().map(ExchangeCapsule::calculateDbKey)
+        .collect(Collectors.toList());
+    Map<WrappedByteArray, ExchangeCapsule> exchanges = dbManager.getExchangeStoreFinal()
+        .getBatch(keys);
+    keys.stream().map(key -> exchanges.get(WrappedByteArray.of(key))).filter(Objects::nonNull)
         .forEach(exchangeCapsule -> builder.addExchanges(exchangeCapsule.getInstance()));
     return builder.build();
   }
@@ -25,6 +25,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Vector;
 import java.util.stream.Collectors;
+import javafx.util.Pair;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -128,6 +129,10 @@ public class BlockCapsule implements ProtoCapsule<Block> {
   private Block block;
   public boolean generatedByMyself = false;
   private List<TransactionCapsule> transactions = new ArrayList<>();
+  // the block the signer was recovered from, every change of the header replaces the block
+  private volatile Pair<Block, byte[]> witnessSigner;
+  // the block the merkle root was checked for
+  private volatile Pair<Block, Boolean> merkleRootValid;
 
   public BlockCapsule(long number, Sha256Hash hash, long when, ByteString witnessAddress) {
     // blockheader raw
@@ -229,8 +234,7 @@ public class BlockCapsule implements ProtoCapsule<Block> {
 
   public boolean validateSignature(Manager dbManager) throws ValidateSignatureException {
     try {
-      byte[] sigAddress = ECKey.signatureToAddress(getRawHash().getBytes(),
-          TransactionCapsule.getBase64FromByteString(block.getBlockHeader().getWitnessSignature()));
+      byte[] sigAddress = recoverWitnessSigner();
       byte[] witnessAccountAddress = block.getBlockHeader().getRawData().getWitnessAddress()
           .toByteArray();
 
@@ -247,6 +251,22 @@ public class BlockCapsule implements ProtoCapsule<Block> {
     }
   }
 
+  /**
+   * Returns the address which signed the header, recovered once per content of the block.
+   */
+  public byte[] recoverWitnessSigner() throws SignatureException {
+    Block current = block;
+    Pair<Block, byte[]> signer = witnessSigner;
+    if (signer == null || signer.getKey() != current) {
+      signer = new Pair<>(current, ECKey.signatureToAddress(
+          Sha256Hash.of(current.getBlockHeader().getRawData().toByteArray()).getBytes(),
+          TransactionCapsule.getBase64FromByteString(
+              current.getBlockHeader().getWitnessSignature())));
+      witnessSigner = signer;
+    }
+    return signer.getValue();
+  }
+
   public BlockId getBlockId() {
     if (blockId.equals(Sha256Hash.ZERO_HASH)) {
       blockId = new BlockId(Sha256Hash.of(this.block.getBlockHeader().getRawData().toByteArray()),
@@ -255,8 +275,27 @@ public class BlockCapsule implements ProtoCapsule<Block> {
     return blockId;
   }
 
+  /**
+   * Returns whether the merkle root of the header matches the transactions, checked once per
+   * content of the block.
+   */
+  public boolean isMerkleRootValid() {
+    Block current = block;
+    Pair<Block, Boolean> valid = merkleRootValid;
+    if (valid == null || valid.getKey() != current) {
+      valid = new Pair<>(current, calcMerkleRoot(current).getByteString()
+          .equals(current.getBlockHeader().getRawData().getTxTrieRoot()));
+      merkleRootValid = valid;
+    }
+    return valid.getValue();
+  }
+
   public Sha256Hash calcMerkleRoot() {
-    List<Transaction> transactionsList = this.block.getTransactionsList();
+    return calcMerkleRoot(this.block);
+  }
+
+  private static Sha256Hash calcMerkleRoot(Block block) {
+    List<Transaction> transactionsList = block.getTransactionsList();
 
     if (CollectionUtils.isEmpty(transactionsList)) {
       return Sha256Hash.ZERO_HASH;
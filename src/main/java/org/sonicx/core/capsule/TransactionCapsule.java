@@ -61,6 +61,7 @@ import org.sonicx.core.Wallet;
 import org.sonicx.core.config.args.Args;
 import org.sonicx.core.db.AccountStore;
 import org.sonicx.core.db.Manager;
+import org.sonicx.core.db.SignatureCache;
 import org.sonicx.core.db.TransactionTrace;
 import org.sonicx.core.exception.BadItemException;
 import org.sonicx.core.exception.P2pException;
@@ -344,13 +345,14 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
               + permission.getKeysCount());
     }
     HashMap addMap = new HashMap();
-    for (ByteString sig : sigs) {
+    for (int i = 0; i < sigs.size(); i++) {
+      ByteString sig = sigs.get(i);
       if (sig.size() < 65) {
         throw new SignatureFormatException(
             "Signature size is " + sig.size());
       }
       String base64 = TransactionCapsule.getBase64FromByteString(sig);
-      byte[] address = ECKey.signatureToAddress(hash, base64);
+      byte[] address = SignatureCache.instance().recover(hash, i, sig);
       long weight = getWeight(permission, address);
       if (weight == 0) {
         throw new PermissionException(
@@ -833,6 +835,25 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
     return true;
   }
 
+  /**
+   * Recovers the signers of all signatures into {@link SignatureCache}. Recovery needs no state,
+   * so it can run ahead of {@link #validateSignature(Manager)}, which reports any bad signature.
+   */
+  public void recoverSigners() {
+    byte[] hash = getRawHash().getBytes();
+    List<ByteString> sigs = this.transaction.getSignatureList();
+    for (int i = 0; i < sigs.size(); i++) {
+      if (sigs.get(i).size() < 65) {
+        return;
+      }
+      try {
+        SignatureCache.instance().recover(hash, i, sigs.get(i));
+      } catch (SignatureException e) {
+        return;
+      }
+    }
+  }
+
   public Sha256Hash getTransactionId() {
     return getRawHash();
   }
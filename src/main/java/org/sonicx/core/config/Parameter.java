@@ -36,6 +36,7 @@ public class Parameter {
     public static final long SYNC_CHAIN_LIMIT_NUM = 500;
     public static final int MAX_TRANSACTION_PENDING = 2000;
     public static final int MAX_HTTP_CONNECT_NUMBER = 50;
+    public static final int SIGNATURE_CACHE_SIZE = 100_000;
   }
 
   public class NetConstants {
@@ -52,6 +53,16 @@ public class Parameter {
     public static final int MSG_CACHE_DURATION_IN_BLOCKS = 5;
     public static final int MAX_BLOCK_FETCH_PER_PEER = 100;
     public static final int MAX_TRX_FETCH_PER_PEER = 1000;
+    public static final long REQUEST_TIME_OUT = 20000L;
+    public static final int MAX_MESSAGES_PER_FLUSH = 64;
+    public static final int KNOWN_INV_CAPACITY = 50_000;
+    public static final double KNOWN_INV_FPP = 0.001;
+    public static final long KNOWN_INV_MAX_AGE = 1_800_000L;
+    public static final long SPREAD_MIN_INTERVAL = 10L;
+    public static final long SPREAD_MAX_INTERVAL = 50L;
+    public static final long BLOCK_CACHE_BYTES = 64L * 1024 * 1024;
+    public static final int MAX_BLOCKS_QUEUED_PER_PEER = 16;
+    public static final int BLOCK_PREFETCH_SIZE = 8;
   }
 
   public class DatabaseConstants {
@@ -60,6 +71,7 @@ public class Parameter {
     public static final int ASSET_ISSUE_COUNT_LIMIT_MAX = 1000;
     public static final int PROPOSAL_COUNT_LIMIT_MAX = 1000;
     public static final int EXCHANGE_COUNT_LIMIT_MAX = 1000;
+    public static final long TX_CACHE_CHECKPOINT_INTERVAL = 600; // blocks
   }
 
   public class AdaptiveResourceLimitConstants {
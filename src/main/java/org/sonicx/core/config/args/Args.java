@@ -325,6 +325,18 @@ public class Args {
   @Parameter(names = {"--validate-sign-thread"}, description = "Num of validate thread")
   private int validateSignThreadNum;
 
+  @Getter
+  @Setter
+  private boolean parallelBlockExecution;
+
+  @Getter
+  @Setter
+  private int parallelBlockExecutionThreadNum;
+
+  @Getter
+  @Setter
+  private boolean compactBlock;
+
   @Getter
   @Setter
   private long maintenanceTimeInterval; // (ms)
@@ -749,6 +761,8 @@ public class Args {
             .filter(StringUtils::isNotEmpty)
             .orElse(Storage.getTransactionHistoreSwitchFromConfig(config)));
 
+    INSTANCE.storage.setBlockCacheSize(Storage.getBlockCacheSizeFromConfig(config));
+    INSTANCE.storage.setProfileMapFromConfig(config);
     INSTANCE.storage.setPropertyMapFromConfig(config);
 
     INSTANCE.seedNode = new SeedNode();
@@ -935,6 +949,17 @@ public class Args {
     INSTANCE.validateSignThreadNum = config.hasPath("node.validateSignThreadNum") ? config
         .getInt("node.validateSignThreadNum") : Runtime.getRuntime().availableProcessors() / 2;
 
+    INSTANCE.parallelBlockExecution = config.hasPath("node.parallelBlockExecution")
+        && config.getBoolean("node.parallelBlockExecution");
+
+    INSTANCE.parallelBlockExecutionThreadNum =
+        config.hasPath("node.parallelBlockExecutionThreadNum") ? config
+            .getInt("node.parallelBlockExecutionThreadNum")
+            : Runtime.getRuntime().availableProcessors() / 2;
+
+    INSTANCE.compactBlock =
+        !config.hasPath("node.compactBlock") || config.getBoolean("node.compactBlock");
+
     INSTANCE.walletExtensionApi =
         config.hasPath("node.walletExtensionApi") && config.getBoolean("node.walletExtensionApi");
 
@@ -16,8 +16,10 @@
 package org.sonicx.core.config.args;
 
 import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
 import com.typesafe.config.ConfigObject;
 import java.io.File;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Collectors;
 import lombok.Getter;
@@ -25,6 +27,7 @@ import lombok.Setter;
 import org.apache.commons.lang3.StringUtils;
 import org.iq80.leveldb.CompressionType;
 import org.iq80.leveldb.Options;
+import org.sonicx.common.storage.StorageProfile;
 import org.sonicx.common.utils.FileUtil;
 
 /**
@@ -48,6 +51,8 @@ public class Storage {
   private static final String INDEX_SWITCH_CONFIG_KEY = "storage.index.switch";
   private static final String TRANSACTIONHISTORY_SWITCH_CONFIG_KEY = "storage.transHistory.switch";
   private static final String PROPERTIES_CONFIG_KEY = "storage.properties";
+  private static final String PROFILES_CONFIG_KEY = "storage.profiles";
+  private static final String BLOCK_CACHE_SIZE_CONFIG_KEY = "storage.blockCacheSize";
   private static final String DEFAULT_TRANSACTIONHISTORY_SWITCH = "on";
 
   private static final String NAME_CONFIG_KEY = "name";
@@ -60,6 +65,11 @@ public class Storage {
   private static final String WRITE_BUFFER_SIZE_CONFIG_KEY = "writeBufferSize";
   private static final String CACHE_SIZE_CONFIG_KEY = "cacheSize";
   private static final String MAX_OPEN_FILES_CONFIG_KEY = "maxOpenFiles";
+  private static final String DBS_CONFIG_KEY = "dbs";
+  private static final String BLOOM_BITS_PER_KEY_CONFIG_KEY = "bloomBitsPerKey";
+  private static final String WHOLE_KEY_FILTERING_CONFIG_KEY = "wholeKeyFiltering";
+  private static final String PIN_L0_FILTER_AND_INDEX_CONFIG_KEY = "pinL0FilterAndIndex";
+  private static final String COMPRESSION_PER_LEVEL_CONFIG_KEY = "compressionPerLevel";
   private static final String EVENT_SUBSCRIB_CONTRACT_PARSE = "event.subscribe.contractParse";
 
   /**
@@ -72,6 +82,13 @@ public class Storage {
   private static final String DEFAULT_DB_DIRECTORY = "database";
   private static final String DEFAULT_INDEX_DIRECTORY = "index";
   private static final String DEFAULT_INDEX_SWTICH = "on";
+  private static final long DEFAULT_BLOCK_CACHE_SIZE = 256;
+
+  /**
+   * Stores which use a built-in profile unless storage.profiles assigns them another one
+   */
+  private static final String[] POINT_LOOKUP_DBS = {"account", "storage-row", "trans-cache"};
+  private static final String[] APPEND_DBS = {"block", "transactionRetStore"};
 
   /**
    * Default values of db options: <p> DEFAULT_COMPRESSION_TYPE: compressed with snappy
@@ -123,6 +140,13 @@ public class Storage {
   @Setter
   private String transactionHistoreSwitch;
 
+  /**
+   * Size in bytes of the block cache shared by all RocksDB stores
+   */
+  @Getter
+  @Setter
+  private long blockCacheSize = DEFAULT_BLOCK_CACHE_SIZE * 1024 * 1024;
+
   /**
    * Other custom database configurations
    */
@@ -140,6 +164,11 @@ public class Storage {
    */
   private Map<String, Property> propertyMap;
 
+  /**
+   * Key: dbName, Value: table profile of that database
+   */
+  private Map<String, StorageProfile> profileMap = createDefaultProfileMap();
+
   public static int getDbVersionFromConfig(final Config config) {
     return config.hasPath(DB_VERSION_CONFIG_KEY) ?
         config.getInt(DB_VERSION_CONFIG_KEY) : DEFAULT_DB_VERSION;
@@ -181,6 +210,40 @@ public class Storage {
         config.getString(TRANSACTIONHISTORY_SWITCH_CONFIG_KEY) : DEFAULT_TRANSACTIONHISTORY_SWITCH;
   }
 
+  public static long getBlockCacheSizeFromConfig(final Config config) {
+    return (config.hasPath(BLOCK_CACHE_SIZE_CONFIG_KEY)
+        ? config.getLong(BLOCK_CACHE_SIZE_CONFIG_KEY) : DEFAULT_BLOCK_CACHE_SIZE) * 1024 * 1024;
+  }
+
+  /**
+   * Set profileMap of Storage object from Config, on top of the built-in profiles
+   *
+   * @param config Config object from "config.conf" file
+   */
+  public void setProfileMapFromConfig(final Config config) {
+    if (config.hasPath(PROFILES_CONFIG_KEY)) {
+      for (ConfigObject conf : config.getObjectList(PROFILES_CONFIG_KEY)) {
+        StorageProfile profile = createProfile(conf);
+        if (conf.containsKey(DBS_CONFIG_KEY)) {
+          conf.toConfig().getStringList(DBS_CONFIG_KEY)
+              .forEach(dbName -> profileMap.put(dbName, profile));
+        }
+        // a built-in profile changed in the config applies to the stores that use it
+        profileMap.replaceAll((dbName, p) -> p.getName().equals(profile.getName()) ? profile : p);
+      }
+    }
+  }
+
+  /**
+   * Get table profile by name of database
+   *
+   * @param dbName name of database
+   * @return profile of that database, the default profile if none was assigned
+   */
+  public StorageProfile getProfileByDbName(String dbName) {
+    return profileMap.getOrDefault(dbName, StorageProfile.defaultProfile());
+  }
+
   /**
    * Set propertyMap of Storage object from Config
    *
@@ -217,7 +280,16 @@ public class Storage {
     if (hasProperty(dbName)) {
       return getProperty(dbName).getDbOptions();
     }
-    return createDefaultDbOptions();
+    StorageProfile profile = getProfileByDbName(dbName);
+    Options dbOptions = createDefaultDbOptions();
+    if (profile.getBlockSize() > 0) {
+      dbOptions.blockSize((int) profile.getBlockSize());
+    }
+    dbOptions.cacheSize(profile.getCacheSize());
+    if (!profile.isCompressed()) {
+      dbOptions.compressionType(CompressionType.NONE);
+    }
+    return dbOptions;
   }
 
   /**
@@ -371,6 +443,57 @@ public class Storage {
     return property;
   }
 
+  private static Map<String, StorageProfile> createDefaultProfileMap() {
+    Map<String, StorageProfile> profiles = new HashMap<>();
+    StorageProfile pointLookup = StorageProfile.pointLookup();
+    for (String dbName : POINT_LOOKUP_DBS) {
+      profiles.put(dbName, pointLookup);
+    }
+    StorageProfile append = StorageProfile.append();
+    for (String dbName : APPEND_DBS) {
+      profiles.put(dbName, append);
+    }
+    return profiles;
+  }
+
+  private static StorageProfile createProfile(final ConfigObject conf) {
+    // Profile name must be set
+    if (!conf.containsKey(NAME_CONFIG_KEY)) {
+      throw new IllegalArgumentException("[storage.profiles] profile name must be set.");
+    }
+    String name = conf.get(NAME_CONFIG_KEY).unwrapped().toString();
+    StorageProfile profile = StorageProfile.of(name);
+    if (profile == null) {
+      profile = new StorageProfile(name);
+    }
+
+    Config config = conf.toConfig();
+    try {
+      if (config.hasPath(BLOCK_SIZE_CONFIG_KEY)) {
+        profile.withBlockSize(config.getLong(BLOCK_SIZE_CONFIG_KEY));
+      }
+      if (config.hasPath(BLOOM_BITS_PER_KEY_CONFIG_KEY)) {
+        profile.withBloomBitsPerKey(config.getInt(BLOOM_BITS_PER_KEY_CONFIG_KEY));
+      }
+      if (config.hasPath(WHOLE_KEY_FILTERING_CONFIG_KEY)) {
+        profile.withWholeKeyFiltering(config.getBoolean(WHOLE_KEY_FILTERING_CONFIG_KEY));
+      }
+      if (config.hasPath(PIN_L0_FILTER_AND_INDEX_CONFIG_KEY)) {
+        profile.withPinL0FilterAndIndex(config.getBoolean(PIN_L0_FILTER_AND_INDEX_CONFIG_KEY));
+      }
+      if (config.hasPath(COMPRESSION_PER_LEVEL_CONFIG_KEY)) {
+        profile.withCompressionPerLevel(config.getStringList(COMPRESSION_PER_LEVEL_CONFIG_KEY));
+      }
+      if (config.hasPath(CACHE_SIZE_CONFIG_KEY)) {
+        profile.withCacheSize(config.getLong(CACHE_SIZE_CONFIG_KEY));
+      }
+    } catch (ConfigException e) {
+      throw new IllegalArgumentException(
+          "[storage.profiles] invalid profile " + name + ": " + e.getMessage());
+    }
+    return profile;
+  }
+
   private static Options createDefaultDbOptions() {
     Options dbOptions = new Options();
 
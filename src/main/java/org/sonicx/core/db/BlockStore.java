@@ -15,10 +15,11 @@
 
 package org.sonicx.core.db;
 
-import java.util.Comparator;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -26,44 +27,92 @@ import org.springframework.stereotype.Component;
 import org.sonicx.common.utils.Sha256Hash;
 import org.sonicx.core.capsule.BlockCapsule;
 import org.sonicx.core.capsule.BlockCapsule.BlockId;
+import org.sonicx.core.db.common.iterator.DBIterator;
 import org.sonicx.core.exception.BadItemException;
 
 @Slf4j(topic = "DB")
 @Component
 public class BlockStore extends SonicxStoreWithRevoking<BlockCapsule> {
 
+  // the highest block written or read as head, so reading the head needs no disk access
+  private volatile BlockCapsule head;
+
   @Autowired
   private BlockStore(@Value("block") String dbName) {
     super(dbName);
   }
 
+  @Override
+  public void put(byte[] key, BlockCapsule item) {
+    super.put(key, item);
+    if (item != null) {
+      cacheHead(item);
+    }
+  }
+
+  /**
+   * Returns the head block {@code headId}, null if it is not stored.
+   */
+  public BlockCapsule getHead(BlockId headId) {
+    BlockCapsule block = head;
+    if (block != null && block.getBlockId().equals(headId)) {
+      return block;
+    }
+
+    block = getUnchecked(headId.getBytes());
+    if (block != null) {
+      cacheHead(block);
+    }
+    return block;
+  }
+
   public List<BlockCapsule> getLimitNumber(long startNumber, long limit) {
     BlockId startBlockId = new BlockId(Sha256Hash.ZERO_HASH, startNumber);
-    return revokingDB.getValuesNext(startBlockId.getBytes(), limit).stream()
-        .map(bytes -> {
-          try {
-            return new BlockCapsule(bytes);
-          } catch (BadItemException ignored) {
-          }
-          return null;
-        })
-        .filter(Objects::nonNull)
-        .sorted(Comparator.comparing(BlockCapsule::getNum))
-        .collect(Collectors.toList());
+    return getBlocks(startBlockId.getBytes(), false, limit);
+  }
+
+  /**
+   * Returns the encoded blocks stored from {@code startNumber} on, at most {@code limit} of them
+   * counting the blocks of forks, in no particular order.
+   */
+  public Set<byte[]> getEncodedLimitNumber(long startNumber, long limit) {
+    BlockId startBlockId = new BlockId(Sha256Hash.ZERO_HASH, startNumber);
+    return revokingDB.getValuesNext(startBlockId.getBytes(), limit);
   }
 
   public List<BlockCapsule> getBlockByLatestNum(long getNum) {
+    List<BlockCapsule> blocks = getBlocks(null, true, getNum);
+    Collections.reverse(blocks);
+    return blocks;
+  }
+
+  /**
+   * Reads at most {@code limit} blocks in key order, that is by number, from {@code key} on,
+   * backwards if {@code reverse}, and stops reading once there are enough.
+   */
+  private List<BlockCapsule> getBlocks(byte[] key, boolean reverse, long limit) {
+    List<BlockCapsule> blocks = new ArrayList<>();
+    if (limit <= 0) {
+      return blocks;
+    }
+
+    try (DBIterator iterator = revokingDB.iterator(key, reverse)) {
+      for (long i = 0; i < limit && iterator.hasNext(); i++) {
+        try {
+          blocks.add(new BlockCapsule(iterator.next().getValue()));
+        } catch (BadItemException ignored) {
+        }
+      }
+    } catch (IOException e) {
+      logger.warn("Close block iterator failed: {}", e.getMessage());
+    }
+    return blocks;
+  }
 
-    return revokingDB.getlatestValues(getNum).stream()
-        .map(bytes -> {
-          try {
-            return new BlockCapsule(bytes);
-          } catch (BadItemException ignored) {
-          }
-          return null;
-        })
-        .filter(Objects::nonNull)
-        .sorted(Comparator.comparing(BlockCapsule::getNum))
-        .collect(Collectors.toList());
+  private void cacheHead(BlockCapsule block) {
+    BlockCapsule cached = head;
+    if (cached == null || block.getNum() >= cached.getNum()) {
+      head = block;
+    }
   }
 }
@@ -1,5 +1,9 @@
 package org.sonicx.core.db;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import org.apache.commons.lang3.ArrayUtils;
 import org.spongycastle.util.encoders.Hex;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,6 +12,7 @@ import org.springframework.stereotype.Component;
 import org.sonicx.common.utils.ByteArray;
 import org.sonicx.core.capsule.AccountCapsule;
 import org.sonicx.core.capsule.BytesCapsule;
+import org.sonicx.core.db.common.WrappedByteArray;
 
 @Component
 public class DelegationStore extends SonicxStoreWithRevoking<BytesCapsule> {
@@ -90,6 +95,22 @@ public class DelegationStore extends SonicxStoreWithRevoking<BytesCapsule> {
     }
   }
 
+  /**
+   * Reads the reward and the vote of the witnesses {@code addresses} in the cycles
+   * [beginCycle, endCycle) in one batch.
+   */
+  public CycleRewards getCycleRewards(long beginCycle, long endCycle,
+      Collection<byte[]> addresses) {
+    List<byte[]> keys = new ArrayList<>();
+    for (long cycle = beginCycle; cycle < endCycle; cycle++) {
+      for (byte[] address : addresses) {
+        keys.add(buildRewardKey(cycle, address));
+        keys.add(buildVoteKey(cycle, address));
+      }
+    }
+    return new CycleRewards(revokingDB.getBatch(keys));
+  }
+
   public void setBrokerage(long cycle, byte[] address, int brokerage) {
     put(buildBrokerageKey(cycle, address), new BytesCapsule(ByteArray.fromInt(brokerage)));
   }
@@ -111,6 +132,29 @@ public class DelegationStore extends SonicxStoreWithRevoking<BytesCapsule> {
     return getBrokerage(-1, address);
   }
 
+  /**
+   * The rewards and votes read by {@link #getCycleRewards}, with the defaults of
+   * {@link #getReward} and {@link #getWitnessVote} for the ones not found.
+   */
+  public class CycleRewards {
+
+    private final Map<WrappedByteArray, byte[]> values;
+
+    private CycleRewards(Map<WrappedByteArray, byte[]> values) {
+      this.values = values;
+    }
+
+    public long getReward(long cycle, byte[] address) {
+      byte[] value = values.get(WrappedByteArray.of(buildRewardKey(cycle, address)));
+      return ArrayUtils.isEmpty(value) ? 0L : ByteArray.toLong(value);
+    }
+
+    public long getWitnessVote(long cycle, byte[] address) {
+      byte[] value = values.get(WrappedByteArray.of(buildVoteKey(cycle, address)));
+      return ArrayUtils.isEmpty(value) ? REMARK : ByteArray.toLong(value);
+    }
+  }
+
   private byte[] buildVoteKey(long cycle, byte[] address) {
     return (cycle + "-" + Hex.toHexString(address) + "-vote").getBytes();
   }
@@ -1,6 +1,7 @@
 package org.sonicx.core.db;
 
 import static org.sonicx.core.config.Parameter.ChainConstant.SOLIDIFIED_THRESHOLD;
+import static org.sonicx.core.config.Parameter.DatabaseConstants.TX_CACHE_CHECKPOINT_INTERVAL;
 import static org.sonicx.core.config.Parameter.NodeConstant.MAX_TRANSACTION_PENDING;
 
 import com.google.common.cache.Cache;
@@ -13,6 +14,9 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.protobuf.ByteString;
+import java.io.File;
+import java.io.IOException;
+import java.security.SignatureException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -20,11 +24,13 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -33,6 +39,8 @@ import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Collectors;
 import java.util.stream.LongStream;
 import javafx.util.Pair;
@@ -53,6 +61,7 @@ import org.sonicx.common.logsfilter.capsule.TransactionLogTriggerCapsule;
 import org.sonicx.common.logsfilter.capsule.TriggerCapsule;
 import org.sonicx.common.logsfilter.trigger.ContractTrigger;
 import org.sonicx.common.overlay.discover.node.Node;
+import org.sonicx.common.overlay.discover.node.NodeRecord;
 import org.sonicx.common.overlay.message.Message;
 import org.sonicx.common.runtime.config.VMConfig;
 import org.sonicx.common.utils.ByteArray;
@@ -78,6 +87,9 @@ import org.sonicx.core.db.KhaosDatabase.KhaosBlock;
 import org.sonicx.core.db.accountstate.TrieService;
 import org.sonicx.core.db.accountstate.callback.AccountStateCallBack;
 import org.sonicx.core.db.api.AssetUpdateHelper;
+import org.sonicx.core.db.parallel.ParallelBlockExecutor;
+import org.sonicx.core.db2.common.TxCacheCheckpoint;
+import org.sonicx.core.db2.common.TxCacheDB;
 import org.sonicx.core.db2.core.ISession;
 import org.sonicx.core.db2.core.ISonicxChainBase;
 import org.sonicx.core.db2.core.SnapshotManager;
@@ -116,6 +128,7 @@ import org.sonicx.protos.Protocol.TransactionInfo;
 // These codes have been added for MasterNode
 import org.sonicx.common.crypto.Hash;
 import org.sonicx.common.runtime.vm.DataWord;
+import org.sonicx.common.runtime.vm.program.StorageSlotCache;
 import org.sonicx.common.storage.Deposit;
 import org.sonicx.common.storage.DepositImpl;
 import org.sonicx.core.capsule.ContractCapsule;
@@ -225,6 +238,12 @@ public class Manager {
 
   private ExecutorService validateSignService;
 
+  @Getter
+  private ParallelBlockExecutor blockExecutor;
+
+  // set once the revoking store reports revoked sessions to the cache
+  private boolean storageSlotCacheEnabled;
+
   private boolean isRunRepushThread = true;
 
   private boolean isRunTriggerCapsuleProcessThread = true;
@@ -240,6 +259,12 @@ public class Manager {
 
   private BlockingQueue<TransactionCapsule> pushTransactionQueue = new LinkedBlockingQueue<>();
 
+  private TxCacheCheckpoint txCacheCheckpoint;
+
+  private final Object txCacheCheckpointLock = new Object();
+
+  private long txCacheCheckpointNum = -1;
+
   @Getter
   private Cache<Sha256Hash, Boolean> transactionIdCache = CacheBuilder
       .newBuilder().maximumSize(100_000).recordStats().build();
@@ -252,7 +277,8 @@ public class Manager {
 
   @Autowired
   private TrieService trieService;
-  private Set<String> ownerAddressSet = new HashSet<>();
+  // filled by the workers of the parallel block executor too
+  private Set<String> ownerAddressSet = ConcurrentHashMap.newKeySet();
 
   @Getter
   @Autowired
@@ -334,27 +360,9 @@ public class Manager {
     }
   }
 
-  public List<TransactionCapsule> getPendingTransactions() {
-    return this.pendingTransactions;
-  }
-
-  public List<TransactionCapsule> getPoppedTransactions() {
-    return this.popedTransactions;
-  }
-
-  public BlockingQueue<TransactionCapsule> getRepushTransactions() {
-    return repushTransactions;
-  }
-
-  // transactions cache
-  private List<TransactionCapsule> pendingTransactions;
-
-  // transactions popped
-  private List<TransactionCapsule> popedTransactions =
-      Collections.synchronizedList(Lists.newArrayList());
-
-  // the capacity is equal to Integer.MAX_VALUE default
-  private BlockingQueue<TransactionCapsule> repushTransactions;
+  // pending, popped and repush transactions
+  @Getter
+  private PendingPool pendingPool;
 
   private BlockingQueue<TriggerCapsule> triggerCapsuleQueue;
 
@@ -370,7 +378,14 @@ public class Manager {
     witnessController.setActiveWitnesses(witnessAddresses);
   }
 
+  /**
+   * Returns the head block, from memory unless the head changed since it was last read.
+   */
   public BlockCapsule getHead() throws HeaderNotFound {
+    BlockCapsule head = getBlockStore().getHead(getHeadBlockId());
+    if (head != null) {
+      return head;
+    }
     List<BlockCapsule> blocks = getBlockStore().getBlockByLatestNum(1);
     if (CollectionUtils.isNotEmpty(blocks)) {
       return blocks.get(0);
@@ -403,6 +418,18 @@ public class Manager {
     return this.peersStore.get("neighbours".getBytes());
   }
 
+  public void deleteNeighbours() {
+    this.peersStore.delete("neighbours".getBytes());
+  }
+
+  public void updateNodeRecords(Map<String, NodeRecord> changed, Set<String> removed) {
+    this.peersStore.updateNodeRecords(changed, removed);
+  }
+
+  public Map<String, NodeRecord> readNodeRecords() {
+    return this.peersStore.getNodeRecords();
+  }
+
   /**
    * Cycle thread to repush Transactions
    */
@@ -415,7 +442,7 @@ public class Manager {
               TimeUnit.MILLISECONDS.sleep(10L);
               continue;
             }
-            tx = getRepushTransactions().peek();
+            tx = pendingPool.getRepush().peek();
             if (tx != null) {
               this.rePush(tx);
             } else {
@@ -427,7 +454,7 @@ public class Manager {
             logger.error("unknown throwable happened in repush loop", throwable);
           } finally {
             if (tx != null) {
-              getRepushTransactions().remove(tx);
+              pendingPool.getRepush().remove(tx);
             }
           }
         }
@@ -470,8 +497,7 @@ public class Manager {
     revokingStore.check();
     this.setWitnessController(WitnessController.createInstance(this));
     this.setProposalController(ProposalController.createInstance(this));
-    this.pendingTransactions = Collections.synchronizedList(Lists.newArrayList());
-    this.repushTransactions = new LinkedBlockingQueue<>();
+    this.pendingPool = new PendingPool();
     this.triggerCapsuleQueue = new LinkedBlockingQueue<>();
 
     // SONICX: This code was moved here because forkController is used by trace.finalization in initSmartContracts.
@@ -520,9 +546,20 @@ public class Manager {
     dynamicPropertiesStore.updateDynamicStoreByConfig();
 
     initCacheTxs();
+    if (revokingStore instanceof SnapshotManager) {
+      ((SnapshotManager) revokingStore).addFlushListener(() -> writeTxCacheCheckpoint(false));
+      ((SnapshotManager) revokingStore).addRevokeListener(StorageSlotCache.instance()::invalidate);
+      storageSlotCacheEnabled = true;
+    }
     revokingStore.enable();
     validateSignService = Executors
         .newFixedThreadPool(Args.getInstance().getValidateSignThreadNum());
+    if (Args.getInstance().isParallelBlockExecution()
+        && Args.getInstance().getStorage().getDbVersion() == 2
+        && !Args.getInstance().isSolidityNode()) {
+      blockExecutor = new ParallelBlockExecutor(this,
+          Args.getInstance().getParallelBlockExecutionThreadNum());
+    }
     Thread repushThread = new Thread(repushLoop);
     repushThread.start();
     // add contract event listener for subscribing
@@ -747,12 +784,17 @@ public class Manager {
     long start = System.currentTimeMillis();
     long headNum = dynamicPropertiesStore.getLatestBlockHeaderNumber();
     long recentBlockCount = recentBlockStore.size();
+    long beginNum = headNum - recentBlockCount + 1;
+    long checkpointNum = readTxCacheCheckpoint(headNum);
+    if (checkpointNum >= 0) {
+      beginNum = Math.max(beginNum, checkpointNum + 1);
+    }
     ListeningExecutorService service = MoreExecutors
         .listeningDecorator(Executors.newFixedThreadPool(50));
     List<ListenableFuture<?>> futures = new ArrayList<>();
     AtomicLong blockCount = new AtomicLong(0);
     AtomicLong emptyBlockCount = new AtomicLong(0);
-    LongStream.rangeClosed(headNum - recentBlockCount + 1, headNum).forEach(
+    LongStream.rangeClosed(beginNum, headNum).forEach(
         blockNum -> futures.add(service.submit(() -> {
           try {
             blockCount.incrementAndGet();
@@ -781,14 +823,77 @@ public class Manager {
       logger.info(e.getMessage());
     }
 
-    logger.info("end to init txs cache. trxids:{}, block count:{}, empty block count:{}, cost:{}",
+    logger.info("end to init txs cache. trxids:{}, checkpoint block:{}, block count:{}, "
+            + "empty block count:{}, cost:{}",
         transactionCache.size(),
+        checkpointNum,
         blockCount.get(),
         emptyBlockCount.get(),
         System.currentTimeMillis() - start
     );
   }
 
+  private TxCacheCheckpoint getTxCacheCheckpoint() {
+    if (txCacheCheckpoint == null) {
+      String dbName = transactionCache.getDbName();
+      txCacheCheckpoint = new TxCacheCheckpoint(
+          new File(Args.getInstance().getOutputDirectoryByDbName(dbName),
+              dbName + File.separator + "checkpoint"));
+    }
+    return txCacheCheckpoint;
+  }
+
+  /**
+   * load the transaction cache from the checkpoint if its block is on the main chain.
+   *
+   * @return the number of the checkpoint block, -1 if there is no usable checkpoint.
+   */
+  private long readTxCacheCheckpoint(long headNum) {
+    long num = getTxCacheCheckpoint().read(transactionCache.getTxCacheDB().getDb(),
+        (blockNum, blockId) -> {
+          try {
+            return blockNum <= headNum
+                && Arrays.equals(getBlockIdByNum(blockNum).getBytes(), blockId);
+          } catch (ItemNotFoundException e) {
+            return false;
+          }
+        });
+    txCacheCheckpointNum = num;
+    return num;
+  }
+
+  /**
+   * write the flushed part of the transaction cache, at most once per
+   * TX_CACHE_CHECKPOINT_INTERVAL blocks unless forced.
+   */
+  public void writeTxCacheCheckpoint(boolean force) {
+    if (transactionCache == null
+        || Args.getInstance().getStorage().getDbVersion() != 2) {
+      return;
+    }
+
+    // not the manager lock, the flushing thread does not always hold it
+    synchronized (txCacheCheckpointLock) {
+      TxCacheDB txCacheDB = transactionCache.getTxCacheDB();
+      long blockNum = txCacheDB.getDb().getMaxBlockNum();
+      if (blockNum < 0 || blockNum == txCacheCheckpointNum
+          || (!force && blockNum - txCacheCheckpointNum < TX_CACHE_CHECKPOINT_INTERVAL)) {
+        return;
+      }
+
+      long start = System.currentTimeMillis();
+      try {
+        getTxCacheCheckpoint().write(txCacheDB.getDb(), blockNum,
+            getBlockIdByNum(blockNum).getBytes());
+        txCacheCheckpointNum = blockNum;
+        logger.info("write txs cache checkpoint. block:{}, trxids:{}, cost:{}",
+            blockNum, txCacheDB.size(), System.currentTimeMillis() - start);
+      } catch (ItemNotFoundException | IOException e) {
+        logger.warn("write txs cache checkpoint error. block:{}, {}", blockNum, e.getMessage());
+      }
+    }
+  }
+
   public AccountStore getAccountStore() {
     return this.accountStore;
   }
@@ -901,25 +1006,42 @@ public class Manager {
       TooBigTransactionException, TransactionExpirationException,
       ReceiptCheckErrException, VMIllegalException, TooBigTransactionResultException {
 
+    // queued before the signature is validated, so that a block updating the permission of the
+    // owner in between keeps the owner in ownerAddressSet
     synchronized (pushTransactionQueue) {
       pushTransactionQueue.add(trx);
     }
 
     try {
+      // recovers the signers on the calling thread, the block which includes the transaction
+      // later finds them in the signature cache
       if (!trx.validateSignature(this)) {
         throw new ValidateSignatureException("trans sig validate failed");
       }
+      // checks which do not need the pending session, no lock is held
+      validateStateless(trx);
 
-      synchronized (this) {
-        if (!session.valid()) {
-          session.setValue(revokingStore.buildSession());
-        }
+      Lock admissionLock = pendingPool.getAdmissionLock(trx);
+      admissionLock.lock();
+      try {
+        synchronized (this) {
+          if (!session.valid()) {
+            session.setValue(revokingStore.buildSession());
+          }
+          // the permission of the owner changed since the signature was validated
+          if (ownerAddressSet.contains(ByteArray.toHexString(
+              TransactionCapsule.getOwner(trx.getInstance().getRawData().getContract(0))))) {
+            trx.setVerified(false);
+          }
 
-        try (ISession tmpSession = revokingStore.buildSession()) {
-          processTransaction(trx, null);
-          pendingTransactions.add(trx);
-          tmpSession.merge();
+          try (ISession tmpSession = revokingStore.buildSession()) {
+            applyTransaction(trx, null);
+            pendingPool.addPending(trx);
+            tmpSession.merge();
+          }
         }
+      } finally {
+        admissionLock.unlock();
       }
     } finally {
       pushTransactionQueue.remove(trx);
@@ -968,7 +1090,7 @@ public class Manager {
       khaosDb.pop();
       revokingStore.fastPop();
       logger.info("end to erase block:" + oldHeadBlock);
-      popedTransactions.addAll(oldHeadBlock.getTransactions());
+      pendingPool.addPopped(oldHeadBlock.getTransactions());
 
     } catch (ItemNotFoundException | BadItemException e) {
       logger.warn(e.getMessage(), e);
@@ -1134,7 +1256,7 @@ public class Manager {
           throw new BadBlockException("The signature is not validated");
         }
 
-        if (!block.calcMerkleRoot().equals(block.getMerkleRoot())) {
+        if (!block.isMerkleRootValid()) {
           logger.warn(
               "The merkle root doesn't match, Calc result is "
                   + block.calcMerkleRoot()
@@ -1228,7 +1350,7 @@ public class Manager {
     synchronized (pushTransactionQueue) {
       if (CollectionUtils.isNotEmpty(ownerAddressSet)) {
         Set<String> result = new HashSet<>();
-        for (TransactionCapsule transactionCapsule : repushTransactions) {
+        for (TransactionCapsule transactionCapsule : pendingPool.getRepush()) {
           filterOwnerAddress(transactionCapsule, result);
         }
         for (TransactionCapsule transactionCapsule : pushTransactionQueue) {
@@ -1366,6 +1488,17 @@ public class Manager {
       return null;
     }
 
+    validateStateless(trxCap);
+    return applyTransaction(trxCap, blockCap);
+  }
+
+  /**
+   * Checks which only need the transaction and the head block: reference block, size,
+   * expiration and the number of contracts.
+   */
+  private void validateStateless(TransactionCapsule trxCap)
+      throws TaposException, TransactionExpirationException, TooBigTransactionException,
+      ContractSizeNotEqualToOneException {
     validateTapos(trxCap);
     validateCommon(trxCap);
 
@@ -1373,7 +1506,17 @@ public class Manager {
       throw new ContractSizeNotEqualToOneException(
           "act size should be exactly 1, this is extend feature");
     }
+  }
 
+  /**
+   * Checks the transaction against the current state and executes it, the caller already ran
+   * {@link #validateStateless(TransactionCapsule)}.
+   */
+  private TransactionInfo applyTransaction(final TransactionCapsule trxCap,
+      BlockCapsule blockCap)
+      throws ValidateSignatureException, ContractValidateException, ContractExeException,
+      AccountResourceInsufficientException, TooBigTransactionResultException,
+      DupTransactionException, ReceiptCheckErrException, VMIllegalException {
     validateDup(trxCap);
 
     if (!trxCap.validateSignature(this)) {
@@ -1449,11 +1592,13 @@ public class Manager {
   }
 
   /**
-   * Generate a block.
+   * Applies the transactions of {@code pending} and then of the repush queue to a new block on
+   * top of the head block, returns null if it is not the turn of the witness.
    */
-  public synchronized BlockCapsule generateBlock(
-      final WitnessCapsule witnessCapsule, final long when, final byte[] privateKey,
-      Boolean lastHeadBlockIsMaintenanceBefore, Boolean needCheckWitnessPermission)
+  private synchronized BlockCapsule packBlock(
+      final WitnessCapsule witnessCapsule, final long when,
+      final List<TransactionCapsule> pending, Boolean lastHeadBlockIsMaintenanceBefore,
+      Boolean needCheckWitnessPermission)
       throws ValidateSignatureException, ContractValidateException, ContractExeException,
       UnLinkedBlockException, ValidateScheduleException, AccountResourceInsufficientException {
 
@@ -1498,15 +1643,16 @@ public class Manager {
         new TransactionRetCapsule(blockCapsule);
 
     Set<String> accountSet = new HashSet<>();
-    Iterator<TransactionCapsule> iterator = pendingTransactions.iterator();
-    while (iterator.hasNext() || repushTransactions.size() > 0) {
+    List<TransactionCapsule> included = new ArrayList<>();
+    Iterator<TransactionCapsule> iterator = pending.iterator();
+    while (iterator.hasNext() || pendingPool.getRepushSize() > 0) {
       boolean fromPending = false;
       TransactionCapsule trx;
       if (iterator.hasNext()) {
         fromPending = true;
-        trx = (TransactionCapsule) iterator.next();
+        trx = iterator.next();
       } else {
-        trx = repushTransactions.poll();
+        trx = pendingPool.getRepush().poll();
       }
 
       if (DateTime.now().getMillis() - when
@@ -1551,7 +1697,7 @@ public class Manager {
           transationRetCapsule.addTransactionInfo(result);
         }
         if (fromPending) {
-          iterator.remove();
+          included.add(trx);
         }
       } catch (ContractExeException e) {
         logger.info("contract not processed during execute");
@@ -1589,6 +1735,7 @@ public class Manager {
     } // end of while
 
     accountStateCallBack.executeGenerateFinish();
+    pendingPool.removePending(included);
 
     session.reset();
     if (postponedTrxCount > 0) {
@@ -1596,12 +1743,40 @@ public class Manager {
     }
 
     logger.info(
-        "postponedTrxCount[" + postponedTrxCount + "],TrxLeft[" + pendingTransactions.size()
-            + "],repushTrxCount[" + repushTransactions.size() + "]");
+        "postponedTrxCount[" + postponedTrxCount + "],TrxLeft[" + pendingPool.getPendingSize()
+            + "],repushTrxCount[" + pendingPool.getRepushSize() + "]");
+
+    blockCapsule.setResult(transationRetCapsule);
+    return blockCapsule;
+  }
+
+  /**
+   * Generate a block. Only the transactions are applied under the lock of the manager, the
+   * pending ones are taken before and the block is signed after, so the admission of new
+   * transactions waits for the packing only.
+   */
+  public BlockCapsule generateBlock(
+      final WitnessCapsule witnessCapsule, final long when, final byte[] privateKey,
+      Boolean lastHeadBlockIsMaintenanceBefore, Boolean needCheckWitnessPermission)
+      throws ValidateSignatureException, ContractValidateException, ContractExeException,
+      UnLinkedBlockException, ValidateScheduleException, AccountResourceInsufficientException {
+
+    // the same head block time validateCommon checks the expiration against
+    int expiredTrxCount = pendingPool.evictExpired(
+        getDynamicPropertiesStore().getLatestBlockHeaderTimestamp());
+    if (expiredTrxCount > 0) {
+      logger.info("{} pending transactions expired", expiredTrxCount);
+    }
+
+    final BlockCapsule blockCapsule = packBlock(witnessCapsule, when,
+        pendingPool.snapshotPending(), lastHeadBlockIsMaintenanceBefore,
+        needCheckWitnessPermission);
+    if (blockCapsule == null) {
+      return null;
+    }
 
     blockCapsule.setMerkleRoot();
     blockCapsule.sign(privateKey);
-    blockCapsule.setResult(transationRetCapsule);
 
     if (sonicxNetService != null) {
       sonicxNetService.fastForward(new BlockMessage(blockCapsule));
@@ -1677,6 +1852,27 @@ public class Manager {
       AccountResourceInsufficientException, TaposException, TooBigTransactionException,
       DupTransactionException, TransactionExpirationException, ValidateScheduleException,
       ReceiptCheckErrException, VMIllegalException, TooBigTransactionResultException, BadBlockException {
+    if (!storageSlotCacheEnabled) {
+      executeBlock(block);
+      return;
+    }
+
+    StorageSlotCache slotCache = StorageSlotCache.instance();
+    slotCache.begin();
+    try {
+      executeBlock(block);
+    } finally {
+      logger.debug("block {} storage slot cache size:{}, hit rate:{}", block.getNum(),
+          slotCache.size(), String.format("%.3f", slotCache.getHitRate()));
+      slotCache.end();
+    }
+  }
+
+  private void executeBlock(BlockCapsule block)
+      throws ValidateSignatureException, ContractValidateException, ContractExeException,
+      AccountResourceInsufficientException, TaposException, TooBigTransactionException,
+      DupTransactionException, TransactionExpirationException, ValidateScheduleException,
+      ReceiptCheckErrException, VMIllegalException, TooBigTransactionResultException, BadBlockException {
     // todo set revoking db max size.
 
     // checkWitness
@@ -1705,11 +1901,19 @@ public class Manager {
         if (block.generatedByMyself) {
           transactionCapsule.setVerified(true);
         }
-        accountStateCallBack.preExeTrans();
-        TransactionInfo result = processTransaction(transactionCapsule, block);
-        accountStateCallBack.exeTransFinish();
-        if (Objects.nonNull(result)) {
-          transationRetCapsule.addTransactionInfo(result);
+      }
+      if (canExecuteInParallel(block)) {
+        blockExecutor.execute(block).stream()
+            .filter(Objects::nonNull)
+            .forEach(transationRetCapsule::addTransactionInfo);
+      } else {
+        for (TransactionCapsule transactionCapsule : block.getTransactions()) {
+          accountStateCallBack.preExeTrans();
+          TransactionInfo result = processTransaction(transactionCapsule, block);
+          accountStateCallBack.exeTransFinish();
+          if (Objects.nonNull(result)) {
+            transationRetCapsule.addTransactionInfo(result);
+          }
         }
       }
       accountStateCallBack.executePushFinish();
@@ -1743,6 +1947,12 @@ public class Manager {
   }
 
 
+  // the account state trie and the event triggers follow the transactions one by one
+  private boolean canExecuteInParallel(BlockCapsule block) {
+    return blockExecutor != null && block.getTransactions().size() > 1
+        && !eventPluginLoaded && !dynamicPropertiesStore.allowAccountStateRoot();
+  }
+
   private void updateTransHashCache(BlockCapsule block) {
     for (TransactionCapsule transactionCapsule : block.getTransactions()) {
       this.transactionIdCache.put(transactionCapsule.getTransactionId(), true);
@@ -2055,6 +2265,10 @@ public class Manager {
   }
 
   public void closeAllStore() {
+    if (blockExecutor != null) {
+      blockExecutor.shutdown();
+    }
+    writeTxCacheCheckpoint(true);
     logger.info("******** begin to close db ********");
     closeOneStore(accountStore);
     closeOneStore(blockStore);
@@ -2095,8 +2309,36 @@ public class Manager {
   }
 
   public boolean isTooManyPending() {
-    return getPendingTransactions().size() + getRepushTransactions().size()
-        > MAX_TRANSACTION_PENDING;
+    if (pendingPool.size() <= MAX_TRANSACTION_PENDING) {
+      return false;
+    }
+    evictPending(() -> pendingPool
+        .evictExpired(dynamicPropertiesStore.getLatestBlockHeaderTimestamp()) > 0);
+    return pendingPool.size() > MAX_TRANSACTION_PENDING;
+  }
+
+  /**
+   * Checks the pending pool like {@link #isTooManyPending()}, but makes room for {@code trx} when
+   * a pending transaction has a lower fee limit.
+   */
+  public boolean isTooManyPending(TransactionCapsule trx) {
+    return isTooManyPending() && !evictPending(() -> pendingPool.evictFor(trx));
+  }
+
+  /**
+   * Runs {@code eviction} on the pending pool. The changes of the evicted transactions are still
+   * in the pending session, so when any is evicted the session is dropped and the remaining
+   * pending transactions are pushed again, the same way as after a block is applied.
+   *
+   * @return whether a transaction was evicted
+   */
+  synchronized boolean evictPending(BooleanSupplier eviction) {
+    if (!eviction.getAsBoolean()) {
+      return false;
+    }
+
+    new PendingManager(this).close();
+    return true;
   }
 
   public boolean isGeneratingBlock() {
@@ -2132,6 +2374,39 @@ public class Manager {
     }
   }
 
+  /**
+   * Runs the checks of a received block which need no state on the sign validation pool, without
+   * the lock of this manager: the witness signer, the merkle root and the transaction signers.
+   * The results are cached on the block and in {@link SignatureCache}, so {@link #pushBlock}
+   * only compares them with the state. A failed check is left for pushBlock to report.
+   */
+  public void preVerifyBlock(BlockCapsule block) throws InterruptedException {
+    List<TransactionCapsule> transactions = block.getTransactions();
+    List<Future<?>> futures = new ArrayList<>();
+    if (!transactions.isEmpty()) {
+      int threads = Math.max(1, Args.getInstance().getValidateSignThreadNum());
+      int partSize = (transactions.size() + threads - 1) / threads;
+      for (List<TransactionCapsule> part : Lists.partition(transactions, partSize)) {
+        futures.add(validateSignService.submit(
+            () -> part.forEach(TransactionCapsule::recoverSigners)));
+      }
+    }
+    try {
+      block.recoverWitnessSigner();
+    } catch (SignatureException e) {
+      logger.debug("Recover witness of block {} failed: {}", block.getNum(), e.getMessage());
+    }
+    block.isMerkleRootValid();
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        logger.debug("Recover signers of block {} failed: {}", block.getNum(),
+            e.getCause().getMessage());
+      }
+    }
+  }
+
   public void preValidateTransactionSign(BlockCapsule block)
       throws InterruptedException, ValidateSignatureException {
     logger.info("PreValidate Transaction Sign, size:" + block.getTransactions().size()
@@ -2157,6 +2432,11 @@ public class Manager {
         throw new ValidateSignatureException(e.getCause().getMessage());
       }
     }
+
+    SignatureCache signatureCache = SignatureCache.instance();
+    logger.debug("signature cache size:{}, hit rate:{}, recover:{}us",
+        signatureCache.size(), String.format("%.3f", signatureCache.getHitRate()),
+        String.format("%.1f", signatureCache.getAverageRecoverMicros()));
   }
 
   public void rePush(TransactionCapsule tx) {
@@ -1,18 +1,27 @@
 package org.sonicx.core.db;
 
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.StringTokenizer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
 import org.sonicx.common.overlay.discover.node.Node;
+import org.sonicx.common.overlay.discover.node.NodeRecord;
 import org.sonicx.common.storage.DbSourceInter;
 import org.sonicx.common.storage.leveldb.LevelDbDataSourceImpl;
+import org.sonicx.core.db.common.iterator.DBIterator;
 
 @Component
 public class PeersStore extends SonicxDatabase<Set<Node>> {
 
+  private static final byte[] NODE_PREFIX = "node:".getBytes();
+
   @Autowired
   public PeersStore(ApplicationContext ctx) {
     super("peers");
@@ -65,4 +74,44 @@ public class PeersStore extends SonicxDatabase<Set<Node>> {
   public boolean has(byte[] key) {
     return dbSource.getData(key) != null;
   }
+
+  /**
+   * Writes the changed node records and deletes the removed ones in one batch, each node under
+   * a key of its own so that unchanged nodes are not written again.
+   */
+  public void updateNodeRecords(Map<String, NodeRecord> changed, Set<String> removed) {
+    Map<byte[], byte[]> rows = new HashMap<>();
+    changed.forEach((key, record) -> rows.put(nodeKey(key), record.encode()));
+    removed.forEach(key -> rows.put(nodeKey(key), null));
+    if (!rows.isEmpty()) {
+      dbSource.updateByBatch(rows);
+    }
+  }
+
+  public Map<String, NodeRecord> getNodeRecords() {
+    Map<String, NodeRecord> records = new HashMap<>();
+    // both data sources return a closeable iterator, it holds a native one
+    try (DBIterator iterator = (DBIterator) dbSource.iterator()) {
+      while (iterator.hasNext()) {
+        Entry<byte[], byte[]> entry = iterator.next();
+        byte[] key = entry.getKey();
+        if (key.length <= NODE_PREFIX.length
+            || !Arrays.equals(Arrays.copyOf(key, NODE_PREFIX.length), NODE_PREFIX)) {
+          continue;
+        }
+        NodeRecord record = NodeRecord.decode(entry.getValue());
+        if (record != null) {
+          records.put(new String(key, NODE_PREFIX.length, key.length - NODE_PREFIX.length),
+              record);
+        }
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    return records;
+  }
+
+  private static byte[] nodeKey(String key) {
+    return (new String(NODE_PREFIX) + key).getBytes();
+  }
 }
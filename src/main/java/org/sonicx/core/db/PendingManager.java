@@ -17,8 +17,7 @@ public class PendingManager implements AutoCloseable {
   public PendingManager(Manager db) {
 
     this.dbManager = db;
-    tmpTransactions.addAll(db.getPendingTransactions());
-    db.getPendingTransactions().clear();
+    tmpTransactions.addAll(db.getPendingPool().drainPending());
     db.getSession().reset();
   }
 
@@ -29,7 +28,7 @@ public class PendingManager implements AutoCloseable {
       try {
         if (tx.getTrxTrace() != null &&
             tx.getTrxTrace().getTimeResultType().equals(TimeResultType.NORMAL)) {
-          dbManager.getRepushTransactions().put(tx);
+          dbManager.getPendingPool().getRepush().put(tx);
         }
       } catch (InterruptedException e) {
         logger.error(e.getMessage());
@@ -38,17 +37,16 @@ public class PendingManager implements AutoCloseable {
     }
     tmpTransactions.clear();
 
-    for (TransactionCapsule tx : dbManager.getPoppedTransactions()) {
+    for (TransactionCapsule tx : dbManager.getPendingPool().drainPopped()) {
       try {
         if (tx.getTrxTrace() != null &&
             tx.getTrxTrace().getTimeResultType().equals(TimeResultType.NORMAL)) {
-          dbManager.getRepushTransactions().put(tx);
+          dbManager.getPendingPool().getRepush().put(tx);
         }
       } catch (InterruptedException e) {
         logger.error(e.getMessage());
         Thread.currentThread().interrupt();
       }
     }
-    dbManager.getPoppedTransactions().clear();
   }
 }
@@ -0,0 +1,224 @@
+package org.sonicx.core.db;
+
+import com.google.common.util.concurrent.Striped;
+import com.google.protobuf.ByteString;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Collectors;
+import lombok.Getter;
+import org.sonicx.common.utils.Sha256Hash;
+import org.sonicx.core.capsule.TransactionCapsule;
+
+/**
+ * The transactions which are not in a block yet: the pending ones applied on top of the head
+ * block, the ones popped by a fork switch and the ones waiting to be pushed again.
+ *
+ * <p>The checks which do not need the state of the pending session run before admission without
+ * any lock. Admission is serialized per owner address, which keeps the arrival order of every
+ * owner. The pool itself is guarded by its own monitor, which is held just long enough to copy,
+ * add or remove, so block production works on a snapshot without blocking admission.
+ *
+ * <p>The pending transactions are indexed by fee limit, by expiration and per owner. Block
+ * production takes them best fee limit first while keeping the arrival order of every owner, and
+ * expired transactions are evicted in bulk instead of failing one by one.
+ */
+public class PendingPool {
+
+  private static final int ADMISSION_STRIPES = 256;
+
+  private static final Comparator<Entry> PRIORITY = Comparator
+      .comparingLong((Entry entry) -> entry.feeLimit).reversed()
+      .thenComparingLong(entry -> entry.seq);
+  private static final Comparator<Entry> EXPIRATION = Comparator
+      .comparingLong((Entry entry) -> entry.expiration)
+      .thenComparingLong(entry -> entry.seq);
+
+  private final Striped<Lock> admissionLocks = Striped.lock(ADMISSION_STRIPES);
+
+  // all indexes are guarded by this
+  private long seq;
+  private final Map<Sha256Hash, Entry> pending = new LinkedHashMap<>();
+  private final TreeSet<Entry> byPriority = new TreeSet<>(PRIORITY);
+  private final TreeSet<Entry> byExpiration = new TreeSet<>(EXPIRATION);
+  private final Map<ByteString, Deque<Entry>> byOwner = new HashMap<>();
+
+  private final List<TransactionCapsule> popped = new ArrayList<>();
+
+  // the capacity is equal to Integer.MAX_VALUE default
+  @Getter
+  private final BlockingQueue<TransactionCapsule> repush = new LinkedBlockingQueue<>();
+
+  private static ByteString owner(TransactionCapsule trx) {
+    byte[] owner = TransactionCapsule.getOwner(trx.getInstance().getRawData().getContract(0));
+    return owner == null ? ByteString.EMPTY : ByteString.copyFrom(owner);
+  }
+
+  /**
+   * Returns the lock which serializes the admission of the transactions of one owner.
+   */
+  public Lock getAdmissionLock(TransactionCapsule trx) {
+    return admissionLocks.get(owner(trx));
+  }
+
+  public synchronized void addPending(TransactionCapsule trx) {
+    Entry entry = new Entry(trx, owner(trx), seq++);
+    Entry old = pending.put(trx.getTransactionId(), entry);
+    if (old != null) {
+      unindex(old);
+    }
+    byPriority.add(entry);
+    byExpiration.add(entry);
+    byOwner.computeIfAbsent(entry.owner, k -> new ArrayDeque<>()).addLast(entry);
+  }
+
+  /**
+   * Returns the pending transactions in the order blocks should include them, later changes of
+   * the pool are not reflected. The transactions of one owner stay in arrival order, across
+   * owners the one with the higher fee limit at the head of its queue goes first.
+   */
+  public synchronized List<TransactionCapsule> snapshotPending() {
+    List<TransactionCapsule> trxs = new ArrayList<>(pending.size());
+    PriorityQueue<Entry> queue = new PriorityQueue<>(Math.max(1, byOwner.size()), PRIORITY);
+    Map<ByteString, Iterator<Entry>> iterators = new HashMap<>();
+    byOwner.forEach((owner, entries) -> {
+      Iterator<Entry> iterator = entries.iterator();
+      iterators.put(owner, iterator);
+      queue.add(iterator.next());
+    });
+
+    while (!queue.isEmpty()) {
+      Entry entry = queue.poll();
+      trxs.add(entry.trx);
+      Iterator<Entry> iterator = iterators.get(entry.owner);
+      if (iterator.hasNext()) {
+        queue.add(iterator.next());
+      }
+    }
+    return trxs;
+  }
+
+  public synchronized void removePending(Collection<TransactionCapsule> trxs) {
+    for (TransactionCapsule trx : trxs) {
+      Entry entry = pending.remove(trx.getTransactionId());
+      if (entry != null) {
+        unindex(entry);
+      }
+    }
+  }
+
+  /**
+   * Removes and returns all pending transactions in arrival order.
+   */
+  public synchronized List<TransactionCapsule> drainPending() {
+    List<TransactionCapsule> trxs = pending.values().stream()
+        .map(entry -> entry.trx)
+        .collect(Collectors.toList());
+    pending.clear();
+    byPriority.clear();
+    byExpiration.clear();
+    byOwner.clear();
+    return trxs;
+  }
+
+  /**
+   * Removes the pending transactions which expire at or before {@code headBlockTime}.
+   *
+   * @return the number of evicted transactions
+   */
+  public synchronized int evictExpired(long headBlockTime) {
+    int count = 0;
+    while (!byExpiration.isEmpty() && byExpiration.first().expiration <= headBlockTime) {
+      Entry entry = byExpiration.first();
+      pending.remove(entry.trx.getTransactionId());
+      unindex(entry);
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Makes room for {@code trx} by evicting the pending transaction with the lowest fee limit
+   * which is the last of its owner, if {@code trx} has a higher fee limit than that one.
+   *
+   * @return whether a transaction was evicted
+   */
+  public synchronized boolean evictFor(TransactionCapsule trx) {
+    long feeLimit = trx.getInstance().getRawData().getFeeLimit();
+    for (Entry entry : byPriority.descendingSet()) {
+      if (entry.feeLimit >= feeLimit) {
+        return false;
+      }
+      if (byOwner.get(entry.owner).peekLast() == entry) {
+        pending.remove(entry.trx.getTransactionId());
+        unindex(entry);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void unindex(Entry entry) {
+    byPriority.remove(entry);
+    byExpiration.remove(entry);
+    Deque<Entry> entries = byOwner.get(entry.owner);
+    entries.remove(entry);
+    if (entries.isEmpty()) {
+      byOwner.remove(entry.owner);
+    }
+  }
+
+  public synchronized int getPendingSize() {
+    return pending.size();
+  }
+
+  public synchronized void addPopped(Collection<TransactionCapsule> trxs) {
+    popped.addAll(trxs);
+  }
+
+  /**
+   * Removes and returns the transactions popped since the last call.
+   */
+  public synchronized List<TransactionCapsule> drainPopped() {
+    List<TransactionCapsule> trxs = new ArrayList<>(popped);
+    popped.clear();
+    return trxs;
+  }
+
+  public int getRepushSize() {
+    return repush.size();
+  }
+
+  public int size() {
+    return getPendingSize() + getRepushSize();
+  }
+
+  private static class Entry {
+
+    private final TransactionCapsule trx;
+    private final ByteString owner;
+    private final long feeLimit;
+    private final long expiration;
+    private final long seq;
+
+    Entry(TransactionCapsule trx, ByteString owner, long seq) {
+      this.trx = trx;
+      this.owner = owner;
+      this.feeLimit = trx.getInstance().getRawData().getFeeLimit();
+      this.expiration = trx.getExpiration();
+      this.seq = seq;
+    }
+  }
+}
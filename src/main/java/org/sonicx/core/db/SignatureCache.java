@@ -0,0 +1,103 @@
+package org.sonicx.core.db;
+
+import static org.sonicx.core.config.Parameter.NodeConstant.SIGNATURE_CACHE_SIZE;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.protobuf.ByteString;
+import java.security.SignatureException;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.sonicx.common.crypto.ECKey;
+import org.sonicx.core.capsule.TransactionCapsule;
+
+/**
+ * Addresses recovered from transaction signatures, keyed by transaction id and signature index.
+ *
+ * <p>A transaction is recovered once when it enters the pending pool, the block which includes it
+ * later only checks the permission against the cached addresses. An entry is only used when the
+ * signature bytes are the same, since the transaction id does not cover the signatures.
+ */
+@Slf4j(topic = "DB")
+public class SignatureCache {
+
+  private static final SignatureCache INSTANCE = new SignatureCache(SIGNATURE_CACHE_SIZE);
+
+  private final Cache<Key, Entry> cache;
+
+  @Getter
+  private final AtomicLong hitCount = new AtomicLong();
+  @Getter
+  private final AtomicLong missCount = new AtomicLong();
+  @Getter
+  private final AtomicLong recoverNanos = new AtomicLong();
+
+  SignatureCache(long maximumSize) {
+    cache = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+  }
+
+  public static SignatureCache instance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Returns the address which made signature {@code index} of the transaction with raw hash
+   * {@code hash}.
+   */
+  public byte[] recover(byte[] hash, int index, ByteString sig) throws SignatureException {
+    Key key = new Key(hash, index);
+    Entry entry = cache.getIfPresent(key);
+    if (entry != null && entry.signature.equals(sig)) {
+      hitCount.incrementAndGet();
+      return entry.address;
+    }
+
+    long start = System.nanoTime();
+    byte[] address = ECKey.signatureToAddress(hash,
+        TransactionCapsule.getBase64FromByteString(sig));
+    recoverNanos.addAndGet(System.nanoTime() - start);
+    missCount.incrementAndGet();
+    cache.put(key, new Entry(sig, address));
+    return address;
+  }
+
+  public double getHitRate() {
+    long hit = hitCount.get();
+    long total = hit + missCount.get();
+    return total == 0 ? 1.0 : (double) hit / total;
+  }
+
+  /**
+   * Returns the average time of one secp256k1 recovery in microseconds.
+   */
+  public double getAverageRecoverMicros() {
+    long miss = missCount.get();
+    return miss == 0 ? 0 : recoverNanos.get() / 1000.0 / miss;
+  }
+
+  public long size() {
+    return cache.size();
+  }
+
+  public void clear() {
+    cache.invalidateAll();
+  }
+
+  @AllArgsConstructor
+  @EqualsAndHashCode
+  private static class Key {
+
+    private final byte[] hash;
+    private final int index;
+  }
+
+  @AllArgsConstructor
+  private static class Entry {
+
+    private final ByteString signature;
+    private final byte[] address;
+  }
+}
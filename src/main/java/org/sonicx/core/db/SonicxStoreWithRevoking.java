@@ -6,6 +6,8 @@ import com.google.common.collect.Streams;
 import com.google.common.reflect.TypeToken;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
@@ -16,6 +18,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.sonicx.core.capsule.ProtoCapsule;
 import org.sonicx.core.config.args.Args;
 import org.sonicx.core.db.api.IndexHelper;
+import org.sonicx.core.db.common.WrappedByteArray;
 import org.sonicx.core.db2.common.DB;
 import org.sonicx.core.db2.common.IRevokingDB;
 import org.sonicx.core.db2.common.LevelDB;
@@ -109,6 +112,21 @@ public abstract class SonicxStoreWithRevoking<T extends ProtoCapsule> implements
     }
   }
 
+  /**
+   * Returns the items of the keys found in {@code keys}, read in one batch.
+   */
+  public Map<WrappedByteArray, T> getBatch(Collection<byte[]> keys) {
+    Map<WrappedByteArray, T> items = new HashMap<>(keys.size());
+    revokingDB.getBatch(keys).forEach((key, value) -> {
+      try {
+        items.put(key, of(value));
+      } catch (BadItemException e) {
+        logger.warn("Bad item in {}: {}", dbName, e.getMessage());
+      }
+    });
+    return items;
+  }
+
   public T of(byte[] value) throws BadItemException {
     try {
       Constructor constructor = token.getRawType().getConstructor(byte[].class);
@@ -5,6 +5,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.sonicx.core.capsule.BytesCapsule;
 import org.sonicx.core.db2.common.TxCacheDB;
+import org.sonicx.core.db2.core.RevokingDBWithCachingNewValue;
+import org.sonicx.core.db2.core.SnapshotRoot;
 
 @Slf4j
 public class TransactionCache extends SonicxStoreWithRevoking<BytesCapsule> {
@@ -13,4 +15,13 @@ public class TransactionCache extends SonicxStoreWithRevoking<BytesCapsule> {
   public TransactionCache(@Value("trans-cache") String dbName) {
     super(dbName, TxCacheDB.class);
   }
+
+  /**
+   * the flushed part of the cache, without the transactions still held by the snapshots.
+   */
+  public TxCacheDB getTxCacheDB() {
+    SnapshotRoot root = (SnapshotRoot) ((RevokingDBWithCachingNewValue) revokingDB).getHead()
+        .getRoot();
+    return (TxCacheDB) root.getDb();
+  }
 }
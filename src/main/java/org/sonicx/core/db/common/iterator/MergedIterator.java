@@ -0,0 +1,78 @@
+package org.sonicx.core.db.common.iterator;
+
+import com.google.common.collect.Iterators;
+import com.google.common.collect.PeekingIterator;
+import com.google.common.primitives.UnsignedBytes;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+
+/**
+ * Merges the ordered writes of the snapshot layers with an ordered iterator of the database
+ * underneath, one entry at a time. A layer overrides the database for the same key, and a
+ * layer entry with a null value hides the key.
+ */
+public final class MergedIterator implements DBIterator {
+
+  private final PeekingIterator<Entry<byte[], byte[]>> layers;
+  private final DBIterator root;
+  private final PeekingIterator<Entry<byte[], byte[]>> rootEntries;
+  private final Comparator<byte[]> order;
+  private Entry<byte[], byte[]> next;
+
+  public MergedIterator(Iterator<Entry<byte[], byte[]>> layers, DBIterator root,
+      boolean reverse) {
+    this.layers = Iterators.peekingIterator(layers);
+    this.root = root;
+    this.rootEntries = Iterators.peekingIterator(root);
+    Comparator<byte[]> comparator = UnsignedBytes.lexicographicalComparator();
+    this.order = reverse ? comparator.reversed() : comparator;
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (next == null) {
+      next = advance();
+    }
+    return next != null;
+  }
+
+  @Override
+  public Entry<byte[], byte[]> next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    Entry<byte[], byte[]> entry = next;
+    next = null;
+    return entry;
+  }
+
+  @Override
+  public void close() throws IOException {
+    root.close();
+  }
+
+  private Entry<byte[], byte[]> advance() {
+    while (layers.hasNext() || rootEntries.hasNext()) {
+      Entry<byte[], byte[]> entry;
+      if (!rootEntries.hasNext()) {
+        entry = layers.next();
+      } else if (!layers.hasNext()) {
+        entry = rootEntries.next();
+      } else {
+        int cmp = order.compare(layers.peek().getKey(), rootEntries.peek().getKey());
+        if (cmp == 0) {
+          rootEntries.next();
+        }
+        entry = cmp <= 0 ? layers.next() : rootEntries.next();
+      }
+
+      if (entry.getValue() != null) {
+        return entry;
+      }
+    }
+    return null;
+  }
+}
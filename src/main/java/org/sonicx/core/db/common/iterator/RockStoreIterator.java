@@ -1,5 +1,6 @@
 package org.sonicx.core.db.common.iterator;
 
+import com.google.common.primitives.UnsignedBytes;
 import java.io.IOException;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
@@ -11,32 +12,51 @@ public final class RockStoreIterator implements DBIterator {
 
   private RocksIterator dbIterator;
   private boolean first = true;
+  private boolean closed;
+  private byte[] start;
+  private boolean reverse;
 
   public RockStoreIterator(RocksIterator dbIterator) {
     this.dbIterator = dbIterator;
   }
 
+  /**
+   * Iterates from {@code start} on, backwards if {@code reverse}, and from the first or the last
+   * entry if {@code start} is null.
+   */
+  public RockStoreIterator(RocksIterator dbIterator, byte[] start, boolean reverse) {
+    this.dbIterator = dbIterator;
+    this.start = start;
+    this.reverse = reverse;
+  }
+
   @Override
   public void close() throws IOException {
-    dbIterator.close();
+    if (!closed) {
+      closed = true;
+      dbIterator.close();
+    }
   }
 
   @Override
   public boolean hasNext() {
+    if (closed) {
+      return false;
+    }
     boolean hasNext = false;
     // true is first item
     try {
       if (first) {
-        dbIterator.seekToFirst();
+        seek();
         first = false;
       }
       if (!(hasNext = dbIterator.isValid())) { // false is last item
-        dbIterator.close();
+        close();
       }
     } catch (Exception e) {
       System.out.println("e:" + e);
       try {
-        dbIterator.close();
+        close();
       } catch (Exception e1) {
         System.out.println("e1:" + e1);
       }
@@ -51,7 +71,11 @@ public final class RockStoreIterator implements DBIterator {
     }
     byte[] key = dbIterator.key();
     byte[] value = dbIterator.value();
-    dbIterator.next();
+    if (reverse) {
+      dbIterator.prev();
+    } else {
+      dbIterator.next();
+    }
     return new Entry<byte[], byte[]>() {
       @Override
       public byte[] getKey() {
@@ -69,4 +93,25 @@ public final class RockStoreIterator implements DBIterator {
       }
     };
   }
-}
\ No newline at end of file
+
+  private void seek() {
+    if (start == null) {
+      if (reverse) {
+        dbIterator.seekToLast();
+      } else {
+        dbIterator.seekToFirst();
+      }
+      return;
+    }
+
+    dbIterator.seek(start);
+    if (reverse) {
+      if (!dbIterator.isValid()) {
+        dbIterator.seekToLast();
+      } else if (UnsignedBytes.lexicographicalComparator()
+          .compare(dbIterator.key(), start) > 0) {
+        dbIterator.prev();
+      }
+    }
+  }
+}
@@ -1,41 +1,59 @@
 package org.sonicx.core.db.common.iterator;
 
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
+import com.google.common.primitives.UnsignedBytes;
 import lombok.extern.slf4j.Slf4j;
 import org.iq80.leveldb.DBIterator;
 
 import java.io.IOException;
 import java.util.Map.Entry;
-import java.util.function.Consumer;
 
 @Slf4j(topic = "DB")
 public final class StoreIterator implements org.sonicx.core.db.common.iterator.DBIterator {
 
   private DBIterator dbIterator;
   private boolean first = true;
+  private boolean closed;
+  private byte[] start;
+  private boolean reverse;
 
   public StoreIterator(DBIterator dbIterator) {
     this.dbIterator = dbIterator;
   }
 
+  /**
+   * Iterates from {@code start} on, backwards if {@code reverse}, and from the first or the last
+   * entry if {@code start} is null.
+   */
+  public StoreIterator(DBIterator dbIterator, byte[] start, boolean reverse) {
+    this.dbIterator = dbIterator;
+    this.start = start;
+    this.reverse = reverse;
+  }
+
   @Override
   public void close() throws IOException {
-    dbIterator.close();
+    if (!closed) {
+      closed = true;
+      dbIterator.close();
+    }
   }
 
   @Override
   public boolean hasNext() {
+    if (closed) {
+      return false;
+    }
+
     boolean hasNext = false;
     // true is first item
     try {
       if (first) {
-        dbIterator.seekToFirst();
+        seek();
         first = false;
       }
 
-      if (!(hasNext = dbIterator.hasNext())) { // false is last item
-        dbIterator.close();
+      if (!closed && !(hasNext = dbIterator.hasNext())) { // false is last item
+        close();
       }
     } catch (Exception e) {
       logger.debug(e.getMessage(), e);
@@ -46,11 +64,51 @@ public final class StoreIterator implements org.sonicx.core.db.common.iterator.D
 
   @Override
   public Entry<byte[], byte[]> next() {
-    return dbIterator.next();
+    if (!reverse) {
+      return dbIterator.next();
+    }
+
+    Entry<byte[], byte[]> entry = dbIterator.peekNext();
+    stepBack();
+    return entry;
   }
 
   @Override
   public void remove() {
     throw new UnsupportedOperationException();
   }
+
+  private void seek() {
+    if (!reverse) {
+      if (start == null) {
+        dbIterator.seekToFirst();
+      } else {
+        dbIterator.seek(start);
+      }
+      return;
+    }
+
+    if (start != null) {
+      dbIterator.seek(start);
+    }
+    if (start == null || !dbIterator.hasNext()) {
+      dbIterator.seekToLast();
+    } else if (UnsignedBytes.lexicographicalComparator()
+        .compare(dbIterator.peekNext().getKey(), start) > 0) {
+      stepBack();
+    }
+  }
+
+  // the leveldb iterator can not move before the first entry, it is closed there instead
+  private void stepBack() {
+    try {
+      if (dbIterator.hasPrev()) {
+        dbIterator.prev();
+      } else {
+        close();
+      }
+    } catch (IOException e) {
+      logger.debug(e.getMessage(), e);
+    }
+  }
 }
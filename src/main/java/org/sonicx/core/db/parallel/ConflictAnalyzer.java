@@ -0,0 +1,120 @@
+package org.sonicx.core.db.parallel;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.sonicx.core.capsule.TransactionCapsule;
+import org.sonicx.protos.Contract.TransferAssetContract;
+import org.sonicx.protos.Contract.TransferContract;
+import org.sonicx.protos.Contract.VoteWitnessContract;
+import org.sonicx.protos.Contract.VoteWitnessContract.Vote;
+import org.sonicx.protos.Protocol.Transaction.Contract;
+
+/**
+ * Derives the read/write sets of transactions from their contracts and splits the transactions
+ * of a block into groups which do not share any account.
+ */
+@Slf4j(topic = "DB")
+public class ConflictAnalyzer {
+
+  private ConflictAnalyzer() {
+  }
+
+  public static ReadWriteSet analyze(TransactionCapsule trx) {
+    ReadWriteSet set = new ReadWriteSet();
+    List<Contract> contracts = trx.getInstance().getRawData().getContractList();
+    if (contracts.size() != 1) {
+      set.setGlobal(true);
+      return set;
+    }
+
+    Contract contract = contracts.get(0);
+    try {
+      switch (contract.getType()) {
+        case TransferContract: {
+          TransferContract transfer = contract.getParameter().unpack(TransferContract.class);
+          set.getAccounts().add(transfer.getOwnerAddress());
+          set.getAccounts().add(transfer.getToAddress());
+          break;
+        }
+        case TransferAssetContract: {
+          TransferAssetContract transfer = contract.getParameter()
+              .unpack(TransferAssetContract.class);
+          set.getAccounts().add(transfer.getOwnerAddress());
+          set.getAccounts().add(transfer.getToAddress());
+          set.getAssets().add(transfer.getAssetName());
+          break;
+        }
+        case VoteWitnessContract: {
+          VoteWitnessContract vote = contract.getParameter().unpack(VoteWitnessContract.class);
+          set.getAccounts().add(vote.getOwnerAddress());
+          set.getVotes().add(vote.getOwnerAddress());
+          for (Vote v : vote.getVotesList()) {
+            set.getWitnesses().add(v.getVoteAddress());
+          }
+          break;
+        }
+        default:
+          byte[] owner = TransactionCapsule.getOwner(contract);
+          if (owner != null) {
+            set.getAccounts().add(ByteString.copyFrom(owner));
+          }
+          set.setGlobal(true);
+      }
+    } catch (InvalidProtocolBufferException e) {
+      logger.debug("can not analyze transaction {}: {}", trx.getTransactionId(), e.getMessage());
+      set.setGlobal(true);
+    }
+
+    return set;
+  }
+
+  /**
+   * Splits the transactions into groups with disjoint accounts, as indexes into {@code sets} in
+   * the canonical order. Every global transaction gets a group of its own.
+   */
+  public static List<List<Integer>> group(List<ReadWriteSet> sets) {
+    int[] parent = new int[sets.size()];
+    Map<ByteString, Integer> owners = new HashMap<>();
+    for (int i = 0; i < sets.size(); i++) {
+      parent[i] = i;
+      if (sets.get(i).isGlobal()) {
+        continue;
+      }
+
+      for (ByteString account : sets.get(i).getAccounts()) {
+        Integer j = owners.putIfAbsent(account, i);
+        if (j != null) {
+          union(parent, i, j);
+        }
+      }
+    }
+
+    Map<Integer, List<Integer>> groups = new LinkedHashMap<>();
+    for (int i = 0; i < sets.size(); i++) {
+      groups.computeIfAbsent(find(parent, i), k -> new ArrayList<>()).add(i);
+    }
+    return new ArrayList<>(groups.values());
+  }
+
+  private static int find(int[] parent, int i) {
+    while (parent[i] != i) {
+      parent[i] = parent[parent[i]];
+      i = parent[i];
+    }
+    return i;
+  }
+
+  private static void union(int[] parent, int i, int j) {
+    int a = find(parent, i);
+    int b = find(parent, j);
+    if (a != b) {
+      parent[Math.max(a, b)] = Math.min(a, b);
+    }
+  }
+}
@@ -0,0 +1,235 @@
+package org.sonicx.core.db.parallel;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.sonicx.core.capsule.BlockCapsule;
+import org.sonicx.core.capsule.TransactionCapsule;
+import org.sonicx.core.db.Manager;
+import org.sonicx.core.db2.core.ExecutionOverlay;
+import org.sonicx.core.exception.AccountResourceInsufficientException;
+import org.sonicx.core.exception.ContractExeException;
+import org.sonicx.core.exception.ContractValidateException;
+import org.sonicx.core.exception.DupTransactionException;
+import org.sonicx.core.exception.ReceiptCheckErrException;
+import org.sonicx.core.exception.TaposException;
+import org.sonicx.core.exception.TooBigTransactionException;
+import org.sonicx.core.exception.TooBigTransactionResultException;
+import org.sonicx.core.exception.TransactionExpirationException;
+import org.sonicx.core.exception.VMIllegalException;
+import org.sonicx.core.exception.ValidateSignatureException;
+import org.sonicx.protos.Protocol.TransactionInfo;
+
+/**
+ * Opt-in engine which executes the transactions of a block in groups on worker threads.
+ *
+ * <p>The block is cut into runs of transactions whose accounts {@link ConflictAnalyzer} can
+ * derive, separated by the other transactions. The transactions of a run are split into groups
+ * with disjoint accounts and every group is executed in its canonical order on a worker, on top
+ * of its own {@link ExecutionOverlay}. When no group wrote a key another group read or wrote,
+ * the overlays are committed in the order of their first transaction; the state is then the
+ * same as after executing the run one by one. Otherwise, or when a group failed, the overlays
+ * are dropped and the run is executed serially, as are the other transactions.
+ */
+@Slf4j(topic = "DB")
+public class ParallelBlockExecutor {
+
+  private final Manager manager;
+  private final ExecutorService executor;
+
+  @Getter
+  private final AtomicLong transactionCount = new AtomicLong();
+  @Getter
+  private final AtomicLong parallelCount = new AtomicLong();
+  @Getter
+  private final AtomicLong groupCount = new AtomicLong();
+  @Getter
+  private final AtomicLong conflictCount = new AtomicLong();
+
+  private static class Group {
+
+    private final List<Integer> indexes;
+    private final ExecutionOverlay overlay = new ExecutionOverlay();
+    private final List<TransactionInfo> results = new ArrayList<>();
+    // claimed by the worker which executes the group, or by stopWorkers before one does
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    private Group(List<Integer> indexes) {
+      this.indexes = indexes;
+    }
+  }
+
+  public ParallelBlockExecutor(Manager manager, int threadNum) {
+    this.manager = manager;
+    this.executor = Executors.newFixedThreadPool(Math.max(1, threadNum),
+        new ThreadFactoryBuilder().setNameFormat("block-execute-%d").setDaemon(true).build());
+  }
+
+  /**
+   * Executes the transactions of the block, returns their results in the order of the block.
+   */
+  public List<TransactionInfo> execute(BlockCapsule block)
+      throws ValidateSignatureException, ContractValidateException, ContractExeException,
+      AccountResourceInsufficientException, TransactionExpirationException,
+      TooBigTransactionException, TooBigTransactionResultException, DupTransactionException,
+      TaposException, ReceiptCheckErrException, VMIllegalException {
+    List<TransactionCapsule> trxs = block.getTransactions();
+    List<ReadWriteSet> sets = trxs.stream()
+        .map(ConflictAnalyzer::analyze)
+        .collect(Collectors.toList());
+    // computed once here, the workers only read them
+    block.getBlockId();
+    transactionCount.addAndGet(trxs.size());
+
+    TransactionInfo[] results = new TransactionInfo[trxs.size()];
+    boolean interrupted = false;
+    try {
+      int i = 0;
+      while (i < trxs.size()) {
+        if (sets.get(i).isGlobal()) {
+          results[i] = manager.processTransaction(trxs.get(i), block);
+          i++;
+          continue;
+        }
+
+        int end = i;
+        while (end < trxs.size() && !sets.get(end).isGlobal()) {
+          end++;
+        }
+        boolean parallel;
+        try {
+          parallel = executeParallel(block, sets, i, end, results);
+        } catch (InterruptedException e) {
+          // restored once the block is executed, the block must be executed anyway
+          interrupted = true;
+          parallel = false;
+        }
+        if (!parallel) {
+          for (int j = i; j < end; j++) {
+            results[j] = manager.processTransaction(trxs.get(j), block);
+          }
+        }
+        i = end;
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    return Arrays.asList(results);
+  }
+
+  /**
+   * Returns whether the run was executed. When it was not, or when interrupted, none of the
+   * workers of the run is still running.
+   */
+  private boolean executeParallel(BlockCapsule block, List<ReadWriteSet> sets, int from, int to,
+      TransactionInfo[] results) throws InterruptedException {
+    List<Group> groups = ConflictAnalyzer.group(sets.subList(from, to)).stream()
+        .map(indexes -> new Group(indexes.stream().map(j -> j + from)
+            .collect(Collectors.toList())))
+        .collect(Collectors.toList());
+    if (groups.size() < 2) {
+      return false;
+    }
+
+    AtomicBoolean abandoned = new AtomicBoolean();
+    CountDownLatch done = new CountDownLatch(groups.size());
+    List<Future<?>> futures = new ArrayList<>(groups.size());
+    for (Group group : groups) {
+      futures.add(executor.submit(() -> {
+        if (!group.started.compareAndSet(false, true)) {
+          return null;
+        }
+        group.overlay.install();
+        try {
+          for (int index : group.indexes) {
+            if (abandoned.get()) {
+              break;
+            }
+            group.results.add(manager.processTransaction(block.getTransactions().get(index),
+                block));
+          }
+        } finally {
+          group.overlay.uninstall();
+          done.countDown();
+        }
+        return null;
+      }));
+    }
+
+    try {
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      stopWorkers(groups, abandoned, done);
+      throw e;
+    } catch (ExecutionException e) {
+      // the serial run throws the same exception, in its canonical place
+      logger.debug("parallel run of block {} failed: {}", block.getNum(), e.getCause().toString());
+      if (stopWorkers(groups, abandoned, done)) {
+        throw new InterruptedException();
+      }
+      return false;
+    }
+
+    List<ExecutionOverlay> overlays = groups.stream()
+        .map(group -> group.overlay)
+        .collect(Collectors.toList());
+    if (overlays.stream().anyMatch(ExecutionOverlay::isAborted)
+        || ExecutionOverlay.anyConflict(overlays)) {
+      conflictCount.incrementAndGet();
+      logger.debug("conflict in block {}, transactions {} to {} run serially",
+          block.getNum(), from, to);
+      return false;
+    }
+
+    for (Group group : groups) {
+      group.overlay.commit();
+      for (int j = 0; j < group.indexes.size(); j++) {
+        results[group.indexes.get(j)] = group.results.get(j);
+      }
+    }
+    parallelCount.addAndGet(to - from);
+    groupCount.addAndGet(groups.size());
+    return true;
+  }
+
+  // the workers must be done before the run is executed again on the stores, returns whether
+  // the thread was interrupted meanwhile
+  private static boolean stopWorkers(List<Group> groups, AtomicBoolean abandoned,
+      CountDownLatch done) {
+    abandoned.set(true);
+    for (Group group : groups) {
+      if (group.started.compareAndSet(false, true)) {
+        done.countDown();
+      }
+    }
+    boolean interrupted = false;
+    while (true) {
+      try {
+        done.await();
+        return interrupted;
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+  }
+
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,25 @@
+package org.sonicx.core.db.parallel;
+
+import com.google.protobuf.ByteString;
+import java.util.HashSet;
+import java.util.Set;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The state one transaction reads and writes, as far as it can be derived from its contract.
+ */
+@Getter
+public class ReadWriteSet {
+
+  // accounts read and written
+  private final Set<ByteString> accounts = new HashSet<>();
+  // rows only read
+  private final Set<ByteString> witnesses = new HashSet<>();
+  private final Set<ByteString> assets = new HashSet<>();
+  private final Set<ByteString> votes = new HashSet<>();
+
+  // the contract may touch state which is not listed above
+  @Setter
+  private boolean global;
+}
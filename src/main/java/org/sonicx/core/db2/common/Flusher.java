@@ -1,12 +1,19 @@
 package org.sonicx.core.db2.common;
 
 import java.util.Map;
+import java.util.function.Consumer;
+import org.sonicx.common.storage.BatchWriter;
 import org.sonicx.core.db.common.WrappedByteArray;
 
 public interface Flusher {
 
   void flush(Map<WrappedByteArray, WrappedByteArray> batch);
 
+  /**
+   * Writes the rows passed to the writer as one batch, without collecting them first.
+   */
+  void flush(Consumer<BatchWriter> rows);
+
   void close();
 
   void reset();
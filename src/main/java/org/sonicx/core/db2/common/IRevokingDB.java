@@ -1,8 +1,10 @@
 package org.sonicx.core.db2.common;
 
+import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
 import org.sonicx.core.db.common.WrappedByteArray;
+import org.sonicx.core.db.common.iterator.DBIterator;
 import org.sonicx.core.exception.ItemNotFoundException;
 
 public interface IRevokingDB extends Iterable<Map.Entry<byte[], byte[]>> {
@@ -17,6 +19,12 @@ public interface IRevokingDB extends Iterable<Map.Entry<byte[], byte[]>> {
 
   byte[] getUnchecked(byte[] key);
 
+  /**
+   * Returns the values of the keys found in {@code keys}: the in-memory layers answer first and
+   * the remaining keys are read from the database in one batch.
+   */
+  Map<WrappedByteArray, byte[]> getBatch(Collection<byte[]> keys);
+
   void close();
 
   void reset();
@@ -28,6 +36,12 @@ public interface IRevokingDB extends Iterable<Map.Entry<byte[], byte[]>> {
 
   // for blockstore
   Set<byte[]> getValuesNext(byte[] key, long limit);
+
+  /**
+   * Iterates the entries from {@code key} on in key order, backwards if {@code reverse}, and
+   * from the first or the last entry if {@code key} is null. Close it when done.
+   */
+  DBIterator iterator(byte[] key, boolean reverse);
   
   // for deferTransaction
   Set<byte[]> getValuesPrevious(byte[] key, long limit);
@@ -0,0 +1,56 @@
+package org.sonicx.core.db2.common;
+
+import java.util.Arrays;
+
+/**
+ * Counts durations in ms into fixed exponential buckets, for pauses where the distribution
+ * matters more than the average.
+ */
+public class LatencyHistogram {
+
+  private static final long[] BOUNDS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000,
+      10000};
+
+  private final long[] counts = new long[BOUNDS.length + 1];
+
+  private long count;
+
+  private long max;
+
+  public synchronized void record(long millis) {
+    int bucket = Arrays.binarySearch(BOUNDS, millis);
+    counts[bucket < 0 ? -bucket - 1 : bucket]++;
+    count++;
+    max = Math.max(max, millis);
+  }
+
+  public synchronized long getCount() {
+    return count;
+  }
+
+  public synchronized long getMax() {
+    return max;
+  }
+
+  /**
+   * Returns the upper bound of the bucket holding the {@code percentile}, the maximum for the
+   * last bucket.
+   */
+  public synchronized long getPercentile(double percentile) {
+    long rank = (long) Math.ceil(count * percentile / 100);
+    long seen = 0;
+    for (int i = 0; i < BOUNDS.length; i++) {
+      seen += counts[i];
+      if (seen >= rank && seen > 0) {
+        return Math.min(BOUNDS[i], max);
+      }
+    }
+    return max;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return String.format("count %d, p50 %dms, p90 %dms, p99 %dms, max %dms", count,
+        getPercentile(50), getPercentile(90), getPercentile(99), max);
+  }
+}
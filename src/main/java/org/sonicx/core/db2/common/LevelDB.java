@@ -1,10 +1,13 @@
 package org.sonicx.core.db2.common;
 
 import com.google.common.collect.Maps;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 import lombok.Getter;
 import org.iq80.leveldb.WriteOptions;
+import org.sonicx.common.storage.BatchWriter;
 import org.sonicx.common.storage.WriteOptionsWrapper;
 import org.sonicx.common.storage.leveldb.LevelDbDataSourceImpl;
 import org.sonicx.core.config.args.Args;
@@ -28,6 +31,10 @@ public class LevelDB implements DB<byte[], byte[]>, Flusher {
     return db.getData(key);
   }
 
+  public Map<WrappedByteArray, byte[]> getBatch(Collection<byte[]> keys) {
+    return db.getBatch(keys);
+  }
+
   @Override
   public void put(byte[] key, byte[] value) {
     db.putData(key, value);
@@ -62,6 +69,11 @@ public class LevelDB implements DB<byte[], byte[]>, Flusher {
 //    db.reOpen();
   }
 
+  @Override
+  public void flush(Consumer<BatchWriter> rows) {
+    db.writeBatch(rows, writeOptions);
+  }
+
   @Override
   public void close() {
     db.closeDB();
@@ -2,9 +2,12 @@ package org.sonicx.core.db2.common;
 
 import com.google.common.collect.Maps;
 import java.nio.file.Paths;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 import lombok.Getter;
+import org.sonicx.common.storage.BatchWriter;
 import org.sonicx.common.storage.WriteOptionsWrapper;
 import org.sonicx.common.storage.leveldb.RocksDbDataSourceImpl;
 import org.sonicx.core.config.args.Args;
@@ -29,6 +32,10 @@ public class RocksDB implements DB<byte[], byte[]>, Flusher {
     return db.getData(key);
   }
 
+  public Map<WrappedByteArray, byte[]> getBatch(Collection<byte[]> keys) {
+    return db.getBatch(keys);
+  }
+
   @Override
   public void put(byte[] key, byte[] value) {
     db.putData(key, value);
@@ -62,6 +69,11 @@ public class RocksDB implements DB<byte[], byte[]>, Flusher {
     db.updateByBatch(rows, optionsWrapper);
   }
 
+  @Override
+  public void flush(Consumer<BatchWriter> rows) {
+    db.writeBatch(rows, optionsWrapper);
+  }
+
   @Override
   public void close() {
     db.closeDB();
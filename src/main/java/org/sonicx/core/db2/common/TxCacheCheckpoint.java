@@ -0,0 +1,107 @@
+package org.sonicx.core.db2.common;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.function.BiPredicate;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The content of a {@link TxIdRing} on disk, tagged with the block it is complete up to.
+ *
+ * <p>The file is written to a temporary file first and then renamed, a trailing CRC32 rejects
+ * files which were not written completely.
+ */
+@Slf4j(topic = "DB")
+public class TxCacheCheckpoint {
+
+  private static final int MAGIC = 0x54584350;
+  private static final int VERSION = 1;
+
+  @Getter
+  private final File file;
+
+  public TxCacheCheckpoint(File file) {
+    this.file = file;
+  }
+
+  public void write(TxIdRing ring, long blockNum, byte[] blockId) throws IOException {
+    File parent = file.getAbsoluteFile().getParentFile();
+    if (!parent.exists() && !parent.mkdirs()) {
+      throw new IOException("can not create directory " + parent);
+    }
+
+    File tmp = new File(parent, file.getName() + ".tmp");
+    CRC32 crc = new CRC32();
+    try (DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+        new BufferedOutputStream(new FileOutputStream(tmp), 1 << 16), crc))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeLong(blockNum);
+      out.writeInt(blockId.length);
+      out.write(blockId);
+      ring.writeTo(out);
+      out.flush();
+      out.writeLong(crc.getValue());
+    }
+
+    Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Loads the checkpoint into the ring if {@code validator} accepts its block number and id.
+   *
+   * @return the block number of the checkpoint, or -1 if there is no usable checkpoint, in which
+   *     case the ring is cleared when its content could not be read back.
+   */
+  public long read(TxIdRing ring, BiPredicate<Long, byte[]> validator) {
+    if (!file.exists()) {
+      return -1;
+    }
+
+    CRC32 crc = new CRC32();
+    try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+        new BufferedInputStream(new FileInputStream(file), 1 << 16), crc))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        logger.warn("unknown transaction cache checkpoint {}.", file);
+        return -1;
+      }
+
+      long blockNum = in.readLong();
+      byte[] blockId = new byte[in.readInt()];
+      in.readFully(blockId);
+      if (!validator.test(blockNum, blockId)) {
+        logger.info("transaction cache checkpoint at block {} is not on the chain.", blockNum);
+        return -1;
+      }
+
+      try {
+        ring.readFrom(in);
+        long expected = crc.getValue();
+        if (in.readLong() != expected) {
+          throw new IOException("checksum mismatch");
+        }
+      } catch (IOException e) {
+        ring.clear();
+        throw e;
+      }
+
+      return blockNum;
+    } catch (IOException e) {
+      logger.warn("failed to read transaction cache checkpoint {}: {}", file, e.getMessage());
+      return -1;
+    }
+  }
+}
@@ -1,39 +1,27 @@
 package org.sonicx.core.db2.common;
 
-import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.Iterators;
-import com.google.common.collect.Maps;
-import com.google.common.collect.Multimap;
 import com.google.common.primitives.Longs;
-import java.lang.reflect.Array;
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Set;
-import java.util.WeakHashMap;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
-import org.sonicx.core.db.KhaosDatabase.KhaosBlock;
+import org.sonicx.common.storage.BatchWriter;
 import org.sonicx.core.db.common.WrappedByteArray;
 
 @Slf4j(topic = "DB")
 public class TxCacheDB implements DB<byte[], byte[]>, Flusher {
 
   // > 65_536(= 2^16) blocks, that is the number of the reference block
-  private final int BLOCK_COUNT = 70_000;
+  private static final long BLOCK_COUNT = 70_000;
 
-  private Map<Key, Long> db = new WeakHashMap<>();
-  private Multimap<Long, Key> blockNumMap = ArrayListMultimap.create();
+  @Getter
+  private TxIdRing db = new TxIdRing(BLOCK_COUNT);
 
   @Override
   public byte[] get(byte[] key) {
-    Long v = db.get(Key.of(key));
-    return v == null ? null : Longs.toByteArray(v);
+    long v = db.get(key);
+    return v == Long.MIN_VALUE ? null : Longs.toByteArray(v);
   }
 
   @Override
@@ -42,23 +30,7 @@ public class TxCacheDB implements DB<byte[], byte[]>, Flusher {
       return;
     }
 
-    Key k = Key.copyOf(key);
-    Long v = Longs.fromByteArray(value);
-    blockNumMap.put(v, k);
-    db.put(k, v);
-    removeEldest();
-  }
-
-  private void removeEldest() {
-    Set<Long> keys = blockNumMap.keySet();
-    if (keys.size() > BLOCK_COUNT) {
-      keys.stream()
-          .min(Long::compareTo)
-          .ifPresent(k -> {
-            blockNumMap.removeAll(k);
-            logger.debug("******removeEldest block number:{}, block count:{}", k, keys.size());
-          });
-    }
+    db.put(key, Longs.fromByteArray(value));
   }
 
   @Override
@@ -68,20 +40,19 @@ public class TxCacheDB implements DB<byte[], byte[]>, Flusher {
 
   @Override
   public boolean isEmpty() {
-    return db.isEmpty();
+    return db.size() == 0;
   }
 
   @Override
   public void remove(byte[] key) {
     if (key != null) {
-      db.remove(Key.of(key));
+      db.remove(key);
     }
   }
 
   @Override
   public Iterator<Map.Entry<byte[], byte[]>> iterator() {
-    return Iterators.transform(db.entrySet().iterator(),
-        e -> Maps.immutableEntry(e.getKey().getBytes(), Longs.toByteArray(e.getValue())));
+    return db.iterator();
   }
 
   @Override
@@ -89,16 +60,28 @@ public class TxCacheDB implements DB<byte[], byte[]>, Flusher {
     batch.forEach((k, v) -> this.put(k.getBytes(), v.getBytes()));
   }
 
+  @Override
+  public void flush(Consumer<BatchWriter> rows) {
+    rows.accept(new BatchWriter() {
+      @Override
+      public void put(byte[] key, byte[] value) {
+        TxCacheDB.this.put(key, value);
+      }
+
+      @Override
+      public void delete(byte[] key) {
+        // transaction ids only expire with their block
+      }
+    });
+  }
+
   @Override
   public void close() {
     reset();
-    db = null;
-    blockNumMap = null;
   }
 
   @Override
   public void reset() {
     db.clear();
-    blockNumMap.clear();
   }
 }
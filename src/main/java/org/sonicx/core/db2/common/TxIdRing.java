@@ -0,0 +1,337 @@
+package org.sonicx.core.db2.common;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+import com.google.common.primitives.Longs;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The ids of the transactions in the most recent blocks, each mapped to its block number.
+ *
+ * <p>Ids are kept in a ring of open-addressed hash tables over primitive arrays, one table per
+ * range of {@code 2^BUCKET_SHIFT} blocks. The ring always holds at least {@code blockCount}
+ * blocks below the newest block seen; when a newer range starts, the table of the oldest range is
+ * dropped as a whole.
+ */
+public class TxIdRing {
+
+  public static final int ID_LENGTH = 32;
+
+  private static final int BUCKET_SHIFT = 12;
+  private static final int INITIAL_CAPACITY = 256;
+  // 4 longs of id and the block number plus two, 0 marks a free slot
+  // and -1 a transaction which is not in a block yet
+  private static final int STRIDE = 5;
+  private static final int MAGIC = 0x54584944;
+
+  private final Bucket[] buckets;
+  private long maxEpoch = -1;
+  private long maxBlockNum = -1;
+  private long size = 0;
+
+  public TxIdRing(long blockCount) {
+    Preconditions.checkArgument(blockCount > 0, "blockCount must be positive.");
+    long span = 1L << BUCKET_SHIFT;
+    buckets = new Bucket[(int) ((blockCount + span - 1) / span) + 1];
+    for (int i = 0; i < buckets.length; i++) {
+      buckets[i] = new Bucket();
+    }
+  }
+
+  /**
+   * Returns the block number of the transaction id, or {@code Long.MIN_VALUE} if it is not in
+   * the ring.
+   */
+  public synchronized long get(byte[] id) {
+    if (id == null || id.length != ID_LENGTH) {
+      return Long.MIN_VALUE;
+    }
+
+    long k0 = word(id, 0);
+    long k1 = word(id, 1);
+    long k2 = word(id, 2);
+    long k3 = word(id, 3);
+    for (Bucket bucket : buckets) {
+      int slot = bucket.find(k0, k1, k2, k3);
+      if (slot >= 0) {
+        return bucket.table[slot * STRIDE + 4] - 2;
+      }
+    }
+
+    return Long.MIN_VALUE;
+  }
+
+  /**
+   * Adds the transaction id, ids of blocks older than the retained range are ignored. A negative
+   * block number, used for pending transactions, is kept with the newest range.
+   */
+  public synchronized void put(byte[] id, long blockNum) {
+    Preconditions.checkArgument(id != null && id.length == ID_LENGTH,
+        "transaction id must be " + ID_LENGTH + " bytes.");
+
+    long epoch = blockNum < 0 ? Math.max(maxEpoch, 0) : blockNum >>> BUCKET_SHIFT;
+    if (epoch <= maxEpoch - buckets.length) {
+      return;
+    }
+
+    long k0 = word(id, 0);
+    long k1 = word(id, 1);
+    long k2 = word(id, 2);
+    long k3 = word(id, 3);
+    removeAll(k0, k1, k2, k3);
+
+    if (epoch > maxEpoch) {
+      maxEpoch = epoch;
+      for (Bucket bucket : buckets) {
+        if (bucket.epoch >= 0 && bucket.epoch <= maxEpoch - buckets.length) {
+          size -= bucket.size;
+          bucket.reset(-1);
+        }
+      }
+    }
+
+    Bucket bucket = buckets[(int) (epoch % buckets.length)];
+    if (bucket.epoch != epoch) {
+      size -= bucket.size;
+      bucket.reset(epoch);
+    }
+
+    bucket.insert(k0, k1, k2, k3, Math.max(blockNum, -1) + 2);
+    ++size;
+    maxBlockNum = Math.max(maxBlockNum, blockNum);
+  }
+
+  public synchronized boolean remove(byte[] id) {
+    if (id == null || id.length != ID_LENGTH) {
+      return false;
+    }
+
+    long k0 = word(id, 0);
+    long k1 = word(id, 1);
+    long k2 = word(id, 2);
+    long k3 = word(id, 3);
+    return removeAll(k0, k1, k2, k3);
+  }
+
+  public synchronized long size() {
+    return size;
+  }
+
+  /**
+   * Returns the highest block number ever added, or -1 if no block has been added.
+   */
+  public synchronized long getMaxBlockNum() {
+    return maxBlockNum;
+  }
+
+  public synchronized void clear() {
+    for (Bucket bucket : buckets) {
+      bucket.reset(-1);
+    }
+    maxEpoch = -1;
+    maxBlockNum = -1;
+    size = 0;
+  }
+
+  /**
+   * Returns a point in time copy of the entries, as id and big-endian block number.
+   */
+  public synchronized Iterator<Map.Entry<byte[], byte[]>> iterator() {
+    List<Map.Entry<byte[], byte[]>> entries = new ArrayList<>((int) size);
+    for (Bucket bucket : buckets) {
+      for (int slot = 0; slot <= bucket.mask; slot++) {
+        int base = slot * STRIDE;
+        if (bucket.table[base + 4] != 0) {
+          byte[] id = new byte[ID_LENGTH];
+          for (int i = 0; i < 4; i++) {
+            System.arraycopy(Longs.toByteArray(bucket.table[base + i]), 0, id, i * 8, 8);
+          }
+          entries.add(Maps.immutableEntry(id, Longs.toByteArray(bucket.table[base + 4] - 2)));
+        }
+      }
+    }
+
+    return entries.iterator();
+  }
+
+  /**
+   * Writes the ring in a compact binary form, only the occupied slots are written. The tables are
+   * copied under the lock and written out without it, so lookups are not held up by the disk.
+   */
+  public void writeTo(DataOutput out) throws IOException {
+    long newestEpoch;
+    long[] epochs = new long[buckets.length];
+    int[] sizes = new int[buckets.length];
+    long[][] tables = new long[buckets.length][];
+    synchronized (this) {
+      newestEpoch = maxEpoch;
+      for (int i = 0; i < buckets.length; i++) {
+        epochs[i] = buckets[i].epoch;
+        sizes[i] = buckets[i].size;
+        tables[i] = buckets[i].table.clone();
+      }
+    }
+
+    out.writeInt(MAGIC);
+    out.writeInt(BUCKET_SHIFT);
+    out.writeInt(buckets.length);
+    out.writeLong(newestEpoch);
+    for (int i = 0; i < buckets.length; i++) {
+      long[] table = tables[i];
+      out.writeLong(epochs[i]);
+      out.writeInt(sizes[i]);
+      for (int base = 0; base < table.length; base += STRIDE) {
+        if (table[base + 4] != 0) {
+          for (int j = 0; j < STRIDE; j++) {
+            out.writeLong(table[base + j]);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Replaces the content of the ring with the one written by {@link #writeTo(DataOutput)}.
+   */
+  public synchronized void readFrom(DataInput in) throws IOException {
+    if (in.readInt() != MAGIC || in.readInt() != BUCKET_SHIFT || in.readInt() != buckets.length) {
+      throw new IOException("incompatible transaction id ring.");
+    }
+
+    clear();
+    maxEpoch = in.readLong();
+    for (Bucket bucket : buckets) {
+      long epoch = in.readLong();
+      int count = in.readInt();
+      bucket.reset(epoch);
+      for (int j = 0; j < count; j++) {
+        long k0 = in.readLong();
+        long k1 = in.readLong();
+        long k2 = in.readLong();
+        long k3 = in.readLong();
+        long value = in.readLong();
+        bucket.insert(k0, k1, k2, k3, value);
+        ++size;
+        maxBlockNum = Math.max(maxBlockNum, value - 2);
+      }
+    }
+  }
+
+  private boolean removeAll(long k0, long k1, long k2, long k3) {
+    boolean removed = false;
+    for (Bucket bucket : buckets) {
+      int slot = bucket.find(k0, k1, k2, k3);
+      if (slot >= 0) {
+        bucket.delete(slot);
+        --size;
+        removed = true;
+      }
+    }
+
+    return removed;
+  }
+
+  private static long word(byte[] id, int i) {
+    long r = 0;
+    for (int j = i * 8; j < i * 8 + 8; j++) {
+      r = (r << 8) | (id[j] & 0xFF);
+    }
+    return r;
+  }
+
+  private static int hash(long k0) {
+    long h = k0 * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+
+  private static final class Bucket {
+
+    private long epoch = -1;
+    private long[] table = new long[INITIAL_CAPACITY * STRIDE];
+    private int mask = INITIAL_CAPACITY - 1;
+    private int size = 0;
+
+    private void reset(long epoch) {
+      this.epoch = epoch;
+      if (size > 0 || mask != INITIAL_CAPACITY - 1) {
+        table = new long[INITIAL_CAPACITY * STRIDE];
+        mask = INITIAL_CAPACITY - 1;
+      }
+      size = 0;
+    }
+
+    private int find(long k0, long k1, long k2, long k3) {
+      if (size == 0) {
+        return -1;
+      }
+
+      for (int slot = hash(k0) & mask; ; slot = (slot + 1) & mask) {
+        int base = slot * STRIDE;
+        if (table[base + 4] == 0) {
+          return -1;
+        }
+        if (table[base] == k0 && table[base + 1] == k1 && table[base + 2] == k2
+            && table[base + 3] == k3) {
+          return slot;
+        }
+      }
+    }
+
+    // the caller guarantees the id is not in the bucket
+    private void insert(long k0, long k1, long k2, long k3, long value) {
+      if ((size + 1) * 4L > (mask + 1) * 3L) {
+        grow();
+      }
+
+      int slot = hash(k0) & mask;
+      while (table[slot * STRIDE + 4] != 0) {
+        slot = (slot + 1) & mask;
+      }
+
+      int base = slot * STRIDE;
+      table[base] = k0;
+      table[base + 1] = k1;
+      table[base + 2] = k2;
+      table[base + 3] = k3;
+      table[base + 4] = value;
+      ++size;
+    }
+
+    // backward shift deletion keeps every probe sequence free of holes
+    private void delete(int slot) {
+      int hole = slot;
+      for (int next = (hole + 1) & mask; table[next * STRIDE + 4] != 0;
+          next = (next + 1) & mask) {
+        int home = hash(table[next * STRIDE]) & mask;
+        boolean stays = hole <= next ? hole < home && home <= next : hole < home || home <= next;
+        if (!stays) {
+          System.arraycopy(table, next * STRIDE, table, hole * STRIDE, STRIDE);
+          hole = next;
+        }
+      }
+
+      for (int i = 0; i < STRIDE; i++) {
+        table[hole * STRIDE + i] = 0;
+      }
+      --size;
+    }
+
+    private void grow() {
+      long[] old = table;
+      table = new long[old.length * 2];
+      mask = (mask << 1) | 1;
+      size = 0;
+      for (int base = 0; base < old.length; base += STRIDE) {
+        if (old[base + 4] != 0) {
+          insert(old[base], old[base + 1], old[base + 2], old[base + 3], old[base + 4]);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,126 @@
+package org.sonicx.core.db2.core;
+
+import com.google.common.base.Preconditions;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import lombok.Getter;
+import org.sonicx.core.db.common.WrappedByteArray;
+import org.sonicx.core.db2.common.IRevokingDB;
+
+/**
+ * Private writes of one thread on top of the revoking stores, with the keys the thread read.
+ *
+ * <p>While an overlay is installed on a thread, {@link RevokingDBWithCachingNewValue} answers
+ * the reads of that thread from the overlay first and keeps its writes in the overlay instead of
+ * the snapshot. The writes reach the stores only through {@link #commit()}. Reads the overlay
+ * can not track, such as iterations, abort it.
+ */
+public class ExecutionOverlay {
+
+  private static final ThreadLocal<ExecutionOverlay> CURRENT = new ThreadLocal<>();
+
+  // a null value marks a deleted key
+  private final Map<IRevokingDB, Map<WrappedByteArray, byte[]>> writes = new HashMap<>();
+  private final Map<IRevokingDB, Set<WrappedByteArray>> reads = new HashMap<>();
+  @Getter
+  private boolean aborted;
+
+  public static ExecutionOverlay current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Marks the overlay of the current thread, if any, as unusable.
+   */
+  public static void abortCurrent() {
+    ExecutionOverlay overlay = CURRENT.get();
+    if (overlay != null) {
+      overlay.aborted = true;
+    }
+  }
+
+  public void install() {
+    CURRENT.set(this);
+  }
+
+  public void uninstall() {
+    CURRENT.remove();
+  }
+
+  byte[] get(IRevokingDB db, byte[] key, Function<byte[], byte[]> loader) {
+    WrappedByteArray k = WrappedByteArray.of(key);
+    Map<WrappedByteArray, byte[]> written = writes.get(db);
+    if (written != null && written.containsKey(k)) {
+      byte[] value = written.get(k);
+      return value == null ? null : Arrays.copyOf(value, value.length);
+    }
+
+    reads.computeIfAbsent(db, d -> new HashSet<>()).add(WrappedByteArray.copyOf(key));
+    return loader.apply(key);
+  }
+
+  void put(IRevokingDB db, byte[] key, byte[] value) {
+    Preconditions.checkNotNull(key, "key in db is not null.");
+    Preconditions.checkNotNull(value, "value in db is not null.");
+    writes.computeIfAbsent(db, d -> new HashMap<>())
+        .put(WrappedByteArray.copyOf(key), Arrays.copyOf(value, value.length));
+  }
+
+  void delete(IRevokingDB db, byte[] key) {
+    Preconditions.checkNotNull(key, "key in db is not null.");
+    writes.computeIfAbsent(db, d -> new HashMap<>()).put(WrappedByteArray.copyOf(key), null);
+  }
+
+  /**
+   * Returns true if one of the overlays wrote a key another one read or wrote.
+   */
+  public static boolean anyConflict(List<ExecutionOverlay> overlays) {
+    Map<IRevokingDB, Map<WrappedByteArray, ExecutionOverlay>> writers = new HashMap<>();
+    for (ExecutionOverlay overlay : overlays) {
+      for (Map.Entry<IRevokingDB, Map<WrappedByteArray, byte[]>> e : overlay.writes.entrySet()) {
+        Map<WrappedByteArray, ExecutionOverlay> keys =
+            writers.computeIfAbsent(e.getKey(), db -> new HashMap<>());
+        for (WrappedByteArray key : e.getValue().keySet()) {
+          if (keys.putIfAbsent(key, overlay) != null) {
+            return true;
+          }
+        }
+      }
+    }
+
+    for (ExecutionOverlay overlay : overlays) {
+      for (Map.Entry<IRevokingDB, Set<WrappedByteArray>> e : overlay.reads.entrySet()) {
+        Map<WrappedByteArray, ExecutionOverlay> keys = writers.get(e.getKey());
+        if (keys == null) {
+          continue;
+        }
+        for (WrappedByteArray key : e.getValue()) {
+          ExecutionOverlay writer = keys.get(key);
+          if (writer != null && writer != overlay) {
+            return true;
+          }
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Applies the writes to the stores, call it on a thread without an overlay.
+   */
+  public void commit() {
+    Preconditions.checkState(CURRENT.get() == null, "commit under an overlay.");
+    writes.forEach((db, written) -> written.forEach((key, value) -> {
+      if (value == null) {
+        db.delete(key.getBytes());
+      } else {
+        db.put(key.getBytes(), value);
+      }
+    }));
+  }
+}
@@ -2,20 +2,27 @@ package org.sonicx.core.db2.core;
 
 import com.google.common.collect.Maps;
 import com.google.common.collect.Streams;
+import com.google.common.primitives.UnsignedBytes;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 import lombok.Getter;
 import org.sonicx.common.utils.ByteUtil;
 import org.sonicx.core.config.args.Args;
 import org.sonicx.core.db.common.WrappedByteArray;
+import org.sonicx.core.db.common.iterator.DBIterator;
+import org.sonicx.core.db.common.iterator.MergedIterator;
 import org.sonicx.core.db2.common.DB;
 import org.sonicx.core.db2.common.IRevokingDB;
+import org.sonicx.core.db2.common.Key;
 import org.sonicx.core.db2.common.LevelDB;
 import org.sonicx.core.db2.common.RocksDB;
 import org.sonicx.core.db2.common.Value;
@@ -74,17 +81,33 @@ public class RevokingDBWithCachingNewValue implements IRevokingDB {
   }
 
   @Override
-  public synchronized void put(byte[] key, byte[] value) {
-    head().put(key, value);
+  public void put(byte[] key, byte[] value) {
+    ExecutionOverlay overlay = ExecutionOverlay.current();
+    if (overlay != null) {
+      overlay.put(this, key, value);
+      return;
+    }
+
+    synchronized (this) {
+      head().put(key, value);
+    }
   }
 
   @Override
-  public synchronized void delete(byte[] key) {
-    head().remove(key);
+  public void delete(byte[] key) {
+    ExecutionOverlay overlay = ExecutionOverlay.current();
+    if (overlay != null) {
+      overlay.delete(this, key);
+      return;
+    }
+
+    synchronized (this) {
+      head().remove(key);
+    }
   }
 
   @Override
-  public synchronized byte[] get(byte[] key) throws ItemNotFoundException {
+  public byte[] get(byte[] key) throws ItemNotFoundException {
     byte[] value = getUnchecked(key);
     if (value == null) {
       throw new ItemNotFoundException();
@@ -94,23 +117,40 @@ public class RevokingDBWithCachingNewValue implements IRevokingDB {
   }
 
   @Override
-  public synchronized byte[] getUnchecked(byte[] key) {
+  public byte[] getUnchecked(byte[] key) {
+    ExecutionOverlay overlay = ExecutionOverlay.current();
+    if (overlay != null) {
+      return overlay.get(this, key, this::getFromHead);
+    }
+
+    return getFromHead(key);
+  }
+
+  private synchronized byte[] getFromHead(byte[] key) {
     return head().get(key);
   }
 
   @Override
-  public synchronized boolean has(byte[] key) {
+  public synchronized Map<WrappedByteArray, byte[]> getBatch(Collection<byte[]> keys) {
+    ExecutionOverlay.abortCurrent();
+    return head().getBatch(keys);
+  }
+
+  @Override
+  public boolean has(byte[] key) {
     return getUnchecked(key) != null;
   }
 
   @Override
   public synchronized Iterator<Map.Entry<byte[], byte[]>> iterator() {
+    ExecutionOverlay.abortCurrent();
     return head().iterator();
   }
 
   //for blockstore
   @Override
   public Set<byte[]> getlatestValues(long limit) {
+    ExecutionOverlay.abortCurrent();
     return getlatestValues(head(), limit);
   }
 
@@ -184,11 +224,75 @@ public class RevokingDBWithCachingNewValue implements IRevokingDB {
 
   @Override
   public Set<byte[]> getValuesNext(byte[] key, long limit) {
+    ExecutionOverlay.abortCurrent();
     return getValuesNext(head(), key, limit);
   }
 
+  /**
+   * Only the writes of the snapshot layers are sorted up front, they are few and in memory. The
+   * database is read lazily and merged with them entry by entry; a database without ordered
+   * reads, such as the transaction cache, is copied and sorted up front as well.
+   */
+  @Override
+  public synchronized DBIterator iterator(byte[] key, boolean reverse) {
+    ExecutionOverlay.abortCurrent();
+    Snapshot head = head();
+    NavigableMap<byte[], byte[]> layers = new TreeMap<>(UnsignedBytes.lexicographicalComparator());
+    // newest layer first, a key keeps its newest value; null marks a deleted key
+    for (Snapshot snapshot = head; Snapshot.isImpl(snapshot); snapshot = snapshot.getPrevious()) {
+      for (Map.Entry<Key, Value> e : ((SnapshotImpl) snapshot).db) {
+        layers.putIfAbsent(e.getKey().getBytes(), e.getValue().getBytes());
+      }
+    }
+    layers = from(layers, key, reverse);
+
+    // collected before the database iterator is opened, a flush in between is seen by both
+    DB<byte[], byte[]> db = ((SnapshotRoot) head.getRoot()).db;
+    DBIterator root;
+    if (db.getClass() == LevelDB.class) {
+      root = ((LevelDB) db).getDb().iterator(key, reverse);
+    } else if (db.getClass() == RocksDB.class) {
+      root = ((RocksDB) db).getDb().iterator(key, reverse);
+    } else {
+      root = sorted(db, key, reverse);
+    }
+    return new MergedIterator(layers.entrySet().iterator(), root, reverse);
+  }
+
+  private static NavigableMap<byte[], byte[]> from(NavigableMap<byte[], byte[]> entries,
+      byte[] key, boolean reverse) {
+    if (key != null) {
+      entries = reverse ? entries.headMap(key, true) : entries.tailMap(key, true);
+    }
+    return reverse ? entries.descendingMap() : entries;
+  }
+
+  private static DBIterator sorted(DB<byte[], byte[]> db, byte[] key, boolean reverse) {
+    NavigableMap<byte[], byte[]> entries =
+        new TreeMap<>(UnsignedBytes.lexicographicalComparator());
+    db.forEach(e -> entries.put(e.getKey(), e.getValue()));
+    Iterator<Map.Entry<byte[], byte[]>> iterator =
+        from(entries, key, reverse).entrySet().iterator();
+    return new DBIterator() {
+      @Override
+      public boolean hasNext() {
+        return iterator.hasNext();
+      }
+
+      @Override
+      public Map.Entry<byte[], byte[]> next() {
+        return iterator.next();
+      }
+
+      @Override
+      public void close() {
+      }
+    };
+  }
+
   @Override
   public Set<byte[]> getValuesPrevious(byte[] key, long limit) {
+    ExecutionOverlay.abortCurrent();
     Map<WrappedByteArray, WrappedByteArray> collection = new HashMap<>();
     if (head.getPrevious() != null) {
       ((SnapshotImpl) head).collect(collection);
@@ -220,6 +324,7 @@ public class RevokingDBWithCachingNewValue implements IRevokingDB {
   }
 
   public Map<WrappedByteArray, WrappedByteArray> getAllValues() {
+    ExecutionOverlay.abortCurrent();
     Map<WrappedByteArray, WrappedByteArray> collection = new HashMap<>();
     if (head.getPrevious() != null) {
       ((SnapshotImpl) head).collect(collection);
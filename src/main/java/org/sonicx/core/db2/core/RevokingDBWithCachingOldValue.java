@@ -1,5 +1,6 @@
 package org.sonicx.core.db2.core;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -13,6 +14,7 @@ import org.sonicx.core.config.args.Args;
 import org.sonicx.core.db.AbstractRevokingStore;
 import org.sonicx.core.db.RevokingStore;
 import org.sonicx.core.db.common.WrappedByteArray;
+import org.sonicx.core.db.common.iterator.DBIterator;
 import org.sonicx.core.db2.common.IRevokingDB;
 import org.sonicx.core.exception.ItemNotFoundException;
 
@@ -81,6 +83,18 @@ public class RevokingDBWithCachingOldValue implements IRevokingDB {
     }
   }
 
+  @Override
+  public Map<WrappedByteArray, byte[]> getBatch(Collection<byte[]> keys) {
+    Map<WrappedByteArray, byte[]> result = dbSource.getBatch(keys);
+    result.values().removeIf(ArrayUtils::isEmpty);
+    return result;
+  }
+
+  @Override
+  public DBIterator iterator(byte[] key, boolean reverse) {
+    return dbSource.iterator(key, reverse);
+  }
+
   @Override
   public void close() {
     dbSource.closeDB();
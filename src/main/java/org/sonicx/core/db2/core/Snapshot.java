@@ -1,6 +1,8 @@
 package org.sonicx.core.db2.core;
 
+import java.util.Collection;
 import java.util.Map;
+import org.sonicx.core.db.common.WrappedByteArray;
 
 public interface Snapshot extends Iterable<Map.Entry<byte[], byte[]>> {
 
@@ -14,6 +16,11 @@ public interface Snapshot extends Iterable<Map.Entry<byte[], byte[]>> {
 
   byte[] get(byte[] key);
 
+  /**
+   * Returns the values of the keys found in {@code keys} as seen from this snapshot.
+   */
+  Map<WrappedByteArray, byte[]> getBatch(Collection<byte[]> keys);
+
   void put(byte[] key, byte[] value);
 
   void remove(byte[] key);
@@ -10,10 +10,13 @@ import org.sonicx.core.db2.common.HashDB;
 import org.sonicx.core.db2.common.Key;
 import org.sonicx.core.db2.common.Value;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -22,8 +25,15 @@ public class SnapshotImpl extends AbstractSnapshot<Key, Value> {
   @Getter
   protected Snapshot root;
 
+  // position of this layer in the stack, used as version in the index of root
+  @Getter
+  private final long seq;
+  private final SnapshotIndex index;
+
   SnapshotImpl(Snapshot snapshot) {
     root = snapshot.getRoot();
+    index = ((SnapshotRoot) root).getIndex();
+    seq = index.nextSequence();
     previous = snapshot;
     snapshot.setNext(this);
     synchronized (this) {
@@ -37,32 +47,56 @@ public class SnapshotImpl extends AbstractSnapshot<Key, Value> {
     return get(this, key);
   }
 
+  /**
+   * Resolves the keys written by a live layer from the index and reads only the rest from the
+   * root, in one batch.
+   */
+  @Override
+  public Map<WrappedByteArray, byte[]> getBatch(Collection<byte[]> keys) {
+    Map<WrappedByteArray, byte[]> result = new HashMap<>(keys.size());
+    List<byte[]> misses = new ArrayList<>();
+    for (byte[] key : keys) {
+      Value value = index.get(Key.of(key), seq);
+      if (value == null) {
+        misses.add(key);
+      } else if (value.getBytes() != null) {
+        result.put(WrappedByteArray.of(key), value.getBytes());
+      }
+    }
+
+    if (!misses.isEmpty()) {
+      result.putAll(root.getBatch(misses));
+    }
+    return result;
+  }
+
   @Override
   public void put(byte[] key, byte[] value) {
     Preconditions.checkNotNull(key, "key in db is not null.");
     Preconditions.checkNotNull(value, "value in db is not null.");
 
-    db.put(Key.copyOf(key), Value.copyOf(Value.Operator.PUT, value));
+    Key k = Key.copyOf(key);
+    Value v = Value.copyOf(Value.Operator.PUT, value);
+    db.put(k, v);
+    index.put(k, seq, v);
   }
 
   @Override
   public void remove(byte[] key) {
     Preconditions.checkNotNull(key, "key in db is not null.");
-    db.put(Key.of(key), Value.of(Value.Operator.DELETE, null));
+    Key k = Key.of(key);
+    Value v = Value.of(Value.Operator.DELETE, null);
+    db.put(k, v);
+    index.put(k, seq, v);
   }
 
-  private byte[] get(Snapshot head, byte[] key) {
-    Snapshot snapshot = head;
-    Value value;
-    while (Snapshot.isImpl(snapshot)) {
-      if ((value = ((SnapshotImpl) snapshot).db.get(Key.of(key))) != null) {
-        return value.getBytes();
-      }
-
-      snapshot = snapshot.getPrevious();
+  private byte[] get(SnapshotImpl head, byte[] key) {
+    Value value = index.get(Key.of(key), head.seq);
+    if (value != null) {
+      return value.getBytes();
     }
 
-    return snapshot == null ? null : snapshot.get(key);
+    return root.get(key);
   }
 
   // we have a 3x3 matrix of all possibilities when merging previous snapshot and current snapshot :
@@ -80,7 +114,10 @@ public class SnapshotImpl extends AbstractSnapshot<Key, Value> {
   @Override
   public void merge(Snapshot from) {
     SnapshotImpl fromImpl = (SnapshotImpl) from;
-    Streams.stream(fromImpl.db).forEach(e -> db.put(e.getKey(), e.getValue()));
+    Streams.stream(fromImpl.db).forEach(e -> {
+      db.put(e.getKey(), e.getValue());
+      index.move(e.getKey(), fromImpl.seq, seq, e.getValue());
+    });
   }
 
   // we have a 4x4 matrix of all possibilities when merging previous snapshot and current snapshot :
@@ -108,8 +145,11 @@ public class SnapshotImpl extends AbstractSnapshot<Key, Value> {
           Value value = db.get(k);
           if (value == null) {
             db.put(k, v);
+            index.move(k, fromImpl.seq, seq, v);
           } else if (value.getOperator() == Value.Operator.DELETE) {
-            db.put(k, Value.copyOf(Value.Operator.MODIFY, v.getBytes()));
+            Value modify = Value.copyOf(Value.Operator.MODIFY, v.getBytes());
+            db.put(k, modify);
+            index.move(k, fromImpl.seq, seq, modify);
           } else {
             throw new IllegalStateException();
           }
@@ -123,8 +163,11 @@ public class SnapshotImpl extends AbstractSnapshot<Key, Value> {
           Value value = db.get(k);
           if (value == null || value.getOperator() == Value.Operator.MODIFY) {
             db.put(k, v);
+            index.move(k, fromImpl.seq, seq, v);
           } else if (value.getOperator() == Value.Operator.CREATE) {
-            db.put(k, Value.copyOf(Value.Operator.CREATE, v.getBytes()));
+            Value create = Value.copyOf(Value.Operator.CREATE, v.getBytes());
+            db.put(k, create);
+            index.move(k, fromImpl.seq, seq, create);
           } else {
             throw new IllegalStateException();
           }
@@ -136,9 +179,13 @@ public class SnapshotImpl extends AbstractSnapshot<Key, Value> {
         .forEach(k -> {
           Value value = db.get(k);
           if (value == null || value.getOperator() == Value.Operator.MODIFY) {
-            db.put(k, Value.of(Value.Operator.DELETE, null));
+            Value delete = Value.of(Value.Operator.DELETE, null);
+            db.put(k, delete);
+            index.move(k, fromImpl.seq, seq, delete);
           } else if (value.getOperator() == Value.Operator.CREATE) {
             db.remove(k);
+            index.remove(k, fromImpl.seq);
+            index.remove(k, seq);
           } else {
             throw new IllegalStateException();
           }
@@ -147,6 +194,7 @@ public class SnapshotImpl extends AbstractSnapshot<Key, Value> {
 
   @Override
   public Snapshot retreat() {
+    Streams.stream(db).forEach(e -> index.remove(e.getKey(), seq));
     return previous;
   }
 
@@ -0,0 +1,118 @@
+package org.sonicx.core.db2.core;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.sonicx.core.db2.common.Key;
+import org.sonicx.core.db2.common.Value;
+
+/**
+ * A flattened view of every {@link SnapshotImpl} layer stacked on one {@link SnapshotRoot}.
+ *
+ * <p>Each layer is identified by a sequence number which grows monotonically from the root to
+ * the head. For every key the index keeps the versions written by the live layers, ordered by
+ * sequence, so a lookup from any layer costs one hash lookup regardless of the stack depth.
+ * A miss means the key has to be read from the root.
+ */
+public class SnapshotIndex {
+
+  private static final Version[] EMPTY = new Version[0];
+
+  private final AtomicLong sequence = new AtomicLong(0);
+
+  private final Map<Key, Version[]> index = new ConcurrentHashMap<>();
+
+  long nextSequence() {
+    return sequence.incrementAndGet();
+  }
+
+  /**
+   * Returns the newest value written at or below the layer {@code seq}, or null if no live layer
+   * holds the key.
+   */
+  public Value get(Key key, long seq) {
+    Version[] versions = index.get(key);
+    if (versions == null) {
+      return null;
+    }
+
+    for (int i = versions.length - 1; i >= 0; i--) {
+      if (versions[i].seq <= seq) {
+        return versions[i].value;
+      }
+    }
+
+    return null;
+  }
+
+  void put(Key key, long seq, Value value) {
+    index.compute(key, (k, versions) -> insert(versions == null ? EMPTY : versions, seq, value));
+  }
+
+  void remove(Key key, long seq) {
+    index.computeIfPresent(key, (k, versions) -> {
+      Version[] r = delete(versions, seq);
+      return r.length == 0 ? null : r;
+    });
+  }
+
+  /**
+   * Moves the version of {@code key} written at layer {@code from} down to layer {@code to}.
+   */
+  void move(Key key, long from, long to, Value value) {
+    index.compute(key, (k, versions) -> insert(delete(versions == null ? EMPTY : versions, from),
+        to, value));
+  }
+
+  public long size() {
+    return index.size();
+  }
+
+  void clear() {
+    index.clear();
+  }
+
+  private static Version[] insert(Version[] versions, long seq, Value value) {
+    int pos = versions.length;
+    while (pos > 0 && versions[pos - 1].seq > seq) {
+      --pos;
+    }
+
+    if (pos > 0 && versions[pos - 1].seq == seq) {
+      Version[] r = Arrays.copyOf(versions, versions.length);
+      r[pos - 1] = new Version(seq, value);
+      return r;
+    }
+
+    Version[] r = new Version[versions.length + 1];
+    System.arraycopy(versions, 0, r, 0, pos);
+    r[pos] = new Version(seq, value);
+    System.arraycopy(versions, pos, r, pos + 1, versions.length - pos);
+    return r;
+  }
+
+  private static Version[] delete(Version[] versions, long seq) {
+    for (int i = versions.length - 1; i >= 0; i--) {
+      if (versions[i].seq == seq) {
+        Version[] r = new Version[versions.length - 1];
+        System.arraycopy(versions, 0, r, 0, i);
+        System.arraycopy(versions, i + 1, r, i, versions.length - i - 1);
+        return r;
+      }
+    }
+
+    return versions;
+  }
+
+  private static final class Version {
+
+    private final long seq;
+    private final Value value;
+
+    private Version(long seq, Value value) {
+      this.seq = seq;
+      this.value = value;
+    }
+  }
+}
@@ -3,6 +3,7 @@ package org.sonicx.core.db2.core;
 import com.google.common.collect.Maps;
 import com.google.common.primitives.Bytes;
 import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
@@ -13,7 +14,10 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -27,10 +31,9 @@ import org.sonicx.common.storage.WriteOptionsWrapper;
 import org.sonicx.core.config.args.Args;
 import org.sonicx.core.db.CheckTmpStore;
 import org.sonicx.core.db.RevokingDatabase;
-import org.sonicx.core.db.common.WrappedByteArray;
-import org.sonicx.core.db2.common.DB;
 import org.sonicx.core.db2.common.IRevokingDB;
 import org.sonicx.core.db2.common.Key;
+import org.sonicx.core.db2.common.LatencyHistogram;
 import org.sonicx.core.db2.common.Value;
 import org.sonicx.core.exception.RevokingStoreIllegalStateException;
 
@@ -40,6 +43,21 @@ public class SnapshotManager implements RevokingDatabase {
   private static final int DEFAULT_STACK_MAX_SIZE = 256;
   public static final int DEFAULT_MAX_FLUSH_COUNT = 500;
   public static final int DEFAULT_MIN_FLUSH_COUNT = 1;
+
+  // checkpoint entries are keyed by this prefix, the sequence of their flush and the db name,
+  // the entries of a checkpoint written before the sequence existed start with the name length
+  private static final byte CHECKPOINT_PREFIX = (byte) 0xff;
+
+  // the sequence of the last complete checkpoint
+  private static final byte[] CHECKPOINT_MARKER = {CHECKPOINT_PREFIX};
+
+  // the sequence of the last checkpoint written to all stores
+  private static final byte[] REFRESH_MARKER = {CHECKPOINT_PREFIX, 1};
+
+  private static final int SLOWEST_STORES_LOGGED = 3;
+
+  private static final int CHECKPOINT_HEADER = 1 + Long.BYTES;
+
   @Getter
   private List<RevokingDBWithCachingNewValue> dbs = new ArrayList<>();
   @Getter
@@ -56,8 +74,26 @@ public class SnapshotManager implements RevokingDatabase {
 
   private volatile int flushCount = 0;
 
+  private volatile long checkpointSeq = 0;
+
+  private ExecutorService checkpointCleaner = Executors.newSingleThreadExecutor(
+      new ThreadFactoryBuilder().setNameFormat("checkpoint-cleaner").setDaemon(true).build());
+
+  @Getter
+  private LatencyHistogram flushPauses = new LatencyHistogram();
+
+  // refresh time of every store by name
+  @Getter
+  private Map<String, LatencyHistogram> storeFlushTimes = new ConcurrentHashMap<>();
+
   private Map<String, ListeningExecutorService> flushServices = new HashMap<>();
 
+  // run by the flushing thread after the snapshots are written to the databases
+  private List<Runnable> flushListeners = new CopyOnWriteArrayList<>();
+
+  // run after a session is revoked or a snapshot is popped
+  private List<Runnable> revokeListeners = new CopyOnWriteArrayList<>();
+
   @Autowired
   @Setter
   @Getter
@@ -97,6 +133,14 @@ public class SnapshotManager implements RevokingDatabase {
     dbs.forEach(db -> db.setMode(mode));
   }
 
+  public void addFlushListener(Runnable listener) {
+    flushListeners.add(listener);
+  }
+
+  public void addRevokeListener(Runnable listener) {
+    revokeListeners.add(listener);
+  }
+
   @Override
   public void add(IRevokingDB db) {
     RevokingDBWithCachingNewValue revokingDB = (RevokingDBWithCachingNewValue) db;
@@ -152,6 +196,7 @@ public class SnapshotManager implements RevokingDatabase {
       disabled = false;
     }
     --activeSession;
+    revokeListeners.forEach(Runnable::run);
   }
 
   public synchronized void commit() {
@@ -178,6 +223,7 @@ public class SnapshotManager implements RevokingDatabase {
     } finally {
       disabled = false;
     }
+    revokeListeners.forEach(Runnable::run);
   }
 
   @Override
@@ -216,6 +262,8 @@ public class SnapshotManager implements RevokingDatabase {
         logger.info("waiting leveldb flush done");
         TimeUnit.MILLISECONDS.sleep(10);
       }
+      checkpointCleaner.shutdown();
+      checkpointCleaner.awaitTermination(1, TimeUnit.MINUTES);
     } catch (InterruptedException e) {
       System.out.println(e.getMessage() + e);
       Thread.currentThread().interrupt();
@@ -236,19 +284,33 @@ public class SnapshotManager implements RevokingDatabase {
     return flushCount >= maxFlushCount;
   }
 
-  private void refresh() {
+  /**
+   * Writes the flushed snapshots to all stores at once, every store on its own flush thread, and
+   * returns the time each store took.
+   */
+  private Map<String, Long> refresh() {
+    Map<String, Long> costs = new ConcurrentHashMap<>();
     List<ListenableFuture<?>> futures = new ArrayList<>(dbs.size());
     for (RevokingDBWithCachingNewValue db : dbs) {
-      futures.add(flushServices.get(db.getDbName()).submit(() -> refreshOne(db)));
+      futures.add(flushServices.get(db.getDbName()).submit(() -> {
+        long start = System.currentTimeMillis();
+        refreshOne(db);
+        costs.put(db.getDbName(), System.currentTimeMillis() - start);
+      }));
     }
     Future<?> future = Futures.allAsList(futures);
     try {
       future.get();
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
+      return null;
     } catch (ExecutionException e) {
       logger.error(e.getMessage(), e);
+      return null;
     }
+    costs.forEach((name, cost) -> storeFlushTimes
+        .computeIfAbsent(name, k -> new LatencyHistogram()).record(cost));
+    return costs;
   }
 
   private void refreshOne(RevokingDBWithCachingNewValue db) {
@@ -283,58 +345,115 @@ public class SnapshotManager implements RevokingDatabase {
 
     if (shouldBeRefreshed()) {
       long start = System.currentTimeMillis();
-      deleteCheckPoint();
       createCheckPoint();
       long checkPointEnd = System.currentTimeMillis();
-      refresh();
+      Map<String, Long> costs = refresh();
       flushCount = 0;
-      logger.info("flush cost:{}, create checkpoint cost:{}, refresh cost:{}",
-          System.currentTimeMillis() - start,
+      if (costs != null) {
+        // only a failed refresh needs the checkpoint replayed on the next start
+        long seq = checkpointSeq;
+        checkTmpStore.getDbSource().writeBatch(batch -> batch.put(REFRESH_MARKER,
+            Longs.toByteArray(seq)), WriteOptionsWrapper.getInstance()
+            .sync(Args.getInstance().getStorage().isDbSync()));
+      }
+      deleteCheckPoint();
+      flushListeners.forEach(Runnable::run);
+      long cost = System.currentTimeMillis() - start;
+      flushPauses.record(cost);
+      logger.info("flush cost:{}, create checkpoint cost:{}, refresh cost:{}, slowest: {}, "
+              + "pauses: {}",
+          cost,
           checkPointEnd - start,
-          System.currentTimeMillis() - checkPointEnd
+          System.currentTimeMillis() - checkPointEnd,
+          costs == null ? "failed" : slowestStores(costs),
+          flushPauses
       );
     }
   }
 
+  private static String slowestStores(Map<String, Long> costs) {
+    return costs.entrySet().stream()
+        .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+        .limit(SLOWEST_STORES_LOGGED)
+        .map(e -> e.getKey() + " " + e.getValue() + "ms")
+        .collect(Collectors.joining(", "));
+  }
+
+  /**
+   * Writes the snapshots to be flushed into the checkpoint under the next sequence, every db on
+   * its own flush thread and straight into a write batch, then marks the checkpoint complete.
+   * {@link #check()} only replays the checkpoint of the marked sequence, so a crash while the
+   * entries are written leaves the previous one in effect.
+   */
   private void createCheckPoint() {
-    Map<WrappedByteArray, WrappedByteArray> batch = new HashMap<>();
     for (RevokingDBWithCachingNewValue db : dbs) {
-      Snapshot head = db.getHead();
-      if (Snapshot.isRoot(head)) {
+      if (Snapshot.isRoot(db.getHead())) {
         return;
       }
+    }
 
-      String dbName = db.getDbName();
-      Snapshot next = head.getRoot();
+    long seq = checkpointSeq + 1;
+    WriteOptionsWrapper options = WriteOptionsWrapper.getInstance()
+        .sync(Args.getInstance().getStorage().isDbSync());
+    List<ListenableFuture<?>> futures = new ArrayList<>(dbs.size());
+    for (RevokingDBWithCachingNewValue db : dbs) {
+      futures.add(flushServices.get(db.getDbName())
+          .submit(() -> writeCheckPoint(db, seq, options)));
+    }
+    try {
+      Futures.allAsList(futures).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RevokingStoreIllegalStateException(e);
+    } catch (ExecutionException e) {
+      throw new RevokingStoreIllegalStateException(e.getCause());
+    }
+
+    checkTmpStore.getDbSource()
+        .writeBatch(batch -> batch.put(CHECKPOINT_MARKER, Longs.toByteArray(seq)), options);
+    checkpointSeq = seq;
+  }
+
+  private void writeCheckPoint(RevokingDBWithCachingNewValue db, long seq,
+      WriteOptionsWrapper options) {
+    byte[] prefix = Bytes.concat(new byte[]{CHECKPOINT_PREFIX}, Longs.toByteArray(seq),
+        simpleEncode(db.getDbName()));
+    checkTmpStore.getDbSource().writeBatch(batch -> {
+      Snapshot next = db.getHead().getRoot();
       for (int i = 0; i < flushCount; ++i) {
         next = next.getNext();
-        SnapshotImpl snapshot = (SnapshotImpl) next;
-        DB<Key, Value> keyValueDB = snapshot.getDb();
-        for (Map.Entry<Key, Value> e : keyValueDB) {
-          Key k = e.getKey();
-          Value v = e.getValue();
-          batch.put(WrappedByteArray.of(Bytes.concat(simpleEncode(dbName), k.getBytes())),
-              WrappedByteArray.of(v.encode()));
+        // a later snapshot overwrites the entry of an earlier one within the batch
+        for (Map.Entry<Key, Value> e : ((SnapshotImpl) next).getDb()) {
+          batch.put(Bytes.concat(prefix, e.getKey().getBytes()), e.getValue().encode());
         }
       }
-    }
-
-    checkTmpStore.getDbSource().updateByBatch(batch.entrySet().stream()
-            .map(e -> Maps.immutableEntry(e.getKey().getBytes(), e.getValue().getBytes()))
-            .collect(HashMap::new, (m, k) -> m.put(k.getKey(), k.getValue()), HashMap::putAll),
-        WriteOptionsWrapper.getInstance().sync(Args.getInstance().getStorage().isDbSync()));
+    }, options);
   }
 
+  /**
+   * Deletes the entries of the checkpoints before the current one in the background, the flush
+   * does not wait for it.
+   */
   private void deleteCheckPoint() {
-    Map<byte[], byte[]> hmap = new HashMap<byte[], byte[]>();
-    if (!checkTmpStore.getDbSource().allKeys().isEmpty()) {
-      for (Map.Entry<byte[], byte[]> e : checkTmpStore.getDbSource()) {
-        hmap.put(e.getKey(), null);
+    long current = checkpointSeq;
+    checkpointCleaner.execute(() -> {
+      try {
+        checkTmpStore.getDbSource().writeBatch(batch -> {
+          for (Map.Entry<byte[], byte[]> e : checkTmpStore.getDbSource()) {
+            byte[] key = e.getKey();
+            if (key.length > CHECKPOINT_HEADER && key[0] == CHECKPOINT_PREFIX
+                && Longs.fromByteArray(Arrays.copyOfRange(key, 1, CHECKPOINT_HEADER)) >= current) {
+              continue;
+            }
+            if (key[0] != CHECKPOINT_PREFIX || key.length > CHECKPOINT_HEADER) {
+              batch.delete(key);
+            }
+          }
+        }, WriteOptionsWrapper.getInstance().sync(false));
+      } catch (Exception e) {
+        logger.warn("Delete old checkpoints failed: {}", e.getMessage());
       }
-    }
-
-    checkTmpStore.getDbSource().updateByBatch(hmap, WriteOptionsWrapper.getInstance()
-        .sync(Args.getInstance().getStorage().isDbSync()));
+    });
   }
 
   // ensure run this method first after process start.
@@ -346,7 +465,14 @@ public class SnapshotManager implements RevokingDatabase {
       }
     }
 
-    if (!checkTmpStore.getDbSource().allKeys().isEmpty()) {
+    byte[] marker = checkTmpStore.getDbSource().getData(CHECKPOINT_MARKER);
+    byte[] refreshed = checkTmpStore.getDbSource().getData(REFRESH_MARKER);
+    checkpointSeq = marker == null ? 0 : Longs.fromByteArray(marker);
+    // with synced writes a completed refresh is durable in every store
+    boolean replay = marker == null || refreshed == null
+        || Longs.fromByteArray(refreshed) != checkpointSeq
+        || !Args.getInstance().getStorage().isDbSync();
+    if (replay && !checkTmpStore.getDbSource().allKeys().isEmpty()) {
       Map<String, RevokingDBWithCachingNewValue> dbMap = dbs.stream()
           .map(db -> Maps.immutableEntry(db.getDbName(), db))
           .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
@@ -354,11 +480,23 @@ public class SnapshotManager implements RevokingDatabase {
       for (Map.Entry<byte[], byte[]> e : checkTmpStore.getDbSource()) {
         byte[] key = e.getKey();
         byte[] value = e.getValue();
-        String db = simpleDecode(key);
+        int offset;
+        if (key[0] == CHECKPOINT_PREFIX) {
+          if (key.length <= CHECKPOINT_HEADER || Longs.fromByteArray(
+              Arrays.copyOfRange(key, 1, CHECKPOINT_HEADER)) != checkpointSeq) {
+            continue;
+          }
+          offset = CHECKPOINT_HEADER;
+        } else if (marker == null) {
+          offset = 0;
+        } else {
+          continue;
+        }
+        String db = simpleDecode(key, offset);
         if (dbMap.get(db) == null) {
           continue;
         }
-        byte[] realKey = Arrays.copyOfRange(key, db.getBytes().length + 4, key.length);
+        byte[] realKey = Arrays.copyOfRange(key, offset + db.getBytes().length + 4, key.length);
 
         byte[] realValue = value.length == 1 ? null : Arrays.copyOfRange(value, 1, value.length);
         if (realValue != null) {
@@ -371,7 +509,10 @@ public class SnapshotManager implements RevokingDatabase {
 
       dbs.forEach(db -> db.getHead().getRoot().merge(db.getHead()));
       retreat();
+    } else if (!replay) {
+      logger.info("Checkpoint {} was written to all stores, skip the replay.", checkpointSeq);
     }
+    deleteCheckPoint();
 
     unChecked = false;
   }
@@ -386,9 +527,13 @@ public class SnapshotManager implements RevokingDatabase {
   }
 
   public static String simpleDecode(byte[] bytes) {
-    byte[] lengthBytes = Arrays.copyOf(bytes, 4);
+    return simpleDecode(bytes, 0);
+  }
+
+  private static String simpleDecode(byte[] bytes, int offset) {
+    byte[] lengthBytes = Arrays.copyOfRange(bytes, offset, offset + 4);
     int length = Ints.fromByteArray(lengthBytes);
-    byte[] value = Arrays.copyOfRange(bytes, 4, 4 + length);
+    byte[] value = Arrays.copyOfRange(bytes, offset + 4, offset + 4 + length);
     return new String(value);
   }
 
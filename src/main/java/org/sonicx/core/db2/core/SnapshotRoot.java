@@ -4,6 +4,7 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Streams;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -13,14 +14,18 @@ import lombok.Getter;
 import org.sonicx.core.db.common.WrappedByteArray;
 import org.sonicx.core.db2.common.DB;
 import org.sonicx.core.db2.common.Flusher;
+import org.sonicx.core.db2.common.Key;
 import org.sonicx.core.db2.common.LevelDB;
 import org.sonicx.core.db2.common.RocksDB;
 import org.sonicx.core.db2.common.TxCacheDB;
+import org.sonicx.core.db2.common.Value;
 
 public class SnapshotRoot extends AbstractSnapshot<byte[], byte[]> {
 
   @Getter
   private Snapshot solidity;
+  @Getter
+  private SnapshotIndex index = new SnapshotIndex();
 
   public SnapshotRoot(String parentName, String name, Class<? extends DB> clz) {
     try {
@@ -49,6 +54,24 @@ public class SnapshotRoot extends AbstractSnapshot<byte[], byte[]> {
     return db.get(key);
   }
 
+  @Override
+  public Map<WrappedByteArray, byte[]> getBatch(Collection<byte[]> keys) {
+    if (db.getClass() == LevelDB.class) {
+      return ((LevelDB) db).getBatch(keys);
+    } else if (db.getClass() == RocksDB.class) {
+      return ((RocksDB) db).getBatch(keys);
+    }
+
+    Map<WrappedByteArray, byte[]> result = new HashMap<>(keys.size());
+    for (byte[] key : keys) {
+      byte[] value = db.get(key);
+      if (value != null) {
+        result.put(WrappedByteArray.of(key), value);
+      }
+    }
+    return result;
+  }
+
   @Override
   public void put(byte[] key, byte[] value) {
     db.put(key, value);
@@ -67,19 +90,27 @@ public class SnapshotRoot extends AbstractSnapshot<byte[], byte[]> {
             WrappedByteArray.of(e.getValue().getBytes())))
         .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
     ((Flusher) db).flush(batch);
+    Streams.stream(snapshot.db).forEach(e -> index.remove(e.getKey(), snapshot.getSeq()));
   }
 
   public void merge(List<Snapshot> snapshots) {
-    Map<WrappedByteArray, WrappedByteArray> batch = new HashMap<>();
+    // a later snapshot overwrites the rows of an earlier one within the batch
+    ((Flusher) db).flush(batch -> {
+      for (Snapshot snapshot : snapshots) {
+        for (Map.Entry<Key, Value> e : ((SnapshotImpl) snapshot).db) {
+          byte[] value = e.getValue().getBytes();
+          if (value == null) {
+            batch.delete(e.getKey().getBytes());
+          } else {
+            batch.put(e.getKey().getBytes(), value);
+          }
+        }
+      }
+    });
     for (Snapshot snapshot : snapshots) {
       SnapshotImpl from = (SnapshotImpl) snapshot;
-      Streams.stream(from.db)
-          .map(e -> Maps.immutableEntry(WrappedByteArray.of(e.getKey().getBytes()),
-              WrappedByteArray.of(e.getValue().getBytes())))
-          .forEach(e -> batch.put(e.getKey(), e.getValue()));
+      Streams.stream(from.db).forEach(e -> index.remove(e.getKey(), from.getSeq()));
     }
-
-    ((Flusher) db).flush(batch);
   }
 
   @Override
@@ -105,6 +136,7 @@ public class SnapshotRoot extends AbstractSnapshot<byte[], byte[]> {
   @Override
   public void reset() {
     ((Flusher) db).reset();
+    index.clear();
   }
 
   @Override
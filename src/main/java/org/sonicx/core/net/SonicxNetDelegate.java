@@ -1,8 +1,13 @@
 package org.sonicx.core.net;
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -174,6 +179,50 @@ public class SonicxNetDelegate {
     }
   }
 
+  /**
+   * Checks what needs no state of a received block before it waits for the lock of the manager.
+   */
+  public void preVerifyBlock(BlockCapsule block) {
+    try {
+      dbManager.preVerifyBlock(block);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Returns the blocks of {@code ids}. Ids close to each other, as the ones of a sync request,
+   * are read with one range scan of the block store, the rest one by one.
+   */
+  public Map<BlockId, BlockMessage> getBlocks(List<BlockId> ids) throws P2pException {
+    Map<BlockId, BlockMessage> blocks = new HashMap<>();
+    if (ids.isEmpty()) {
+      return blocks;
+    }
+    long min = ids.stream().mapToLong(BlockId::getNum).min().getAsLong();
+    long max = ids.stream().mapToLong(BlockId::getNum).max().getAsLong();
+    if (ids.size() > 1 && max - min < 2L * ids.size()) {
+      Set<BlockId> wanted = new HashSet<>(ids);
+      for (byte[] data : dbManager.getBlockStore().getEncodedLimitNumber(min, max - min + 1)) {
+        try {
+          BlockMessage message = new BlockMessage(data);
+          if (wanted.contains(message.getBlockId())) {
+            blocks.put(message.getBlockId(), message);
+          }
+        } catch (Exception e) {
+          logger.warn("Skip undecodable block in range {}-{}: {}", min, max, e.getMessage());
+        }
+      }
+    }
+    // blocks of forks may have pushed some of the ids out of the scanned range
+    for (BlockId id : ids) {
+      if (!blocks.containsKey(id)) {
+        blocks.put(id, (BlockMessage) getData(id, InventoryType.BLOCK));
+      }
+    }
+    return blocks;
+  }
+
   public void processBlock(BlockCapsule block) throws P2pException {
     synchronized (blockLock) {
       try {
@@ -209,6 +258,14 @@ public class SonicxNetDelegate {
     }
   }
 
+  public List<TransactionCapsule> getPendingTransactions() {
+    return dbManager.getPendingPool().snapshotPending();
+  }
+
+  public long getEnergyFee() {
+    return dbManager.getDynamicPropertiesStore().getEnergyFee();
+  }
+
   public void pushTransaction(TransactionCapsule trx) throws P2pException {
     try {
       dbManager.pushTransaction(trx);
@@ -12,7 +12,9 @@ import org.sonicx.core.net.message.BlockMessage;
 import org.sonicx.core.net.message.SonicxMessage;
 import org.sonicx.core.net.messagehandler.BlockMsgHandler;
 import org.sonicx.core.net.messagehandler.ChainInventoryMsgHandler;
+import org.sonicx.core.net.messagehandler.CompactBlockMsgHandler;
 import org.sonicx.core.net.messagehandler.FetchInvDataMsgHandler;
+import org.sonicx.core.net.messagehandler.GetBlockTxnMsgHandler;
 import org.sonicx.core.net.messagehandler.InventoryMsgHandler;
 import org.sonicx.core.net.messagehandler.SyncBlockChainMsgHandler;
 import org.sonicx.core.net.messagehandler.TransactionsMsgHandler;
@@ -57,6 +59,12 @@ public class SonicxNetService {
   @Autowired
   private TransactionsMsgHandler transactionsMsgHandler;
 
+  @Autowired
+  private CompactBlockMsgHandler compactBlockMsgHandler;
+
+  @Autowired
+  private GetBlockTxnMsgHandler getBlockTxnMsgHandler;
+
   @Autowired
   private Manager manager;
 
@@ -76,6 +84,7 @@ public class SonicxNetService {
     syncService.close();
     peerStatusCheck.close();
     transactionsMsgHandler.close();
+    fetchInvDataMsgHandler.close();
     logger.info("SonicxNetService closed successfully.");
   }
 
@@ -108,6 +117,13 @@ public class SonicxNetService {
         case TRXS:
           transactionsMsgHandler.processMessage(peer, msg);
           break;
+        case COMPACT_BLOCK:
+        case BLOCK_TXN:
+          compactBlockMsgHandler.processMessage(peer, msg);
+          break;
+        case GET_BLOCK_TXN:
+          getBlockTxnMsgHandler.processMessage(peer, msg);
+          break;
         default:
           throw new P2pException(TypeEnum.NO_SUCH_MESSAGE, msg.getType().toString());
       }
@@ -0,0 +1,55 @@
+package org.sonicx.core.net.message;
+
+import com.google.protobuf.ByteString;
+import java.util.List;
+import org.sonicx.common.utils.Sha256Hash;
+import org.sonicx.core.capsule.BlockCapsule.BlockId;
+import org.sonicx.core.capsule.TransactionCapsule;
+import org.sonicx.protos.Protocol.BlockTransactions;
+import org.sonicx.protos.Protocol.Transaction;
+
+/**
+ * Answers a {@link GetBlockTxnMessage} with the requested transactions, in request order.
+ */
+public class BlockTxnMessage extends SonicxMessage {
+
+  private BlockTransactions transactions;
+
+  public BlockTxnMessage(byte[] data) throws Exception {
+    super(data);
+    this.type = MessageTypes.BLOCK_TXN.asByte();
+    this.transactions = BlockTransactions.parseFrom(getCodedInputStream(data));
+    if (isFilter()) {
+      compareBytes(data, transactions.toByteArray());
+      TransactionCapsule.validContractProto(transactions.getTransactionsList());
+    }
+  }
+
+  public BlockTxnMessage(BlockId blockId, List<Transaction> trxs) {
+    this.transactions = BlockTransactions.newBuilder()
+        .setBlockId(ByteString.copyFrom(blockId.getBytes()))
+        .addAllTransactions(trxs)
+        .build();
+    this.type = MessageTypes.BLOCK_TXN.asByte();
+    this.data = transactions.toByteArray();
+  }
+
+  public BlockId getBlockId() {
+    return new BlockId(Sha256Hash.wrap(transactions.getBlockId()));
+  }
+
+  public List<Transaction> getTransactions() {
+    return transactions.getTransactionsList();
+  }
+
+  @Override
+  public Class<?> getAnswerMessage() {
+    return null;
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder().append(super.toString()).append(getBlockId().getString())
+        .append(", trx size: ").append(transactions.getTransactionsCount()).toString();
+  }
+}
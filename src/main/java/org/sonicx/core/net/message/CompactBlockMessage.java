@@ -0,0 +1,95 @@
+package org.sonicx.core.net.message;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.primitives.Longs;
+import java.util.List;
+import org.sonicx.common.utils.Sha256Hash;
+import org.sonicx.core.capsule.BlockCapsule;
+import org.sonicx.core.capsule.BlockCapsule.BlockId;
+import org.sonicx.core.capsule.TransactionCapsule;
+import org.sonicx.protos.Protocol.BlockHeader;
+import org.sonicx.protos.Protocol.CompactBlock;
+
+/**
+ * A block as its header and the short ids of its transactions, which the receiver resolves
+ * against the transactions it has already seen.
+ *
+ * <p>A short id is the low 48 bits of SipHash-2-4 of the transaction id, keyed by the block id,
+ * so that colliding transactions can not be prepared ahead of the block.
+ */
+public class CompactBlockMessage extends SonicxMessage {
+
+  private static final long SHORT_ID_MASK = 0xFFFFFFFFFFFFL;
+
+  private CompactBlock compactBlock;
+
+  private BlockId blockId;
+
+  public CompactBlockMessage(byte[] data) throws Exception {
+    super(data);
+    this.type = MessageTypes.COMPACT_BLOCK.asByte();
+    this.compactBlock = CompactBlock.parseFrom(getCodedInputStream(data));
+    if (isFilter()) {
+      compareBytes(data, compactBlock.toByteArray());
+    }
+  }
+
+  public CompactBlockMessage(BlockCapsule block) {
+    BlockId id = block.getBlockId();
+    HashFunction function = shortIdFunction(id);
+    CompactBlock.Builder builder = CompactBlock.newBuilder()
+        .setBlockHeader(block.getInstance().getBlockHeader());
+    for (TransactionCapsule trx : block.getTransactions()) {
+      builder.addShortIds(shortId(function, trx.getTransactionId()));
+    }
+    this.compactBlock = builder.build();
+    this.blockId = id;
+    this.type = MessageTypes.COMPACT_BLOCK.asByte();
+    this.data = compactBlock.toByteArray();
+  }
+
+  public static HashFunction shortIdFunction(BlockId blockId) {
+    // the first 8 bytes of a block id are its number
+    byte[] bytes = blockId.getBytes();
+    return Hashing.sipHash24(Longs.fromBytes(bytes[8], bytes[9], bytes[10], bytes[11],
+        bytes[12], bytes[13], bytes[14], bytes[15]), Longs.fromBytes(bytes[16], bytes[17],
+        bytes[18], bytes[19], bytes[20], bytes[21], bytes[22], bytes[23]));
+  }
+
+  public static long shortId(HashFunction function, Sha256Hash trxId) {
+    return function.hashBytes(trxId.getBytes()).asLong() & SHORT_ID_MASK;
+  }
+
+  public BlockHeader getBlockHeader() {
+    return compactBlock.getBlockHeader();
+  }
+
+  public List<Long> getShortIds() {
+    return compactBlock.getShortIdsList();
+  }
+
+  public BlockId getBlockId() {
+    if (blockId == null) {
+      blockId = new BlockId(Sha256Hash.of(getBlockHeader().getRawData().toByteArray()),
+          getBlockHeader().getRawData().getNumber());
+    }
+    return blockId;
+  }
+
+  @Override
+  public Sha256Hash getMessageId() {
+    return getBlockId();
+  }
+
+  @Override
+  public Class<?> getAnswerMessage() {
+    return null;
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder().append(super.toString()).append(getBlockId().getString())
+        .append(", trx size: ").append(compactBlock.getShortIdsCount()).append("\n").toString();
+  }
+}
@@ -0,0 +1,50 @@
+package org.sonicx.core.net.message;
+
+import com.google.protobuf.ByteString;
+import java.util.List;
+import org.sonicx.common.utils.Sha256Hash;
+import org.sonicx.core.capsule.BlockCapsule.BlockId;
+import org.sonicx.protos.Protocol.BlockTransactionsRequest;
+
+/**
+ * Requests the transactions of a {@link CompactBlockMessage} which the receiver could not
+ * resolve, by their index in the block.
+ */
+public class GetBlockTxnMessage extends SonicxMessage {
+
+  private BlockTransactionsRequest request;
+
+  public GetBlockTxnMessage(byte[] data) throws Exception {
+    super(data);
+    this.type = MessageTypes.GET_BLOCK_TXN.asByte();
+    this.request = BlockTransactionsRequest.parseFrom(getCodedInputStream(data));
+  }
+
+  public GetBlockTxnMessage(BlockId blockId, List<Integer> indexes) {
+    this.request = BlockTransactionsRequest.newBuilder()
+        .setBlockId(ByteString.copyFrom(blockId.getBytes()))
+        .addAllIndexes(indexes)
+        .build();
+    this.type = MessageTypes.GET_BLOCK_TXN.asByte();
+    this.data = request.toByteArray();
+  }
+
+  public BlockId getBlockId() {
+    return new BlockId(Sha256Hash.wrap(request.getBlockId()));
+  }
+
+  public List<Integer> getIndexes() {
+    return request.getIndexesList();
+  }
+
+  @Override
+  public Class<?> getAnswerMessage() {
+    return null;
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder().append(super.toString()).append(getBlockId().getString())
+        .append(", trx size: ").append(request.getIndexesCount()).toString();
+  }
+}
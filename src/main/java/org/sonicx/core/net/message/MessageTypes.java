@@ -33,6 +33,12 @@ public enum MessageTypes {
 
   TRX_INVENTORY(0x13),
 
+  COMPACT_BLOCK(0x14),
+
+  GET_BLOCK_TXN(0x15),
+
+  BLOCK_TXN(0x16),
+
   P2P_HELLO(0x20),
 
   P2P_DISCONNECT(0x21),
@@ -82,7 +88,7 @@ public enum MessageTypes {
   }
 
   public static boolean inSonicxRange(byte code) {
-    return code <= TRX_INVENTORY.asByte() && code >= FIRST.asByte();
+    return code <= BLOCK_TXN.asByte() && code >= FIRST.asByte();
   }
 
   @Override
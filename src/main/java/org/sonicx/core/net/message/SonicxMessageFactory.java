@@ -11,19 +11,22 @@ public class SonicxMessageFactory extends MessageFactory {
 
   @Override
   public SonicxMessage create(byte[] data) throws Exception {
+    return create(data[0], ArrayUtils.subarray(data, 1, data.length));
+  }
+
+  @Override
+  public SonicxMessage create(byte type, byte[] packed) throws Exception {
     try {
-      byte type = data[0];
-      byte[] rawData = ArrayUtils.subarray(data, 1, data.length);
-      return create(type, rawData);
+      return doCreate(type, packed);
     } catch (final P2pException e) {
       throw e;
     } catch (final Exception e) {
       throw new P2pException(P2pException.TypeEnum.PARSE_MESSAGE_FAILED,
-          "type=" + data[0] + ", len=" + data.length + ", error msg: " + e.getMessage());
+          "type=" + type + ", len=" + (packed.length + 1) + ", error msg: " + e.getMessage());
     }
   }
 
-  private SonicxMessage create(byte type, byte[] packed) throws Exception {
+  private SonicxMessage doCreate(byte type, byte[] packed) throws Exception {
     MessageTypes receivedTypes = MessageTypes.fromByte(type);
     if (receivedTypes == null) {
       throw new P2pException(P2pException.TypeEnum.NO_SUCH_MESSAGE,
@@ -52,6 +55,12 @@ public class SonicxMessageFactory extends MessageFactory {
         return new FetchBlockHeadersMessage(packed);
       case TRX_INVENTORY:
         return new TransactionInventoryMessage(packed);
+      case COMPACT_BLOCK:
+        return new CompactBlockMessage(packed);
+      case GET_BLOCK_TXN:
+        return new GetBlockTxnMessage(packed);
+      case BLOCK_TXN:
+        return new BlockTxnMessage(packed);
       default:
         throw new P2pException(P2pException.TypeEnum.NO_SUCH_MESSAGE,
             receivedTypes.toString() + ", len=" + packed.length);
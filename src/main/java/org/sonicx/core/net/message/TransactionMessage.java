@@ -11,9 +11,13 @@ public class TransactionMessage extends SonicxMessage {
 
   private TransactionCapsule transactionCapsule;
 
+  // the transaction as received or created, processing may change the capsule later
+  private final Transaction transaction;
+
   public TransactionMessage(byte[] data) throws Exception {
     super(data);
     this.transactionCapsule = new TransactionCapsule(getCodedInputStream(data));
+    this.transaction = transactionCapsule.getInstance();
     this.type = MessageTypes.TRX.asByte();
     if (Message.isFilter()) {
       compareBytes(data, transactionCapsule.getInstance().toByteArray());
@@ -22,10 +26,34 @@ public class TransactionMessage extends SonicxMessage {
     }
   }
 
+  /**
+   * Creates the message of a transaction, encoding it only when the bytes are first needed.
+   */
   public TransactionMessage(Transaction trx) {
+    this(trx, null);
+  }
+
+  private TransactionMessage(Transaction trx, byte[] data) {
     this.transactionCapsule = new TransactionCapsule(trx);
+    this.transaction = trx;
     this.type = MessageTypes.TRX.asByte();
-    this.data = trx.toByteArray();
+    this.data = data;
+  }
+
+  /**
+   * Returns a message of the transaction as received, with a capsule of its own and sharing the
+   * encoded bytes of this one.
+   */
+  public TransactionMessage copy() {
+    return new TransactionMessage(transaction, data);
+  }
+
+  @Override
+  public byte[] getData() {
+    if (data == null) {
+      data = transaction.toByteArray();
+    }
+    return data;
   }
 
   @Override
@@ -53,14 +53,19 @@ public class BlockMsgHandler implements SonicxMsgHandler {
       check(peer, blockMessage);
     }
 
-    if (peer.getSyncBlockRequested().containsKey(blockId)) {
-      peer.getSyncBlockRequested().remove(blockId);
+    Long requestTime = peer.getSyncBlockRequested().remove(blockId);
+    if (requestTime != null) {
+      peer.getNodeStatistics().performance
+          .onFetched(System.currentTimeMillis() - requestTime, true);
       syncService.processBlock(peer, blockMessage);
     } else {
       Long time = peer.getAdvInvRequest().remove(new Item(blockId, InventoryType.BLOCK));
       long now = System.currentTimeMillis();
+      if (time != null) {
+        peer.getNodeStatistics().performance.onFetched(now - time, true);
+      }
       long interval = blockId.getNum() - sonicxNetDelegate.getHeadBlockId().getNum();
-      processBlock(peer, blockMessage.getBlockCapsule());
+      processBlock(peer, blockMessage);
       logger.info(
           "Receive block/interval {}/{} from {} fetch/delay {}/{}ms, txs/process {}/{}ms, witness: {}",
           blockId.getNum(),
@@ -90,7 +95,8 @@ public class BlockMsgHandler implements SonicxMsgHandler {
     }
   }
 
-  private void processBlock(PeerConnection peer, BlockCapsule block) throws P2pException {
+  private void processBlock(PeerConnection peer, BlockMessage blockMessage) throws P2pException {
+    BlockCapsule block = blockMessage.getBlockCapsule();
     BlockId blockId = block.getBlockId();
     if (!sonicxNetDelegate.containBlock(block.getParentBlockId())) {
       logger.warn("Get unlink block {} from {}, head is {}.", blockId.getString(),
@@ -102,6 +108,7 @@ public class BlockMsgHandler implements SonicxMsgHandler {
     Item item = new Item(blockId, InventoryType.BLOCK);
     if (fastForward || peer.isFastForwardPeer()) {
       peer.getAdvInvReceive().put(item, System.currentTimeMillis());
+      peer.getKnownInventory().add(item);
       advService.addInvToCache(item);
     }
 
@@ -112,12 +119,17 @@ public class BlockMsgHandler implements SonicxMsgHandler {
         return;
       }
       if (sonicxNetDelegate.validBlock(block)) {
-        advService.fastForward(new BlockMessage(block));
+        advService.fastForward(blockMessage);
         sonicxNetDelegate.trustNode(peer);
       }
     }
 
+    long start = System.currentTimeMillis();
+    sonicxNetDelegate.preVerifyBlock(block);
+    long verified = System.currentTimeMillis();
     sonicxNetDelegate.processBlock(block);
+    logger.info("Block {} pre-verify/push {}/{}ms.", blockId.getNum(), verified - start,
+        System.currentTimeMillis() - verified);
     witnessProductBlockService.validWitnessProductTwoBlock(block);
     sonicxNetDelegate.getActivePeer().forEach(p -> {
       if (p.getAdvInvReceive().getIfPresent(blockId) != null) {
@@ -126,7 +138,8 @@ public class BlockMsgHandler implements SonicxMsgHandler {
     });
 
     if (!fastForward) {
-      advService.broadcast(new BlockMessage(block));
+      // relay the bytes as received instead of encoding the block again
+      advService.broadcast(blockMessage);
     }
   }
 
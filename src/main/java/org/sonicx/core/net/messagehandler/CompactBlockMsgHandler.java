@@ -0,0 +1,233 @@
+package org.sonicx.core.net.messagehandler;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashFunction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.sonicx.common.overlay.message.Message;
+import org.sonicx.core.capsule.BlockCapsule;
+import org.sonicx.core.capsule.BlockCapsule.BlockId;
+import org.sonicx.core.capsule.TransactionCapsule;
+import org.sonicx.core.exception.P2pException;
+import org.sonicx.core.exception.P2pException.TypeEnum;
+import org.sonicx.core.net.SonicxNetDelegate;
+import org.sonicx.core.net.message.BlockMessage;
+import org.sonicx.core.net.message.BlockTxnMessage;
+import org.sonicx.core.net.message.CompactBlockMessage;
+import org.sonicx.core.net.message.FetchInvDataMessage;
+import org.sonicx.core.net.message.GetBlockTxnMessage;
+import org.sonicx.core.net.message.SonicxMessage;
+import org.sonicx.core.net.message.TransactionMessage;
+import org.sonicx.core.net.peer.Item;
+import org.sonicx.core.net.peer.PeerConnection;
+import org.sonicx.core.net.service.AdvService;
+import org.sonicx.protos.Protocol.Block;
+import org.sonicx.protos.Protocol.BlockHeader;
+import org.sonicx.protos.Protocol.Inventory.InventoryType;
+import org.sonicx.protos.Protocol.Transaction;
+
+/**
+ * Rebuilds blocks received as {@link CompactBlockMessage} from the pending transactions and the
+ * transaction cache of {@link AdvService}, fetching the rest with {@link GetBlockTxnMessage}.
+ * A rebuilt block goes through {@link BlockMsgHandler} like a block received in full.
+ */
+@Slf4j(topic = "net")
+@Component
+public class CompactBlockMsgHandler implements SonicxMsgHandler {
+
+  @Autowired
+  private SonicxNetDelegate sonicxNetDelegate;
+
+  @Autowired
+  private AdvService advService;
+
+  @Autowired
+  private BlockMsgHandler blockMsgHandler;
+
+  private Cache<BlockId, PartialBlock> partialBlocks = CacheBuilder.newBuilder()
+      .maximumSize(100).expireAfterWrite(1, TimeUnit.MINUTES).build();
+
+  @Override
+  public void processMessage(PeerConnection peer, SonicxMessage msg) throws P2pException {
+    if (msg instanceof CompactBlockMessage) {
+      processCompactBlock(peer, (CompactBlockMessage) msg);
+    } else {
+      processBlockTxn(peer, (BlockTxnMessage) msg);
+    }
+  }
+
+  private void processCompactBlock(PeerConnection peer, CompactBlockMessage msg)
+      throws P2pException {
+    BlockId blockId = msg.getBlockId();
+    if (peer.getAdvInvRequest().get(new Item(blockId, InventoryType.BLOCK)) == null) {
+      throw new P2pException(TypeEnum.BAD_MESSAGE, "no request");
+    }
+
+    PartialBlock partial = new PartialBlock(peer, msg.getBlockHeader(), msg.getShortIds().size());
+    resolve(partial, blockId, msg.getShortIds());
+    logger.info("Receive compact block {} from {}, trx size: {}, missing: {}",
+        blockId.getString(), peer.getInetAddress(), msg.getShortIds().size(),
+        partial.getMissing().size());
+
+    if (partial.getMissing().isEmpty()) {
+      complete(peer, blockId, partial);
+    } else {
+      partialBlocks.put(blockId, partial);
+      peer.sendMessage(new GetBlockTxnMessage(blockId, partial.getMissing()));
+    }
+  }
+
+  private void processBlockTxn(PeerConnection peer, BlockTxnMessage msg) throws P2pException {
+    BlockId blockId = msg.getBlockId();
+    PartialBlock partial = partialBlocks.getIfPresent(blockId);
+    if (partial == null || partial.getPeer() != peer) {
+      // the partial block expired from the cache, or another peer's replaced it
+      refetch(peer, blockId);
+      return;
+    }
+    if (!partial.fill(msg.getTransactions())) {
+      throw new P2pException(TypeEnum.BAD_MESSAGE, "expect " + partial.getMissing().size()
+          + " transactions, get " + msg.getTransactions().size());
+    }
+    complete(peer, blockId, partial);
+  }
+
+  private void resolve(PartialBlock partial, BlockId blockId, List<Long> shortIds) {
+    Map<Long, Integer> indexes = new HashMap<>(shortIds.size() * 2);
+    Set<Long> duplicates = new HashSet<>();
+    for (int i = 0; i < shortIds.size(); i++) {
+      if (indexes.put(shortIds.get(i), i) != null) {
+        duplicates.add(shortIds.get(i));
+      }
+    }
+    // a short id used twice in the block can not be resolved locally
+    duplicates.forEach(indexes::remove);
+
+    // every candidate is hashed once with the salt of this block, the search stops as soon as
+    // all short ids are matched; most transactions of a new block are still pending here
+    HashFunction function = CompactBlockMessage.shortIdFunction(blockId);
+    for (TransactionCapsule trx : sonicxNetDelegate.getPendingTransactions()) {
+      if (indexes.isEmpty()) {
+        break;
+      }
+      partial.offer(indexes, CompactBlockMessage.shortId(function, trx.getTransactionId()),
+          trx.getInstance());
+    }
+    for (Map.Entry<Item, Message> entry : advService.getTrxCacheView().entrySet()) {
+      if (indexes.isEmpty()) {
+        break;
+      }
+      partial.offer(indexes, CompactBlockMessage.shortId(function, entry.getKey().getHash()),
+          ((TransactionMessage) entry.getValue()).getTransactionCapsule().getInstance());
+    }
+    partial.collectMissing();
+  }
+
+  /**
+   * Fetches the block again when its transactions arrive without a partial block, as long as
+   * it is still requested from the peer. Otherwise the transactions are dropped.
+   */
+  private void refetch(PeerConnection peer, BlockId blockId) {
+    Item item = new Item(blockId, InventoryType.BLOCK);
+    if (peer.getAdvInvRequest().get(item) == null) {
+      logger.info("Drop transactions of block {} from {}, no request.", blockId.getString(),
+          peer.getInetAddress());
+      return;
+    }
+    logger.warn("Partial block {} from {} is gone, fetch the block again.", blockId.getString(),
+        peer.getInetAddress());
+    peer.getAdvInvRequest().put(item, System.currentTimeMillis());
+    peer.sendMessage(new FetchInvDataMessage(Collections.singletonList(item.getHash()),
+        InventoryType.BLOCK));
+  }
+
+  private void complete(PeerConnection peer, BlockId blockId, PartialBlock partial)
+      throws P2pException {
+    BlockCapsule block = partial.toBlock();
+    if (!block.calcMerkleRoot().equals(block.getMerkleRoot())) {
+      if (partial.isFull()) {
+        throw new P2pException(TypeEnum.BAD_BLOCK, "merkle root mismatch");
+      }
+      // a short id matched another transaction, fetch all of them
+      logger.warn("Compact block {} from {} does not match, fetch all transactions.",
+          blockId.getString(), peer.getInetAddress());
+      partial.requestAll();
+      partialBlocks.put(blockId, partial);
+      peer.sendMessage(new GetBlockTxnMessage(blockId, partial.getMissing()));
+      return;
+    }
+    partialBlocks.invalidate(blockId);
+    blockMsgHandler.processMessage(peer, new BlockMessage(block));
+  }
+
+  private static class PartialBlock {
+
+    @Getter
+    private final PeerConnection peer;
+    private final BlockHeader header;
+    private final Transaction[] transactions;
+    @Getter
+    private List<Integer> missing = new ArrayList<>();
+    @Getter
+    private boolean full;
+
+    PartialBlock(PeerConnection peer, BlockHeader header, int size) {
+      this.peer = peer;
+      this.header = header;
+      this.transactions = new Transaction[size];
+    }
+
+    // a matched short id is removed from the indexes, the first transaction matching it wins
+    void offer(Map<Long, Integer> indexes, long shortId, Transaction trx) {
+      Integer index = indexes.remove(shortId);
+      if (index != null) {
+        transactions[index] = trx;
+      }
+    }
+
+    void collectMissing() {
+      missing = new ArrayList<>();
+      for (int i = 0; i < transactions.length; i++) {
+        if (transactions[i] == null) {
+          missing.add(i);
+        }
+      }
+    }
+
+    boolean fill(List<Transaction> trxs) {
+      if (trxs.size() != missing.size()) {
+        return false;
+      }
+      for (int i = 0; i < trxs.size(); i++) {
+        transactions[missing.get(i)] = trxs.get(i);
+      }
+      missing = new ArrayList<>();
+      return true;
+    }
+
+    void requestAll() {
+      full = true;
+      Arrays.fill(transactions, null);
+      collectMissing();
+    }
+
+    BlockCapsule toBlock() {
+      return new BlockCapsule(Block.newBuilder()
+          .setBlockHeader(header)
+          .addAllTransactions(Arrays.asList(transactions))
+          .build());
+    }
+  }
+}
@@ -1,7 +1,16 @@
 package org.sonicx.core.net.messagehandler;
 
+import static org.sonicx.core.config.Parameter.NetConstants.BLOCK_PREFETCH_SIZE;
+import static org.sonicx.core.config.Parameter.NetConstants.MAX_BLOCKS_QUEUED_PER_PEER;
+
 import com.google.common.collect.Lists;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -10,11 +19,13 @@ import org.sonicx.common.overlay.message.Message;
 import org.sonicx.common.utils.Sha256Hash;
 import org.sonicx.core.capsule.BlockCapsule.BlockId;
 import org.sonicx.core.config.Parameter.ChainConstant;
+import org.sonicx.core.config.Parameter.NetConstants;
 import org.sonicx.core.config.Parameter.NodeConstant;
 import org.sonicx.core.exception.P2pException;
 import org.sonicx.core.exception.P2pException.TypeEnum;
 import org.sonicx.core.net.SonicxNetDelegate;
 import org.sonicx.core.net.message.BlockMessage;
+import org.sonicx.core.net.message.CompactBlockMessage;
 import org.sonicx.core.net.message.FetchInvDataMessage;
 import org.sonicx.core.net.message.MessageTypes;
 import org.sonicx.core.net.message.TransactionMessage;
@@ -43,14 +54,33 @@ public class FetchInvDataMsgHandler implements SonicxMsgHandler {
 
   private int MAX_SIZE = 1_000_000;
 
+  private ExecutorService serveExecutor = Executors.newSingleThreadExecutor();
+
+  public void close() {
+    serveExecutor.shutdown();
+  }
+
   @Override
   public void processMessage(PeerConnection peer, SonicxMessage msg) throws P2pException {
 
     FetchInvDataMessage fetchInvDataMsg = (FetchInvDataMessage) msg;
 
-    check(peer, fetchInvDataMsg);
+    boolean isAdv = isAdvertised(peer, fetchInvDataMsg);
+
+    check(peer, fetchInvDataMsg, isAdv);
 
     InventoryType type = fetchInvDataMsg.getInventoryType();
+    if (type.equals(InventoryType.BLOCK)) {
+      if (isAdv) {
+        serveAdvertised(peer, fetchInvDataMsg);
+      } else {
+        fetchInvDataMsg.getHashList()
+            .forEach(hash -> peer.getBlockToServe().add(new Item(hash, type)));
+        serveLater(peer);
+      }
+      return;
+    }
+
     List<Transaction> transactions = Lists.newArrayList();
 
     int size = 0;
@@ -62,27 +92,19 @@ public class FetchInvDataMsgHandler implements SonicxMsgHandler {
         try {
           message = sonicxNetDelegate.getData(hash, type);
         } catch (Exception e) {
-          logger.error("Fetch item {} failed. reason: {}", item, hash, e.getMessage());
+          logger.error("Fetch item {} failed. reason: {}", item, e.getMessage());
           peer.disconnect(ReasonCode.FETCH_FAIL);
           return;
         }
       }
 
-      if (type.equals(InventoryType.BLOCK)) {
-        BlockId blockId = ((BlockMessage) message).getBlockCapsule().getBlockId();
-        if (peer.getBlockBothHave().getNum() < blockId.getNum()) {
-          peer.setBlockBothHave(blockId);
-        }
-        peer.sendMessage(message);
-      } else {
-        transactions.add(((TransactionMessage) message).getTransactionCapsule().getInstance());
-        size += ((TransactionMessage) message).getTransactionCapsule().getInstance()
-            .getSerializedSize();
-        if (size > MAX_SIZE) {
-          peer.sendMessage(new TransactionsMessage(transactions));
-          transactions = Lists.newArrayList();
-          size = 0;
-        }
+      transactions.add(((TransactionMessage) message).getTransactionCapsule().getInstance());
+      size += ((TransactionMessage) message).getTransactionCapsule().getInstance()
+          .getSerializedSize();
+      if (size > MAX_SIZE) {
+        peer.sendMessage(new TransactionsMessage(transactions));
+        transactions = Lists.newArrayList();
+        size = 0;
       }
     }
     if (transactions.size() > 0) {
@@ -90,12 +112,127 @@ public class FetchInvDataMsgHandler implements SonicxMsgHandler {
     }
   }
 
-  private void check(PeerConnection peer, FetchInvDataMessage fetchInvDataMsg) throws P2pException {
+  /**
+   * Sends the new blocks we advertised right away, they are mostly in the cache of
+   * {@link AdvService} and a delay would slow down their propagation.
+   */
+  private void serveAdvertised(PeerConnection peer, FetchInvDataMessage fetchInvDataMsg) {
+    for (Sha256Hash hash : fetchInvDataMsg.getHashList()) {
+      Item item = new Item(hash, InventoryType.BLOCK);
+      Message message = advService.getMessage(item);
+      if (message == null) {
+        try {
+          message = sonicxNetDelegate.getData(hash, InventoryType.BLOCK);
+        } catch (Exception e) {
+          logger.error("Fetch item {} failed. reason: {}", item, e.getMessage());
+          peer.disconnect(ReasonCode.FETCH_FAIL);
+          return;
+        }
+      }
+      sendBlock(peer, item, (BlockMessage) message);
+    }
+  }
+
+  /**
+   * Sends more requested blocks of the peer off the event loop, called when they are requested
+   * and when the send queue of the peer drained.
+   */
+  public void serveLater(PeerConnection peer) {
+    if (serveExecutor.isShutdown()) {
+      return;
+    }
+    serveExecutor.execute(() -> {
+      try {
+        serve(peer);
+      } catch (Exception e) {
+        logger.error("Serve blocks to {} error.", peer.getInetAddress(), e);
+      }
+    });
+  }
+
+  /**
+   * Sends the requested blocks of the sync range while the send queue of the peer, which only
+   * drains while the channel is writable, holds few blocks. The blocks are read in batches of
+   * {@link NetConstants#BLOCK_PREFETCH_SIZE}, so at most a few batches of one peer are on the
+   * heap at a time however many blocks it requested.
+   */
+  private void serve(PeerConnection peer) {
+    Queue<Item> queue = peer.getBlockToServe();
+    while (!queue.isEmpty() && !peer.isDisconnect()) {
+      int room = MAX_BLOCKS_QUEUED_PER_PEER - peer.getSendBlockQueueSize();
+      if (room < Math.min(BLOCK_PREFETCH_SIZE, queue.size())) {
+        return;
+      }
+      List<Item> batch = new ArrayList<>(BLOCK_PREFETCH_SIZE);
+      Item item;
+      while (batch.size() < BLOCK_PREFETCH_SIZE && (item = queue.poll()) != null) {
+        batch.add(item);
+      }
+      Map<BlockId, BlockMessage> blocks;
+      try {
+        blocks = getBlocks(batch);
+      } catch (Exception e) {
+        logger.error("Fetch blocks for {} failed. reason: {}", peer.getInetAddress(),
+            e.getMessage());
+        queue.clear();
+        peer.disconnect(ReasonCode.FETCH_FAIL);
+        return;
+      }
+      batch.forEach(i -> sendBlock(peer, i, blocks.get(new BlockId(i.getHash()))));
+    }
+  }
+
+  private Map<BlockId, BlockMessage> getBlocks(List<Item> items) throws P2pException {
+    Map<BlockId, BlockMessage> blocks = new HashMap<>();
+    List<BlockId> missing = new ArrayList<>();
+    for (Item item : items) {
+      BlockMessage message = (BlockMessage) advService.getMessage(item);
+      if (message != null) {
+        blocks.put(message.getBlockId(), message);
+      } else {
+        missing.add(new BlockId(item.getHash()));
+      }
+    }
+    sonicxNetDelegate.getBlocks(missing).forEach((id, message) -> {
+      advService.cacheBlock(message);
+      blocks.put(id, message);
+    });
+    return blocks;
+  }
+
+  private void sendBlock(PeerConnection peer, Item item, BlockMessage block) {
+    BlockId blockId = block.getBlockId();
+    if (peer.getBlockBothHave().getNum() < blockId.getNum()) {
+      peer.setBlockBothHave(blockId);
+    }
+    // a new block, the peer has most of its transactions already
+    if (peer.isCompactBlock() && peer.getAdvInvSpread().getIfPresent(item) != null) {
+      peer.sendMessage(new CompactBlockMessage(block.getBlockCapsule()));
+    } else {
+      peer.sendMessage(block);
+    }
+  }
+
+  private boolean isAdvertised(PeerConnection peer, FetchInvDataMessage fetchInvDataMsg) {
+    if (fetchInvDataMsg.getInvMessageType() == MessageTypes.TRX) {
+      return false;
+    }
+    for (Sha256Hash hash : fetchInvDataMsg.getHashList()) {
+      if (peer.getAdvInvSpread().getIfPresent(new Item(hash, InventoryType.BLOCK)) == null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void check(PeerConnection peer, FetchInvDataMessage fetchInvDataMsg, boolean isAdv)
+      throws P2pException {
     MessageTypes type = fetchInvDataMsg.getInvMessageType();
 
     if (type == MessageTypes.TRX) {
       for (Sha256Hash hash : fetchInvDataMsg.getHashList()) {
-        if (peer.getAdvInvSpread().getIfPresent(new Item(hash, InventoryType.TRX)) == null) {
+        // transaction announcements are only recorded in the known inventory filter
+        if (!peer.getKnownInventory().mightContain(new Item(hash, InventoryType.TRX))) {
           throw new P2pException(TypeEnum.BAD_MESSAGE, "not spread inv: {}" + hash);
         }
       }
@@ -107,13 +244,6 @@ public class FetchInvDataMsgHandler implements SonicxMsgHandler {
             "maxCount: " + maxCount + ", fetchCount: " + fetchCount);
       }
     } else {
-      boolean isAdv = true;
-      for (Sha256Hash hash : fetchInvDataMsg.getHashList()) {
-        if (peer.getAdvInvSpread().getIfPresent(new Item(hash, InventoryType.BLOCK)) == null) {
-          isAdv = false;
-          break;
-        }
-      }
       if (isAdv) {
         MessageCount sonicxOutAdvBlock = peer.getNodeStatistics().messageStatistics.sonicxOutAdvBlock;
         sonicxOutAdvBlock.add(fetchInvDataMsg.getHashList().size());
@@ -0,0 +1,59 @@
+package org.sonicx.core.net.messagehandler;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.sonicx.common.overlay.message.Message;
+import org.sonicx.core.capsule.BlockCapsule.BlockId;
+import org.sonicx.core.exception.P2pException;
+import org.sonicx.core.exception.P2pException.TypeEnum;
+import org.sonicx.core.net.SonicxNetDelegate;
+import org.sonicx.core.net.message.BlockMessage;
+import org.sonicx.core.net.message.BlockTxnMessage;
+import org.sonicx.core.net.message.GetBlockTxnMessage;
+import org.sonicx.core.net.message.SonicxMessage;
+import org.sonicx.core.net.peer.Item;
+import org.sonicx.core.net.peer.PeerConnection;
+import org.sonicx.core.net.service.AdvService;
+import org.sonicx.protos.Protocol.Inventory.InventoryType;
+import org.sonicx.protos.Protocol.Transaction;
+
+@Slf4j(topic = "net")
+@Component
+public class GetBlockTxnMsgHandler implements SonicxMsgHandler {
+
+  @Autowired
+  private SonicxNetDelegate sonicxNetDelegate;
+
+  @Autowired
+  private AdvService advService;
+
+  @Override
+  public void processMessage(PeerConnection peer, SonicxMessage msg) throws P2pException {
+    GetBlockTxnMessage request = (GetBlockTxnMessage) msg;
+    BlockId blockId = request.getBlockId();
+    Item item = new Item(blockId, InventoryType.BLOCK);
+    if (peer.getAdvInvSpread().getIfPresent(item) == null) {
+      throw new P2pException(TypeEnum.BAD_MESSAGE, "not spread block: " + blockId.getString());
+    }
+
+    Message message = advService.getMessage(item);
+    if (message == null) {
+      message = sonicxNetDelegate.getData(blockId, InventoryType.BLOCK);
+    }
+    List<Transaction> trxs = ((BlockMessage) message).getBlockCapsule().getInstance()
+        .getTransactionsList();
+
+    List<Transaction> result = new ArrayList<>(request.getIndexes().size());
+    for (int index : request.getIndexes()) {
+      if (index < 0 || index >= trxs.size()) {
+        throw new P2pException(TypeEnum.BAD_MESSAGE, "index " + index + " out of "
+            + trxs.size());
+      }
+      result.add(trxs.get(index));
+    }
+    peer.sendMessage(new BlockTxnMessage(blockId, result));
+  }
+}
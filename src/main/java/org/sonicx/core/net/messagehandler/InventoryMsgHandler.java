@@ -38,8 +38,12 @@ public class InventoryMsgHandler implements SonicxMsgHandler {
 
     for (Sha256Hash id : inventoryMessage.getHashList()) {
       Item item = new Item(id, type);
-      peer.getAdvInvReceive().put(item, System.currentTimeMillis());
-      advService.addInv(item);
+      // the exact record only serves to fetch the item from this peer, the filter covers the rest
+      if (advService.needSource(item)) {
+        peer.getAdvInvReceive().put(item, System.currentTimeMillis());
+      }
+      peer.getKnownInventory().add(item);
+      peer.getNodeStatistics().performance.onInventory(advService.addInv(item));
     }
   }
 
@@ -61,7 +65,7 @@ public class InventoryMsgHandler implements SonicxMsgHandler {
         return false;
       }
 
-      if (transactionsMsgHandler.isBusy()) {
+      if (transactionsMsgHandler.isBusy(peer)) {
         logger.warn("Drop inv: {} size: {} from Peer {}, transactionsMsgHandler is busy.",
             type, size, peer.getInetAddress());
         return false;
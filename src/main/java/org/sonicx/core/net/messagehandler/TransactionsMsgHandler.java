@@ -1,6 +1,5 @@
 package org.sonicx.core.net.messagehandler;
 
-import com.googlecode.cqengine.query.simple.In;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -8,7 +7,6 @@ import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
-import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -18,6 +16,8 @@ import org.sonicx.core.exception.P2pException.TypeEnum;
 import org.sonicx.core.net.SonicxNetDelegate;
 import org.sonicx.core.net.message.TransactionMessage;
 import org.sonicx.core.net.message.TransactionsMessage;
+import org.sonicx.core.net.messagehandler.TrxIntake.Event;
+import org.sonicx.core.net.messagehandler.TrxIntake.TrxClass;
 import org.sonicx.core.net.message.SonicxMessage;
 import org.sonicx.core.net.peer.Item;
 import org.sonicx.core.net.service.AdvService;
@@ -25,7 +25,6 @@ import org.sonicx.core.net.peer.PeerConnection;
 import org.sonicx.protos.Protocol.Inventory.InventoryType;
 import org.sonicx.protos.Protocol.ReasonCode;
 import org.sonicx.protos.Protocol.Transaction;
-import org.sonicx.protos.Protocol.Transaction.Contract.ContractType;
 
 @Slf4j(topic = "net")
 @Component
@@ -39,11 +38,21 @@ public class TransactionsMsgHandler implements SonicxMsgHandler {
 
   private static int MAX_TRX_SIZE = 50_000;
 
-  private static int MAX_SMART_CONTRACT_SUBMIT_SIZE = 100;
+  private static int MAX_TRX_SUBMIT_SIZE = 100;
+
+  // transfers served per smart contract call while both are queued
+  private static int TRANSFER_WEIGHT = 4;
+
+  // bytes of transfers a peer may get validated per turn
+  private static long TRANSFER_QUANTUM = 2_000;
+
+  // energy of smart contract calls a peer may get validated per turn
+  private static long CONTRACT_QUANTUM = 1_000_000;
 
 //  private static int TIME_OUT = 10 * 60 * 1000;
 
-  private BlockingQueue<TrxEvent> smartContractQueue = new LinkedBlockingQueue(MAX_TRX_SIZE);
+  private TrxIntake<PeerConnection> intake = new TrxIntake<>(MAX_TRX_SIZE, TRANSFER_WEIGHT,
+      TRANSFER_QUANTUM, CONTRACT_QUANTUM);
 
   private BlockingQueue<Runnable> queue = new LinkedBlockingQueue();
 
@@ -51,77 +60,108 @@ public class TransactionsMsgHandler implements SonicxMsgHandler {
   private ExecutorService trxHandlePool = new ThreadPoolExecutor(threadNum, threadNum, 0L,
       TimeUnit.MILLISECONDS, queue);
 
-  private ScheduledExecutorService smartContractExecutor = Executors
+  private ScheduledExecutorService intakeExecutor = Executors
       .newSingleThreadScheduledExecutor();
 
-  class TrxEvent {
+  private long[] lastDrops = new long[TrxClass.values().length];
 
-    @Getter
-    private PeerConnection peer;
-    @Getter
-    private TransactionMessage msg;
-    @Getter
-    private long time;
+  public void init() {
+    intakeExecutor.scheduleWithFixedDelay(() -> {
+      try {
+        submit();
+      } catch (Exception e) {
+        logger.error("Submit trx exception.", e);
+      }
+    }, 1000, 100, TimeUnit.MILLISECONDS);
+    intakeExecutor.scheduleWithFixedDelay(() -> {
+      try {
+        logIntake();
+      } catch (Exception e) {
+        logger.error("Log trx intake exception.", e);
+      }
+    }, 10, 10, TimeUnit.SECONDS);
+  }
 
-    public TrxEvent(PeerConnection peer, TransactionMessage msg) {
-      this.peer = peer;
-      this.msg = msg;
-      this.time = System.currentTimeMillis();
-    }
+  public void close() {
+    intakeExecutor.shutdown();
   }
 
-  public void init() {
-    handleSmartContract();
+  /**
+   * Returns true if no more transactions should be requested from the peer: the intake is full,
+   * or more than half full and the peer has at least its fair share queued.
+   */
+  public boolean isBusy(PeerConnection peer) {
+    int size = intake.size();
+    if (size >= MAX_TRX_SIZE) {
+      return true;
+    }
+    return size > MAX_TRX_SIZE / 2 && intake.getQueued(peer) * intake.getPeerCount() >= size;
   }
 
-  public void close() {
-    smartContractExecutor.shutdown();
+  public int getQueueSize(TrxClass trxClass) {
+    return intake.size(trxClass);
   }
 
-  public boolean isBusy() {
-    return queue.size() + smartContractQueue.size() > MAX_TRX_SIZE;
+  public long getDropCount(TrxClass trxClass) {
+    return intake.getDrops(trxClass);
   }
 
   @Override
   public void processMessage(PeerConnection peer, SonicxMessage msg) throws P2pException {
     TransactionsMessage transactionsMessage = (TransactionsMessage) msg;
     check(peer, transactionsMessage);
+    long energyFee = sonicxNetDelegate.getEnergyFee();
     for (Transaction trx : transactionsMessage.getTransactions().getTransactionsList()) {
-      int type = trx.getRawData().getContract(0).getType().getNumber();
-      if (type == ContractType.TriggerSmartContract_VALUE
-          || type == ContractType.CreateSmartContract_VALUE) {
-        if (!smartContractQueue.offer(new TrxEvent(peer, new TransactionMessage(trx)))) {
-          logger.warn("Add smart contract failed, queueSize {}:{}", smartContractQueue.size(),
-              queue.size());
-        }
-      } else {
-        trxHandlePool.submit(() -> handleTransaction(peer, new TransactionMessage(trx)));
+      Event<PeerConnection> event = TrxIntake.newEvent(peer, trx, energyFee);
+      if (!intake.offer(event)) {
+        logger.warn("Drop trx {} from {}, intake is full, queueSize {}:{}",
+            event.getMsg().getMessageId(), peer.getInetAddress(), intake.size(), queue.size());
       }
     }
+    submit();
   }
 
   private void check(PeerConnection peer, TransactionsMessage msg) throws P2pException {
     for (Transaction trx : msg.getTransactions().getTransactionsList()) {
       Item item = new Item(new TransactionMessage(trx).getMessageId(), InventoryType.TRX);
-      if (!peer.getAdvInvRequest().containsKey(item)) {
+      Long time = peer.getAdvInvRequest().remove(item);
+      if (time == null) {
         throw new P2pException(TypeEnum.BAD_MESSAGE,
             "trx: " + msg.getMessageId() + " without request.");
       }
-      peer.getAdvInvRequest().remove(item);
+      peer.getNodeStatistics().performance.onFetched(System.currentTimeMillis() - time, false);
     }
   }
 
-  private void handleSmartContract() {
-    smartContractExecutor.scheduleWithFixedDelay(() -> {
-      try {
-        while (queue.size() < MAX_SMART_CONTRACT_SUBMIT_SIZE) {
-          TrxEvent event = smartContractQueue.take();
-          trxHandlePool.submit(() -> handleTransaction(event.getPeer(), event.getMsg()));
-        }
-      } catch (Exception e) {
-        logger.error("Handle smart contract exception.", e);
-      }
-    }, 1000, 20, TimeUnit.MILLISECONDS);
+  /**
+   * Moves transactions from the intake to the validation pool, keeping the pool queue short so
+   * that the intake decides the order.
+   */
+  private synchronized void submit() {
+    Event<PeerConnection> event;
+    while (queue.size() < MAX_TRX_SUBMIT_SIZE && (event = intake.poll()) != null) {
+      Event<PeerConnection> e = event;
+      trxHandlePool.submit(() -> {
+        handleTransaction(e.getPeer(), e.getMsg());
+        submit();
+      });
+    }
+  }
+
+  private void logIntake() {
+    StringBuilder sb = new StringBuilder();
+    boolean changed = false;
+    for (TrxClass trxClass : TrxClass.values()) {
+      int size = intake.size(trxClass);
+      long drops = intake.getDrops(trxClass);
+      changed |= size > 0 || drops != lastDrops[trxClass.ordinal()];
+      sb.append(String.format(" %s queued %d dropped %d,", trxClass, size,
+          drops - lastDrops[trxClass.ordinal()]));
+      lastDrops[trxClass.ordinal()] = drops;
+    }
+    if (changed) {
+      logger.info("Trx intake in 10s:{} peers {}", sb, intake.getPeerCount());
+    }
   }
 
   private void handleTransaction(PeerConnection peer, TransactionMessage trx) {
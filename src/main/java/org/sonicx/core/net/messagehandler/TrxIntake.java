@@ -0,0 +1,244 @@
+package org.sonicx.core.net.messagehandler;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Getter;
+import org.sonicx.core.net.message.TransactionMessage;
+import org.sonicx.protos.Protocol.Transaction;
+import org.sonicx.protos.Protocol.Transaction.Contract.ContractType;
+
+/**
+ * Bounded queue of received transactions waiting for validation, fair between peers and between
+ * cheap transfers and smart contract calls.
+ *
+ * <p>Each {@link TrxClass} keeps one queue per peer and serves the peers by deficit round robin,
+ * charging every transaction its estimated cost: bandwidth for transfers, bandwidth or the
+ * energy its fee limit pays for, whichever is larger, for contract calls. Between the classes
+ * up to {@code transferWeight} transfers are served per contract call, so transfers do not wait
+ * behind a contract backlog. When the queue is full the newest transaction of the peer with the
+ * most queued transactions is dropped, contract calls first.
+ *
+ * @param <P> the peer type
+ */
+class TrxIntake<P> {
+
+  enum TrxClass {
+    TRANSFER,
+    CONTRACT
+  }
+
+  static class Event<P> {
+
+    @Getter
+    private final P peer;
+    @Getter
+    private final TransactionMessage msg;
+    @Getter
+    private final TrxClass trxClass;
+    @Getter
+    private final long cost;
+
+    Event(P peer, TransactionMessage msg, TrxClass trxClass, long cost) {
+      this.peer = peer;
+      this.msg = msg;
+      this.trxClass = trxClass;
+      this.cost = cost;
+    }
+  }
+
+  private final int capacity;
+
+  private final int transferWeight;
+
+  private final Map<TrxClass, ClassQueue> queues = new EnumMap<>(TrxClass.class);
+
+  private final Map<P, Integer> peerSizes = new HashMap<>();
+
+  private int size;
+
+  // transfers served since the last contract call
+  private int transferServed;
+
+  TrxIntake(int capacity, int transferWeight, long transferQuantum, long contractQuantum) {
+    this.capacity = capacity;
+    this.transferWeight = transferWeight;
+    queues.put(TrxClass.TRANSFER, new ClassQueue(transferQuantum));
+    queues.put(TrxClass.CONTRACT, new ClassQueue(contractQuantum));
+  }
+
+  /**
+   * Creates the event of one transaction, with the energy its fee limit buys at
+   * {@code energyFee} as the cost of a contract call.
+   */
+  static <P> Event<P> newEvent(P peer, Transaction trx, long energyFee) {
+    TransactionMessage msg = new TransactionMessage(trx);
+    long bandwidth = trx.getSerializedSize();
+    int type = trx.getRawData().getContract(0).getType().getNumber();
+    if (type == ContractType.TriggerSmartContract_VALUE
+        || type == ContractType.CreateSmartContract_VALUE) {
+      long energy = energyFee > 0 ? trx.getRawData().getFeeLimit() / energyFee : 0;
+      return new Event<>(peer, msg, TrxClass.CONTRACT, Math.max(bandwidth, energy));
+    }
+    return new Event<>(peer, msg, TrxClass.TRANSFER, bandwidth);
+  }
+
+  /**
+   * Queues the event, shedding from the noisiest peer when full.
+   *
+   * @return false if the event itself was dropped
+   */
+  synchronized boolean offer(Event<P> event) {
+    if (size >= capacity) {
+      P noisiest = null;
+      int max = 0;
+      for (Map.Entry<P, Integer> entry : peerSizes.entrySet()) {
+        if (entry.getValue() > max) {
+          noisiest = entry.getKey();
+          max = entry.getValue();
+        }
+      }
+      if (noisiest == null || peerSizes.getOrDefault(event.getPeer(), 0) >= max) {
+        queues.get(event.getTrxClass()).drops++;
+        return false;
+      }
+      shed(noisiest);
+    }
+    queues.get(event.getTrxClass()).add(event);
+    peerSizes.merge(event.getPeer(), 1, Integer::sum);
+    size++;
+    return true;
+  }
+
+  synchronized Event<P> poll() {
+    ClassQueue transfers = queues.get(TrxClass.TRANSFER);
+    ClassQueue contracts = queues.get(TrxClass.CONTRACT);
+    Event<P> event;
+    if (contracts.size == 0 || (transfers.size > 0 && transferServed < transferWeight)) {
+      event = transfers.poll();
+      transferServed++;
+    } else {
+      event = contracts.poll();
+      transferServed = 0;
+    }
+    if (event != null) {
+      removed(event.getPeer());
+    }
+    return event;
+  }
+
+  synchronized int size() {
+    return size;
+  }
+
+  synchronized int size(TrxClass trxClass) {
+    return queues.get(trxClass).size;
+  }
+
+  synchronized long getDrops(TrxClass trxClass) {
+    return queues.get(trxClass).drops;
+  }
+
+  synchronized int getQueued(P peer) {
+    return peerSizes.getOrDefault(peer, 0);
+  }
+
+  synchronized int getPeerCount() {
+    return peerSizes.size();
+  }
+
+  private void shed(P peer) {
+    ClassQueue queue = queues.get(TrxClass.CONTRACT);
+    if (!queue.removeLast(peer)) {
+      queue = queues.get(TrxClass.TRANSFER);
+      queue.removeLast(peer);
+    }
+    queue.drops++;
+    removed(peer);
+  }
+
+  private void removed(P peer) {
+    size--;
+    peerSizes.computeIfPresent(peer, (p, n) -> n > 1 ? n - 1 : null);
+  }
+
+  private class PeerQueue {
+
+    private final P peer;
+
+    private final Deque<Event<P>> events = new ArrayDeque<>();
+
+    private long deficit;
+
+    PeerQueue(P peer) {
+      this.peer = peer;
+    }
+  }
+
+  private class ClassQueue {
+
+    private final long quantum;
+
+    private final Map<P, PeerQueue> peers = new HashMap<>();
+
+    // peers with queued events in service order
+    private final Deque<PeerQueue> ring = new ArrayDeque<>();
+
+    private int size;
+
+    private long drops;
+
+    ClassQueue(long quantum) {
+      this.quantum = quantum;
+    }
+
+    void add(Event<P> event) {
+      PeerQueue queue = peers.get(event.getPeer());
+      if (queue == null) {
+        queue = new PeerQueue(event.getPeer());
+        peers.put(event.getPeer(), queue);
+        ring.addLast(queue);
+      }
+      queue.events.addLast(event);
+      size++;
+    }
+
+    Event<P> poll() {
+      while (!ring.isEmpty()) {
+        PeerQueue queue = ring.peekFirst();
+        Event<P> head = queue.events.peekFirst();
+        if (queue.deficit < head.getCost()) {
+          // the turn of this peer is over, it may spend one more quantum next time
+          queue.deficit += quantum;
+          ring.addLast(ring.pollFirst());
+          continue;
+        }
+        queue.deficit -= head.getCost();
+        queue.events.pollFirst();
+        if (queue.events.isEmpty()) {
+          ring.pollFirst();
+          peers.remove(queue.peer);
+        }
+        size--;
+        return head;
+      }
+      return null;
+    }
+
+    boolean removeLast(P peer) {
+      PeerQueue queue = peers.get(peer);
+      if (queue == null) {
+        return false;
+      }
+      queue.events.pollLast();
+      if (queue.events.isEmpty()) {
+        ring.remove(queue);
+        peers.remove(peer);
+      }
+      size--;
+      return true;
+    }
+  }
+}
@@ -0,0 +1,124 @@
+package org.sonicx.core.net.peer;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnel;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Approximate set of the inventory items a peer is known to have, because it announced them to
+ * us or we announced them to it.
+ *
+ * <p>Items are kept in two bloom filter generations. New items go to the current generation, a
+ * lookup checks both, and the current generation becomes the previous one once it holds
+ * {@code capacity} items or is older than {@code maxAge} ms. Heap usage is therefore fixed at
+ * two filters, in exchange for a false positive rate of at most about twice the configured one
+ * and for items being forgotten after one to two generations.
+ */
+public class KnownInventory {
+
+  private static final Funnel<Item> ITEM_FUNNEL = (item, into) -> into
+      .putBytes(item.getHash().getBytes())
+      .putInt(item.getType().getNumber());
+
+  private final int capacity;
+
+  private final double fpp;
+
+  private final long maxAge;
+
+  private final long heapSize;
+
+  private volatile Generation current;
+
+  private volatile Generation previous;
+
+  private final AtomicLong hits = new AtomicLong();
+
+  private final AtomicLong lookups = new AtomicLong();
+
+  private final AtomicLong rotations = new AtomicLong();
+
+  public KnownInventory(int capacity, double fpp, long maxAge) {
+    this.capacity = capacity;
+    this.fpp = fpp;
+    this.maxAge = maxAge;
+    this.current = new Generation();
+    this.previous = new Generation();
+    // bits of an optimally sized bloom filter, see BloomFilter#optimalNumOfBits
+    long bits = (long) (-capacity * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+    this.heapSize = 2 * ((bits + 63) / 64) * Long.BYTES;
+  }
+
+  public void add(Item item) {
+    Generation generation = current;
+    generation.filter.put(item);
+    if (generation.count.incrementAndGet() >= capacity
+        || System.currentTimeMillis() - generation.createTime > maxAge) {
+      rotate(generation);
+    }
+  }
+
+  public boolean mightContain(Item item) {
+    lookups.incrementAndGet();
+    if (current.filter.mightContain(item) || previous.filter.mightContain(item)) {
+      hits.incrementAndGet();
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Returns the false positive probability of a lookup with the current fill of both
+   * generations.
+   */
+  public double getExpectedFpp() {
+    double a = current.filter.expectedFpp();
+    double b = previous.filter.expectedFpp();
+    return 1 - (1 - a) * (1 - b);
+  }
+
+  /**
+   * Returns the heap used by the bit arrays of both generations, in bytes.
+   */
+  public long getHeapSize() {
+    return heapSize;
+  }
+
+  public long getSize() {
+    return current.count.get() + previous.count.get();
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getLookups() {
+    return lookups.get();
+  }
+
+  public long getRotations() {
+    return rotations.get();
+  }
+
+  public double getConfiguredFpp() {
+    return fpp;
+  }
+
+  private synchronized void rotate(Generation full) {
+    if (current != full) {
+      return;
+    }
+    previous = full;
+    current = new Generation();
+    rotations.incrementAndGet();
+  }
+
+  private class Generation {
+
+    private final BloomFilter<Item> filter = BloomFilter.create(ITEM_FUNNEL, capacity, fpp);
+
+    private final AtomicLong count = new AtomicLong();
+
+    private final long createTime = System.currentTimeMillis();
+  }
+}
@@ -7,9 +7,11 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
 import javafx.util.Pair;
 import lombok.Getter;
@@ -24,8 +26,12 @@ import org.sonicx.common.overlay.message.Message;
 import org.sonicx.common.overlay.server.Channel;
 import org.sonicx.common.utils.Sha256Hash;
 import org.sonicx.core.capsule.BlockCapsule.BlockId;
+import org.sonicx.core.config.Parameter.NetConstants;
 import org.sonicx.core.config.Parameter.NodeConstant;
+import org.sonicx.core.config.args.Args;
 import org.sonicx.core.net.SonicxNetDelegate;
+import org.sonicx.core.net.message.CompactBlockMessage;
+import org.sonicx.core.net.messagehandler.FetchInvDataMsgHandler;
 import org.sonicx.core.net.service.AdvService;
 import org.sonicx.core.net.service.SyncService;
 
@@ -43,6 +49,9 @@ public class PeerConnection extends Channel {
   @Autowired
   private AdvService advService;
 
+  @Autowired
+  private FetchInvDataMsgHandler fetchInvDataMsgHandler;
+
   @Setter
   @Getter
   private HelloMessage helloMessage;
@@ -59,6 +68,10 @@ public class PeerConnection extends Channel {
   private Cache<Item, Long> advInvSpread = CacheBuilder.newBuilder().maximumSize(invCacheSize)
       .expireAfterWrite(1, TimeUnit.HOURS).recordStats().build();
 
+  @Getter
+  private KnownInventory knownInventory = new KnownInventory(NetConstants.KNOWN_INV_CAPACITY,
+      NetConstants.KNOWN_INV_FPP, NetConstants.KNOWN_INV_MAX_AGE);
+
   @Setter
   @Getter
   private Map<Item, Long> advInvRequest = new ConcurrentHashMap<>();
@@ -105,6 +118,10 @@ public class PeerConnection extends Channel {
   @Getter
   private Set<BlockId> syncBlockInProcess = new HashSet<>();
 
+  // blocks of the sync range requested by the peer, sent as its send queue drains
+  @Getter
+  private Queue<Item> blockToServe = new ConcurrentLinkedQueue<>();
+
   @Setter
   @Getter
   private volatile boolean needSyncFromPeer;
@@ -113,6 +130,14 @@ public class PeerConnection extends Channel {
   @Getter
   private volatile boolean needSyncFromUs;
 
+  /**
+   * Returns whether new blocks are relayed to this peer as {@link CompactBlockMessage}.
+   */
+  public boolean isCompactBlock() {
+    return Args.getInstance().isCompactBlock() && helloMessage != null
+        && helloMessage.isCompactBlock();
+  }
+
   public boolean isIdle() {
     return advInvRequest.isEmpty() && syncBlockRequested.isEmpty() && syncChainRequested == null;
   }
@@ -121,6 +146,21 @@ public class PeerConnection extends Channel {
     msgQueue.sendMessage(message);
   }
 
+  public int getSendQueueSize() {
+    return msgQueue.getQueueSize();
+  }
+
+  public int getSendBlockQueueSize() {
+    return msgQueue.getBlockQueueSize();
+  }
+
+  @Override
+  protected void onBlockQueueDrained() {
+    if (!blockToServe.isEmpty()) {
+      fetchInvDataMsgHandler.serveLater(this);
+    }
+  }
+
   public void onConnect() {
     if (getHelloMessage().getHeadBlockId().getNum() > sonicxNetDelegate.getHeadBlockId().getNum()) {
       setSonicxState(SonicxState.SYNCING);
@@ -141,6 +181,7 @@ public class PeerConnection extends Channel {
     syncBlockRequested.clear();
     syncBlockInProcess.clear();
     syncBlockInProcess.clear();
+    blockToServe.clear();
   }
 
   public String log() {
@@ -174,6 +215,9 @@ public class PeerConnection extends Channel {
     return String.format(
         "Peer %s [%8s]\n"
             + "ping msg: count %d, max-average-min-last: %d %d %d %d\n"
+            + "send queue: size %d, max-average %d %d, latency max-average-last: %d %d %d\n"
+            + "known inv: size %d, heap %dKB, fpp %.5f, hit-lookup %d %d, rotations %d\n"
+            + "performance: %s\n"
             + "connect time: %ds\n"
             + "last know block num: %s\n"
             + "needSyncFromPeer:%b\n"
@@ -193,6 +237,22 @@ public class PeerConnection extends Channel {
         getNodeStatistics().pingMessageLatency.getMin(),
         getNodeStatistics().pingMessageLatency.getLast(),
 
+        msgQueue.getQueueSize(),
+        getNodeStatistics().sendQueueDepth.getMax(),
+        getNodeStatistics().sendQueueDepth.getAvrg(),
+        getNodeStatistics().sendMessageLatency.getMax(),
+        getNodeStatistics().sendMessageLatency.getAvrg(),
+        getNodeStatistics().sendMessageLatency.getLast(),
+
+        knownInventory.getSize(),
+        knownInventory.getHeapSize() / 1024,
+        knownInventory.getExpectedFpp(),
+        knownInventory.getHits(),
+        knownInventory.getLookups(),
+        knownInventory.getRotations(),
+
+        getNodeStatistics().performance,
+
         (now - getStartTime()) / 1000,
         fastForwardBlock != null ? fastForwardBlock.getNum() : blockBothHave.getNum(),
         isNeedSyncFromPeer(),
@@ -47,6 +47,7 @@ public class PeerStatusCheck {
       if (peer.isNeedSyncFromPeer()
           && peer.getBlockBothHaveUpdateTime() < now - blockUpdateTimeout) {
         logger.warn("Peer {} not sync for a long time.", peer.getInetAddress());
+        peer.getNodeStatistics().performance.onFailure();
         isDisconnected = true;
       }
 
@@ -60,6 +61,7 @@ public class PeerStatusCheck {
             .anyMatch(time -> time < now - NetConstants.SYNC_TIME_OUT);
       }
 
+      // the timed out requests are recorded as failures by AdvService and SyncService
       if (isDisconnected) {
         peer.disconnect(ReasonCode.TIME_OUT);
       }
@@ -1,16 +1,22 @@
 package org.sonicx.core.net.service;
 
 import static org.sonicx.core.config.Parameter.ChainConstant.BLOCK_PRODUCED_INTERVAL;
+import static org.sonicx.core.config.Parameter.NetConstants.ADV_TIME_OUT;
+import static org.sonicx.core.config.Parameter.NetConstants.BLOCK_CACHE_BYTES;
 import static org.sonicx.core.config.Parameter.NetConstants.MAX_TRX_FETCH_PER_PEER;
 import static org.sonicx.core.config.Parameter.NetConstants.MSG_CACHE_DURATION_IN_BLOCKS;
+import static org.sonicx.core.config.Parameter.NetConstants.SPREAD_MAX_INTERVAL;
+import static org.sonicx.core.config.Parameter.NetConstants.SPREAD_MIN_INTERVAL;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
@@ -53,8 +59,11 @@ public class AdvService {
   private Cache<Item, Message> trxCache = CacheBuilder.newBuilder()
       .maximumSize(50_000).expireAfterWrite(1, TimeUnit.HOURS).recordStats().build();
 
+  // recent blocks, the new ones and the ones served to syncing peers, bounded by encoded size
   private Cache<Item, Message> blockCache = CacheBuilder.newBuilder()
-      .maximumSize(10).expireAfterWrite(1, TimeUnit.MINUTES).recordStats().build();
+      .maximumWeight(BLOCK_CACHE_BYTES)
+      .weigher((Item item, Message message) -> message.getData().length)
+      .expireAfterAccess(1, TimeUnit.MINUTES).recordStats().build();
 
   private ScheduledExecutorService spreadExecutor = Executors.newSingleThreadScheduledExecutor();
 
@@ -65,6 +74,15 @@ public class AdvService {
 
   private int maxSpreadSize = 1_000;
 
+  // a request unanswered for this long counts as failed, the peer is disconnected at ADV_TIME_OUT
+  private static final long FETCH_FAILURE_TIME = ADV_TIME_OUT / 2;
+
+  private long lastTimeoutCheck = System.currentTimeMillis();
+
+  // the delay scheduled after the last spread round
+  @Getter
+  private volatile long spreadInterval = SPREAD_MAX_INTERVAL;
+
   private boolean fastForward = Args.getInstance().isFastForward();
 
   public void init() {
@@ -73,21 +91,23 @@ public class AdvService {
       return;
     }
 
-    spreadExecutor.scheduleWithFixedDelay(() -> {
+    spreadExecutor.schedule(this::spread, 100, TimeUnit.MILLISECONDS);
+
+    fetchExecutor.scheduleWithFixedDelay(() -> {
       try {
-        consumerInvToSpread();
+        consumerInvToFetch();
       } catch (Throwable t) {
-        logger.error("Spread thread error.", t);
+        logger.error("Fetch thread error.", t);
       }
     }, 100, 30, TimeUnit.MILLISECONDS);
 
     fetchExecutor.scheduleWithFixedDelay(() -> {
       try {
-        consumerInvToFetch();
+        checkTimeout();
       } catch (Throwable t) {
-        logger.error("Fetch thread error.", t);
+        logger.error("Check fetch timeout error.", t);
       }
-    }, 100, 30, TimeUnit.MILLISECONDS);
+    }, 1, 1, TimeUnit.SECONDS);
   }
 
   public void close() {
@@ -95,6 +115,55 @@ public class AdvService {
     fetchExecutor.shutdown();
   }
 
+  /**
+   * Returns the delay before the next spread round. A short queue waits longer so that more items
+   * go out in one inventory message, a queue close to {@code maxSpreadSize} is drained quickly.
+   */
+  long nextSpreadInterval() {
+    int size = Math.min(invToSpread.size(), maxSpreadSize);
+    return SPREAD_MAX_INTERVAL - (SPREAD_MAX_INTERVAL - SPREAD_MIN_INTERVAL) * size / maxSpreadSize;
+  }
+
+  /**
+   * Records a failure in the performance of the peers for each request which became
+   * {@link #FETCH_FAILURE_TIME} old since the last check, so a slow peer is asked less before it
+   * is disconnected.
+   */
+  private void checkTimeout() {
+    long now = System.currentTimeMillis();
+    sonicxNetDelegate.getActivePeer().forEach(peer -> peer.getNodeStatistics().performance
+        .onTimeouts(peer.getAdvInvRequest().values(), lastTimeoutCheck - FETCH_FAILURE_TIME,
+            now - FETCH_FAILURE_TIME));
+    lastTimeoutCheck = now;
+  }
+
+  public int getSpreadQueueSize() {
+    return invToSpread.size();
+  }
+
+  /**
+   * Returns whether a peer announcing the item is worth remembering as a source to fetch it
+   * from: always for blocks, for transactions only while this node does not hold them.
+   */
+  public boolean needSource(Item item) {
+    if (InventoryType.TRX.equals(item.getType())) {
+      return !fastForward && trxCache.getIfPresent(item) == null;
+    }
+    return true;
+  }
+
+  private void spread() {
+    try {
+      consumerInvToSpread();
+    } catch (Throwable t) {
+      logger.error("Spread thread error.", t);
+    }
+    if (!spreadExecutor.isShutdown()) {
+      spreadInterval = nextSpreadInterval();
+      spreadExecutor.schedule(this::spread, spreadInterval, TimeUnit.MILLISECONDS);
+    }
+  }
+
   synchronized public void addInvToCache(Item item) {
     invToFetchCache.put(item, System.currentTimeMillis());
     invToFetch.remove(item);
@@ -138,6 +207,20 @@ public class AdvService {
     }
   }
 
+  /**
+   * Keeps a block read from the store for the other peers requesting it soon.
+   */
+  public void cacheBlock(BlockMessage message) {
+    blockCache.put(new Item(message.getBlockId(), InventoryType.BLOCK), message);
+  }
+
+  /**
+   * Returns a live view of the recently seen transactions.
+   */
+  public Map<Item, Message> getTrxCacheView() {
+    return trxCache.asMap();
+  }
+
   public void broadcast(Message msg) {
 
     if (fastForward) {
@@ -165,7 +248,7 @@ public class AdvService {
       TransactionMessage trxMsg = (TransactionMessage) msg;
       item = new Item(trxMsg.getMessageId(), InventoryType.TRX);
       trxCount.add();
-      trxCache.put(item, new TransactionMessage(trxMsg.getTransactionCapsule().getInstance()));
+      trxCache.put(item, trxMsg.copy());
     } else {
       logger.error("Adv item is neither block nor trx, type: {}", msg.getType());
       return;
@@ -182,8 +265,7 @@ public class AdvService {
     Item item = new Item(msg.getBlockId(), InventoryType.BLOCK);
     List<PeerConnection> peers = sonicxNetDelegate.getActivePeer().stream()
         .filter(peer -> !peer.isNeedSyncFromPeer() && !peer.isNeedSyncFromUs())
-        .filter(peer -> peer.getAdvInvReceive().getIfPresent(item) == null
-            && peer.getAdvInvSpread().getIfPresent(item) == null)
+        .filter(peer -> !isKnown(peer, item))
         .collect(Collectors.toList());
 
     if (!fastForward) {
@@ -193,6 +275,7 @@ public class AdvService {
     peers.forEach(peer -> {
       peer.sendMessage(msg);
       peer.getAdvInvSpread().put(item, System.currentTimeMillis());
+      peer.getKnownInventory().add(item);
       peer.setFastForwardBlock(msg.getBlockId());
     });
   }
@@ -237,8 +320,10 @@ public class AdvService {
       peers.stream()
           .filter(peer -> peer.getAdvInvReceive().getIfPresent(item) != null
               && invSender.getSize(peer) < MAX_TRX_FETCH_PER_PEER)
-          .sorted(Comparator.comparingInt(peer -> invSender.getSize(peer)))
-          .findFirst().ifPresent(peer -> {
+          // the peer expected to answer first, given what it is already asked for
+          .min(Comparator.comparingDouble(peer -> (invSender.getSize(peer) + 1)
+              * peer.getNodeStatistics().performance.getScore()))
+          .ifPresent(peer -> {
         invSender.add(item, peer);
         peer.getAdvInvRequest().put(item, now);
         invToFetch.remove(item);
@@ -259,19 +344,38 @@ public class AdvService {
     }
 
     InvSender invSender = new InvSender();
+    List<Item> items = new ArrayList<>(invToSpread.keySet());
+    items.forEach(invToSpread::remove);
 
-    invToSpread.forEach((item, time) -> peers.forEach(peer -> {
-      if (peer.getAdvInvReceive().getIfPresent(item) == null &&
-          peer.getAdvInvSpread().getIfPresent(item) == null) {
-        peer.getAdvInvSpread().put(item, Time.getCurrentMillis());
+    for (PeerConnection peer : peers) {
+      for (Item item : items) {
+        if (isKnown(peer, item)) {
+          continue;
+        }
+        peer.getKnownInventory().add(item);
+        // blocks are also recorded exactly, for isKnown and the fetch and compact block checks
+        if (InventoryType.BLOCK.equals(item.getType())) {
+          peer.getAdvInvSpread().put(item, Time.getCurrentMillis());
+        }
         invSender.add(item, peer);
       }
-      invToSpread.remove(item);
-    }));
+    }
 
     invSender.sendInv();
   }
 
+  /**
+   * Returns whether the peer announced the item or was sent it. A false positive of the filter
+   * would never send a block to the peer, so blocks are checked against the exact records.
+   */
+  private boolean isKnown(PeerConnection peer, Item item) {
+    if (InventoryType.BLOCK.equals(item.getType())) {
+      return peer.getAdvInvReceive().getIfPresent(item) != null
+          || peer.getAdvInvSpread().getIfPresent(item) != null;
+    }
+    return peer.getKnownInventory().mightContain(item);
+  }
+
   class InvSender {
 
     private HashMap<PeerConnection, HashMap<InventoryType, LinkedList<Sha256Hash>>> send = new HashMap<>();
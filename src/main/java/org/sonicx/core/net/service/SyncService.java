@@ -1,28 +1,36 @@
 package org.sonicx.core.net.service;
 
 import static org.sonicx.core.config.Parameter.NetConstants.MAX_BLOCK_FETCH_PER_PEER;
+import static org.sonicx.core.config.Parameter.NetConstants.SYNC_TIME_OUT;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 import javafx.util.Pair;
-import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.sonicx.common.overlay.server.Channel.SonicxState;
 import org.sonicx.core.capsule.BlockCapsule;
 import org.sonicx.core.capsule.BlockCapsule.BlockId;
+import org.sonicx.core.capsule.TransactionCapsule;
 import org.sonicx.core.config.Parameter.NodeConstant;
+import org.sonicx.core.config.args.Args;
 import org.sonicx.core.exception.P2pException;
 import org.sonicx.core.exception.P2pException.TypeEnum;
 import org.sonicx.core.net.SonicxNetDelegate;
@@ -33,6 +41,16 @@ import org.sonicx.core.net.peer.PeerConnection;
 import org.sonicx.protos.Protocol.Inventory.InventoryType;
 import org.sonicx.protos.Protocol.ReasonCode;
 
+/**
+ * Downloads and applies the blocks of the peers which are ahead of us, in three stages.
+ *
+ * <p>The fetch stage requests the next ids of every idle syncing peer, each id from one peer
+ * only, so the ranges are downloaded from several peers at once. Every received block is then
+ * pre-verified on a worker pool: the witness signature and the transaction signatures are
+ * recovered into the caches which {@link org.sonicx.core.db.Manager} consults later. The apply
+ * stage pushes the blocks in chain order. Each stage is triggered by the event which makes work
+ * for it, the one second ticks only catch up on missed triggers.
+ */
 @Slf4j
 @Component
 public class SyncService {
@@ -53,11 +71,35 @@ public class SyncService {
   private ScheduledExecutorService blockHandleExecutor = Executors
       .newSingleThreadScheduledExecutor();
 
+  private ExecutorService blockVerifyExecutor = Executors.newFixedThreadPool(
+      Math.max(1, Args.getInstance().getValidateSignThreadNum()),
+      new ThreadFactoryBuilder().setNameFormat("sync-verify-%d").setDaemon(true).build());
+
+  private static final int MIN_BLOCK_FETCH_PER_PEER = 10;
+
+  // a request unanswered for this long counts as failed, the peer is disconnected at SYNC_TIME_OUT
+  private static final long FETCH_FAILURE_TIME = SYNC_TIME_OUT / 2;
+
+  private long lastTimeoutCheck = System.currentTimeMillis();
+
   private volatile boolean handleFlag = false;
 
-  @Setter
   private volatile boolean fetchFlag = false;
 
+  private final AtomicBoolean fetchScheduled = new AtomicBoolean();
+
+  private final AtomicBoolean handleScheduled = new AtomicBoolean();
+
+  private final AtomicLong fetchCount = new AtomicLong();
+
+  private final AtomicLong verifyCount = new AtomicLong();
+
+  private final AtomicLong applyCount = new AtomicLong();
+
+  private long[] lastCounts = new long[3];
+
+  private long lastStatTime = System.currentTimeMillis();
+
   public void init() {
     fetchExecutor.scheduleWithFixedDelay(() -> {
       try {
@@ -80,11 +122,62 @@ public class SyncService {
         logger.error("Handle sync block error.", t);
       }
     }, 10, 1, TimeUnit.SECONDS);
+
+    fetchExecutor.scheduleWithFixedDelay(() -> {
+      try {
+        logStageRates();
+      } catch (Throwable t) {
+        logger.error("Log sync rate error.", t);
+      }
+    }, 10, 10, TimeUnit.SECONDS);
+
+    fetchExecutor.scheduleWithFixedDelay(() -> {
+      try {
+        checkTimeout();
+      } catch (Throwable t) {
+        logger.error("Check sync timeout error.", t);
+      }
+    }, 1, 1, TimeUnit.SECONDS);
   }
 
   public void close() {
     fetchExecutor.shutdown();
     blockHandleExecutor.shutdown();
+    blockVerifyExecutor.shutdown();
+  }
+
+  public void setFetchFlag(boolean fetchFlag) {
+    this.fetchFlag = fetchFlag;
+    if (fetchFlag && fetchScheduled.compareAndSet(false, true)) {
+      fetchExecutor.execute(() -> {
+        fetchScheduled.set(false);
+        try {
+          if (this.fetchFlag) {
+            this.fetchFlag = false;
+            startFetchSyncBlock();
+          }
+        } catch (Throwable t) {
+          logger.error("Fetch sync block error.", t);
+        }
+      });
+    }
+  }
+
+  private void setHandleFlag() {
+    handleFlag = true;
+    if (handleScheduled.compareAndSet(false, true)) {
+      blockHandleExecutor.execute(() -> {
+        handleScheduled.set(false);
+        try {
+          if (handleFlag) {
+            handleFlag = false;
+            handleSyncBlock();
+          }
+        } catch (Throwable t) {
+          logger.error("Handle sync block error.", t);
+        }
+      });
+    }
   }
 
   public void startSync(PeerConnection peer) {
@@ -112,20 +205,70 @@ public class SyncService {
   }
 
   public void processBlock(PeerConnection peer, BlockMessage blockMessage) {
-    synchronized (blockJustReceived) {
-      blockJustReceived.put(blockMessage, peer);
-    }
-    handleFlag = true;
+    blockVerifyExecutor.execute(() -> {
+      preVerify(blockMessage.getBlockCapsule());
+      synchronized (blockJustReceived) {
+        blockJustReceived.put(blockMessage, peer);
+      }
+      setHandleFlag();
+    });
     if (peer.isIdle()) {
       if (peer.getRemainNum() > 0
           && peer.getSyncBlockToFetch().size() <= NodeConstant.SYNC_FETCH_BATCH_NUM) {
         syncNext(peer);
       } else {
-        fetchFlag = true;
+        setFetchFlag(true);
       }
     }
   }
 
+  /**
+   * Recovers the signers of the block and its transactions and checks the merkle root, the
+   * apply stage still validates them against the state and rejects the block if they do not
+   * match.
+   */
+  private void preVerify(BlockCapsule block) {
+    try {
+      block.recoverWitnessSigner();
+      block.isMerkleRootValid();
+      for (TransactionCapsule trx : block.getTransactions()) {
+        trx.recoverSigners();
+      }
+    } catch (Exception e) {
+      logger.debug("Pre-verify sync block {} failed: {}", block.getBlockId().getString(),
+          e.getMessage());
+    }
+    verifyCount.incrementAndGet();
+  }
+
+  private void logStageRates() {
+    long now = System.currentTimeMillis();
+    long[] counts = {fetchCount.get(), verifyCount.get(), applyCount.get()};
+    if (counts[0] == lastCounts[0] && counts[2] == lastCounts[2]) {
+      return;
+    }
+    double seconds = Math.max(1, now - lastStatTime) / 1000.0;
+    logger.info("Sync blocks/s, fetch: {}, verify: {}, apply: {}, wait to apply: {}",
+        String.format("%.1f", (counts[0] - lastCounts[0]) / seconds),
+        String.format("%.1f", (counts[1] - lastCounts[1]) / seconds),
+        String.format("%.1f", (counts[2] - lastCounts[2]) / seconds),
+        blockWaitToProcess.size() + blockJustReceived.size());
+    lastCounts = counts;
+    lastStatTime = now;
+  }
+
+  /**
+   * Records a failure in the performance of the syncing peers for each block request which became
+   * {@link #FETCH_FAILURE_TIME} old since the last check, so the next batches go to other peers.
+   */
+  private void checkTimeout() {
+    long now = System.currentTimeMillis();
+    sonicxNetDelegate.getActivePeer().forEach(peer -> peer.getNodeStatistics().performance
+        .onTimeouts(peer.getSyncBlockRequested().values(), lastTimeoutCheck - FETCH_FAILURE_TIME,
+            now - FETCH_FAILURE_TIME));
+    lastTimeoutCheck = now;
+  }
+
   public void onDisconnect(PeerConnection peer) {
     if (!peer.getSyncBlockRequested().isEmpty()) {
       peer.getSyncBlockRequested().keySet().forEach(blockId -> invalid(blockId));
@@ -134,7 +277,7 @@ public class SyncService {
 
   private void invalid(BlockId blockId) {
     requestBlockIds.invalidate(blockId);
-    fetchFlag = true;
+    setFetchFlag(true);
   }
 
   private LinkedList<BlockId> getBlockChainSummary(PeerConnection peer) throws Exception {
@@ -189,29 +332,45 @@ public class SyncService {
     return summary;
   }
 
+  /**
+   * Requests the next blocks from the idle syncing peers, fastest first, so a block which
+   * several peers can serve goes to the fastest of them. Slower peers get a batch smaller in
+   * proportion to their score, at least {@link #MIN_BLOCK_FETCH_PER_PEER}.
+   */
   private void startFetchSyncBlock() {
     HashMap<PeerConnection, List<BlockId>> send = new HashMap<>();
 
-    sonicxNetDelegate.getActivePeer().stream()
+    List<PeerConnection> peers = sonicxNetDelegate.getActivePeer().stream()
         .filter(peer -> peer.isNeedSyncFromPeer() && peer.isIdle())
-        .forEach(peer -> {
-          if (!send.containsKey(peer)) {
-            send.put(peer, new LinkedList<>());
-          }
-          for (BlockId blockId : peer.getSyncBlockToFetch()) {
-            if (requestBlockIds.getIfPresent(blockId) == null) {
-              requestBlockIds.put(blockId, System.currentTimeMillis());
-              peer.getSyncBlockRequested().put(blockId, System.currentTimeMillis());
-              send.get(peer).add(blockId);
-              if (send.get(peer).size() >= MAX_BLOCK_FETCH_PER_PEER) {
-                break;
-              }
-            }
+        .sorted(Comparator.comparingDouble(peer -> peer.getNodeStatistics().performance
+            .getScore()))
+        .collect(Collectors.toList());
+    if (peers.isEmpty()) {
+      return;
+    }
+
+    double bestScore = peers.get(0).getNodeStatistics().performance.getScore();
+    peers.forEach(peer -> {
+      double score = peer.getNodeStatistics().performance.getScore();
+      int limit = Math.max(MIN_BLOCK_FETCH_PER_PEER,
+          (int) (MAX_BLOCK_FETCH_PER_PEER * bestScore / score));
+      List<BlockId> blockIds = new LinkedList<>();
+      send.put(peer, blockIds);
+      for (BlockId blockId : peer.getSyncBlockToFetch()) {
+        if (requestBlockIds.getIfPresent(blockId) == null) {
+          requestBlockIds.put(blockId, System.currentTimeMillis());
+          peer.getSyncBlockRequested().put(blockId, System.currentTimeMillis());
+          blockIds.add(blockId);
+          if (blockIds.size() >= limit) {
+            break;
           }
-        });
+        }
+      }
+    });
 
     send.forEach((peer, blockIds) -> {
       if (!blockIds.isEmpty()) {
+        fetchCount.addAndGet(blockIds.size());
         peer.sendMessage(new FetchInvDataMessage(new LinkedList<>(blockIds), InventoryType.BLOCK));
       }
     });
@@ -260,6 +419,7 @@ public class SyncService {
     BlockId blockId = block.getBlockId();
     try {
       sonicxNetDelegate.processBlock(block);
+      applyCount.incrementAndGet();
     } catch (Exception e) {
       logger.error("Process sync block {} failed.", blockId.getString(), e);
       flag = false;
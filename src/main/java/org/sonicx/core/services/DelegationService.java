@@ -4,6 +4,7 @@ import com.google.protobuf.ByteString;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Collectors;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
@@ -15,6 +16,7 @@ import org.sonicx.core.capsule.WitnessCapsule;
 import org.sonicx.core.config.Parameter.ChainConstant;
 import org.sonicx.core.db.AccountStore;
 import org.sonicx.core.db.DelegationStore;
+import org.sonicx.core.db.DelegationStore.CycleRewards;
 import org.sonicx.core.db.DynamicPropertiesStore;
 import org.sonicx.core.db.Manager;
 import org.sonicx.core.exception.BalanceInsufficientException;
@@ -24,6 +26,8 @@ import org.sonicx.protos.Protocol.Vote;
 @Component
 public class DelegationService {
 
+  private static final int REWARD_BATCH_CYCLES = 100;
+
   @Setter
   private Manager manager;
 
@@ -98,7 +102,7 @@ public class DelegationService {
     if (beginCycle + 1 == endCycle && beginCycle < currentCycle) {
       AccountCapsule account = delegationStore.getAccountVote(beginCycle, address);
       if (account != null) {
-        reward = computeReward(beginCycle, account);
+        reward = computeReward(beginCycle, beginCycle + 1, account);
         adjustAllowance(address, reward);
         reward = 0;
         logger.info("latest cycle reward {},{}", beginCycle, account.getVotesList());
@@ -112,9 +116,7 @@ public class DelegationService {
       return;
     }
     if (beginCycle < endCycle) {
-      for (long cycle = beginCycle; cycle < endCycle; cycle++) {
-        reward += computeReward(cycle, accountCapsule);
-      }
+      reward += computeReward(beginCycle, endCycle, accountCapsule);
       adjustAllowance(address, reward);
     }
     delegationStore.setBeginCycle(address, endCycle);
@@ -147,7 +149,7 @@ public class DelegationService {
     if (beginCycle + 1 == endCycle && beginCycle < currentCycle) {
       AccountCapsule account = delegationStore.getAccountVote(beginCycle, address);
       if (account != null) {
-        reward = computeReward(beginCycle, account);
+        reward = computeReward(beginCycle, beginCycle + 1, account);
       }
       beginCycle += 1;
     }
@@ -157,19 +159,38 @@ public class DelegationService {
       return reward + accountCapsule.getAllowance();
     }
     if (beginCycle < endCycle) {
-      for (long cycle = beginCycle; cycle < endCycle; cycle++) {
-        reward += computeReward(cycle, accountCapsule);
-      }
+      reward += computeReward(beginCycle, endCycle, accountCapsule);
     }
     return reward + accountCapsule.getAllowance();
   }
 
-  private long computeReward(long cycle, AccountCapsule accountCapsule) {
+  /**
+   * Sums the reward of the cycles [beginCycle, endCycle), reading the rewards and votes of the
+   * voted witnesses in batches of {@link #REWARD_BATCH_CYCLES} cycles.
+   */
+  private long computeReward(long beginCycle, long endCycle, AccountCapsule accountCapsule) {
+    List<byte[]> srAddresses = accountCapsule.getVotesList().stream()
+        .map(vote -> vote.getVoteAddress().toByteArray())
+        .collect(Collectors.toList());
+    long reward = 0;
+    for (long from = beginCycle; from < endCycle; from += REWARD_BATCH_CYCLES) {
+      long to = Math.min(from + REWARD_BATCH_CYCLES, endCycle);
+      CycleRewards cycleRewards = manager.getDelegationStore()
+          .getCycleRewards(from, to, srAddresses);
+      for (long cycle = from; cycle < to; cycle++) {
+        reward += computeReward(cycle, accountCapsule, cycleRewards);
+      }
+    }
+    return reward;
+  }
+
+  private long computeReward(long cycle, AccountCapsule accountCapsule,
+      CycleRewards cycleRewards) {
     long reward = 0;
     for (Vote vote : accountCapsule.getVotesList()) {
       byte[] srAddress = vote.getVoteAddress().toByteArray();
-      long totalReward = manager.getDelegationStore().getReward(cycle, srAddress);
-      long totalVote = manager.getDelegationStore().getWitnessVote(cycle, srAddress);
+      long totalReward = cycleRewards.getReward(cycle, srAddress);
+      long totalVote = cycleRewards.getWitnessVote(cycle, srAddress);
       if (totalVote == DelegationStore.REMARK || totalVote == 0) {
         continue;
       }
@@ -22,10 +22,13 @@ import org.sonicx.common.entity.NodeInfo.MachineInfo.DeadLockThreadInfo;
 import org.sonicx.common.entity.NodeInfo.MachineInfo.MemoryDescInfo;
 import org.sonicx.common.entity.PeerInfo;
 import org.sonicx.common.overlay.discover.node.NodeManager;
+import org.sonicx.common.overlay.discover.node.statistics.PeerPerformance;
 import org.sonicx.common.overlay.server.SyncPool;
 import org.sonicx.core.config.args.Args;
 import org.sonicx.core.db.Manager;
+import org.sonicx.core.net.peer.KnownInventory;
 import org.sonicx.core.net.peer.PeerConnection;
+import org.sonicx.core.net.service.AdvService;
 import org.sonicx.core.services.WitnessProductBlockService.CheatWitnessInfo;
 import org.sonicx.program.Version;
 import org.sonicx.protos.Protocol.ReasonCode;
@@ -52,6 +55,9 @@ public class NodeInfoService {
   @Autowired
   private WitnessProductBlockService witnessProductBlockService;
 
+  @Autowired
+  private AdvService advService;
+
   public NodeInfo getNodeInfo() {
     NodeInfo nodeInfo = new NodeInfo();
     setConnectInfo(nodeInfo);
@@ -155,11 +161,27 @@ public class NodeInfoService {
       peerInfo.setSyncToFetchSizePeekNum(peerConnection.getSyncBlockToFetch().size() > 0
           ? peerConnection.getSyncBlockToFetch().peek().getNum() : -1);
       peerInfo.setUnFetchSynNum(peerConnection.getRemainNum());
+      PeerPerformance performance = peerConnection.getNodeStatistics().performance;
+      peerInfo.setRtt(performance.getRtt());
+      peerInfo.setFetchLatency(performance.getFetchLatency());
+      peerInfo.setBlocksPerSecond(performance.getBlocksPerSecond());
+      peerInfo.setFailureRate(performance.getFailureRate());
+      peerInfo.setInvFreshness(performance.getInvFreshness());
+      peerInfo.setPerformanceScore(performance.getScore());
+      KnownInventory knownInventory = peerConnection.getKnownInventory();
+      peerInfo.setKnownInvSize(knownInventory.getSize());
+      peerInfo.setKnownInvHeapSize(knownInventory.getHeapSize());
+      peerInfo.setKnownInvFpp(knownInventory.getExpectedFpp());
+      peerInfo.setKnownInvHits(knownInventory.getHits());
+      peerInfo.setKnownInvLookups(knownInventory.getLookups());
+      peerInfo.setKnownInvRotations(knownInventory.getRotations());
       totalFlow += peerConnection.getNodeStatistics().tcpFlow.getTotalCount();
       peerInfoList.add(peerInfo);
     }
     nodeInfo.setPeerList(peerInfoList);
     nodeInfo.setTotalFlow(totalFlow);
+    nodeInfo.setSpreadInterval(advService.getSpreadInterval());
+    nodeInfo.setSpreadQueueSize(advService.getSpreadQueueSize());
   }
 
   private void setConfigNodeInfo(NodeInfo nodeInfo) {
@@ -0,0 +1,41 @@
+package org.sonicx.common.overlay.discover.node;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.spongycastle.util.encoders.Hex;
+
+public class NodeRecordTest {
+
+  private static final long DAY = 24 * 60 * 60 * 1000L;
+
+  private Node node = new Node(Hex.decode(
+      "0102030405060708091011121314151617181920212223242526272829303132"
+          + "3334353637383940414243444546474849505152535455565758596061626364"),
+      "10.0.0.1", 18888, 18888);
+
+  @Test
+  public void testEncodeDecode() {
+    NodeRecord record = new NodeRecord(node, 2, 150, 1_000_000L, 12, 3);
+    NodeRecord decoded = NodeRecord.decode(record.encode());
+    Assert.assertEquals(record, decoded);
+    Assert.assertEquals(node.getHexId(), decoded.getNode().getHexId());
+    Assert.assertEquals(18888, decoded.getNode().getPort());
+
+    Assert.assertNull(NodeRecord.decode("garbage".getBytes()));
+    Assert.assertNull(NodeRecord.decode((node.getEnodeURL() + "&x&1&1&1&1").getBytes()));
+  }
+
+  @Test
+  public void testReliability() {
+    long now = 10 * DAY;
+    Assert.assertEquals(0.5, new NodeRecord(node, 1, 0, now, 0, 0).getReliability(now), 1e-9);
+
+    NodeRecord good = new NodeRecord(node, 1, 0, now, 8, 0);
+    NodeRecord flaky = new NodeRecord(node, 1, 0, now, 8, 8);
+    Assert.assertEquals(0.9, good.getReliability(now), 1e-9);
+    Assert.assertTrue(flaky.getReliability(now) < good.getReliability(now));
+
+    // halved for every day the node was not seen
+    Assert.assertEquals(0.45, good.getReliability(now + DAY), 1e-9);
+  }
+}
@@ -0,0 +1,69 @@
+package org.sonicx.common.overlay.discover.node.statistics;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PeerPerformanceTest {
+
+  @Test
+  public void testScore() {
+    PeerPerformance unknown = new PeerPerformance();
+    PeerPerformance fast = new PeerPerformance();
+    PeerPerformance slow = new PeerPerformance();
+    for (int i = 0; i < 20; i++) {
+      fast.onFetched(50, true);
+      slow.onFetched(400, true);
+    }
+    Assert.assertEquals(50, fast.getFetchLatency(), 1e-9);
+    Assert.assertTrue(fast.getScore() < slow.getScore());
+    Assert.assertTrue(slow.getScore() < unknown.getScore());
+    Assert.assertEquals(2.0, fast.getBlocksPerSecond(), 1e-9);
+
+    // the round trip time stands in until a fetch is measured
+    unknown.onRoundtrip(100);
+    Assert.assertEquals(100, unknown.getScore(), 1e-9);
+  }
+
+  @Test
+  public void testFailuresAndFreshness() {
+    PeerPerformance performance = new PeerPerformance();
+    performance.onFetched(100, false);
+    double score = performance.getScore();
+
+    performance.onFailure();
+    Assert.assertTrue(performance.getFailureRate() > 0);
+    Assert.assertTrue(performance.getScore() > score);
+    for (int i = 0; i < 100; i++) {
+      performance.onFetched(100, false);
+    }
+    Assert.assertEquals(score, performance.getScore(), 1);
+
+    for (int i = 0; i < 100; i++) {
+      performance.onInventory(true);
+    }
+    Assert.assertTrue(performance.getInvFreshness() > 0.99);
+    Assert.assertTrue(performance.getScore() < score * 0.51);
+  }
+
+  @Test
+  public void testTimeouts() {
+    PeerPerformance performance = new PeerPerformance();
+    List<Long> requestTimes = Arrays.asList(100L, 200L, 300L);
+
+    // consecutive windows count every request once
+    performance.onTimeouts(requestTimes, 0, 150);
+    double failureRate = performance.getFailureRate();
+    Assert.assertTrue(failureRate > 0);
+    performance.onTimeouts(requestTimes, 150, 150);
+    Assert.assertEquals(failureRate, performance.getFailureRate(), 1e-9);
+
+    performance.onTimeouts(requestTimes, 150, 300);
+    PeerPerformance expected = new PeerPerformance();
+    for (int i = 0; i < 3; i++) {
+      expected.onFailure();
+    }
+    Assert.assertEquals(expected.getFailureRate(), performance.getFailureRate(), 1e-9);
+  }
+}
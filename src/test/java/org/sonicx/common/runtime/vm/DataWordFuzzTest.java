@@ -0,0 +1,208 @@
+package org.sonicx.common.runtime.vm;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import org.junit.Assert;
+import org.junit.Test;
+import org.sonicx.common.utils.ByteUtil;
+
+/**
+ * Checks the {@link UInt256} backed arithmetic of {@link DataWord} against the {@link BigInteger}
+ * expressions it used before, on random and edge case operands.
+ */
+public class DataWordFuzzTest {
+
+  private static final int ROUNDS = 20_000;
+  private static final BigInteger MAX = DataWord.MAX_VALUE;
+  private static final BigInteger[] EDGES = {
+      BigInteger.ZERO,
+      BigInteger.ONE,
+      BigInteger.valueOf(2),
+      BigInteger.valueOf(255),
+      BigInteger.valueOf(256),
+      BigInteger.ONE.shiftLeft(32),
+      BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE),
+      BigInteger.ONE.shiftLeft(64),
+      BigInteger.ONE.shiftLeft(128),
+      BigInteger.ONE.shiftLeft(255),
+      BigInteger.ONE.shiftLeft(255).subtract(BigInteger.ONE),
+      MAX,
+      MAX.subtract(BigInteger.ONE)
+  };
+
+  private final Random random = new Random(0x5eed);
+
+  private BigInteger next() {
+    switch (random.nextInt(6)) {
+      case 0:
+        return EDGES[random.nextInt(EDGES.length)];
+      case 1:
+        return BigInteger.valueOf(random.nextInt(1 << 16));
+      case 2:
+        return new BigInteger(64, random);
+      case 3:
+        return new BigInteger(1 + random.nextInt(256), random);
+      default:
+        return new BigInteger(256, random);
+    }
+  }
+
+  private static DataWord word(BigInteger value) {
+    return new DataWord(ByteUtil.copyToArray(value.and(MAX)));
+  }
+
+  private static BigInteger signed(BigInteger value) {
+    return new DataWord(ByteUtil.copyToArray(value)).sValue();
+  }
+
+  private void check(String name, BiConsumer<DataWord, DataWord> op,
+      BinaryOperator<BigInteger> expected) {
+    for (int i = 0; i < ROUNDS; i++) {
+      BigInteger a = next();
+      BigInteger b = next();
+      DataWord actual = word(a);
+      op.accept(actual, word(b));
+      Assert.assertEquals(name + "(" + a.toString(16) + ", " + b.toString(16) + ")",
+          expected.apply(a, b).and(MAX), actual.value());
+    }
+  }
+
+  @Test
+  public void testAddSubMul() {
+    check("add", DataWord::add, BigInteger::add);
+    check("sub", DataWord::sub, BigInteger::subtract);
+    check("mul", DataWord::mul, BigInteger::multiply);
+  }
+
+  @Test
+  public void testDivMod() {
+    check("div", DataWord::div, (a, b) -> b.signum() == 0 ? BigInteger.ZERO : a.divide(b));
+    check("mod", DataWord::mod, (a, b) -> b.signum() == 0 ? BigInteger.ZERO : a.mod(b));
+    check("sDiv", DataWord::sDiv, (a, b) -> b.signum() == 0 ? BigInteger.ZERO
+        : signed(a).divide(signed(b)));
+    check("sMod", DataWord::sMod, (a, b) -> {
+      if (b.signum() == 0) {
+        return BigInteger.ZERO;
+      }
+      BigInteger result = signed(a).abs().mod(signed(b).abs());
+      return signed(a).signum() == -1 ? result.negate() : result;
+    });
+  }
+
+  @Test
+  public void testExp() {
+    check("exp", DataWord::exp, (a, b) -> a.modPow(b, DataWord._2_256));
+  }
+
+  @Test
+  public void testAddmod() {
+    for (int i = 0; i < ROUNDS; i++) {
+      BigInteger a = next();
+      BigInteger b = next();
+      BigInteger m = next();
+      DataWord actual = word(a);
+      actual.addmod(word(b), word(m));
+      Assert.assertEquals(m.signum() == 0 ? BigInteger.ZERO : a.add(b).mod(m), actual.value());
+    }
+  }
+
+  @Test
+  public void testNotNegateSignExtend() {
+    for (int i = 0; i < ROUNDS; i++) {
+      BigInteger a = next();
+      DataWord not = word(a);
+      not.bnot();
+      Assert.assertEquals(MAX.subtract(a), not.value());
+
+      DataWord negate = word(a);
+      negate.negate();
+      Assert.assertEquals(a.negate().and(MAX), negate.value());
+
+      byte k = (byte) random.nextInt(32);
+      DataWord extended = word(a);
+      extended.signExtend(k);
+      BigInteger low = a.and(BigInteger.ONE.shiftLeft(k * 8 + 8).subtract(BigInteger.ONE));
+      BigInteger expected = a.testBit(k * 8 + 7)
+          ? low.or(MAX.shiftLeft(k * 8 + 8).and(MAX)) : low;
+      Assert.assertEquals(expected, extended.value());
+    }
+  }
+
+  @Test
+  public void testShifts() {
+    for (int i = 0; i < ROUNDS; i++) {
+      BigInteger a = next();
+      BigInteger n = random.nextBoolean() ? BigInteger.valueOf(random.nextInt(300)) : next();
+      boolean outOfRange = n.compareTo(BigInteger.valueOf(DataWord.MAX_POW)) >= 0;
+
+      Assert.assertEquals(outOfRange ? BigInteger.ZERO : a.shiftLeft(n.intValue()).and(MAX),
+          word(a).shiftLeft(word(n)).value());
+      Assert.assertEquals(outOfRange ? BigInteger.ZERO : a.shiftRight(n.intValue()),
+          word(a).shiftRight(word(n)).value());
+      BigInteger sar = outOfRange ? (signed(a).signum() < 0 ? MAX : BigInteger.ZERO)
+          : signed(a).shiftRight(n.intValue()).and(MAX);
+      Assert.assertEquals(sar, word(a).shiftRightSigned(word(n)).value());
+    }
+  }
+
+  @Test
+  public void testOperandIsResult() {
+    BigInteger a = new BigInteger(256, random);
+    DataWord word = word(a);
+    word.mul(word);
+    Assert.assertEquals(a.multiply(a).and(MAX), word.value());
+
+    DataWord shared = word(a);
+    byte[] before = shared.getData();
+    shared.add(DataWord.ONE());
+    Assert.assertEquals(a, new BigInteger(1, before));
+  }
+
+  @Test
+  public void testCompare() {
+    for (int i = 0; i < ROUNDS; i++) {
+      BigInteger a = next();
+      BigInteger b = next();
+      // a result keeps its limbs, the operand has bytes only
+      DataWord limbs = word(a);
+      limbs.add(DataWord.ZERO());
+      Assert.assertEquals(a.compareTo(b), limbs.compareTo(word(b)));
+      Assert.assertEquals(a.compareTo(b), word(a).compareTo(word(b)));
+      Assert.assertEquals(signed(a).compareTo(signed(b)), limbs.sCompareTo(word(b)));
+      Assert.assertEquals(a.equals(b), limbs.equals(word(b)));
+    }
+  }
+
+  @Test
+  public void testChainedResults() {
+    for (int i = 0; i < ROUNDS; i++) {
+      BigInteger a = next();
+      BigInteger b = next();
+      BigInteger c = next();
+      DataWord word = word(a);
+      word.mul(word(b));
+      word.add(word(c));
+      BigInteger expected = a.multiply(b).add(c).and(MAX);
+      Assert.assertEquals(expected, word.clone().value());
+      Assert.assertEquals(expected.longValue(), word.longValue());
+      Assert.assertEquals((expected.bitLength() + 7) / 8, word.bytesOccupied());
+
+      // a write into the bytes is seen by the next arithmetic
+      word.getData()[31] ^= 1;
+      word.sub(word(c));
+      Assert.assertEquals(expected.xor(BigInteger.ONE).subtract(c).and(MAX), word.value());
+
+      word.setBoolean(word.isZero());
+      Assert.assertEquals(expected.xor(BigInteger.ONE).equals(c) ? 1 : 0, word.intValue());
+    }
+  }
+
+  @Test
+  public void testShortData() {
+    DataWord empty = new DataWord((byte[]) null);
+    empty.add(DataWord.ONE());
+    Assert.assertEquals(BigInteger.ONE, empty.value());
+  }
+}
@@ -0,0 +1,87 @@
+package org.sonicx.common.runtime.vm.program;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.sonicx.core.capsule.StorageRowCapsule;
+
+public class StorageSlotCacheTest {
+
+  private static final byte[] ROW_KEY = new byte[32];
+  private static final byte[] VALUE = new byte[]{1, 2, 3};
+
+  private StorageSlotCache cache = new StorageSlotCache();
+  private AtomicInteger loads = new AtomicInteger();
+
+  private Function<byte[], StorageRowCapsule> loader(byte[] value) {
+    return rowKey -> {
+      loads.incrementAndGet();
+      StorageRowCapsule row = new StorageRowCapsule(value);
+      row.setRowKey(rowKey);
+      return row;
+    };
+  }
+
+  @After
+  public void destroy() {
+    cache.end();
+  }
+
+  @Test
+  public void testReadOncePerBlock() {
+    cache.begin();
+    Assert.assertArrayEquals(VALUE, cache.get(ROW_KEY, loader(VALUE)).getRowValue());
+    StorageRowCapsule row = cache.get(ROW_KEY, loader(VALUE));
+    Assert.assertArrayEquals(VALUE, row.getRowValue());
+    Assert.assertFalse(row.isDirty());
+    Assert.assertEquals(1, loads.get());
+    Assert.assertEquals(1, cache.getHitCount().get());
+
+    // absent rows are cached too
+    byte[] other = new byte[32];
+    other[0] = 1;
+    Assert.assertNull(cache.get(other, loader(null)));
+    Assert.assertNull(cache.get(other, loader(null)));
+    Assert.assertEquals(2, loads.get());
+
+    cache.end();
+    cache.begin();
+    cache.get(ROW_KEY, loader(VALUE));
+    Assert.assertEquals(3, loads.get());
+  }
+
+  @Test
+  public void testWriteThroughAndInvalidate() {
+    cache.begin();
+    cache.get(ROW_KEY, loader(VALUE));
+    cache.put(ROW_KEY, new byte[]{4});
+    Assert.assertArrayEquals(new byte[]{4}, cache.get(ROW_KEY, loader(VALUE)).getRowValue());
+    cache.put(ROW_KEY, null);
+    Assert.assertNull(cache.get(ROW_KEY, loader(VALUE)));
+    Assert.assertEquals(1, loads.get());
+
+    // a revoked session drops everything written through
+    cache.invalidate();
+    Assert.assertArrayEquals(VALUE, cache.get(ROW_KEY, loader(VALUE)).getRowValue());
+    Assert.assertEquals(2, loads.get());
+  }
+
+  @Test
+  public void testOtherThreadsBypass() throws Exception {
+    cache.begin();
+    cache.get(ROW_KEY, loader(VALUE));
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      executor.submit(() -> cache.get(ROW_KEY, loader(VALUE))).get();
+    } finally {
+      executor.shutdown();
+    }
+    Assert.assertEquals(2, loads.get());
+    Assert.assertEquals(0, cache.getHitCount().get());
+  }
+}
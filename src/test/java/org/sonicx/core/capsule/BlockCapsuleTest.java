@@ -7,6 +7,7 @@ import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.sonicx.common.crypto.ECKey;
 import org.sonicx.common.utils.ByteArray;
 import org.sonicx.common.utils.FileUtil;
 import org.sonicx.common.utils.Sha256Hash;
@@ -128,6 +129,39 @@ public class BlockCapsuleTest {
     Assert.assertTrue(blockCapsule0.hasWitnessSignature());
   }
 
+  @Test
+  public void testRecoverWitnessSigner() throws Exception {
+    BlockCapsule block = new BlockCapsule(2, Sha256Hash.ZERO_HASH, 1234,
+        ByteString.copyFrom("1234567".getBytes()));
+    byte[] privateKey = ByteArray.fromHexString(
+        Args.getInstance().getLocalWitnesses().getPrivateKey());
+    byte[] address = ECKey.fromPrivate(privateKey).getAddress();
+
+    block.sign(privateKey);
+    Assert.assertArrayEquals(address, block.recoverWitnessSigner());
+
+    // signing again replaces the header and the recovered signer
+    ECKey other = new ECKey();
+    block.sign(other.getPrivKeyBytes());
+    Assert.assertArrayEquals(other.getAddress(), block.recoverWitnessSigner());
+  }
+
+  @Test
+  public void testMerkleRootValid() {
+    BlockCapsule block = new BlockCapsule(2, Sha256Hash.ZERO_HASH, 1234,
+        ByteString.copyFrom("1234567".getBytes()));
+    TransferContract transferContract = TransferContract.newBuilder()
+        .setAmount(1L)
+        .setOwnerAddress(ByteString.copyFrom("0x0000000000000000000".getBytes()))
+        .build();
+    block.addTransaction(new TransactionCapsule(transferContract, ContractType.TransferContract));
+    Assert.assertFalse(block.isMerkleRootValid());
+
+    // setting the root replaces the block and the cached result
+    block.setMerkleRoot();
+    Assert.assertTrue(block.isMerkleRootValid());
+  }
+
   @Test
   public void testGetTimeStamp() {
     Assert.assertEquals(1234L, blockCapsule0.getTimeStamp());
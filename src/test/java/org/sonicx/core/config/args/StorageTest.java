@@ -22,6 +22,7 @@ import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.Test;
 
+import org.sonicx.common.storage.StorageProfile;
 import org.sonicx.common.utils.FileUtil;
 import org.sonicx.core.Constant;
 
@@ -86,4 +87,28 @@ public class StorageTest {
     Assert.assertEquals(100, options.maxOpenFiles());
   }
 
+  @Test
+  public void getProfile() {
+    Assert.assertEquals(16 * 1024 * 1024L, storage.getBlockCacheSize());
+    Assert.assertEquals(StorageProfile.POINT_LOOKUP,
+        storage.getProfileByDbName("storage-row").getName());
+    Assert.assertEquals(StorageProfile.DEFAULT,
+        storage.getProfileByDbName("some_name_not_exists").getName());
+
+    StorageProfile append = storage.getProfileByDbName("transactionRetStore");
+    Assert.assertEquals(StorageProfile.APPEND, append.getName());
+    Assert.assertEquals(32768, append.getBlockSize());
+    Assert.assertEquals(8 * 1024 * 1024L, append.getCacheSize());
+    Assert.assertFalse(append.isCompressed());
+
+    StorageProfile custom = storage.getProfileByDbName("test_profile_db");
+    Assert.assertEquals("test_profile", custom.getName());
+    Assert.assertEquals(0, custom.getBloomBitsPerKey());
+    Assert.assertSame(custom, storage.getProfileByDbName("block"));
+
+    Options options = storage.getOptionsByDbName("transactionRetStore");
+    Assert.assertEquals(CompressionType.NONE, options.compressionType());
+    Assert.assertEquals(32768, options.blockSize());
+    Assert.assertEquals(6L, storage.getOptionsByDbName("block").cacheSize());
+  }
 }
@@ -1,13 +1,19 @@
 package org.sonicx.core.db;
 
+import com.google.protobuf.ByteString;
 import java.io.File;
+import java.util.List;
+import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
-import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.sonicx.common.application.SonicxApplicationContext;
 import org.sonicx.common.utils.FileUtil;
+import org.sonicx.common.utils.Sha256Hash;
 import org.sonicx.core.Constant;
+import org.sonicx.core.capsule.BlockCapsule;
 import org.sonicx.core.config.DefaultConfig;
 import org.sonicx.core.config.args.Args;
 
@@ -29,8 +35,8 @@ public class BlockStoreTest {
     blockStore = context.getBean(BlockStore.class);
   }
 
-  @After
-  public void destroy() {
+  @AfterClass
+  public static void destroy() {
     Args.clearParam();
     context.destroy();
     FileUtil.deleteDir(new File(dbPath));
@@ -39,4 +45,46 @@ public class BlockStoreTest {
   @Test
   public void testCreateBlockStore() {
   }
+
+  @Test
+  public void testGetEncodedLimitNumber() {
+    Sha256Hash parent = Sha256Hash.ZERO_HASH;
+    for (long num = 1; num <= 5; num++) {
+      BlockCapsule block = new BlockCapsule(num, parent, num * 3000, ByteString.EMPTY);
+      blockStore.put(block.getBlockId().getBytes(), block);
+      parent = block.getBlockId();
+    }
+    BlockCapsule fork = new BlockCapsule(3, Sha256Hash.ZERO_HASH, 1, ByteString.EMPTY);
+    blockStore.put(fork.getBlockId().getBytes(), fork);
+
+    Set<byte[]> blocks = blockStore.getEncodedLimitNumber(2, 3);
+    Assert.assertEquals(3, blocks.size());
+    Assert.assertEquals(6, blockStore.getEncodedLimitNumber(1, 10).size());
+  }
+
+  @Test
+  public void testOrderedReads() {
+    Sha256Hash parent = Sha256Hash.ZERO_HASH;
+    BlockCapsule block = null;
+    for (long num = 101; num <= 110; num++) {
+      block = new BlockCapsule(num, parent, num * 3000, ByteString.EMPTY);
+      blockStore.put(block.getBlockId().getBytes(), block);
+      parent = block.getBlockId();
+    }
+
+    List<BlockCapsule> latest = blockStore.getBlockByLatestNum(3);
+    Assert.assertEquals(3, latest.size());
+    Assert.assertEquals(108, latest.get(0).getNum());
+    Assert.assertEquals(110, latest.get(2).getNum());
+
+    List<BlockCapsule> next = blockStore.getLimitNumber(104, 4);
+    Assert.assertEquals(4, next.size());
+    for (int i = 0; i < next.size(); i++) {
+      Assert.assertEquals(104 + i, next.get(i).getNum());
+    }
+
+    Assert.assertSame(block, blockStore.getHead(block.getBlockId()));
+    Assert.assertEquals(latest.get(0).getBlockId(),
+        blockStore.getHead(latest.get(0).getBlockId()).getBlockId());
+  }
 }
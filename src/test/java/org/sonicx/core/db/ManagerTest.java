@@ -496,6 +496,42 @@ public class ManagerTest {
             .getBlockId());
   }
 
+  @Test
+  public void evictedPendingTransactionCanBeAdmittedAgain() throws Exception {
+    ECKey ownerKey = new ECKey(Utils.getRandom());
+    byte[] owner = ownerKey.getAddress();
+    byte[] to = new ECKey(Utils.getRandom()).getAddress();
+    dbManager.getAccountStore().put(owner, new AccountCapsule(Account.newBuilder()
+        .setAddress(ByteString.copyFrom(owner)).setBalance(1_000_000_000L).build()));
+    dbManager.getAccountStore().put(to, new AccountCapsule(Account.newBuilder()
+        .setAddress(ByteString.copyFrom(to)).build()));
+
+    TransactionCapsule trx = new TransactionCapsule(TransferContract.newBuilder()
+        .setOwnerAddress(ByteString.copyFrom(owner))
+        .setToAddress(ByteString.copyFrom(to))
+        .setAmount(100)
+        .build(), ContractType.TransferContract);
+    dbManager.setBlockReference(trx);
+    trx.setExpiration(dbManager.getHeadBlockTimeStamp() + 60_000);
+    trx.sign(ownerKey.getPrivKeyBytes());
+    byte[] id = trx.getTransactionId().getBytes();
+
+    dbManager.pushTransaction(trx);
+    Assert.assertEquals(1, dbManager.getPendingPool().getPendingSize());
+    Assert.assertEquals(100, dbManager.getAccountStore().get(to).getBalance());
+
+    Assert.assertTrue(dbManager.evictPending(
+        () -> dbManager.getPendingPool().evictExpired(Long.MAX_VALUE) > 0));
+    Assert.assertEquals(0, dbManager.getPendingPool().size());
+    // nothing of the evicted transaction is left in the pending session
+    Assert.assertEquals(0, dbManager.getAccountStore().get(to).getBalance());
+    Assert.assertFalse(dbManager.getTransactionStore().has(id));
+
+    dbManager.pushTransaction(trx);
+    Assert.assertEquals(1, dbManager.getPendingPool().getPendingSize());
+    Assert.assertEquals(100, dbManager.getAccountStore().get(to).getBalance());
+  }
+
   private Map<ByteString, String> addTestWitnessAndAccount() {
     dbManager.getWitnesses().clear();
     return IntStream.range(0, 2)
@@ -0,0 +1,111 @@
+package org.sonicx.core.db;
+
+import com.google.common.collect.Lists;
+import com.google.protobuf.ByteString;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.sonicx.core.capsule.TransactionCapsule;
+import org.sonicx.protos.Contract.TransferContract;
+import org.sonicx.protos.Protocol.Transaction;
+import org.sonicx.protos.Protocol.Transaction.Contract.ContractType;
+
+public class PendingPoolTest {
+
+  private static TransactionCapsule transfer(int from, long amount) {
+    return transfer(from, amount, 0, Long.MAX_VALUE);
+  }
+
+  private static TransactionCapsule transfer(int from, long amount, long feeLimit,
+      long expiration) {
+    Transaction trx = new TransactionCapsule(TransferContract.newBuilder()
+        .setOwnerAddress(ByteString.copyFrom(new byte[]{0x41, (byte) from}))
+        .setToAddress(ByteString.copyFrom(new byte[]{0x41, 0}))
+        .setAmount(amount)
+        .build(), ContractType.TransferContract).getInstance();
+    return new TransactionCapsule(trx.toBuilder().setRawData(trx.getRawData().toBuilder()
+        .setFeeLimit(feeLimit)
+        .setExpiration(expiration)).build());
+  }
+
+  @Test
+  public void testSnapshotIsStable() {
+    PendingPool pool = new PendingPool();
+    TransactionCapsule first = transfer(1, 1);
+    TransactionCapsule second = transfer(2, 1);
+    pool.addPending(first);
+
+    List<TransactionCapsule> snapshot = pool.snapshotPending();
+    pool.addPending(second);
+    Assert.assertEquals(Lists.newArrayList(first), snapshot);
+    Assert.assertEquals(2, pool.getPendingSize());
+
+    pool.removePending(snapshot);
+    Assert.assertEquals(Lists.newArrayList(second), pool.snapshotPending());
+  }
+
+  @Test
+  public void testDrain() throws InterruptedException {
+    PendingPool pool = new PendingPool();
+    pool.addPending(transfer(1, 1));
+    pool.addPending(transfer(1, 2));
+    pool.addPopped(Lists.newArrayList(transfer(3, 1)));
+    pool.getRepush().put(transfer(4, 1));
+    Assert.assertEquals(3, pool.size());
+
+    Assert.assertEquals(2, pool.drainPending().size());
+    Assert.assertEquals(1, pool.drainPopped().size());
+    Assert.assertEquals(0, pool.drainPopped().size());
+    Assert.assertEquals(1, pool.size());
+  }
+
+  @Test
+  public void testAdmissionLockPerOwner() {
+    PendingPool pool = new PendingPool();
+    Assert.assertSame(pool.getAdmissionLock(transfer(1, 1)),
+        pool.getAdmissionLock(transfer(1, 2)));
+  }
+
+  @Test
+  public void testFeeLimitOrderKeepsOwnerOrder() {
+    PendingPool pool = new PendingPool();
+    TransactionCapsule low = transfer(1, 1, 10, Long.MAX_VALUE);
+    TransactionCapsule lowNext = transfer(1, 2, 1_000, Long.MAX_VALUE);
+    TransactionCapsule high = transfer(2, 1, 100, Long.MAX_VALUE);
+    TransactionCapsule free = transfer(3, 1, 0, Long.MAX_VALUE);
+    pool.addPending(free);
+    pool.addPending(low);
+    pool.addPending(lowNext);
+    pool.addPending(high);
+
+    // lowNext has the highest fee limit but waits for low of the same owner
+    Assert.assertEquals(Lists.newArrayList(high, low, lowNext, free), pool.snapshotPending());
+    Assert.assertEquals(Lists.newArrayList(free, low, lowNext, high), pool.drainPending());
+  }
+
+  @Test
+  public void testEvictExpired() {
+    PendingPool pool = new PendingPool();
+    TransactionCapsule live = transfer(1, 1, 0, 3_000);
+    pool.addPending(transfer(2, 1, 0, 1_000));
+    pool.addPending(live);
+    pool.addPending(transfer(3, 1, 0, 2_000));
+
+    Assert.assertEquals(2, pool.evictExpired(2_000));
+    Assert.assertEquals(Lists.newArrayList(live), pool.snapshotPending());
+  }
+
+  @Test
+  public void testEvictFor() {
+    PendingPool pool = new PendingPool();
+    TransactionCapsule first = transfer(1, 1, 10, Long.MAX_VALUE);
+    TransactionCapsule second = transfer(1, 2, 50, Long.MAX_VALUE);
+    pool.addPending(first);
+    pool.addPending(second);
+
+    Assert.assertFalse(pool.evictFor(transfer(2, 1, 10, Long.MAX_VALUE)));
+    // first has the lowest fee limit, but second of the same owner depends on it
+    Assert.assertTrue(pool.evictFor(transfer(2, 1, 100, Long.MAX_VALUE)));
+    Assert.assertEquals(Lists.newArrayList(first), pool.snapshotPending());
+  }
+}
@@ -0,0 +1,43 @@
+package org.sonicx.core.db;
+
+import com.google.protobuf.ByteString;
+import java.security.SignatureException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.sonicx.common.crypto.ECKey;
+import org.sonicx.common.utils.Sha256Hash;
+
+public class SignatureCacheTest {
+
+  private static final byte[] HASH = Sha256Hash.of("transaction".getBytes()).getBytes();
+
+  private static ByteString sign(ECKey key) {
+    return ByteString.copyFrom(key.sign(HASH).toByteArray());
+  }
+
+  @Test
+  public void testRecoverOnce() throws SignatureException {
+    SignatureCache cache = new SignatureCache(16);
+    ECKey key = new ECKey();
+    ByteString sig = sign(key);
+
+    Assert.assertArrayEquals(key.getAddress(), cache.recover(HASH, 0, sig));
+    Assert.assertArrayEquals(key.getAddress(), cache.recover(HASH, 0, sig));
+    Assert.assertEquals(1, cache.getMissCount().get());
+    Assert.assertEquals(1, cache.getHitCount().get());
+    Assert.assertEquals(0.5, cache.getHitRate(), 0);
+  }
+
+  @Test
+  public void testOtherSignatureSameIndex() throws SignatureException {
+    SignatureCache cache = new SignatureCache(16);
+    ECKey first = new ECKey();
+    ECKey second = new ECKey();
+
+    Assert.assertArrayEquals(first.getAddress(), cache.recover(HASH, 0, sign(first)));
+    // same transaction id, different signatures
+    Assert.assertArrayEquals(second.getAddress(), cache.recover(HASH, 0, sign(second)));
+    Assert.assertEquals(2, cache.getMissCount().get());
+    Assert.assertEquals(0, cache.getHitCount().get());
+  }
+}
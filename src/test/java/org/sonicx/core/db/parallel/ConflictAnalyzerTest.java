@@ -0,0 +1,71 @@
+package org.sonicx.core.db.parallel;
+
+import com.google.common.collect.Lists;
+import com.google.protobuf.ByteString;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Test;
+import org.sonicx.core.capsule.TransactionCapsule;
+import org.sonicx.protos.Contract.TransferContract;
+import org.sonicx.protos.Contract.WitnessUpdateContract;
+import org.sonicx.protos.Protocol.Transaction.Contract.ContractType;
+
+public class ConflictAnalyzerTest {
+
+  private static ByteString address(int i) {
+    return ByteString.copyFrom(new byte[]{0x41, (byte) i});
+  }
+
+  private static TransactionCapsule transfer(int from, int to) {
+    return new TransactionCapsule(TransferContract.newBuilder()
+        .setOwnerAddress(address(from))
+        .setToAddress(address(to))
+        .setAmount(1)
+        .build(), ContractType.TransferContract);
+  }
+
+  private static List<List<Integer>> group(TransactionCapsule... trxs) {
+    return ConflictAnalyzer.group(Arrays.stream(trxs)
+        .map(ConflictAnalyzer::analyze)
+        .collect(Collectors.toList()));
+  }
+
+  @Test
+  public void testAnalyzeTransfer() {
+    ReadWriteSet set = ConflictAnalyzer.analyze(transfer(1, 2));
+    Assert.assertFalse(set.isGlobal());
+    Assert.assertTrue(set.getAccounts().contains(address(1)));
+    Assert.assertTrue(set.getAccounts().contains(address(2)));
+  }
+
+  @Test
+  public void testGroupDisjointAccounts() {
+    List<List<Integer>> groups = group(transfer(1, 2), transfer(3, 4), transfer(5, 6));
+    Assert.assertEquals(
+        Lists.newArrayList(Lists.newArrayList(0), Lists.newArrayList(1), Lists.newArrayList(2)),
+        groups);
+  }
+
+  @Test
+  public void testGroupSharedAccounts() {
+    // 0 and 2 share account 2, 3 joins them through account 5 of transaction 2
+    List<List<Integer>> groups = group(transfer(1, 2), transfer(3, 4), transfer(2, 5),
+        transfer(5, 6));
+    Assert.assertEquals(
+        Lists.newArrayList(Lists.newArrayList(0, 2, 3), Lists.newArrayList(1)), groups);
+  }
+
+  @Test
+  public void testGlobalTransaction() {
+    TransactionCapsule update = new TransactionCapsule(WitnessUpdateContract.newBuilder()
+        .setOwnerAddress(address(1))
+        .build(), ContractType.WitnessUpdateContract);
+    Assert.assertTrue(ConflictAnalyzer.analyze(update).isGlobal());
+
+    List<List<Integer>> groups = group(transfer(1, 2), update, transfer(1, 3));
+    Assert.assertEquals(
+        Lists.newArrayList(Lists.newArrayList(0, 2), Lists.newArrayList(1)), groups);
+  }
+}
@@ -0,0 +1,29 @@
+package org.sonicx.core.db2;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.sonicx.core.db2.common.LatencyHistogram;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void testPercentile() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    Assert.assertEquals(0, histogram.getPercentile(50));
+
+    for (int i = 0; i < 90; i++) {
+      histogram.record(3);
+    }
+    for (int i = 0; i < 9; i++) {
+      histogram.record(150);
+    }
+    histogram.record(12_000);
+
+    Assert.assertEquals(100, histogram.getCount());
+    Assert.assertEquals(5, histogram.getPercentile(50));
+    Assert.assertEquals(5, histogram.getPercentile(90));
+    Assert.assertEquals(200, histogram.getPercentile(99));
+    Assert.assertEquals(12_000, histogram.getPercentile(100));
+    Assert.assertEquals(12_000, histogram.getMax());
+  }
+}
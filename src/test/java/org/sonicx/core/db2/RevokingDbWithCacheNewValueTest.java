@@ -1,6 +1,11 @@
 package org.sonicx.core.db2;
 
+import com.google.common.primitives.Longs;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
@@ -18,8 +23,15 @@ import org.sonicx.core.Constant;
 import org.sonicx.core.config.DefaultConfig;
 import org.sonicx.core.config.args.Args;
 import org.sonicx.core.db.SonicxStoreWithRevoking;
+import org.sonicx.core.db.common.WrappedByteArray;
+import org.sonicx.core.db.common.iterator.DBIterator;
 import org.sonicx.core.db2.SnapshotRootTest.ProtoCapsuleTest;
+import org.sonicx.core.db2.common.IRevokingDB;
+import org.sonicx.core.db2.common.TxCacheDB;
+import org.sonicx.core.db2.common.TxIdRing;
+import org.sonicx.core.db2.core.ExecutionOverlay;
 import org.sonicx.core.db2.core.ISession;
+import org.sonicx.core.db2.core.RevokingDBWithCachingNewValue;
 import org.sonicx.core.db2.core.SnapshotManager;
 import org.sonicx.core.exception.RevokingStoreIllegalStateException;
 
@@ -227,6 +239,182 @@ public class RevokingDbWithCacheNewValueTest {
     }
   }
 
+  @Test
+  public synchronized void testGetBatch() {
+    revokingDatabase = new TestSnapshotManager();
+    revokingDatabase.enable();
+    sonicxDatabase = new TestRevokingSonicxStore("testSnapshotManager-testGetBatch");
+    revokingDatabase.add(sonicxDatabase.getRevokingDB());
+    while (revokingDatabase.size() != 0) {
+      revokingDatabase.pop();
+    }
+
+    List<byte[]> keys = new ArrayList<>();
+    for (int i = 1; i < 10; i++) {
+      ProtoCapsuleTest testProtoCapsule = new ProtoCapsuleTest(("getBatch" + i).getBytes());
+      keys.add(testProtoCapsule.getData());
+      try (ISession tmpSession = revokingDatabase.buildSession()) {
+        sonicxDatabase.put(testProtoCapsule.getData(), testProtoCapsule);
+        tmpSession.commit();
+      }
+    }
+    try (ISession tmpSession = revokingDatabase.buildSession()) {
+      sonicxDatabase.delete("getBatch3".getBytes());
+      tmpSession.commit();
+    }
+    keys.add("getBatchMissing".getBytes());
+
+    Map<WrappedByteArray, ProtoCapsuleTest> result = sonicxDatabase.getBatch(keys);
+    Assert.assertEquals(8, result.size());
+    Assert.assertFalse(result.containsKey(WrappedByteArray.of("getBatch3".getBytes())));
+    Assert.assertFalse(result.containsKey(WrappedByteArray.of("getBatchMissing".getBytes())));
+    for (int i = 1; i < 10; i++) {
+      if (i != 3) {
+        Assert.assertEquals(new ProtoCapsuleTest(("getBatch" + i).getBytes()),
+            result.get(WrappedByteArray.of(("getBatch" + i).getBytes())));
+      }
+    }
+  }
+
+  @Test
+  public synchronized void testOrderedIterator() throws Exception {
+    revokingDatabase = new TestSnapshotManager();
+    revokingDatabase.enable();
+    sonicxDatabase = new TestRevokingSonicxStore("testSnapshotManager-testOrderedIterator");
+    revokingDatabase.add(sonicxDatabase.getRevokingDB());
+    while (revokingDatabase.size() != 0) {
+      revokingDatabase.pop();
+    }
+
+    // the even keys straight into the database, the odd ones in snapshot layers
+    for (int i = 0; i < 10; i += 2) {
+      sonicxDatabase.getRevokingDB().put(new byte[]{(byte) i}, new byte[]{(byte) i});
+    }
+    for (int i = 1; i < 10; i += 2) {
+      try (ISession tmpSession = revokingDatabase.buildSession()) {
+        sonicxDatabase.getRevokingDB().put(new byte[]{(byte) i}, new byte[]{(byte) i});
+        tmpSession.commit();
+      }
+    }
+    try (ISession tmpSession = revokingDatabase.buildSession()) {
+      sonicxDatabase.getRevokingDB().delete(new byte[]{4});
+      sonicxDatabase.getRevokingDB().put(new byte[]{6}, new byte[]{60});
+      tmpSession.commit();
+    }
+
+    StringBuilder forward = new StringBuilder();
+    try (DBIterator iterator = sonicxDatabase.getRevokingDB().iterator(new byte[]{3}, false)) {
+      iterator.forEachRemaining(e -> forward.append(e.getValue()[0]).append(','));
+    }
+    Assert.assertEquals("3,5,60,7,8,9,", forward.toString());
+
+    StringBuilder backward = new StringBuilder();
+    try (DBIterator iterator = sonicxDatabase.getRevokingDB().iterator(new byte[]{5}, true)) {
+      iterator.forEachRemaining(e -> backward.append(e.getValue()[0]).append(','));
+    }
+    Assert.assertEquals("5,3,2,1,0,", backward.toString());
+
+    StringBuilder latest = new StringBuilder();
+    try (DBIterator iterator = sonicxDatabase.getRevokingDB().iterator(null, true)) {
+      for (int i = 0; i < 2 && iterator.hasNext(); i++) {
+        latest.append(iterator.next().getValue()[0]).append(',');
+      }
+    }
+    Assert.assertEquals("9,8,", latest.toString());
+  }
+
+  @Test
+  public synchronized void testSortedIteratorOfTxCache() throws Exception {
+    revokingDatabase = new TestSnapshotManager();
+    revokingDatabase.enable();
+    sonicxDatabase = new TestRevokingSonicxStore("testSnapshotManager-testSortedIterator");
+    RevokingDBWithCachingNewValue txCache =
+        new RevokingDBWithCachingNewValue("testSnapshotManager-txCache", TxCacheDB.class);
+    revokingDatabase.add(txCache);
+    while (revokingDatabase.size() != 0) {
+      revokingDatabase.pop();
+    }
+
+    // the transaction cache has no ordered reads, its entries are sorted in memory
+    for (int i = 9; i >= 0; i -= 2) {
+      txCache.put(txId(i), Longs.toByteArray(i));
+    }
+    try (ISession tmpSession = revokingDatabase.buildSession()) {
+      txCache.put(txId(4), Longs.toByteArray(4));
+      tmpSession.commit();
+    }
+
+    StringBuilder forward = new StringBuilder();
+    try (DBIterator iterator = txCache.iterator(txId(2), false)) {
+      iterator.forEachRemaining(e -> forward.append(Longs.fromByteArray(e.getValue()))
+          .append(','));
+    }
+    Assert.assertEquals("3,4,5,7,9,", forward.toString());
+
+    StringBuilder backward = new StringBuilder();
+    try (DBIterator iterator = txCache.iterator(null, true)) {
+      iterator.forEachRemaining(e -> backward.append(Longs.fromByteArray(e.getValue()))
+          .append(','));
+    }
+    Assert.assertEquals("9,7,5,4,3,1,", backward.toString());
+  }
+
+  private static byte[] txId(int i) {
+    byte[] id = new byte[TxIdRing.ID_LENGTH];
+    id[id.length - 1] = (byte) i;
+    return id;
+  }
+
+  @Test
+  public synchronized void testExecutionOverlay() {
+    revokingDatabase = new TestSnapshotManager();
+    revokingDatabase.enable();
+    sonicxDatabase = new TestRevokingSonicxStore("testSnapshotManager-testExecutionOverlay");
+    revokingDatabase.add(sonicxDatabase.getRevokingDB());
+    IRevokingDB db = sonicxDatabase.getRevokingDB();
+    db.put(new byte[]{1}, new byte[]{1});
+    db.put(new byte[]{2}, new byte[]{2});
+
+    ExecutionOverlay first = new ExecutionOverlay();
+    first.install();
+    try {
+      Assert.assertArrayEquals(new byte[]{1}, db.getUnchecked(new byte[]{1}));
+      db.put(new byte[]{3}, new byte[]{3});
+      db.delete(new byte[]{2});
+      Assert.assertTrue(db.has(new byte[]{3}));
+      Assert.assertFalse(db.has(new byte[]{2}));
+    } finally {
+      first.uninstall();
+    }
+    // nothing reaches the store before the commit
+    Assert.assertFalse(db.has(new byte[]{3}));
+    Assert.assertTrue(db.has(new byte[]{2}));
+
+    ExecutionOverlay second = new ExecutionOverlay();
+    second.install();
+    try {
+      Assert.assertArrayEquals(new byte[]{1}, db.getUnchecked(new byte[]{1}));
+    } finally {
+      second.uninstall();
+    }
+    Assert.assertFalse(ExecutionOverlay.anyConflict(Arrays.asList(first, second)));
+
+    ExecutionOverlay third = new ExecutionOverlay();
+    third.install();
+    try {
+      Assert.assertNull(db.getUnchecked(new byte[]{3}));
+      db.iterator();
+    } finally {
+      third.uninstall();
+    }
+    Assert.assertTrue(ExecutionOverlay.anyConflict(Arrays.asList(first, third)));
+    Assert.assertTrue(third.isAborted());
+    Assert.assertFalse(first.isAborted());
+
+    first.commit();
+    Assert.assertArrayEquals(new byte[]{3}, db.getUnchecked(new byte[]{3}));
+    Assert.assertFalse(db.has(new byte[]{2}));
+  }
 
   public static class TestRevokingSonicxStore extends SonicxStoreWithRevoking<ProtoCapsuleTest> {
 
@@ -0,0 +1,87 @@
+package org.sonicx.core.db2;
+
+import com.google.common.primitives.Longs;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.sonicx.common.utils.Sha256Hash;
+import org.sonicx.core.db2.common.TxCacheDB;
+import org.sonicx.core.db2.core.Snapshot;
+import org.sonicx.core.db2.core.SnapshotImpl;
+import org.sonicx.core.db2.core.SnapshotRoot;
+
+public class SnapshotIndexTest {
+
+  private static final byte[] KEY = Sha256Hash.of("key".getBytes()).getBytes();
+
+  private SnapshotRoot root;
+
+  @Before
+  public void init() {
+    root = new SnapshotRoot("", "testSnapshotIndex", TxCacheDB.class);
+  }
+
+  @Test
+  public void testGetFromEveryLayer() {
+    Snapshot first = root.advance();
+    first.put(KEY, Longs.toByteArray(1));
+    Snapshot second = first.advance();
+    Snapshot third = second.advance();
+    third.put(KEY, Longs.toByteArray(3));
+
+    Assert.assertEquals(1, Longs.fromByteArray(first.get(KEY)));
+    Assert.assertEquals(1, Longs.fromByteArray(second.get(KEY)));
+    Assert.assertEquals(3, Longs.fromByteArray(third.get(KEY)));
+    Assert.assertEquals(1, root.getIndex().size());
+
+    third.remove(KEY);
+    Assert.assertNull(third.get(KEY));
+    Assert.assertEquals(1, Longs.fromByteArray(second.get(KEY)));
+  }
+
+  @Test
+  public void testRetreat() {
+    Snapshot first = root.advance();
+    first.put(KEY, Longs.toByteArray(1));
+    Snapshot second = first.advance();
+    second.put(KEY, Longs.toByteArray(2));
+
+    Snapshot head = second.retreat();
+    Assert.assertSame(first, head);
+    Assert.assertEquals(1, Longs.fromByteArray(head.get(KEY)));
+
+    head = head.retreat();
+    Assert.assertSame(root, head);
+    Assert.assertEquals(0, root.getIndex().size());
+    Assert.assertNull(root.advance().get(KEY));
+  }
+
+  @Test
+  public void testMerge() {
+    Snapshot first = root.advance();
+    first.put(KEY, Longs.toByteArray(1));
+    Snapshot second = first.advance();
+    second.put(KEY, Longs.toByteArray(2));
+
+    first.merge(second);
+    Snapshot head = second.retreat();
+    Assert.assertEquals(2, Longs.fromByteArray(head.get(KEY)));
+
+    Snapshot next = head.advance();
+    Assert.assertEquals(2, Longs.fromByteArray(next.get(KEY)));
+    next.retreat();
+    Assert.assertEquals(2, Longs.fromByteArray(head.get(KEY)));
+  }
+
+  @Test
+  public void testFlushToRoot() {
+    Snapshot first = root.advance();
+    first.put(KEY, Longs.toByteArray(1));
+    Snapshot second = first.advance();
+
+    root.merge(first);
+    Assert.assertEquals(0, root.getIndex().size());
+    Assert.assertEquals(1, Longs.fromByteArray(second.get(KEY)));
+    Assert.assertTrue(((SnapshotImpl) second).getSeq() > ((SnapshotImpl) first).getSeq());
+  }
+}
@@ -78,6 +78,16 @@ public class SnapshotManagerTest {
     revokingDatabase.flush();
     Assert.assertEquals(new ProtoCapsuleTest("refresh10".getBytes()),
         sonicxDatabase.get(protoCapsule.getData()));
+    Assert.assertTrue(revokingDatabase.getFlushPauses().getCount() > 0);
+    // the marker of the last complete checkpoint
+    Assert.assertNotNull(revokingDatabase.getCheckTmpStore().getDbSource()
+        .getData(new byte[]{(byte) 0xff}));
+    // and of the last one written to all stores
+    Assert.assertArrayEquals(revokingDatabase.getCheckTmpStore().getDbSource()
+            .getData(new byte[]{(byte) 0xff}),
+        revokingDatabase.getCheckTmpStore().getDbSource().getData(new byte[]{(byte) 0xff, 1}));
+    Assert.assertTrue(revokingDatabase.getStoreFlushTimes()
+        .containsKey("testSnapshotManager-test"));
   }
 
   @Test
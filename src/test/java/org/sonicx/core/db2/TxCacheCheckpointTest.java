@@ -0,0 +1,79 @@
+package org.sonicx.core.db2;
+
+import com.google.common.primitives.Longs;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.sonicx.common.utils.FileUtil;
+import org.sonicx.common.utils.Sha256Hash;
+import org.sonicx.core.db2.common.TxCacheCheckpoint;
+import org.sonicx.core.db2.common.TxIdRing;
+
+public class TxCacheCheckpointTest {
+
+  private static final String DB_PATH = "output_TxCacheCheckpoint_test";
+  private static final byte[] BLOCK_ID = Sha256Hash.of("block".getBytes()).getBytes();
+
+  private TxCacheCheckpoint checkpoint = new TxCacheCheckpoint(
+      new File(DB_PATH, "trans-cache" + File.separator + "checkpoint"));
+
+  @After
+  public void destroy() {
+    FileUtil.deleteDir(new File(DB_PATH));
+  }
+
+  private static byte[] id(long i) {
+    return Sha256Hash.of(Longs.toByteArray(i)).getBytes();
+  }
+
+  private TxIdRing fill() {
+    TxIdRing ring = new TxIdRing(70_000);
+    for (long i = 0; i < 1_000; i++) {
+      ring.put(id(i), i);
+    }
+    return ring;
+  }
+
+  @Test
+  public void testWriteAndRead() throws IOException {
+    checkpoint.write(fill(), 999, BLOCK_ID);
+
+    TxIdRing ring = new TxIdRing(70_000);
+    long num = checkpoint.read(ring, (blockNum, blockId) -> Arrays.equals(BLOCK_ID, blockId));
+    Assert.assertEquals(999, num);
+    Assert.assertEquals(1_000, ring.size());
+    Assert.assertEquals(999, ring.getMaxBlockNum());
+    Assert.assertEquals(500, ring.get(id(500)));
+  }
+
+  @Test
+  public void testRejectedBlock() throws IOException {
+    checkpoint.write(fill(), 999, BLOCK_ID);
+
+    TxIdRing ring = new TxIdRing(70_000);
+    ring.put(id(1), 1);
+    Assert.assertEquals(-1, checkpoint.read(ring, (blockNum, blockId) -> false));
+    Assert.assertEquals(1, ring.size());
+  }
+
+  @Test
+  public void testTruncatedFile() throws IOException {
+    checkpoint.write(fill(), 999, BLOCK_ID);
+    try (RandomAccessFile file = new RandomAccessFile(checkpoint.getFile(), "rw")) {
+      file.setLength(file.length() - 100);
+    }
+
+    TxIdRing ring = new TxIdRing(70_000);
+    Assert.assertEquals(-1, checkpoint.read(ring, (blockNum, blockId) -> true));
+    Assert.assertEquals(0, ring.size());
+  }
+
+  @Test
+  public void testMissingFile() {
+    Assert.assertEquals(-1, checkpoint.read(new TxIdRing(70_000), (blockNum, blockId) -> true));
+  }
+}
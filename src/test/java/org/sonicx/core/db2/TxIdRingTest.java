@@ -0,0 +1,96 @@
+package org.sonicx.core.db2;
+
+import com.google.common.primitives.Longs;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.sonicx.common.utils.Sha256Hash;
+import org.sonicx.core.db2.common.TxIdRing;
+
+public class TxIdRingTest {
+
+  private static byte[] id(long i) {
+    return Sha256Hash.of(Longs.toByteArray(i)).getBytes();
+  }
+
+  @Test
+  public void testPutGetRemove() {
+    TxIdRing ring = new TxIdRing(70_000);
+    for (long i = 0; i < 10_000; i++) {
+      ring.put(id(i), i / 10);
+    }
+
+    Assert.assertEquals(10_000, ring.size());
+    for (long i = 0; i < 10_000; i++) {
+      Assert.assertEquals(i / 10, ring.get(id(i)));
+    }
+    Assert.assertEquals(Long.MIN_VALUE, ring.get(id(10_000)));
+    Assert.assertEquals(Long.MIN_VALUE, ring.get("short".getBytes()));
+
+    for (long i = 0; i < 10_000; i += 2) {
+      Assert.assertTrue(ring.remove(id(i)));
+    }
+    Assert.assertEquals(5_000, ring.size());
+    for (long i = 0; i < 10_000; i++) {
+      Assert.assertEquals(i % 2 == 0 ? Long.MIN_VALUE : i / 10, ring.get(id(i)));
+    }
+  }
+
+  @Test
+  public void testReplaceBlockNumber() {
+    TxIdRing ring = new TxIdRing(70_000);
+    ring.put(id(1), 1);
+    ring.put(id(1), 100_000);
+    Assert.assertEquals(1, ring.size());
+    Assert.assertEquals(100_000, ring.get(id(1)));
+  }
+
+  @Test
+  public void testPendingTransaction() {
+    TxIdRing ring = new TxIdRing(70_000);
+    ring.put(id(1), 100_000);
+    ring.put(id(2), -1);
+    Assert.assertEquals(-1, ring.get(id(2)));
+    Assert.assertEquals(2, ring.size());
+  }
+
+  @Test
+  public void testEvictOldestBlocks() {
+    TxIdRing ring = new TxIdRing(70_000);
+    ring.put(id(0), 0);
+    ring.put(id(1), 69_999);
+    Assert.assertEquals(0, ring.get(id(0)));
+
+    ring.put(id(2), 70_000 + 8192);
+    Assert.assertEquals(Long.MIN_VALUE, ring.get(id(0)));
+    Assert.assertEquals(69_999, ring.get(id(1)));
+    Assert.assertEquals(2, ring.size());
+
+    // older than the retained range
+    ring.put(id(3), 0);
+    Assert.assertEquals(Long.MIN_VALUE, ring.get(id(3)));
+    Assert.assertEquals(2, ring.size());
+  }
+
+  @Test
+  public void testWriteAndRead() throws IOException {
+    TxIdRing ring = new TxIdRing(70_000);
+    for (long i = 0; i < 1_000; i++) {
+      ring.put(id(i), i * 100);
+    }
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ring.writeTo(new DataOutputStream(bytes));
+
+    TxIdRing copy = new TxIdRing(70_000);
+    copy.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    Assert.assertEquals(ring.size(), copy.size());
+    for (long i = 0; i < 1_000; i++) {
+      Assert.assertEquals(ring.get(id(i)), copy.get(id(i)));
+    }
+  }
+}
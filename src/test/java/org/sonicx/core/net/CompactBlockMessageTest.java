@@ -0,0 +1,77 @@
+package org.sonicx.core.net;
+
+import com.google.protobuf.ByteString;
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+import org.sonicx.common.utils.Sha256Hash;
+import org.sonicx.core.capsule.BlockCapsule;
+import org.sonicx.core.capsule.TransactionCapsule;
+import org.sonicx.core.net.message.BlockTxnMessage;
+import org.sonicx.core.net.message.CompactBlockMessage;
+import org.sonicx.core.net.message.GetBlockTxnMessage;
+import org.sonicx.protos.Contract.TransferContract;
+import org.sonicx.protos.Protocol.Transaction.Contract.ContractType;
+
+public class CompactBlockMessageTest {
+
+  private static TransactionCapsule transfer(long amount) {
+    return new TransactionCapsule(TransferContract.newBuilder()
+        .setOwnerAddress(ByteString.copyFrom(new byte[21]))
+        .setToAddress(ByteString.copyFrom(new byte[21]))
+        .setAmount(amount)
+        .build(), ContractType.TransferContract);
+  }
+
+  private static BlockCapsule block(long number) {
+    BlockCapsule block = new BlockCapsule(number, Sha256Hash.ZERO_HASH, 1234,
+        ByteString.copyFrom("witness".getBytes()));
+    for (long i = 1; i <= 10; i++) {
+      block.addTransaction(transfer(i));
+    }
+    block.setMerkleRoot();
+    return block;
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    BlockCapsule block = block(1);
+    CompactBlockMessage message = new CompactBlockMessage(block);
+    CompactBlockMessage parsed = new CompactBlockMessage(message.getData());
+
+    Assert.assertEquals(block.getBlockId(), parsed.getBlockId());
+    Assert.assertEquals(1, parsed.getBlockId().getNum());
+    Assert.assertEquals(10, parsed.getShortIds().size());
+    Assert.assertEquals(message.getShortIds(), parsed.getShortIds());
+    Assert.assertTrue(message.getData().length < block.getData().length);
+  }
+
+  @Test
+  public void testShortIdsDependOnBlock() {
+    Sha256Hash trxId = transfer(1).getTransactionId();
+    long first = CompactBlockMessage.shortId(
+        CompactBlockMessage.shortIdFunction(block(1).getBlockId()), trxId);
+    long second = CompactBlockMessage.shortId(
+        CompactBlockMessage.shortIdFunction(block(2).getBlockId()), trxId);
+
+    Assert.assertEquals(first, CompactBlockMessage.shortId(
+        CompactBlockMessage.shortIdFunction(block(1).getBlockId()), trxId));
+    Assert.assertNotEquals(first, second);
+    Assert.assertEquals(0, first >>> 48);
+  }
+
+  @Test
+  public void testTransactionRequest() throws Exception {
+    BlockCapsule block = block(1);
+    GetBlockTxnMessage request = new GetBlockTxnMessage(new GetBlockTxnMessage(
+        block.getBlockId(), Arrays.asList(2, 5)).getData());
+    Assert.assertEquals(block.getBlockId(), request.getBlockId());
+    Assert.assertEquals(Arrays.asList(2, 5), request.getIndexes());
+
+    BlockTxnMessage answer = new BlockTxnMessage(new BlockTxnMessage(block.getBlockId(),
+        Arrays.asList(block.getInstance().getTransactions(2),
+            block.getInstance().getTransactions(5))).getData());
+    Assert.assertEquals(block.getBlockId(), answer.getBlockId());
+    Assert.assertEquals(block.getInstance().getTransactions(5), answer.getTransactions().get(1));
+  }
+}
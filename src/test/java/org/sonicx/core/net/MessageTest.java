@@ -1,12 +1,20 @@
 package org.sonicx.core.net;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import java.util.Arrays;
 import org.junit.Assert;
 import org.junit.Test;
 import org.sonicx.common.overlay.message.DisconnectMessage;
+import org.sonicx.common.overlay.message.P2pMessageFactory;
 import org.sonicx.common.overlay.message.PingMessage;
 import org.sonicx.common.utils.ReflectUtils;
 import org.sonicx.core.exception.P2pException;
 import org.sonicx.core.net.message.MessageTypes;
+import org.sonicx.core.net.message.SonicxMessageFactory;
+import org.sonicx.core.net.message.TransactionMessage;
+import org.sonicx.protos.Protocol.Transaction;
+import org.sonicx.protos.Protocol.Transaction.raw;
 import org.sonicx.protos.Protocol.ReasonCode;
 
 public class MessageTest {
@@ -37,4 +45,46 @@ public class MessageTest {
     System.out.println("spend time : " + (endTime - startTime));
   }
 
+  @Test
+  public void testSendData() {
+    DisconnectMessage message = new DisconnectMessage(ReasonCode.TOO_MANY_PEERS);
+    ByteBuf buf = message.getSendData();
+    byte[] sent = ByteBufUtil.getBytes(buf);
+    Assert.assertEquals(MessageTypes.P2P_DISCONNECT.asByte(), sent[0]);
+    Assert.assertArrayEquals(message.getData(), Arrays.copyOfRange(sent, 1, sent.length));
+    Assert.assertTrue(buf.release());
+  }
+
+  @Test
+  public void testCreateFromTypeAndPayload() throws Exception {
+    byte[] data = new DisconnectMessage(ReasonCode.TOO_MANY_PEERS).getData();
+    DisconnectMessage message = (DisconnectMessage) new P2pMessageFactory()
+        .create(MessageTypes.P2P_DISCONNECT.asByte(), data);
+    Assert.assertEquals(ReasonCode.TOO_MANY_PEERS, message.getReasonCode());
+    try {
+      new P2pMessageFactory().create(MessageTypes.P2P_DISCONNECT.asByte(), new byte[0]);
+      Assert.fail();
+    } catch (P2pException e) {
+      Assert.assertEquals(P2pException.TypeEnum.MESSAGE_WITH_WRONG_LENGTH, e.getType());
+    }
+
+    Transaction trx = Transaction.newBuilder()
+        .setRawData(raw.newBuilder().setTimestamp(1)).build();
+    TransactionMessage trxMessage = (TransactionMessage) new SonicxMessageFactory()
+        .create(MessageTypes.TRX.asByte(), trx.toByteArray());
+    Assert.assertEquals(trx, trxMessage.getTransactionCapsule().getInstance());
+  }
+
+  @Test
+  public void testTransactionMessageCopy() throws Exception {
+    Transaction trx = Transaction.newBuilder()
+        .setRawData(raw.newBuilder().setTimestamp(1)).build();
+    TransactionMessage message = new TransactionMessage(trx.toByteArray());
+    message.getTransactionCapsule().setTimestamp();
+
+    TransactionMessage copy = message.copy();
+    Assert.assertSame(message.getData(), copy.getData());
+    Assert.assertEquals(trx, copy.getTransactionCapsule().getInstance());
+    Assert.assertArrayEquals(trx.toByteArray(), new TransactionMessage(trx).getData());
+  }
 }
@@ -0,0 +1,101 @@
+package org.sonicx.core.net.messagehandler;
+
+import com.google.protobuf.Any;
+import com.google.protobuf.ByteString;
+import org.junit.Assert;
+import org.junit.Test;
+import org.sonicx.core.net.messagehandler.TrxIntake.Event;
+import org.sonicx.core.net.messagehandler.TrxIntake.TrxClass;
+import org.sonicx.protos.Protocol.Transaction;
+import org.sonicx.protos.Protocol.Transaction.Contract;
+import org.sonicx.protos.Protocol.Transaction.Contract.ContractType;
+import org.sonicx.protos.Protocol.Transaction.raw;
+
+public class TrxIntakeTest {
+
+  private long nonce;
+
+  private Transaction trx(ContractType type, long feeLimit) {
+    Contract contract = Contract.newBuilder().setType(type)
+        .setParameter(Any.newBuilder().setValue(ByteString.copyFrom(new byte[100]))).build();
+    return Transaction.newBuilder().setRawData(raw.newBuilder().addContract(contract)
+        .setFeeLimit(feeLimit).setTimestamp(nonce++)).build();
+  }
+
+  private Event<String> transfer(String peer) {
+    return TrxIntake.newEvent(peer, trx(ContractType.TransferContract, 0), 100);
+  }
+
+  private Event<String> contract(String peer) {
+    return TrxIntake.newEvent(peer, trx(ContractType.TriggerSmartContract, 10_000_000), 100);
+  }
+
+  @Test
+  public void testCost() {
+    Event<String> transfer = transfer("a");
+    Assert.assertEquals(TrxClass.TRANSFER, transfer.getTrxClass());
+    Assert.assertEquals(transfer.getMsg().getData().length, transfer.getCost());
+
+    Event<String> contract = contract("a");
+    Assert.assertEquals(TrxClass.CONTRACT, contract.getTrxClass());
+    Assert.assertEquals(100_000, contract.getCost());
+  }
+
+  @Test
+  public void testTransferBypassesContracts() {
+    TrxIntake<String> intake = new TrxIntake<>(1_000, 4, 1_000, 1_000_000);
+    for (int i = 0; i < 100; i++) {
+      intake.offer(contract("a"));
+    }
+    for (int i = 0; i < 8; i++) {
+      intake.offer(transfer("b"));
+    }
+    int transfers = 0;
+    for (int i = 0; i < 10; i++) {
+      if (intake.poll().getTrxClass() == TrxClass.TRANSFER) {
+        transfers++;
+      }
+    }
+    Assert.assertEquals(8, transfers);
+    Assert.assertEquals(0, intake.size(TrxClass.TRANSFER));
+    Assert.assertEquals(98, intake.size(TrxClass.CONTRACT));
+  }
+
+  @Test
+  public void testFairBetweenPeers() {
+    TrxIntake<String> intake = new TrxIntake<>(1_000, 4, 1_000, 1_000_000);
+    for (int i = 0; i < 200; i++) {
+      intake.offer(transfer("noisy"));
+    }
+    for (int i = 0; i < 20; i++) {
+      intake.offer(transfer("quiet"));
+    }
+    int quiet = 0;
+    for (int i = 0; i < 40; i++) {
+      if ("quiet".equals(intake.poll().getPeer())) {
+        quiet++;
+      }
+    }
+    Assert.assertTrue(quiet >= 12);
+  }
+
+  @Test
+  public void testShedNoisiestPeer() {
+    TrxIntake<String> intake = new TrxIntake<>(10, 4, 1_000, 1_000_000);
+    for (int i = 0; i < 6; i++) {
+      Assert.assertTrue(intake.offer(contract("noisy")));
+    }
+    for (int i = 0; i < 4; i++) {
+      Assert.assertTrue(intake.offer(transfer("quiet")));
+    }
+    Assert.assertTrue(intake.offer(transfer("quiet")));
+    Assert.assertEquals(10, intake.size());
+    Assert.assertEquals(5, intake.getQueued("noisy"));
+    Assert.assertEquals(1, intake.getDrops(TrxClass.CONTRACT));
+
+    // the noisiest peer itself is refused
+    Assert.assertFalse(intake.offer(transfer("noisy")));
+    Assert.assertEquals(1, intake.getDrops(TrxClass.TRANSFER));
+    Assert.assertEquals(10, intake.size());
+  }
+}
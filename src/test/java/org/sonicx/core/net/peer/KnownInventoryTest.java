@@ -0,0 +1,67 @@
+package org.sonicx.core.net.peer;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.sonicx.common.utils.Sha256Hash;
+import org.sonicx.protos.Protocol.Inventory.InventoryType;
+
+public class KnownInventoryTest {
+
+  private static Item item(int i, InventoryType type) {
+    return new Item(Sha256Hash.of(Integer.toString(i).getBytes()), type);
+  }
+
+  @Test
+  public void testAddAndRotate() {
+    KnownInventory known = new KnownInventory(1_000, 0.001, 60_000);
+    for (int i = 0; i < 1_000; i++) {
+      known.add(item(i, InventoryType.TRX));
+    }
+    Assert.assertEquals(1, known.getRotations());
+    for (int i = 0; i < 1_000; i++) {
+      Assert.assertTrue(known.mightContain(item(i, InventoryType.TRX)));
+    }
+
+    // the second rotation drops the first generation
+    for (int i = 1_000; i < 2_000; i++) {
+      known.add(item(i, InventoryType.TRX));
+    }
+    Assert.assertEquals(2, known.getRotations());
+    int found = 0;
+    for (int i = 0; i < 1_000; i++) {
+      if (known.mightContain(item(i, InventoryType.TRX))) {
+        found++;
+      }
+    }
+    Assert.assertTrue(found < 20);
+  }
+
+  @Test
+  public void testTypeIsPartOfKey() {
+    KnownInventory known = new KnownInventory(1_000, 0.001, 60_000);
+    known.add(item(1, InventoryType.TRX));
+    Assert.assertTrue(known.mightContain(item(1, InventoryType.TRX)));
+    Assert.assertFalse(known.mightContain(item(1, InventoryType.BLOCK)));
+  }
+
+  @Test
+  public void testMetrics() {
+    KnownInventory known = new KnownInventory(10_000, 0.01, 60_000);
+    Assert.assertTrue(known.getHeapSize() > 0);
+    Assert.assertEquals(0, known.getExpectedFpp(), 1e-9);
+    int falsePositives = 0;
+    for (int i = 0; i < 5_000; i++) {
+      known.add(item(i, InventoryType.TRX));
+    }
+    for (int i = 5_000; i < 15_000; i++) {
+      if (known.mightContain(item(i, InventoryType.TRX))) {
+        falsePositives++;
+      }
+    }
+    Assert.assertEquals(5_000, known.getSize());
+    Assert.assertEquals(10_000, known.getLookups());
+    Assert.assertEquals(falsePositives, known.getHits());
+    Assert.assertTrue(known.getExpectedFpp() < 0.01);
+    Assert.assertTrue(falsePositives < 300);
+  }
+}